@@ -14,4 +14,9 @@ public interface BatfishWorkerService {
 
   /** Launch the task defined by args that has the given taskId. */
   LaunchResult runTask(String taskId, String[] args);
+
+  /** Get the heap admission state of the worker, or {@code null} if it does not report one. */
+  default @Nullable WorkerAdmission getAdmission() {
+    return null;
+  }
 }
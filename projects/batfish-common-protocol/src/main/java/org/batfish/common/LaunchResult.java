@@ -2,6 +2,7 @@ package org.batfish.common;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -27,6 +28,11 @@ public final class LaunchResult {
     return BUSY;
   }
 
+  /** Worker was busy for the given reason, e.g. because it is running too much other work. */
+  public static @Nonnull LaunchResult busy(String reason) {
+    return new LaunchResult(Type.BUSY, reason);
+  }
+
   public static @Nonnull LaunchResult error(String msg) {
     return new LaunchResult(Type.ERROR, msg);
   }
@@ -53,6 +59,11 @@ public final class LaunchResult {
     return _message;
   }
 
+  /** Reason the worker was busy, if this is a busy result and the worker gave one. */
+  public @Nonnull Optional<String> getBusyReason() {
+    return _type == Type.BUSY ? Optional.ofNullable(_message) : Optional.empty();
+  }
+
   private final @Nonnull Type _type;
   private final @Nullable String _message;
 }
@@ -0,0 +1,76 @@
+package org.batfish.common;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Heap admission state of a worker: how much heap the running tasks of each kind are estimated to
+ * need, and how much heap was live after the last garbage collection.
+ */
+public final class WorkerAdmission {
+  private static final String PROP_LIVE_HEAP_BYTES = "liveHeapBytes";
+  private static final String PROP_MAX_HEAP_BYTES = "maxHeapBytes";
+  private static final String PROP_RESERVED_HEAP_BYTES = "reservedHeapBytes";
+  private static final String PROP_RUNNING = "running";
+
+  private final long _liveHeapBytes;
+
+  private final long _maxHeapBytes;
+
+  private final @Nonnull Map<String, Long> _reservedHeapBytes;
+
+  private final @Nonnull Map<String, Integer> _running;
+
+  @JsonCreator
+  public WorkerAdmission(
+      @JsonProperty(PROP_LIVE_HEAP_BYTES) long liveHeapBytes,
+      @JsonProperty(PROP_MAX_HEAP_BYTES) long maxHeapBytes,
+      @JsonProperty(PROP_RESERVED_HEAP_BYTES) @Nullable Map<String, Long> reservedHeapBytes,
+      @JsonProperty(PROP_RUNNING) @Nullable Map<String, Integer> running) {
+    _liveHeapBytes = liveHeapBytes;
+    _maxHeapBytes = maxHeapBytes;
+    _reservedHeapBytes =
+        reservedHeapBytes == null
+            ? ImmutableSortedMap.of()
+            : ImmutableSortedMap.copyOf(reservedHeapBytes);
+    _running = running == null ? ImmutableSortedMap.of() : ImmutableSortedMap.copyOf(running);
+  }
+
+  /** Heap in use after the most recent garbage collection */
+  @JsonProperty(PROP_LIVE_HEAP_BYTES)
+  public long getLiveHeapBytes() {
+    return _liveHeapBytes;
+  }
+
+  @JsonProperty(PROP_MAX_HEAP_BYTES)
+  public long getMaxHeapBytes() {
+    return _maxHeapBytes;
+  }
+
+  /** Estimated heap needed by the running tasks, by task kind */
+  @JsonProperty(PROP_RESERVED_HEAP_BYTES)
+  public @Nonnull Map<String, Long> getReservedHeapBytes() {
+    return _reservedHeapBytes;
+  }
+
+  /** Number of running tasks, by task kind */
+  @JsonProperty(PROP_RUNNING)
+  public @Nonnull Map<String, Integer> getRunning() {
+    return _running;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("liveHeapBytes", _liveHeapBytes)
+        .add("maxHeapBytes", _maxHeapBytes)
+        .add("reservedHeapBytes", _reservedHeapBytes)
+        .add("running", _running)
+        .toString();
+  }
+}
@@ -10,14 +10,18 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDD.AllSatIterator;
 import net.sf.javabdd.BDDFactory;
 import org.batfish.datamodel.AclIpSpace;
 import org.batfish.datamodel.AclIpSpaceLine;
@@ -127,6 +131,50 @@ public final class IpSpaceToBDD implements GenericIpSpaceVisitor<BDD> {
     return visit(prefix.toIpSpace());
   }
 
+  /**
+   * Convert a {@link BDD} that only constrains the variables of {@link #getBDDInteger()} back to
+   * an {@link IpSpace}.
+   *
+   * <p>The result is the set of disjoint wildcards along the satisfying paths of the BDD. Since
+   * BDDs are canonical, equivalent IP spaces are converted to equal (and interned) results, however
+   * they were built. There is one wildcard per path to the true terminal (see {@link
+   * BDD#pathCount()}), which may be many more than the nodes of the BDD.
+   */
+  public IpSpace toIpSpace(BDD bdd) {
+    checkArgument(
+        _bddInteger.size() == Prefix.MAX_PREFIX_LENGTH,
+        "Only IPv4 address variables are supported");
+    if (bdd.isZero()) {
+      return EmptyIpSpace.INSTANCE;
+    } else if (bdd.isOne()) {
+      return UniverseIpSpace.INSTANCE;
+    }
+    // The first variable is the most significant bit.
+    int[] vars = Arrays.stream(_bddInteger._bitvec).mapToInt(BDD::var).toArray();
+    ImmutableSet.Builder<IpWildcard> wildcards = ImmutableSet.builder();
+    AllSatIterator assignments = bdd.allsat();
+    while (assignments.hasNext()) {
+      byte[] assignment = assignments.next();
+      long ip = 0;
+      long wildcardMask = 0;
+      for (int i = 0; i < vars.length; i++) {
+        long bit = 1L << (vars.length - i - 1);
+        if (assignment[vars[i]] == 1) {
+          ip |= bit;
+        } else if (assignment[vars[i]] == -1) {
+          wildcardMask |= bit;
+        }
+      }
+      wildcards.add(IpWildcard.ipWithWildcardMask(Ip.create(ip), wildcardMask));
+    }
+    Set<IpWildcard> whitelist = wildcards.build();
+    if (whitelist.size() == 1) {
+      IpWildcard wildcard = whitelist.iterator().next();
+      return wildcard.isPrefix() ? wildcard.toPrefix().toIpSpace() : wildcard.toIpSpace();
+    }
+    return IpWildcardSetIpSpace.create(ImmutableSet.of(), whitelist);
+  }
+
   @Override
   public BDD visitAclIpSpace(AclIpSpace aclIpSpace) {
     int size = aclIpSpace.getLines().size();
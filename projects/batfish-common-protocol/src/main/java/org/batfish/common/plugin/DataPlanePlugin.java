@@ -1,5 +1,6 @@
 package org.batfish.common.plugin;
 
+import java.util.Set;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.topology.TopologyContainer;
 import org.batfish.datamodel.DataPlane;
@@ -57,6 +58,23 @@ public abstract class DataPlanePlugin extends BatfishPlugin implements IDataPlan
 
   public abstract ComputeDataPlaneResult computeDataPlane(NetworkSnapshot snapshot);
 
+  /**
+   * Compute the data plane of the given snapshot, reusing the converged state of some hosts from the
+   * data plane of another snapshot.
+   *
+   * <p>Each reused host must have the same data plane inputs as in the other snapshot, and must
+   * neither exchange routes nor forward traffic to any host that is not reused. Engines that cannot
+   * reuse converged state compute the whole data plane, which is the default.
+   *
+   * @param snapshot the snapshot whose data plane to compute
+   * @param baseDataPlane the data plane of the other snapshot
+   * @param reusedHosts the hosts whose converged state is taken from {@code baseDataPlane}
+   */
+  public ComputeDataPlaneResult computeDataPlane(
+      NetworkSnapshot snapshot, DataPlane baseDataPlane, Set<String> reusedHosts) {
+    return computeDataPlane(snapshot);
+  }
+
   protected void dataPlanePluginInitialize() {}
 
   /** Return the name of this plugin */
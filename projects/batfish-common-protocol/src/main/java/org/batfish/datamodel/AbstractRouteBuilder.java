@@ -117,6 +117,11 @@ public abstract class AbstractRouteBuilder<
     return LegacyNextHops.getNextHopInterface(_nextHop).orElse(Route.UNSET_NEXT_HOP_INTERFACE);
   }
 
+  /** The next hop, or {@code null} if it has not been set */
+  public final @Nullable NextHop getNextHop() {
+    return _nextHop;
+  }
+
   /**
    * Set the next hop. Overrides any data set by {@link #setNextHopIp} or {@link
    * #setNextHopInterface(String)}}
@@ -0,0 +1,320 @@
+package org.batfish.datamodel;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.primitives.Ints;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.acl.AclLineMatchExpr;
+import org.batfish.datamodel.acl.AndMatchExpr;
+import org.batfish.datamodel.acl.DeniedByAcl;
+import org.batfish.datamodel.acl.FalseExpr;
+import org.batfish.datamodel.acl.GenericAclLineMatchExprVisitor;
+import org.batfish.datamodel.acl.GenericAclLineVisitor;
+import org.batfish.datamodel.acl.MatchHeaderSpace;
+import org.batfish.datamodel.acl.MatchSrcInterface;
+import org.batfish.datamodel.acl.NotMatchExpr;
+import org.batfish.datamodel.acl.OrMatchExpr;
+import org.batfish.datamodel.acl.OriginatingFromDevice;
+import org.batfish.datamodel.acl.PermittedByAcl;
+import org.batfish.datamodel.acl.TrueExpr;
+import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
+
+/**
+ * An index of the lines of an {@link IpAccessList} by the destination IPs they can match.
+ *
+ * <p>The destination IPs a line can match are over-approximated by a set of prefixes, or by all
+ * IPs when no bound is known, e.g. for lines that reference other ACLs or negate a header space.
+ * Looking up the destination IP of a flow returns, in order, the only lines that could match it, so
+ * that the first matching line of a large ACL is found without evaluating the lines whose
+ * destination constraints exclude the flow.
+ */
+@ParametersAreNonnullByDefault
+final class AclLineDstIpIndex {
+
+  /** The lines indexed under a prefix, and the node of the longest indexed prefix containing it. */
+  private static final class Node {
+    private final @Nonnull int[] _lines;
+    private final @Nullable Node _parent;
+
+    private Node(int[] lines, @Nullable Node parent) {
+      _lines = lines;
+      _parent = parent;
+    }
+  }
+
+  private final @Nonnull Map<String, IpSpace> _namedIpSpaces;
+  private final @Nonnull LongestPrefixMatchTable<Node> _table;
+  private final @Nonnull int[] _unboundedLines;
+
+  private AclLineDstIpIndex(
+      Map<String, IpSpace> namedIpSpaces,
+      LongestPrefixMatchTable<Node> table,
+      int[] unboundedLines) {
+    _namedIpSpaces = namedIpSpaces;
+    _table = table;
+    _unboundedLines = unboundedLines;
+  }
+
+  /** Indexes the given lines, resolving {@link IpSpaceReference IP space references} as given. */
+  static @Nonnull AclLineDstIpIndex of(List<AclLine> lines, Map<String, IpSpace> namedIpSpaces) {
+    DstIpBounds bounds = new DstIpBounds(namedIpSpaces);
+    ListMultimap<Prefix, Integer> linesByPrefix =
+        MultimapBuilder.hashKeys().arrayListValues().build();
+    List<Integer> unboundedLines = new ArrayList<>();
+    for (int i = 0; i < lines.size(); i++) {
+      Set<Prefix> prefixes = bounds.visit(lines.get(i));
+      if (prefixes == null) {
+        unboundedLines.add(i);
+        continue;
+      }
+      for (Prefix prefix : prefixes) {
+        linesByPrefix.put(prefix, i);
+      }
+    }
+    // Index shorter prefixes first, so that the parent of each node already exists.
+    List<Prefix> prefixes = new ArrayList<>(linesByPrefix.keySet());
+    prefixes.sort(Comparator.comparingInt(Prefix::getPrefixLength));
+    PrefixTrieMultiMap<Node> trie = new PrefixTrieMultiMap<>();
+    for (Prefix prefix : prefixes) {
+      Node parent =
+          prefix.getPrefixLength() == 0
+              ? null
+              : getOnlyElement(
+                  trie.longestPrefixMatch(prefix.getStartIp(), prefix.getPrefixLength() - 1),
+                  null);
+      trie.put(prefix, new Node(Ints.toArray(linesByPrefix.get(prefix)), parent));
+    }
+    return new AclLineDstIpIndex(
+        namedIpSpaces, LongestPrefixMatchTable.of(trie), Ints.toArray(unboundedLines));
+  }
+
+  /**
+   * Returns the indices, in increasing order, of the lines that may match a flow to the given
+   * destination IP. No other line can match such a flow.
+   */
+  @Nonnull
+  int[] candidateLines(Ip dstIp) {
+    Node longestMatch = getOnlyElement(_table.longestPrefixMatch(dstIp), null);
+    int size = _unboundedLines.length;
+    for (Node node = longestMatch; node != null; node = node._parent) {
+      size += node._lines.length;
+    }
+    int[] candidates = Arrays.copyOf(_unboundedLines, size);
+    int pos = _unboundedLines.length;
+    for (Node node = longestMatch; node != null; node = node._parent) {
+      System.arraycopy(node._lines, 0, candidates, pos, node._lines.length);
+      pos += node._lines.length;
+    }
+    Arrays.sort(candidates);
+    // A line bounded by nested prefixes is indexed under each of them.
+    int numDistinct = 0;
+    for (int i = 0; i < candidates.length; i++) {
+      if (numDistinct == 0 || candidates[i] != candidates[numDistinct - 1]) {
+        candidates[numDistinct++] = candidates[i];
+      }
+    }
+    return numDistinct == candidates.length ? candidates : Arrays.copyOf(candidates, numDistinct);
+  }
+
+  /** The named IP spaces this index was built against. */
+  @Nonnull
+  Map<String, IpSpace> getNamedIpSpaces() {
+    return _namedIpSpaces;
+  }
+
+  /**
+   * Computes a set of prefixes containing every destination IP a line, match expression, or IP
+   * space can match. {@code null} means the destination IP is unbounded.
+   */
+  private static final class DstIpBounds
+      implements GenericAclLineVisitor<Set<Prefix>>,
+          GenericAclLineMatchExprVisitor<Set<Prefix>>,
+          GenericIpSpaceVisitor<Set<Prefix>> {
+
+    private final @Nonnull Map<String, IpSpace> _namedIpSpaces;
+
+    /** Names of the IP spaces being resolved, to guard against cyclic references. */
+    private final @Nonnull Set<String> _resolving;
+
+    private DstIpBounds(Map<String, IpSpace> namedIpSpaces) {
+      _namedIpSpaces = namedIpSpaces;
+      _resolving = new HashSet<>();
+    }
+
+    private @Nullable Set<Prefix> union(Iterable<? extends IpSpace> ipSpaces) {
+      ImmutableSet.Builder<Prefix> prefixes = ImmutableSet.builder();
+      for (IpSpace ipSpace : ipSpaces) {
+        Set<Prefix> bound = visit(ipSpace);
+        if (bound == null) {
+          return null;
+        }
+        prefixes.addAll(bound);
+      }
+      return prefixes.build();
+    }
+
+    private static @Nonnull Set<Prefix> bound(IpWildcard wildcard) {
+      // The leading bits that are not wild form a prefix containing the wildcard.
+      int prefixLength =
+          Long.numberOfLeadingZeros(wildcard.getWildcardMask()) - Prefix.MAX_PREFIX_LENGTH;
+      return ImmutableSet.of(Prefix.create(wildcard.getIp(), prefixLength));
+    }
+
+    // AclLines
+
+    @Override
+    public @Nullable Set<Prefix> visitAclAclLine(AclAclLine aclAclLine) {
+      return null;
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitExprAclLine(ExprAclLine exprAclLine) {
+      return visit(exprAclLine.getMatchCondition());
+    }
+
+    // AclLineMatchExprs
+
+    @Override
+    public @Nullable Set<Prefix> visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+      // Any conjunct bounds the conjunction.
+      for (AclLineMatchExpr conjunct : andMatchExpr.getConjuncts()) {
+        Set<Prefix> bound = visit(conjunct);
+        if (bound != null) {
+          return bound;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitDeniedByAcl(DeniedByAcl deniedByAcl) {
+      return null;
+    }
+
+    @Override
+    public @Nonnull Set<Prefix> visitFalseExpr(FalseExpr falseExpr) {
+      return ImmutableSet.of();
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+      HeaderSpace headerSpace = matchHeaderSpace.getHeaderspace();
+      if (headerSpace.getNegate() || headerSpace.getDstIps() == null) {
+        return null;
+      }
+      return visit(headerSpace.getDstIps());
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitMatchSrcInterface(MatchSrcInterface matchSrcInterface) {
+      return null;
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+      return null;
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitOriginatingFromDevice(
+        OriginatingFromDevice originatingFromDevice) {
+      return null;
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+      ImmutableSet.Builder<Prefix> prefixes = ImmutableSet.builder();
+      for (AclLineMatchExpr disjunct : orMatchExpr.getDisjuncts()) {
+        Set<Prefix> bound = visit(disjunct);
+        if (bound == null) {
+          return null;
+        }
+        prefixes.addAll(bound);
+      }
+      return prefixes.build();
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+      return null;
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitTrueExpr(TrueExpr trueExpr) {
+      return null;
+    }
+
+    // IpSpaces
+
+    @Override
+    public @Nullable Set<Prefix> visitAclIpSpace(AclIpSpace aclIpSpace) {
+      // Only IPs permitted by some line are in the space.
+      List<IpSpace> permitted = new ArrayList<>();
+      for (AclIpSpaceLine line : aclIpSpace.getLines()) {
+        if (line.getAction() == LineAction.PERMIT) {
+          permitted.add(line.getIpSpace());
+        }
+      }
+      return union(permitted);
+    }
+
+    @Override
+    public @Nonnull Set<Prefix> visitEmptyIpSpace(EmptyIpSpace emptyIpSpace) {
+      return ImmutableSet.of();
+    }
+
+    @Override
+    public @Nonnull Set<Prefix> visitIpIpSpace(IpIpSpace ipIpSpace) {
+      return ImmutableSet.of(ipIpSpace.getIp().toPrefix());
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitIpSpaceReference(IpSpaceReference ipSpaceReference) {
+      String name = ipSpaceReference.getName();
+      IpSpace ipSpace = _namedIpSpaces.get(name);
+      if (ipSpace == null || !_resolving.add(name)) {
+        return null;
+      }
+      try {
+        return visit(ipSpace);
+      } finally {
+        _resolving.remove(name);
+      }
+    }
+
+    @Override
+    public @Nonnull Set<Prefix> visitIpWildcardIpSpace(IpWildcardIpSpace ipWildcardIpSpace) {
+      return bound(ipWildcardIpSpace.getIpWildcard());
+    }
+
+    @Override
+    public @Nonnull Set<Prefix> visitIpWildcardSetIpSpace(
+        IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+      ImmutableSet.Builder<Prefix> prefixes = ImmutableSet.builder();
+      ipWildcardSetIpSpace.getWhitelist().forEach(wildcard -> prefixes.addAll(bound(wildcard)));
+      return prefixes.build();
+    }
+
+    @Override
+    public @Nonnull Set<Prefix> visitPrefixIpSpace(PrefixIpSpace prefixIpSpace) {
+      return ImmutableSet.of(prefixIpSpace.getPrefix());
+    }
+
+    @Override
+    public @Nullable Set<Prefix> visitUniverseIpSpace(UniverseIpSpace universeIpSpace) {
+      return null;
+    }
+  }
+}
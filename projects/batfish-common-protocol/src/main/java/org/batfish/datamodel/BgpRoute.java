@@ -329,6 +329,11 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
       return _protocol;
     }
 
+    @Nullable
+    public ReceivedFrom getReceivedFrom() {
+      return _receivedFrom;
+    }
+
     @Override
     @Nonnull
     protected abstract B getThis();
@@ -96,6 +96,9 @@ public final class FibImpl implements Fib {
 
   private transient Supplier<Set<FibEntry>> _entries;
 
+  /** Flattened form of {@link #_root} used for lookups, built on first lookup */
+  private transient Supplier<LongestPrefixMatchTable<FibEntry>> _lookupTable;
+
   public <R extends AbstractRouteDecorator> FibImpl(
       GenericRib<R> rib, ResolutionRestriction<R> restriction) {
     _root = new PrefixTrieMultiMap<>();
@@ -108,6 +111,7 @@ public final class FibImpl implements Fib {
 
   private void initSuppliers() {
     _entries = Suppliers.memoize(this::computeEntries);
+    _lookupTable = Suppliers.memoize(() -> LongestPrefixMatchTable.of(_root));
   }
 
   private Set<FibEntry> computeEntries() {
@@ -300,7 +304,7 @@ public final class FibImpl implements Fib {
   @Nonnull
   @Override
   public Set<FibEntry> get(Ip ip) {
-    return _root.longestPrefixMatch(ip);
+    return _lookupTable.get().longestPrefixMatch(ip);
   }
 
   @Nonnull
@@ -10,6 +10,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
@@ -28,15 +29,18 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.BDDUtils;
+import org.batfish.common.bdd.ImmutableBDDInteger;
 import org.batfish.common.bdd.IpSpaceToBDD;
 import org.batfish.common.topology.IpOwners;
 import org.batfish.datamodel.collections.NodeInterfacePair;
@@ -47,6 +51,13 @@ import org.batfish.specifier.LocationInfo;
 /** Implementation of {@link ForwardingAnalysis}. */
 public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Serializable {
   private static final Logger LOGGER = LogManager.getLogger(ForwardingAnalysisImpl.class);
+
+  /**
+   * Maximum number of wildcards of a canonical {@link IpSpace}. Larger spaces, such as the routable
+   * IPs of a VRF with a full Internet table, are slow to enumerate and their wildcards are not
+   * shared with the FIB, so they are kept in the form they were built in.
+   */
+  @VisibleForTesting static final int MAX_CANONICAL_WILDCARDS = 10_000;
   // node -> interface -> ips that the interface would reply arp request
   private final Map<String, Map<String, IpSpace>> _arpReplies;
 
@@ -77,7 +88,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
 
     // TODO accept IpSpaceToBDD as parameter to reuse work when we build forwarding analysis
     // multiple times.
-    IpSpaceToBDD ipSpaceToBDD = new BDDPacket().getDstIpSpaceToBDD();
+    IpSpaceToBDD ipSpaceToBDD = newIpSpaceToBDD();
 
     LOGGER.info("Computing owned and unowned IPs");
     // IPs belonging to any interface in the network, even inactive interfaces
@@ -113,7 +124,9 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
           computeIpsRoutedOutInterfaces(matchingIps, routesWithNextHop, allVrfs);
       LOGGER.info("Computing ARP replies");
       _arpReplies =
-          computeArpReplies(configurations, ipsRoutedOutInterfaces, interfaceOwnedIps, routableIps);
+          canonicalizeByNode(
+              computeArpReplies(
+                  configurations, ipsRoutedOutInterfaces, interfaceOwnedIps, routableIps));
     }
 
     // hostname -> interfaces that are not full. I.e. could have neighbors not present in snapshot
@@ -123,49 +136,56 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
 
     // ips belonging to any subnet in the network, including inactive interfaces.
     LOGGER.info("Computing internal IPs");
-    IpSpace internalIps = computeInternalIps(ipOwners.getAllInterfaceHostIps());
+    IpSpace internalIps = computeInternalIps(ipOwners.getAllInterfaceHostIps(), ipSpaceToBDD);
 
     // ips not belonging to any subnet in the network, including inactive interfaces.
     IpSpace externalIps = internalIps.complement();
 
-    // Compute VrfForwardingBehavior, parallelizing across all VRFs.
+    // Compute VrfForwardingBehavior, parallelizing across shards of VRFs.
     LOGGER.info("Computing VRF forwarding behavior for {} VRFs", allVrfs.size());
     AtomicInteger done = new AtomicInteger();
     _vrfForwardingBehavior =
-        allVrfs.parallelStream()
+        shards(allVrfs).parallelStream()
+            .map(
+                shard -> {
+                  IpSpaceToBDD shardIpSpaceToBDD = newIpSpaceToBDD();
+                  return shard.stream()
+                      .map(
+                          e -> {
+                            String node = e.getKey();
+                            String vrf = e.getValue();
+                            VrfForwardingBehavior ret =
+                                computeVrfForwardingBehavior(
+                                    node,
+                                    vrf,
+                                    topology,
+                                    locationInfo,
+                                    shardIpSpaceToBDD,
+                                    ipOwners,
+                                    fibs.get(node).get(vrf),
+                                    unownedArpIps,
+                                    matchingIps.get(node).get(vrf),
+                                    ownedIps,
+                                    interfacesWithMissingDevices,
+                                    internalIps,
+                                    externalIps,
+                                    routableIps,
+                                    routesWithNextHop.get(node).get(vrf));
+                            int processed = done.incrementAndGet();
+                            if (processed % 100 == 0) {
+                              LOGGER.info(
+                                  "Computed VRF forwarding behavior for {}/{} vrfs",
+                                  processed,
+                                  allVrfs.size());
+                            }
+                            return Maps.immutableEntry(e, ret);
+                          })
+                      .collect(ImmutableList.toImmutableList());
+                })
+            .flatMap(List::stream)
             .collect(
                 ImmutableTable.toImmutableTable(
-                    Entry::getKey,
-                    Entry::getValue,
-                    e -> {
-                      String node = e.getKey();
-                      String vrf = e.getValue();
-                      VrfForwardingBehavior ret =
-                          computeVrfForwardingBehavior(
-                              node,
-                              vrf,
-                              topology,
-                              locationInfo,
-                              ipSpaceToBDD,
-                              ipOwners,
-                              fibs.get(node).get(vrf),
-                              unownedArpIps,
-                              matchingIps.get(node).get(vrf),
-                              ownedIps,
-                              interfacesWithMissingDevices,
-                              internalIps,
-                              externalIps,
-                              routableIps,
-                              routesWithNextHop.get(node).get(vrf));
-                      int processed = done.incrementAndGet();
-                      if (processed % 100 == 0) {
-                        LOGGER.info(
-                            "Computed VRF forwarding behavior for {}/{} vrfs",
-                            processed,
-                            allVrfs.size());
-                      }
-                      return ret;
-                    }))
+                    e -> e.getKey().getKey(), e -> e.getKey().getValue(), Entry::getValue))
             .rowMap();
     LOGGER.info("Done computing VRF forwarding behavior for {} devices", configurations.size());
 
@@ -178,9 +198,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
       Topology topology,
       Map<Location, LocationInfo> locationInfo,
       // Note: BDDs are not thread-safe and this method is run in parallel.
-      // all uses must synchronize on the BDDFactory within.
-      // this is here only for sanity checking (only with assertions enabled)
-      IpSpaceToBDD ipSpaceToBDDUnsafeDoNotUse,
+      // This converter must be owned by the calling thread.
+      IpSpaceToBDD ipSpaceToBDD,
       IpOwners ipOwners,
       Fib fib,
       Set<Ip> unownedArpIps,
@@ -337,14 +356,14 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
               InterfaceForwardingBehavior ifb =
                   InterfaceForwardingBehavior.builder()
                       .setAccepted(accepted.get(iface))
-                      .setDeliveredToSubnet(deliveredToSubnet)
-                      .setExitsNetwork(exitsNetwork)
-                      .setInsufficientInfo(insufficientInfo)
-                      .setNeighborUnreachable(neighborUnreachable)
+                      .setDeliveredToSubnet(canonicalize(ipSpaceToBDD, deliveredToSubnet))
+                      .setExitsNetwork(canonicalize(ipSpaceToBDD, exitsNetwork))
+                      .setInsufficientInfo(canonicalize(ipSpaceToBDD, insufficientInfo))
+                      .setNeighborUnreachable(canonicalize(ipSpaceToBDD, neighborUnreachable))
                       .build();
 
               assert sanityCheckInterfaceForwardingBehavior(
-                  node, vrf, iface, ipSpaceToBDDUnsafeDoNotUse, arpFalse, ifb);
+                  node, vrf, iface, ipSpaceToBDD, arpFalse, ifb);
               return ifb;
             });
 
@@ -355,11 +374,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
     Map<String, IpSpace> nextVrfIps = computeNextVrfIps(matchingIps, fib);
 
     return VrfForwardingBehavior.builder()
-        .setArpTrueEdge(arpTrueEdge)
+        .setArpTrueEdge(canonicalize(ipSpaceToBDD, arpTrueEdge))
         .setInterfaceForwardingBehavior(interfaceForwardingBehavior)
-        .setNextVrf(nextVrfIps)
-        .setNullRoutedIps(nullRoutedIps)
-        .setRoutableIps(routableIps.get(node).get(vrf))
+        .setNextVrf(canonicalize(ipSpaceToBDD, nextVrfIps))
+        .setNullRoutedIps(canonicalize(ipSpaceToBDD, nullRoutedIps))
+        .setRoutableIps(canonicalize(ipSpaceToBDD, routableIps.get(node).get(vrf)))
         .build();
   }
 
@@ -984,13 +1003,102 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
   }
 
   private static IpSpace computeInternalIps(
-      Map<String, Map<String, IpSpace>> interfaceHostSubnetIps) {
-    return firstNonNull(
-        AclIpSpace.union(
-            interfaceHostSubnetIps.values().parallelStream()
-                .flatMap(ifaceSubnetIps -> ifaceSubnetIps.values().parallelStream())
-                .collect(Collectors.toList())),
-        EmptyIpSpace.INSTANCE);
+      Map<String, Map<String, IpSpace>> interfaceHostSubnetIps, IpSpaceToBDD ipSpaceToBDD) {
+    List<IpSpace> subnetIps =
+        interfaceHostSubnetIps.values().stream()
+            .flatMap(ifaceSubnetIps -> ifaceSubnetIps.values().stream())
+            .collect(Collectors.toList());
+    // Convert shards of the subnets in parallel, each on a factory of its own, then transfer the
+    // union of each shard to the given factory.
+    List<BDD> shardIps =
+        shards(subnetIps).parallelStream()
+            .map(
+                shard -> {
+                  IpSpaceToBDD shardIpSpaceToBDD = newIpSpaceToBDD();
+                  return shardIpSpaceToBDD
+                      .getBDDInteger()
+                      .getFactory()
+                      .orAllAndFree(
+                          shard.stream()
+                              .map(shardIpSpaceToBDD::visit)
+                              .collect(Collectors.toList()));
+                })
+            .collect(Collectors.toList());
+    BDDFactory factory = ipSpaceToBDD.getBDDInteger().getFactory();
+    BDD internalIps =
+        factory.orAllAndFree(shardIps.stream().map(factory::transfer).collect(Collectors.toList()));
+    IpSpace canonical =
+        isCanonicalizable(internalIps)
+            ? ipSpaceToBDD.toIpSpace(internalIps)
+            : firstNonNull(AclIpSpace.union(subnetIps), EmptyIpSpace.INSTANCE);
+    internalIps.free();
+    return canonical;
+  }
+
+  /**
+   * Split the given items into about one shard per worker thread. BDD factories are not
+   * thread-safe, so shards are processed in parallel, each with its own factory.
+   */
+  private static @Nonnull <T> List<List<T>> shards(List<T> items) {
+    if (items.isEmpty()) {
+      return ImmutableList.of();
+    }
+    int numShards = Math.min(items.size(), ForkJoinPool.getCommonPoolParallelism());
+    return Lists.partition(items, (items.size() + numShards - 1) / numShards);
+  }
+
+  /** Create an {@link IpSpaceToBDD} on a new {@link BDDFactory} that only has IP variables. */
+  private static @Nonnull IpSpaceToBDD newIpSpaceToBDD() {
+    BDDFactory factory = BDDUtils.bddFactory(Prefix.MAX_PREFIX_LENGTH);
+    return new IpSpaceToBDD(
+        ImmutableBDDInteger.makeFromIndex(factory, Prefix.MAX_PREFIX_LENGTH, 0));
+  }
+
+  /**
+   * Whether a BDD is small enough to be converted back to an {@link IpSpace}: the conversion
+   * produces one wildcard per path to the true terminal, and it enumerates all of them.
+   */
+  @VisibleForTesting
+  static boolean isCanonicalizable(BDD bdd) {
+    return bdd.pathCount() <= MAX_CANONICAL_WILDCARDS;
+  }
+
+  /**
+   * Returns the canonical form of the given {@link IpSpace}, so that equivalent IP spaces are
+   * represented compactly by the same object however they were built. IP spaces whose canonical
+   * form would have more than {@link #MAX_CANONICAL_WILDCARDS} wildcards are returned as is.
+   */
+  @VisibleForTesting
+  static @Nonnull IpSpace canonicalize(IpSpaceToBDD ipSpaceToBDD, IpSpace ipSpace) {
+    BDD bdd = ipSpaceToBDD.visit(ipSpace);
+    IpSpace canonical = isCanonicalizable(bdd) ? ipSpaceToBDD.toIpSpace(bdd) : ipSpace;
+    bdd.free();
+    return canonical;
+  }
+
+  private static @Nonnull <K> Map<K, IpSpace> canonicalize(
+      IpSpaceToBDD ipSpaceToBDD, Map<K, IpSpace> ipSpaces) {
+    return toImmutableMap(
+        ipSpaces, Entry::getKey, entry -> canonicalize(ipSpaceToBDD, entry.getValue()));
+  }
+
+  /** Canonicalize the given IP spaces by node, processing shards of nodes in parallel. */
+  private static @Nonnull Map<String, Map<String, IpSpace>> canonicalizeByNode(
+      Map<String, Map<String, IpSpace>> ipSpacesByNode) {
+    return shards(ImmutableList.copyOf(ipSpacesByNode.entrySet())).parallelStream()
+        .map(
+            shard -> {
+              IpSpaceToBDD ipSpaceToBDD = newIpSpaceToBDD();
+              return shard.stream()
+                  .map(
+                      nodeEntry ->
+                          Maps.immutableEntry(
+                              nodeEntry.getKey(),
+                              canonicalize(ipSpaceToBDD, nodeEntry.getValue())))
+                  .collect(ImmutableList.toImmutableList());
+            })
+        .flatMap(List::stream)
+        .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
   }
 
   /*
@@ -1143,32 +1251,30 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
       IpSpaceToBDD ipSpaceToBDD,
       IpSpace arpFalse,
       InterfaceForwardingBehavior ifb) {
-    synchronized (ipSpaceToBDD.getBDDInteger().getFactory()) {
-      BDD arpFalseBdd = ipSpaceToBDD.visit(arpFalse);
-      BDD dispositionUnionBdd =
-          ipSpaceToBDD.visit(
-              firstNonNull(
-                  AclIpSpace.union(
-                      ifb.getDeliveredToSubnet(),
-                      ifb.getExitsNetwork(),
-                      ifb.getInsufficientInfo(),
-                      ifb.getNeighborUnreachable()),
-                  EmptyIpSpace.INSTANCE));
-      assert !arpFalseBdd.diffSat(dispositionUnionBdd)
-          : "arpFalseBdd larger than dispositionUnionBdd for node "
-              + node
-              + " VRF "
-              + vrf
-              + " interface "
-              + iface;
-      assert !dispositionUnionBdd.diffSat(arpFalseBdd)
-          : "dispositionUnionBdd larger than arpFalseBdd for node "
-              + node
-              + " VRF "
-              + vrf
-              + " interface "
-              + iface;
-    }
+    BDD arpFalseBdd = ipSpaceToBDD.visit(arpFalse);
+    BDD dispositionUnionBdd =
+        ipSpaceToBDD.visit(
+            firstNonNull(
+                AclIpSpace.union(
+                    ifb.getDeliveredToSubnet(),
+                    ifb.getExitsNetwork(),
+                    ifb.getInsufficientInfo(),
+                    ifb.getNeighborUnreachable()),
+                EmptyIpSpace.INSTANCE));
+    assert !arpFalseBdd.diffSat(dispositionUnionBdd)
+        : "arpFalseBdd larger than dispositionUnionBdd for node "
+            + node
+            + " VRF "
+            + vrf
+            + " interface "
+            + iface;
+    assert !dispositionUnionBdd.diffSat(arpFalseBdd)
+        : "dispositionUnionBdd larger than arpFalseBdd for node "
+            + node
+            + " VRF "
+            + vrf
+            + " interface "
+            + iface;
     return true;
   }
 
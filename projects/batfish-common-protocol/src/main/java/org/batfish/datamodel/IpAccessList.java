@@ -74,6 +74,9 @@ public class IpAccessList implements Serializable {
     }
   }
 
+  /** ACLs with at least this many lines are evaluated using an {@link AclLineDstIpIndex}. */
+  private static final int MIN_LINES_TO_INDEX = 32;
+
   private static final String PROP_LINES = "lines";
   private static final String PROP_NAME = "name";
   private static final String PROP_SOURCE_NAME = "sourceName";
@@ -102,6 +105,9 @@ public class IpAccessList implements Serializable {
   private final String _sourceName;
   private final String _sourceType;
 
+  /** Built on first use when evaluating a large ACL against concrete flows. */
+  private transient volatile @Nullable AclLineDstIpIndex _dstIpIndex;
+
   @JsonCreator
   private static IpAccessList jsonCreator(
       @Nullable @JsonProperty(PROP_NAME) String name,
@@ -146,7 +152,17 @@ public class IpAccessList implements Serializable {
       Map<String, IpSpace> namedIpSpaces) {
     AclLineEvaluator lineEvaluator =
         new AclLineEvaluator(flow, srcInterface, availableAcls, namedIpSpaces);
-    for (int i = 0; i < _lines.size(); i++) {
+    if (_lines.size() < MIN_LINES_TO_INDEX) {
+      for (int i = 0; i < _lines.size(); i++) {
+        LineAction action = lineEvaluator.visit(_lines.get(i));
+        if (action != null) {
+          return new FilterResult(i, action);
+        }
+      }
+      return new FilterResult(null, LineAction.DENY);
+    }
+    // Only evaluate the lines that can match the destination IP of the flow.
+    for (int i : getDstIpIndex(namedIpSpaces).candidateLines(flow.getDstIp())) {
       LineAction action = lineEvaluator.visit(_lines.get(i));
       if (action != null) {
         return new FilterResult(i, action);
@@ -155,6 +171,16 @@ public class IpAccessList implements Serializable {
     return new FilterResult(null, LineAction.DENY);
   }
 
+  private @Nonnull AclLineDstIpIndex getDstIpIndex(Map<String, IpSpace> namedIpSpaces) {
+    AclLineDstIpIndex index = _dstIpIndex;
+    // Rebuild if the named IP spaces changed, since the index resolves references against them.
+    if (index == null || index.getNamedIpSpaces() != namedIpSpaces) {
+      index = AclLineDstIpIndex.of(_lines, namedIpSpaces);
+      _dstIpIndex = index;
+    }
+    return index;
+  }
+
   @JsonProperty(PROP_NAME)
   @Nonnull
   public String getName() {
@@ -0,0 +1,159 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An immutable, flattened form of a {@link PrefixTrieMultiMap} that only supports longest prefix
+ * match lookups.
+ *
+ * <p>The prefixes of the trie are flattened into the sorted, disjoint IP ranges over which the
+ * longest matching prefix is the same. The start of each range is stored in a primitive array, so a
+ * lookup is a binary search over contiguous memory rather than a walk over the nodes of the trie.
+ * Equal element sets are shared, and the table has at most {@code 2n+1} ranges for {@code n}
+ * prefixes.
+ */
+@ParametersAreNonnullByDefault
+final class LongestPrefixMatchTable<T> {
+
+  /** Index of the empty set in {@link #_sets}. */
+  private static final int EMPTY_SET_ID = 0;
+
+  /**
+   * Sorted start IPs of the ranges, each XOR-ed with {@link Integer#MIN_VALUE} so that signed
+   * {@code int} order is unsigned IP order.
+   */
+  private final @Nonnull int[] _rangeStarts;
+
+  /** For each range, the index in {@link #_sets} of the elements of its longest matching prefix. */
+  private final @Nonnull int[] _rangeSetIds;
+
+  private final @Nonnull List<Set<T>> _sets;
+
+  private LongestPrefixMatchTable(int[] rangeStarts, int[] rangeSetIds, List<Set<T>> sets) {
+    _rangeStarts = rangeStarts;
+    _rangeSetIds = rangeSetIds;
+    _sets = sets;
+  }
+
+  /** Builds a table with the same longest prefix match results as the given trie. */
+  static @Nonnull <T> LongestPrefixMatchTable<T> of(PrefixTrieMultiMap<T> trie) {
+    List<Entry<Prefix, Set<T>>> entries = new ArrayList<>();
+    trie.traverseEntries((prefix, elements) -> entries.add(Maps.immutableEntry(prefix, elements)));
+    // Containing prefixes sort before the prefixes they contain.
+    entries.sort(
+        Comparator.comparing((Entry<Prefix, Set<T>> e) -> e.getKey().getStartIp())
+            .thenComparingInt(e -> e.getKey().getPrefixLength()));
+    return new Builder<T>(entries.size()).build(entries);
+  }
+
+  /** Find the elements associated with the longest matching prefix of a given IP address. */
+  @Nonnull
+  Set<T> longestPrefixMatch(Ip address) {
+    int i = Arrays.binarySearch(_rangeStarts, toKey(address.asLong()));
+    // The first range always starts at 0.0.0.0, so an IP not at the start of a range is in the
+    // range before its insertion point.
+    return _sets.get(_rangeSetIds[i >= 0 ? i : -i - 2]);
+  }
+
+  /** Number of disjoint ranges in the table. */
+  int getNumRanges() {
+    return _rangeStarts.length;
+  }
+
+  private static int toKey(long ip) {
+    return (int) ip ^ Integer.MIN_VALUE;
+  }
+
+  private static final class Builder<T> {
+    private final @Nonnull Map<Set<T>, Integer> _setIds;
+    private final @Nonnull List<Set<T>> _sets;
+    private int[] _rangeStarts;
+    private int[] _rangeSetIds;
+    private int _numRanges;
+
+    private Builder(int numPrefixes) {
+      _setIds = new HashMap<>();
+      _sets = new ArrayList<>();
+      _rangeStarts = new int[2 * numPrefixes + 1];
+      _rangeSetIds = new int[2 * numPrefixes + 1];
+      getSetId(ImmutableSet.of());
+    }
+
+    private int getSetId(Set<T> elements) {
+      return _setIds.computeIfAbsent(
+          elements,
+          s -> {
+            _sets.add(s);
+            return _sets.size() - 1;
+          });
+    }
+
+    /** Starts a new range at {@code start}, unless it would continue the previous range. */
+    private void addRange(long start, int setId) {
+      if (_numRanges > 0 && _rangeSetIds[_numRanges - 1] == setId) {
+        return;
+      }
+      _rangeStarts[_numRanges] = toKey(start);
+      _rangeSetIds[_numRanges] = setId;
+      _numRanges++;
+    }
+
+    /**
+     * Sweeps the given entries, which must be sorted by start IP and then by prefix length, keeping
+     * the stack of prefixes that contain the current position.
+     */
+    private LongestPrefixMatchTable<T> build(List<Entry<Prefix, Set<T>>> sortedEntries) {
+      // Each element is {end IP, set id} of an open prefix, innermost first.
+      Deque<long[]> open = new ArrayDeque<>();
+      // The first IP that is not yet covered by a range.
+      long next = 0L;
+      for (Entry<Prefix, Set<T>> entry : sortedEntries) {
+        Prefix prefix = entry.getKey();
+        long start = prefix.getStartIp().asLong();
+        next = closeEndingBefore(open, start, next);
+        if (next < start) {
+          addRange(next, open.isEmpty() ? EMPTY_SET_ID : (int) open.peek()[1]);
+          next = start;
+        }
+        open.push(new long[] {prefix.getEndIp().asLong(), getSetId(entry.getValue())});
+      }
+      next = closeEndingBefore(open, Ip.MAX.asLong() + 1, next);
+      if (next <= Ip.MAX.asLong()) {
+        addRange(next, EMPTY_SET_ID);
+      }
+      return new LongestPrefixMatchTable<>(
+          Arrays.copyOf(_rangeStarts, _numRanges),
+          Arrays.copyOf(_rangeSetIds, _numRanges),
+          ImmutableList.copyOf(_sets));
+    }
+
+    /**
+     * Pops the open prefixes that end before {@code ip}, adding the range each one covers past its
+     * nested prefixes. Returns the first IP not yet covered by a range.
+     */
+    private long closeEndingBefore(Deque<long[]> open, long ip, long next) {
+      while (!open.isEmpty() && open.peek()[0] < ip) {
+        long[] closed = open.pop();
+        if (next <= closed[0]) {
+          addRange(next, (int) closed[1]);
+          next = closed[0] + 1;
+        }
+      }
+      return next;
+    }
+  }
+}
@@ -0,0 +1,550 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.batfish.common.util.CollectionUtil.toImmutableMap;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.PatternProvider;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.AsPathAccessList;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RouteFilterList;
+import org.batfish.datamodel.bgp.community.Community;
+import org.batfish.datamodel.routing_policy.as_path.AsPathContext;
+import org.batfish.datamodel.routing_policy.as_path.AsPathExpr;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchAny;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchExpr;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchExprEvaluator;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchExprReference;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchExprVisitor;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchRegex;
+import org.batfish.datamodel.routing_policy.as_path.AsPathRegexMatcher;
+import org.batfish.datamodel.routing_policy.as_path.AsSetsMatchingRanges;
+import org.batfish.datamodel.routing_policy.as_path.HasAsPathLength;
+import org.batfish.datamodel.routing_policy.communities.AllExtendedCommunities;
+import org.batfish.datamodel.routing_policy.communities.AllLargeCommunities;
+import org.batfish.datamodel.routing_policy.communities.AllStandardCommunities;
+import org.batfish.datamodel.routing_policy.communities.CommunityAcl;
+import org.batfish.datamodel.routing_policy.communities.CommunityAclLine;
+import org.batfish.datamodel.routing_policy.communities.CommunityContext;
+import org.batfish.datamodel.routing_policy.communities.CommunityIn;
+import org.batfish.datamodel.routing_policy.communities.CommunityIs;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchAll;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchAny;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchExpr;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchExprEvaluator;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchExprReference;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchExprVisitor;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchRegex;
+import org.batfish.datamodel.routing_policy.communities.CommunityNot;
+import org.batfish.datamodel.routing_policy.communities.CommunityRendering;
+import org.batfish.datamodel.routing_policy.communities.CommunitySet;
+import org.batfish.datamodel.routing_policy.communities.CommunitySetExpr;
+import org.batfish.datamodel.routing_policy.communities.CommunitySetMatchExpr;
+import org.batfish.datamodel.routing_policy.communities.CommunitySetReference;
+import org.batfish.datamodel.routing_policy.communities.CommunityToRegexInputString;
+import org.batfish.datamodel.routing_policy.communities.ExtendedCommunityGlobalAdministratorHighMatch;
+import org.batfish.datamodel.routing_policy.communities.ExtendedCommunityGlobalAdministratorLowMatch;
+import org.batfish.datamodel.routing_policy.communities.ExtendedCommunityGlobalAdministratorMatch;
+import org.batfish.datamodel.routing_policy.communities.ExtendedCommunityLocalAdministratorMatch;
+import org.batfish.datamodel.routing_policy.communities.LiteralCommunitySet;
+import org.batfish.datamodel.routing_policy.communities.OpaqueExtendedCommunities;
+import org.batfish.datamodel.routing_policy.communities.RouteTargetExtendedCommunities;
+import org.batfish.datamodel.routing_policy.communities.SiteOfOriginExtendedCommunities;
+import org.batfish.datamodel.routing_policy.communities.StandardCommunityHighMatch;
+import org.batfish.datamodel.routing_policy.communities.StandardCommunityLowMatch;
+import org.batfish.datamodel.routing_policy.communities.VpnDistinguisherExtendedCommunities;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.NamedPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.PrefixSetExpr;
+
+/**
+ * Evaluation context shared by the routing policies of one {@link Configuration}, compiled once
+ * before the policies are used to compute a data plane.
+ *
+ * <p>Without it, every evaluation of a policy copies the named structures of the policy's owner
+ * into a new {@link Environment}, and every match expression looks up the structures it references
+ * by name and walks its expression tree. This context copies the structures once. It compiles the
+ * prefix-set, community, and AS-path match expressions of the policies into predicates when they
+ * are first evaluated, with references resolved, constant community sets and regexes precomputed,
+ * and AS-path regexes matched by {@link AsPathRegexMatcher}. Compiled predicates are kept per
+ * expression object.
+ *
+ * <p>The policies of the owner are not modified. The context holds copies of them that use the
+ * compiled matchers, and a snapshot of the owner's structures, so it is only valid while the owner
+ * does not change: compile it for one data plane computation and drop it afterwards.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledPolicyContext {
+
+  /**
+   * Compile the routing policies of the given configuration, and return their shared context. The
+   * configuration must be complete, since its named structures are copied. Its policies are not
+   * modified: only the copies in {@link #getRoutingPolicies()} use the compiled matchers.
+   */
+  public static @Nonnull CompiledPolicyContext compile(Configuration c) {
+    return new CompiledPolicyContext(c);
+  }
+
+  /**
+   * Returns the compiled matcher of the given prefix set, or {@code null} if it cannot be compiled,
+   * e.g. because it references a missing route filter list.
+   */
+  public @Nullable Predicate<Prefix> getPrefixSetMatcher(PrefixSetExpr prefixSet) {
+    return _prefixSetMatchers.get(prefixSet, this::compilePrefixSet).orElse(null);
+  }
+
+  /**
+   * Returns the compiled matcher of the given community match expression, or {@code null} if it
+   * depends on the route being evaluated and so cannot be compiled.
+   */
+  public @Nullable Predicate<Community> getCommunityMatcher(CommunityMatchExpr expr) {
+    return _communityMatchers
+        .get(expr, e -> Optional.ofNullable(e.accept(_communityMatcherCompiler, null)))
+        .orElse(null);
+  }
+
+  /**
+   * Returns the compiled matcher of the given AS-path match expression, or {@code null} if it
+   * references a missing expression.
+   */
+  public @Nullable Predicate<AsPath> getAsPathMatcher(AsPathMatchExpr expr) {
+    return _asPathMatchers
+        .get(expr, e -> Optional.ofNullable(e.accept(_asPathMatcherCompiler, null)))
+        .orElse(null);
+  }
+
+  @Nonnull
+  Map<String, AsPathAccessList> getAsPathAccessLists() {
+    return _asPathAccessLists;
+  }
+
+  @Nonnull
+  Map<String, AsPathExpr> getAsPathExprs() {
+    return _asPathExprs;
+  }
+
+  @Nonnull
+  Map<String, AsPathMatchExpr> getAsPathMatchExprs() {
+    return _asPathMatchExprs;
+  }
+
+  @Nonnull
+  Map<String, CommunityMatchExpr> getCommunityMatchExprs() {
+    return _communityMatchExprs;
+  }
+
+  @Nonnull
+  Map<String, CommunitySetExpr> getCommunitySetExprs() {
+    return _communitySetExprs;
+  }
+
+  @Nonnull
+  Map<String, CommunitySetMatchExpr> getCommunitySetMatchExprs() {
+    return _communitySetMatchExprs;
+  }
+
+  @Nonnull
+  Map<String, CommunitySet> getCommunitySets() {
+    return _communitySets;
+  }
+
+  @Nonnull
+  Map<String, IpAccessList> getIpAccessLists() {
+    return _ipAccessLists;
+  }
+
+  @Nonnull
+  Map<String, RouteFilterList> getRouteFilterLists() {
+    return _routeFilterLists;
+  }
+
+  /** Copies of the routing policies of the owner, which are evaluated using this context */
+  public @Nonnull Map<String, RoutingPolicy> getRoutingPolicies() {
+    return _routingPolicies;
+  }
+
+  boolean getUseOutputAttributes() {
+    return _useOutputAttributes;
+  }
+
+  private @Nonnull Optional<Predicate<Prefix>> compilePrefixSet(PrefixSetExpr prefixSet) {
+    if (prefixSet instanceof NamedPrefixSet) {
+      RouteFilterList list = _routeFilterLists.get(((NamedPrefixSet) prefixSet).getName());
+      if (list == null) {
+        // the expression reports the missing list when evaluated
+        return Optional.empty();
+      }
+      Predicate<Prefix> matcher = list::permits;
+      return Optional.of(matcher);
+    } else if (prefixSet instanceof ExplicitPrefixSet) {
+      Predicate<Prefix> matcher = ((ExplicitPrefixSet) prefixSet).getPrefixSpace()::containsPrefix;
+      return Optional.of(matcher);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Compiles a {@link CommunityMatchExpr} into a predicate, or {@code null} if the expression reads
+   * the communities of the route being evaluated. Subexpressions are compiled directly rather than
+   * through the cache, so compiling never recursively updates the cache.
+   */
+  private final class CommunityMatcherCompiler
+      implements CommunityMatchExprVisitor<Predicate<Community>, Void> {
+
+    private @Nonnull Predicate<Community> evaluate(CommunityMatchExpr expr) {
+      return c -> expr.accept(_communityMatchExprEvaluator, c);
+    }
+
+    private @Nullable List<Predicate<Community>> compileAll(Set<CommunityMatchExpr> exprs) {
+      List<Predicate<Community>> matchers = new ArrayList<>(exprs.size());
+      for (CommunityMatchExpr expr : exprs) {
+        Predicate<Community> matcher = expr.accept(this, null);
+        if (matcher == null) {
+          return null;
+        }
+        matchers.add(matcher);
+      }
+      return matchers;
+    }
+
+    @Override
+    public Predicate<Community> visitAllExtendedCommunities(
+        AllExtendedCommunities allExtendedCommunities, Void arg) {
+      return evaluate(allExtendedCommunities);
+    }
+
+    @Override
+    public Predicate<Community> visitAllLargeCommunities(
+        AllLargeCommunities allLargeCommunities, Void arg) {
+      return evaluate(allLargeCommunities);
+    }
+
+    @Override
+    public Predicate<Community> visitAllStandardCommunities(
+        AllStandardCommunities allStandardCommunities, Void arg) {
+      return evaluate(allStandardCommunities);
+    }
+
+    @Override
+    public @Nullable Predicate<Community> visitCommunityAcl(CommunityAcl communityAcl, Void arg) {
+      List<CommunityAclLine> lines = communityAcl.getLines();
+      @SuppressWarnings("unchecked")
+      Predicate<Community>[] matchers = new Predicate[lines.size()];
+      boolean[] permits = new boolean[lines.size()];
+      for (int i = 0; i < lines.size(); i++) {
+        matchers[i] = lines.get(i).getCommunityMatchExpr().accept(this, null);
+        if (matchers[i] == null) {
+          return null;
+        }
+        permits[i] = lines.get(i).getAction() == LineAction.PERMIT;
+      }
+      return c -> {
+        for (int i = 0; i < matchers.length; i++) {
+          if (matchers[i].test(c)) {
+            return permits[i];
+          }
+        }
+        return false;
+      };
+    }
+
+    @Override
+    public @Nullable Predicate<Community> visitCommunityIn(CommunityIn communityIn, Void arg) {
+      CommunitySetExpr communitySetExpr = communityIn.getCommunitySetExpr();
+      CommunitySet communitySet;
+      if (communitySetExpr instanceof LiteralCommunitySet) {
+        communitySet = ((LiteralCommunitySet) communitySetExpr).getCommunitySet();
+      } else if (communitySetExpr instanceof CommunitySetReference) {
+        communitySet =
+            _communitySets.get(((CommunitySetReference) communitySetExpr).getName());
+        if (communitySet == null) {
+          // the evaluator reports the missing set
+          return evaluate(communityIn);
+        }
+      } else {
+        // other community set expressions may read the communities of the route
+        return null;
+      }
+      Set<Community> communities = communitySet.getCommunities();
+      return communities::contains;
+    }
+
+    @Override
+    public Predicate<Community> visitCommunityIs(CommunityIs communityIs, Void arg) {
+      Community community = communityIs.getCommunity();
+      return community::equals;
+    }
+
+    @Override
+    public @Nullable Predicate<Community> visitCommunityMatchAll(
+        CommunityMatchAll communityMatchAll, Void arg) {
+      List<Predicate<Community>> matchers = compileAll(communityMatchAll.getExprs());
+      if (matchers == null) {
+        return null;
+      }
+      return c -> {
+        for (Predicate<Community> matcher : matchers) {
+          if (!matcher.test(c)) {
+            return false;
+          }
+        }
+        return true;
+      };
+    }
+
+    @Override
+    public @Nullable Predicate<Community> visitCommunityMatchAny(
+        CommunityMatchAny communityMatchAny, Void arg) {
+      List<Predicate<Community>> matchers = compileAll(communityMatchAny.getExprs());
+      if (matchers == null) {
+        return null;
+      }
+      return c -> {
+        for (Predicate<Community> matcher : matchers) {
+          if (matcher.test(c)) {
+            return true;
+          }
+        }
+        return false;
+      };
+    }
+
+    @Override
+    public @Nullable Predicate<Community> visitCommunityMatchExprReference(
+        CommunityMatchExprReference communityMatchExprReference, Void arg) {
+      CommunityMatchExpr expr = _communityMatchExprs.get(communityMatchExprReference.getName());
+      // conversion to VI should guarantee expr is not null
+      assert expr != null;
+      return expr.accept(this, null);
+    }
+
+    @Override
+    public Predicate<Community> visitCommunityMatchRegex(
+        CommunityMatchRegex communityMatchRegex, Void arg) {
+      Pattern pattern = PatternProvider.fromString(communityMatchRegex.getRegex());
+      CommunityRendering rendering = communityMatchRegex.getCommunityRendering();
+      LoadingCache<Community, Boolean> results =
+          Caffeine.newBuilder()
+              .maximumSize(MAX_MEMOIZED_COMMUNITIES)
+              .build(
+                  c ->
+                      pattern
+                          .matcher(rendering.accept(CommunityToRegexInputString.instance(), c))
+                          .find());
+      return c -> {
+        Boolean matches = results.get(c);
+        assert matches != null; // matching can't return null
+        return matches;
+      };
+    }
+
+    @Override
+    public @Nullable Predicate<Community> visitCommunityNot(CommunityNot communityNot, Void arg) {
+      Predicate<Community> matcher = communityNot.getExpr().accept(this, null);
+      return matcher == null ? null : matcher.negate();
+    }
+
+    @Override
+    public Predicate<Community> visitExtendedCommunityGlobalAdministratorHighMatch(
+        ExtendedCommunityGlobalAdministratorHighMatch extendedCommunityGlobalAdministratorHighMatch,
+        Void arg) {
+      return evaluate(extendedCommunityGlobalAdministratorHighMatch);
+    }
+
+    @Override
+    public Predicate<Community> visitExtendedCommunityGlobalAdministratorLowMatch(
+        ExtendedCommunityGlobalAdministratorLowMatch extendedCommunityGlobalAdministratorLowMatch,
+        Void arg) {
+      return evaluate(extendedCommunityGlobalAdministratorLowMatch);
+    }
+
+    @Override
+    public Predicate<Community> visitExtendedCommunityGlobalAdministratorMatch(
+        ExtendedCommunityGlobalAdministratorMatch extendedCommunityGlobalAdministratorMatch,
+        Void arg) {
+      return evaluate(extendedCommunityGlobalAdministratorMatch);
+    }
+
+    @Override
+    public Predicate<Community> visitExtendedCommunityLocalAdministratorMatch(
+        ExtendedCommunityLocalAdministratorMatch extendedCommunityLocalAdministratorMatch,
+        Void arg) {
+      return evaluate(extendedCommunityLocalAdministratorMatch);
+    }
+
+    @Override
+    public Predicate<Community> visitOpaqueExtendedCommunities(
+        OpaqueExtendedCommunities opaqueExtendedCommunities, Void arg) {
+      return evaluate(opaqueExtendedCommunities);
+    }
+
+    @Override
+    public Predicate<Community> visitRouteTargetExtendedCommunities(
+        RouteTargetExtendedCommunities routeTargetExtendedCommunities, Void arg) {
+      return evaluate(routeTargetExtendedCommunities);
+    }
+
+    @Override
+    public Predicate<Community> visitSiteOfOriginExtendedCommunities(
+        SiteOfOriginExtendedCommunities siteOfOriginExtendedCommunities, Void arg) {
+      return evaluate(siteOfOriginExtendedCommunities);
+    }
+
+    @Override
+    public Predicate<Community> visitStandardCommunityHighMatch(
+        StandardCommunityHighMatch standardCommunityHighMatch, Void arg) {
+      return evaluate(standardCommunityHighMatch);
+    }
+
+    @Override
+    public Predicate<Community> visitStandardCommunityLowMatch(
+        StandardCommunityLowMatch standardCommunityLowMatch, Void arg) {
+      return evaluate(standardCommunityLowMatch);
+    }
+
+    @Override
+    public Predicate<Community> visitVpnDistinguisherExtendedCommunities(
+        VpnDistinguisherExtendedCommunities vpnDistinguisherExtendedCommunities, Void arg) {
+      return evaluate(vpnDistinguisherExtendedCommunities);
+    }
+  }
+
+  /**
+   * Compiles an {@link AsPathMatchExpr} into a predicate, or {@code null} if it references a
+   * missing expression.
+   */
+  private final class AsPathMatcherCompiler
+      implements AsPathMatchExprVisitor<Predicate<AsPath>, Void> {
+
+    private @Nonnull Predicate<AsPath> evaluate(AsPathMatchExpr expr) {
+      return asPath -> expr.accept(_asPathMatchExprEvaluator, asPath);
+    }
+
+    @Override
+    public @Nullable Predicate<AsPath> visitAsPathMatchAny(
+        AsPathMatchAny asPathMatchAny, Void arg) {
+      List<Predicate<AsPath>> matchers = new ArrayList<>();
+      for (AsPathMatchExpr disjunct : asPathMatchAny.getDisjuncts()) {
+        Predicate<AsPath> matcher = disjunct.accept(this, null);
+        if (matcher == null) {
+          return null;
+        }
+        matchers.add(matcher);
+      }
+      return asPath -> {
+        for (Predicate<AsPath> matcher : matchers) {
+          if (matcher.test(asPath)) {
+            return true;
+          }
+        }
+        return false;
+      };
+    }
+
+    @Override
+    public @Nullable Predicate<AsPath> visitAsPathMatchExprReference(
+        AsPathMatchExprReference asPathMatchExprReference, Void arg) {
+      AsPathMatchExpr expr = _asPathMatchExprs.get(asPathMatchExprReference.getName());
+      return expr == null ? null : expr.accept(this, null);
+    }
+
+    @Override
+    public Predicate<AsPath> visitAsPathMatchRegex(AsPathMatchRegex asPathMatchRegex, Void arg) {
+      AsPathRegexMatcher matcher = asPathMatchRegex.getMatcher();
+      return matcher::matches;
+    }
+
+    @Override
+    public Predicate<AsPath> visitAsSetsMatchingRanges(
+        AsSetsMatchingRanges asSetsMatchingRanges, Void arg) {
+      return evaluate(asSetsMatchingRanges);
+    }
+
+    @Override
+    public Predicate<AsPath> visitHasAsPathLength(HasAsPathLength hasAsPathLength, Void arg) {
+      return evaluate(hasAsPathLength);
+    }
+  }
+
+  private static final int MAX_MEMOIZED_COMMUNITIES = 1 << 14;
+
+  private final @Nonnull Map<String, AsPathAccessList> _asPathAccessLists;
+  private final @Nonnull Map<String, AsPathExpr> _asPathExprs;
+  private final @Nonnull Map<String, AsPathMatchExpr> _asPathMatchExprs;
+  private final @Nonnull Map<String, CommunityMatchExpr> _communityMatchExprs;
+  private final @Nonnull Map<String, CommunitySetExpr> _communitySetExprs;
+  private final @Nonnull Map<String, CommunitySetMatchExpr> _communitySetMatchExprs;
+  private final @Nonnull Map<String, CommunitySet> _communitySets;
+  private final @Nonnull Map<String, IpAccessList> _ipAccessLists;
+  private final @Nonnull Map<String, RouteFilterList> _routeFilterLists;
+  private final @Nonnull Map<String, RoutingPolicy> _routingPolicies;
+  private final boolean _useOutputAttributes;
+
+  private final @Nonnull CommunityMatchExprEvaluator _communityMatchExprEvaluator;
+  private final @Nonnull AsPathMatchExprEvaluator _asPathMatchExprEvaluator;
+  private final @Nonnull CommunityMatcherCompiler _communityMatcherCompiler;
+  private final @Nonnull AsPathMatcherCompiler _asPathMatcherCompiler;
+
+  // Keyed by identity, since weak keys are compared by identity
+  private final @Nonnull Cache<PrefixSetExpr, Optional<Predicate<Prefix>>> _prefixSetMatchers;
+  private final @Nonnull Cache<CommunityMatchExpr, Optional<Predicate<Community>>>
+      _communityMatchers;
+  private final @Nonnull Cache<AsPathMatchExpr, Optional<Predicate<AsPath>>> _asPathMatchers;
+
+  private CompiledPolicyContext(Configuration c) {
+    _asPathAccessLists = toImmutableMap(c.getAsPathAccessLists());
+    _asPathExprs = toImmutableMap(c.getAsPathExprs());
+    _asPathMatchExprs = toImmutableMap(c.getAsPathMatchExprs());
+    _communityMatchExprs = toImmutableMap(c.getCommunityMatchExprs());
+    _communitySetExprs = toImmutableMap(c.getCommunitySetExprs());
+    _communitySetMatchExprs = toImmutableMap(c.getCommunitySetMatchExprs());
+    _communitySets = toImmutableMap(c.getCommunitySets());
+    _ipAccessLists = toImmutableMap(c.getIpAccessLists());
+    _routeFilterLists = toImmutableMap(c.getRouteFilterLists());
+    _routingPolicies =
+        toImmutableMap(
+            c.getRoutingPolicies(),
+            Entry::getKey,
+            e -> e.getValue().withCompiledPolicyContext(this));
+    _useOutputAttributes = Environment.useOutputAttributesFor(c);
+
+    // The evaluators of expressions that are not compiled do not read the input of the context
+    _communityMatchExprEvaluator =
+        CommunityContext.builder()
+            .setCommunityMatchExprs(_communityMatchExprs)
+            .setCommunitySetExprs(_communitySetExprs)
+            .setCommunitySetMatchExprs(_communitySetMatchExprs)
+            .setCommunitySets(_communitySets)
+            .build()
+            .getCommunityMatchExprEvaluator();
+    _asPathMatchExprEvaluator =
+        AsPathContext.builder()
+            .setAsPathExprs(_asPathExprs)
+            .setAsPathMatchExprs(_asPathMatchExprs)
+            .setInputAsPath(AsPath.empty())
+            .build()
+            .getAsPathMatchExprEvaluator();
+    _communityMatcherCompiler = new CommunityMatcherCompiler();
+    _asPathMatcherCompiler = new AsPathMatcherCompiler();
+
+    _prefixSetMatchers = Caffeine.newBuilder().weakKeys().build();
+    _communityMatchers = Caffeine.newBuilder().weakKeys().build();
+    _asPathMatchers = Caffeine.newBuilder().weakKeys().build();
+  }
+}
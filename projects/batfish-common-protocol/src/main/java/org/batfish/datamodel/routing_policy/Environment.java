@@ -52,6 +52,26 @@ public class Environment {
         .setUseOutputAttributes(useOutputAttributesFor(c));
   }
 
+  /**
+   * Initializes an {@link Environment} builder using the structures of a {@link
+   * CompiledPolicyContext}, whose compiled matchers are used during evaluation.
+   */
+  static Builder builder(@Nonnull CompiledPolicyContext context) {
+    return new Builder()
+        .setAsPathAccessLists(context.getAsPathAccessLists())
+        .setAsPathExprs(context.getAsPathExprs())
+        .setAsPathMatchExprs(context.getAsPathMatchExprs())
+        .setCommunityMatchExprs(context.getCommunityMatchExprs())
+        .setCommunitySetExprs(context.getCommunitySetExprs())
+        .setCommunitySetMatchExprs(context.getCommunitySetMatchExprs())
+        .setCommunitySets(context.getCommunitySets())
+        .setIpAccessLists(context.getIpAccessLists())
+        .setRouteFilterLists(context.getRouteFilterLists())
+        .setRoutingPolicies(context.getRoutingPolicies())
+        .setUseOutputAttributes(context.getUseOutputAttributes())
+        .setCompiledPolicyContext(context);
+  }
+
   /**
    * Indicates whether simulation of route policies in the given {@link Configuration} should match
    * on the output route attributes instead of the original route attributes, based on the
@@ -78,6 +98,9 @@ public class Environment {
    */
   private final @Nullable BgpSessionProperties _bgpSessionProperties;
 
+  /** Run whenever the policy reads {@link #_bgpSessionProperties} */
+  private final @Nonnull Runnable _bgpSessionPropertiesRead;
+
   private boolean _buffered;
   private boolean _callExprContext;
   private boolean _callStatementContext;
@@ -85,6 +108,7 @@ public class Environment {
   private final Map<String, CommunitySetExpr> _communitySetExprs;
   private final Map<String, CommunitySetMatchExpr> _communitySetMatchExprs;
   private final Map<String, CommunitySet> _communitySets;
+  @Nullable private final CompiledPolicyContext _compiledPolicyContext;
   private boolean _defaultAction;
   private String _defaultPolicy;
   private final @Nonnull Direction _direction;
@@ -113,6 +137,7 @@ public class Environment {
       @Nonnull Map<String, AsPathExpr> asPathExprs,
       @Nonnull Map<String, AsPathMatchExpr> asPathMatchExprs,
       @Nullable BgpSessionProperties bgpSessionProperties,
+      @Nonnull Runnable bgpSessionPropertiesRead,
       boolean buffered,
       boolean callExprContext,
       boolean callStatementContext,
@@ -120,6 +145,7 @@ public class Environment {
       Map<String, CommunitySetExpr> communitySetExprs,
       Map<String, CommunitySetMatchExpr> communitySetMatchExprs,
       Map<String, CommunitySet> communitySets,
+      @Nullable CompiledPolicyContext compiledPolicyContext,
       boolean defaultAction,
       String defaultPolicy,
       @Nonnull Direction direction,
@@ -141,6 +167,7 @@ public class Environment {
     _asPathExprs = asPathExprs;
     _asPathMatchExprs = asPathMatchExprs;
     _bgpSessionProperties = bgpSessionProperties;
+    _bgpSessionPropertiesRead = bgpSessionPropertiesRead;
     _buffered = buffered;
     _callExprContext = callExprContext;
     _callStatementContext = callStatementContext;
@@ -148,6 +175,7 @@ public class Environment {
     _communitySetExprs = communitySetExprs;
     _communitySetMatchExprs = communitySetMatchExprs;
     _communitySets = communitySets;
+    _compiledPolicyContext = compiledPolicyContext;
     _defaultAction = defaultAction;
     _defaultPolicy = defaultPolicy;
     _direction = direction;
@@ -181,6 +209,7 @@ public class Environment {
    */
   @Nullable
   public BgpSessionProperties getBgpSessionProperties() {
+    _bgpSessionPropertiesRead.run();
     return _bgpSessionProperties;
   }
 
@@ -220,6 +249,15 @@ public class Environment {
     return _communitySets;
   }
 
+  /**
+   * The compiled context of the policies being evaluated, whose matchers expressions use instead of
+   * evaluating themselves, or {@code null} if the policies are not compiled.
+   */
+  @Nullable
+  public CompiledPolicyContext getCompiledPolicyContext() {
+    return _compiledPolicyContext;
+  }
+
   public boolean getDefaultAction() {
     return _defaultAction;
   }
@@ -258,7 +296,7 @@ public class Environment {
    * are no {@link BgpSessionProperties}.
    */
   public Optional<Long> getLocalAs() {
-    return Optional.ofNullable(_bgpSessionProperties).map(BgpSessionProperties::getLocalAs);
+    return Optional.ofNullable(getBgpSessionProperties()).map(BgpSessionProperties::getLocalAs);
   }
 
   /**
@@ -266,7 +304,7 @@ public class Environment {
    * are no {@link BgpSessionProperties}.
    */
   public Optional<Ip> getLocalIp() {
-    return Optional.ofNullable(_bgpSessionProperties).map(BgpSessionProperties::getLocalIp);
+    return Optional.ofNullable(getBgpSessionProperties()).map(BgpSessionProperties::getLocalIp);
   }
 
   /**
@@ -274,7 +312,7 @@ public class Environment {
    * there are no {@link BgpSessionProperties}.
    */
   public Optional<Long> getRemoteAs() {
-    return Optional.ofNullable(_bgpSessionProperties).map(BgpSessionProperties::getRemoteAs);
+    return Optional.ofNullable(getBgpSessionProperties()).map(BgpSessionProperties::getRemoteAs);
   }
 
   /**
@@ -282,7 +320,7 @@ public class Environment {
    * there are no {@link BgpSessionProperties}.
    */
   public Optional<Ip> getRemoteIp() {
-    return Optional.ofNullable(_bgpSessionProperties).map(BgpSessionProperties::getRemoteIp);
+    return Optional.ofNullable(getBgpSessionProperties()).map(BgpSessionProperties::getRemoteIp);
   }
 
   /** Whether the output route's tag has been explicitly set in the current routing policy */
@@ -384,6 +422,7 @@ public class Environment {
     private Map<String, AsPathExpr> _asPathExprs;
     private Map<String, AsPathMatchExpr> _asPathMatchExprs;
     @Nullable private BgpSessionProperties _bgpSessionProperties;
+    private @Nullable Runnable _bgpSessionPropertiesRead;
     private boolean _buffered;
     private boolean _callExprContext;
     private boolean _callStatementContext;
@@ -391,6 +430,7 @@ public class Environment {
     private Map<String, CommunitySetExpr> _communitySetExprs;
     private Map<String, CommunitySetMatchExpr> _communitySetMatchExprs;
     private Map<String, CommunitySet> _communitySets;
+    @Nullable private CompiledPolicyContext _compiledPolicyContext;
     private boolean _defaultAction;
     private String _defaultPolicy;
     private @Nonnull Direction _direction = Direction.OUT;
@@ -435,6 +475,15 @@ public class Environment {
       return this;
     }
 
+    /**
+     * Set an action to run whenever the policy reads the {@link BgpSessionProperties}, e.g. to find
+     * out whether the result of an evaluation depends on the session.
+     */
+    public Builder setBgpSessionPropertiesRead(@Nullable Runnable bgpSessionPropertiesRead) {
+      _bgpSessionPropertiesRead = bgpSessionPropertiesRead;
+      return this;
+    }
+
     public Builder setBuffered(boolean buffered) {
       _buffered = buffered;
       return this;
@@ -471,6 +520,12 @@ public class Environment {
       return this;
     }
 
+    public Builder setCompiledPolicyContext(
+        @Nullable CompiledPolicyContext compiledPolicyContext) {
+      _compiledPolicyContext = compiledPolicyContext;
+      return this;
+    }
+
     public Builder setDefaultAction(boolean defaultAction) {
       _defaultAction = defaultAction;
       return this;
@@ -557,6 +612,7 @@ public class Environment {
           firstNonNull(_asPathExprs, ImmutableMap.of()),
           firstNonNull(_asPathMatchExprs, ImmutableMap.of()),
           _bgpSessionProperties,
+          firstNonNull(_bgpSessionPropertiesRead, () -> {}),
           _buffered,
           _callExprContext,
           _callStatementContext,
@@ -564,6 +620,7 @@ public class Environment {
           firstNonNull(_communitySetExprs, ImmutableMap.of()),
           firstNonNull(_communitySetMatchExprs, ImmutableMap.of()),
           firstNonNull(_communitySets, ImmutableMap.of()),
+          _compiledPolicyContext,
           _defaultAction,
           _defaultPolicy,
           _direction,
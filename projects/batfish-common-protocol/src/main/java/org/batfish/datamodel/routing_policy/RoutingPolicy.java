@@ -88,6 +88,7 @@ public class RoutingPolicy implements Serializable {
   private static final String PROP_NAME = "name";
   private static final String PROP_STATEMENTS = "statements";
 
+  @Nullable private transient CompiledPolicyContext _compiledPolicyContext;
   @Nonnull private final String _name;
   @Nullable private Configuration _owner;
   @Nullable private transient Set<String> _sources;
@@ -211,7 +212,7 @@ public class RoutingPolicy implements Serializable {
       AbstractRouteDecorator inputRoute,
       AbstractRouteBuilder<?, ?> outputRoute,
       Direction direction) {
-    return process(inputRoute, outputRoute, null, null, direction, null, null);
+    return process(inputRoute, outputRoute, null, null, direction, null, null, null);
   }
 
   /**
@@ -222,7 +223,7 @@ public class RoutingPolicy implements Serializable {
       AbstractRouteBuilder<?, ?> outputRoute,
       Direction direction,
       Tracer tracer) {
-    return process(inputRoute, outputRoute, null, null, direction, null, tracer);
+    return process(inputRoute, outputRoute, null, null, direction, null, tracer, null);
   }
 
   /**
@@ -233,7 +234,7 @@ public class RoutingPolicy implements Serializable {
       AbstractRouteBuilder<?, ?> outputRoute,
       Direction direction,
       Predicate<String> successfulTrack) {
-    return process(inputRoute, outputRoute, null, null, direction, successfulTrack, null);
+    return process(inputRoute, outputRoute, null, null, direction, successfulTrack, null, null);
   }
 
   /**
@@ -246,7 +247,8 @@ public class RoutingPolicy implements Serializable {
       Direction direction,
       Predicate<String> successfulTrack,
       Tracer tracer) {
-    return process(inputRoute, outputRoute, properties, null, direction, successfulTrack, tracer);
+    return process(
+        inputRoute, outputRoute, properties, null, direction, successfulTrack, tracer, null);
   }
 
   public boolean process(
@@ -254,7 +256,7 @@ public class RoutingPolicy implements Serializable {
       @Nonnull AbstractRouteBuilder<?, ?> outputRoute,
       @Nonnull EigrpProcess eigrpProcess,
       Direction direction) {
-    return process(inputRoute, outputRoute, null, eigrpProcess, direction, null, null);
+    return process(inputRoute, outputRoute, null, eigrpProcess, direction, null, null, null);
   }
 
   public boolean process(
@@ -263,7 +265,8 @@ public class RoutingPolicy implements Serializable {
       @Nonnull EigrpProcess eigrpProcess,
       Direction direction,
       Predicate<String> successfulTrack) {
-    return process(inputRoute, outputRoute, null, eigrpProcess, direction, successfulTrack, null);
+    return process(
+        inputRoute, outputRoute, null, eigrpProcess, direction, successfulTrack, null, null);
   }
 
   /**
@@ -283,9 +286,40 @@ public class RoutingPolicy implements Serializable {
       @Nullable BgpSessionProperties sessionProperties,
       Direction direction,
       @Nullable Predicate<String> successfulTrack) {
+    return processBgpRoute(
+        inputRoute, outputRoute, sessionProperties, direction, successfulTrack, null);
+  }
+
+  /**
+   * Process a given {@code inputRoute} through this BGP routing policy.
+   *
+   * @param inputRoute Input route to process
+   * @param outputRoute Builder for output BGP route; may be modified by policy
+   * @param sessionProperties {@link BgpSessionProperties} representing the session for the local
+   *     node. In other words, local properties should be TAIL and remote properties should be HEAD.
+   * @param direction {@link Direction} in which route is being sent
+   * @param successfulTrack whether a named track should be considered successful. If {@code null},
+   *     defaults to {@link Predicates#alwaysFalse()}.
+   * @param bgpSessionPropertiesRead if not {@code null}, run whenever the policy reads {@code
+   *     sessionProperties}
+   */
+  public boolean processBgpRoute(
+      AbstractRouteDecorator inputRoute,
+      BgpRoute.Builder<?, ?> outputRoute,
+      @Nullable BgpSessionProperties sessionProperties,
+      Direction direction,
+      @Nullable Predicate<String> successfulTrack,
+      @Nullable Runnable bgpSessionPropertiesRead) {
     checkState(_owner != null, "Cannot evaluate routing policy without a Configuration");
     return process(
-        inputRoute, outputRoute, sessionProperties, null, direction, successfulTrack, null);
+        inputRoute,
+        outputRoute,
+        sessionProperties,
+        null,
+        direction,
+        successfulTrack,
+        null,
+        bgpSessionPropertiesRead);
   }
 
   private boolean process(
@@ -295,11 +329,15 @@ public class RoutingPolicy implements Serializable {
       @Nullable EigrpProcess eigrpProcess,
       Direction direction,
       @Nullable Predicate<String> successfulTrack,
-      @Nullable Tracer tracer) {
+      @Nullable Tracer tracer,
+      @Nullable Runnable bgpSessionPropertiesRead) {
     checkState(_owner != null, "Cannot evaluate routing policy without a Configuration");
     Environment environment =
-        Environment.builder(_owner)
+        (_compiledPolicyContext != null
+                ? Environment.builder(_compiledPolicyContext)
+                : Environment.builder(_owner))
             .setBgpSessionProperties(bgpSessionProperties)
+            .setBgpSessionPropertiesRead(bgpSessionPropertiesRead)
             .setOriginalRoute(inputRoute)
             .setOutputRoute(outputRoute)
             .setDirection(direction)
@@ -311,6 +349,18 @@ public class RoutingPolicy implements Serializable {
     return result.getBooleanValue() && !(Boolean.TRUE.equals(environment.getSuppressed()));
   }
 
+  /**
+   * Returns a copy of this policy that is evaluated using the given context. See {@link
+   * CompiledPolicyContext#compile}.
+   */
+  @Nonnull
+  RoutingPolicy withCompiledPolicyContext(CompiledPolicyContext compiledPolicyContext) {
+    RoutingPolicy policy = new RoutingPolicy(_name, _owner);
+    policy._statements = _statements;
+    policy._compiledPolicyContext = compiledPolicyContext;
+    return policy;
+  }
+
   @JsonProperty(PROP_STATEMENTS)
   public void setStatements(@Nullable List<Statement> statements) {
     _statements = firstNonNull(statements, ImmutableList.of());
@@ -3,12 +3,16 @@ package org.batfish.datamodel.routing_policy.as_path;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-/** An {@link AsPathMatchExpr} that matches an AS-path via a Java regex. */
+/**
+ * An {@link AsPathMatchExpr} that matches an AS-path via a Java regex. Matching is done by an
+ * {@link AsPathRegexMatcher}.
+ */
 public final class AsPathMatchRegex extends AsPathMatchExpr {
 
   public static @Nonnull AsPathMatchRegex of(String regex) {
@@ -25,6 +29,17 @@ public final class AsPathMatchRegex extends AsPathMatchExpr {
     return _regex;
   }
 
+  /** Return the matcher for the regex, compiling it on first use. */
+  @JsonIgnore
+  public @Nonnull AsPathRegexMatcher getMatcher() {
+    AsPathRegexMatcher matcher = _matcher;
+    if (matcher == null) {
+      matcher = AsPathRegexMatcher.of(_regex);
+      _matcher = matcher;
+    }
+    return matcher;
+  }
+
   @Override
   public boolean equals(@Nullable Object o) {
     if (this == o) {
@@ -56,6 +71,7 @@ public final class AsPathMatchRegex extends AsPathMatchExpr {
   }
 
   private final @Nonnull String _regex;
+  private transient @Nullable AsPathRegexMatcher _matcher;
 
   private AsPathMatchRegex(String regex) {
     _regex = regex;
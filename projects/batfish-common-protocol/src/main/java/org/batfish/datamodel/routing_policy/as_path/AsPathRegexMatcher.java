@@ -0,0 +1,545 @@
+package org.batfish.datamodel.routing_policy.as_path;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.RegExp;
+import dk.brics.automaton.RunAutomaton;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.PatternProvider;
+import org.batfish.datamodel.AsPath;
+
+/**
+ * Matches AS paths against an AS-path regex, given in the Java syntax produced by vendor
+ * conversion, using a minimized DFA instead of {@link java.util.regex}.
+ *
+ * <p>The regex is translated into a DFA over the string rendering of AS paths (see {@link
+ * AsPath#getAsPathString()}) surrounded by start and end markers. Each {@code ^} or {@code $}
+ * anchor consumes one marker, and no other construct can match a marker, so the DFA accepts a
+ * marked non-empty path iff {@link java.util.regex.Matcher#find()} succeeds on the path. The empty
+ * path, in which anchors may match in any order, and regexes using Java constructs without an
+ * equivalent here (e.g. back-references, lookaround, possessive quantifiers) or whose DFA is too
+ * large are matched with {@link java.util.regex} instead.
+ *
+ * <p>Results are memoized per {@link AsPath}. AS paths are interned, so they are compared by
+ * identity.
+ */
+@ParametersAreNonnullByDefault
+public final class AsPathRegexMatcher {
+
+  /** Return the matcher for the given Java AS-path regex. */
+  public static @Nonnull AsPathRegexMatcher of(String regex) {
+    return CACHE.getUnchecked(regex);
+  }
+
+  /**
+   * Translate the given Java AS-path regex into a minimized DFA. The DFA accepts strings of the
+   * form {@code start* s end*}, where {@code s} is an AS-path string in which the regex finds a
+   * match, and each anchor used by the match consumes one {@code start} or {@code end} marker.
+   * Strings with fewer markers than the anchors a match needs are not accepted. For the empty
+   * AS-path string, matches whose anchors are not all start anchors followed by end anchors are
+   * not represented.
+   *
+   * @return the DFA, or {@code null} if the regex uses constructs that cannot be translated or
+   *     its DFA is too large
+   */
+  public static @Nullable Automaton toAutomaton(String regex, char start, char end) {
+    Translator translator = new Translator(regex, start, end);
+    return translator.translate() ? translator.toAutomaton() : null;
+  }
+
+  /** Return whether the regex finds a match in the string rendering of the given AS path. */
+  public boolean matches(AsPath asPath) {
+    Boolean result = _results.get(asPath, p -> matches(p.getAsPathString()));
+    assert result != null; // matching can't return null
+    return result;
+  }
+
+  /** Return whether the regex finds a match in the given AS-path string. */
+  public boolean matches(String asPathString) {
+    if (_dfa == null || asPathString.isEmpty()) {
+      // In the empty path, anchors may match in any order, which markers cannot express.
+      return _pattern.matcher(asPathString).find();
+    }
+    int state = _dfa.getInitialState();
+    for (int i = 0; i < _starts && state != -1; i++) {
+      state = _dfa.step(state, START);
+    }
+    for (int i = 0; i < asPathString.length() && state != -1; i++) {
+      state = _dfa.step(state, asPathString.charAt(i));
+    }
+    for (int i = 0; i < _ends && state != -1; i++) {
+      state = _dfa.step(state, END);
+    }
+    return state != -1 && _dfa.isAccept(state);
+  }
+
+  /** Whether the regex is matched with a DFA, rather than with {@link java.util.regex}. */
+  @VisibleForTesting
+  boolean usesDfa() {
+    return _dfa != null;
+  }
+
+  private static @Nonnull AsPathRegexMatcher compile(String regex) {
+    Translator translator = new Translator(regex, START, END);
+    Automaton automaton = translator.translate() ? translator.toAutomaton() : null;
+    return automaton != null
+        ? new AsPathRegexMatcher(
+            new RunAutomaton(automaton),
+            translator._starts,
+            translator._ends,
+            PatternProvider.fromString(regex))
+        : new AsPathRegexMatcher(null, 0, 0, PatternProvider.fromString(regex));
+  }
+
+  private AsPathRegexMatcher(
+      @Nullable RunAutomaton dfa, int starts, int ends, Pattern pattern) {
+    _dfa = dfa;
+    _starts = starts;
+    _ends = ends;
+    _pattern = pattern;
+    _results = Caffeine.newBuilder().weakKeys().maximumSize(MAX_MEMOIZED_PATHS).build();
+  }
+
+  /**
+   * Determinize the given automaton by subset construction. Returns null if the DFA would have more
+   * than {@link #MAX_DFA_STATES} states, which some regexes need.
+   */
+  private static @Nullable Automaton determinize(Automaton nfa) {
+    // the characters at which some transition's interval starts or ends
+    SortedSet<Character> points = new TreeSet<>();
+    points.add(Character.MIN_VALUE);
+    for (State state : nfa.getStates()) {
+      for (Transition t : state.getTransitions()) {
+        points.add(t.getMin());
+        if (t.getMax() < Character.MAX_VALUE) {
+          points.add((char) (t.getMax() + 1));
+        }
+      }
+    }
+    char[] mins = new char[points.size()];
+    int n = 0;
+    for (char point : points) {
+      mins[n++] = point;
+    }
+
+    Map<Set<State>, State> dfaStates = new HashMap<>();
+    Deque<Set<State>> worklist = new ArrayDeque<>();
+    Set<State> initial = ImmutableSet.of(nfa.getInitialState());
+    dfaStates.put(initial, newDfaState(initial));
+    worklist.add(initial);
+    while (!worklist.isEmpty()) {
+      Set<State> subset = worklist.remove();
+      State dfaState = dfaStates.get(subset);
+      for (int i = 0; i < mins.length; i++) {
+        Set<State> next = new HashSet<>();
+        for (State state : subset) {
+          state.step(mins[i], next);
+        }
+        if (next.isEmpty()) {
+          continue;
+        }
+        State dest = dfaStates.get(next);
+        if (dest == null) {
+          if (dfaStates.size() >= MAX_DFA_STATES) {
+            return null;
+          }
+          dest = newDfaState(next);
+          dfaStates.put(next, dest);
+          worklist.add(next);
+        }
+        char max = i + 1 < mins.length ? (char) (mins[i + 1] - 1) : Character.MAX_VALUE;
+        dfaState.addTransition(new Transition(mins[i], max, dest));
+      }
+    }
+    Automaton dfa = new Automaton();
+    dfa.setInitialState(dfaStates.get(initial));
+    dfa.setDeterministic(true);
+    dfa.reduce();
+    return dfa;
+  }
+
+  private static @Nonnull State newDfaState(Set<State> nfaStates) {
+    State state = new State();
+    state.setAccept(nfaStates.stream().anyMatch(State::isAccept));
+    return state;
+  }
+
+  private static @Nonnull String literals(char... chars) {
+    StringBuilder out = new StringBuilder();
+    for (char c : chars) {
+      appendLiteral(out, c);
+    }
+    return out.toString();
+  }
+
+  private static void appendLiteral(StringBuilder out, char c) {
+    if (!Character.isLetterOrDigit(c)) {
+      // any character escaped by a backslash is a literal in the automaton syntax
+      out.append('\\');
+    }
+    out.append(c);
+  }
+
+  /**
+   * Translates a Java regex into the syntax of {@link RegExp}, with anchors replaced by markers and
+   * wildcards and negated classes kept from matching the markers.
+   */
+  private static final class Translator {
+
+    private Translator(String regex, char start, char end) {
+      _regex = regex;
+      _start = start;
+      _end = end;
+      _out = new StringBuilder();
+    }
+
+    /** Build the DFA for the translated regex, or return null if it is invalid or too large. */
+    private @Nullable Automaton toAutomaton() {
+      StringBuilder full = new StringBuilder();
+      appendLiteral(full, _start);
+      full.append('*');
+      appendAnyUnmarked(full);
+      full.append('(').append(_out).append(')');
+      appendAnyUnmarked(full);
+      appendLiteral(full, _end);
+      full.append('*');
+      Automaton nfa;
+      try {
+        // minimizing after each step of the construction can take exponential time, so only the
+        // final DFA is minimized
+        nfa = new RegExp(full.toString(), RegExp.NONE).toAutomaton(false);
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+      Automaton dfa = determinize(nfa);
+      if (dfa != null) {
+        dfa.minimize();
+      }
+      return dfa;
+    }
+
+    private void appendAnyUnmarked(StringBuilder out) {
+      out.append("[^");
+      appendLiteral(out, _start);
+      appendLiteral(out, _end);
+      out.append("]*");
+    }
+
+    /** Translate the regex. Returns false if it uses constructs that cannot be translated. */
+    private boolean translate() {
+      boolean emptyBranch = true;
+      while (_pos < _regex.length()) {
+        char c = _regex.charAt(_pos++);
+        boolean atom = true;
+        int anchors = _starts + _ends;
+        switch (c) {
+          case '^':
+            _starts++;
+            appendLiteral(_out, _start);
+            break;
+          case '$':
+            _ends++;
+            appendLiteral(_out, _end);
+            break;
+          case '.':
+            _out.append("[^");
+            appendLiteral(_out, _start);
+            appendLiteral(_out, _end);
+            _out.append(']');
+            break;
+          case '(':
+            if (_regex.startsWith("?:", _pos)) {
+              _pos += 2;
+            } else if (_regex.startsWith("?", _pos)) {
+              // lookaround, flags, named groups, etc.
+              return false;
+            }
+            _out.append('(');
+            _groupAnchors.push(_starts + _ends);
+            atom = false;
+            break;
+          case '|':
+          case ')':
+            if (emptyBranch) {
+              _out.append("()");
+            }
+            _out.append(c);
+            if (c == ')') {
+              if (_groupAnchors.isEmpty()) {
+                return false;
+              }
+              anchors = _groupAnchors.pop();
+            }
+            atom = c == ')';
+            break;
+          case '*':
+          case '+':
+          case '?':
+            _out.append(c);
+            if (!quantifierMode()) {
+              return false;
+            }
+            break;
+          case '{':
+            if (!boundedQuantifier()) {
+              return false;
+            }
+            break;
+          case '[':
+            if (!charClass()) {
+              return false;
+            }
+            break;
+          case '\\':
+            if (!escape(false)) {
+              return false;
+            }
+            break;
+          default:
+            if (c == _start || c == _end) {
+              return false;
+            }
+            appendLiteral(_out, c);
+        }
+        emptyBranch = !atom;
+        if (atom) {
+          _lastAtomHasAnchors = _starts + _ends > anchors;
+        }
+      }
+      if (emptyBranch) {
+        _out.append("()");
+      }
+      return true;
+    }
+
+    /**
+     * Consume a lazy quantifier suffix, which does not change the set of matched paths. Returns
+     * false for a possessive quantifier suffix, which does.
+     */
+    private boolean quantifierMode() {
+      if (_regex.startsWith("?", _pos)) {
+        _pos++;
+      } else if (_regex.startsWith("+", _pos)) {
+        return false;
+      }
+      return true;
+    }
+
+    /** Translate {@code {n}}, {@code {n,}}, or {@code {n,m}}, after the opening brace. */
+    private boolean boundedQuantifier() {
+      int close = _regex.indexOf('}', _pos);
+      if (close == -1) {
+        return false;
+      }
+      String bounds = _regex.substring(_pos, close);
+      if (!bounds.matches("[0-9]+(,[0-9]*)?")) {
+        return false;
+      }
+      if (_lastAtomHasAnchors && !bounds.matches("[01](,[0-9]*)?")) {
+        // java.util.regex ends a repetition at its first empty iteration, even if more are
+        // required. The result differs from the DFA's when that iteration is an anchor.
+        return false;
+      }
+      _out.append('{').append(bounds).append('}');
+      _pos = close + 1;
+      return quantifierMode();
+    }
+
+    /** Translate a character class, after the opening bracket. */
+    private boolean charClass() {
+      _out.append('[');
+      boolean negated = _regex.startsWith("^", _pos);
+      if (negated) {
+        _pos++;
+        _out.append('^');
+      }
+      boolean first = true;
+      int last = -1;
+      while (true) {
+        if (_pos >= _regex.length()) {
+          return false;
+        }
+        char c = _regex.charAt(_pos++);
+        if (c == ']' && !first) {
+          break;
+        } else if (c == '[' || c == ']' || (c == '&' && _regex.startsWith("&", _pos))) {
+          // nested classes, unions and intersections
+          return false;
+        } else if (c == '\\') {
+          int escapedLiteral = escapedLiteral();
+          if (escapedLiteral == -1) {
+            if (!escape(true)) {
+              return false;
+            }
+          } else {
+            _pos++;
+            appendLiteral(_out, (char) escapedLiteral);
+          }
+          last = escapedLiteral;
+        } else if (c == '-' && !first && !_regex.startsWith("]", _pos)) {
+          // range from the last literal to the next one
+          if (last == -1 || _pos >= _regex.length()) {
+            return false;
+          }
+          int next =
+              _regex.charAt(_pos) == '\\' ? escapedLiteralAt(_pos + 1) : _regex.charAt(_pos);
+          if (next == -1
+              || (last <= _start && _start <= next)
+              || (last <= _end && _end <= next)) {
+            return false;
+          }
+          _out.append('-');
+          last = -1;
+        } else {
+          if (c == _start || c == _end) {
+            return false;
+          }
+          appendLiteral(_out, c);
+          last = c;
+        }
+        first = false;
+      }
+      if (negated) {
+        appendLiteral(_out, _start);
+        appendLiteral(_out, _end);
+      }
+      _out.append(']');
+      return true;
+    }
+
+    /**
+     * If the escape sequence whose backslash was just consumed denotes a single non-marker
+     * character, return it.
+     */
+    private int escapedLiteral() {
+      return escapedLiteralAt(_pos);
+    }
+
+    private int escapedLiteralAt(int pos) {
+      if (pos >= _regex.length()) {
+        return -1;
+      }
+      char c = _regex.charAt(pos);
+      if (Character.isLetterOrDigit(c) || c == _start || c == _end) {
+        return -1;
+      }
+      return c;
+    }
+
+    /** Translate an escape sequence, after the backslash. */
+    private boolean escape(boolean inClass) {
+      if (_pos >= _regex.length()) {
+        return false;
+      }
+      char c = _regex.charAt(_pos++);
+      switch (c) {
+        case 'd':
+          _out.append(inClass ? "0-9" : "[0-9]");
+          return true;
+        case 'D':
+          return !inClass && negatedClass("0-9");
+        case 's':
+          _out.append(inClass ? WHITESPACE : "[" + WHITESPACE + "]");
+          return true;
+        case 'S':
+          return !inClass && negatedClass(WHITESPACE);
+        case 'w':
+          _out.append(inClass ? WORD : "[" + WORD + "]");
+          return true;
+        case 'W':
+          return !inClass && negatedClass(WORD);
+        default:
+          if (Character.isLetterOrDigit(c)) {
+            // back-references, boundaries, properties, etc.
+            return false;
+          }
+          if (c == _start || c == _end) {
+            if (inClass) {
+              return false;
+            }
+            // a literal marker character never occurs in an AS-path string
+            _out.append(NOTHING);
+            return true;
+          }
+          appendLiteral(_out, c);
+          return true;
+      }
+    }
+
+    private boolean negatedClass(String chars) {
+      _out.append("[^").append(chars);
+      appendLiteral(_out, _start);
+      appendLiteral(_out, _end);
+      _out.append(']');
+      return true;
+    }
+
+    private final @Nonnull String _regex;
+    private final char _start;
+    private final char _end;
+    private final @Nonnull StringBuilder _out;
+    private int _pos;
+    private int _starts;
+    private int _ends;
+
+    /** The number of anchors before each enclosing group */
+    private final @Nonnull Deque<Integer> _groupAnchors = new ArrayDeque<>();
+
+    /** Whether the atom just translated contains an anchor */
+    private boolean _lastAtomHasAnchors;
+  }
+
+  /** Marker for the start of an AS path, never part of an AS-path string */
+  private static final char START = '\u0001';
+
+  /** Marker for the end of an AS path, never part of an AS-path string */
+  private static final char END = '\u0002';
+
+  /** The characters of {@code \\s}, in the automaton syntax */
+  private static final String WHITESPACE = literals(' ', '\t', '\n', '\u000B', '\f', '\r');
+
+  /** The characters of {@code \\w}, in the automaton syntax */
+  private static final String WORD = "a-zA-Z0-9" + literals('_');
+
+  /** Matches no character at all, in the automaton syntax */
+  private static final String NOTHING =
+      "[^" + literals(Character.MIN_VALUE) + "-" + literals(Character.MAX_VALUE) + "]";
+
+  /** The largest DFA built for a regex; larger ones are matched with {@link Pattern} instead. */
+  private static final int MAX_DFA_STATES = 10_000;
+
+  private static final long MAX_MEMOIZED_PATHS = 1 << 16;
+
+  // Soft values: let it be garbage collected in times of pressure.
+  // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
+  private static final LoadingCache<String, AsPathRegexMatcher> CACHE =
+      CacheBuilder.newBuilder()
+          .softValues()
+          .maximumSize(1 << 16)
+          .build(CacheLoader.from(AsPathRegexMatcher::compile));
+
+  private final @Nullable RunAutomaton _dfa;
+  private final int _starts;
+  private final int _ends;
+  private final @Nonnull Pattern _pattern;
+  private final @Nonnull Cache<AsPath, Boolean> _results;
+}
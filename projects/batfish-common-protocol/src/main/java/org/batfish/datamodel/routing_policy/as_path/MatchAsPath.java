@@ -6,9 +6,11 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.routing_policy.CompiledPolicyContext;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 import org.batfish.datamodel.routing_policy.expr.BooleanExpr;
@@ -37,7 +39,13 @@ public final class MatchAsPath extends BooleanExpr {
     }
     AsPathContext ctx = maybeCtx.get();
     AsPath asPath = _asPathExpr.accept(AsPathExprEvaluator.instance(), ctx);
-    return new Result(_asPathMatchExpr.accept(ctx.getAsPathMatchExprEvaluator(), asPath));
+    CompiledPolicyContext compiled = environment.getCompiledPolicyContext();
+    Predicate<AsPath> matcher =
+        compiled == null ? null : compiled.getAsPathMatcher(_asPathMatchExpr);
+    return new Result(
+        matcher != null
+            ? matcher.test(asPath)
+            : _asPathMatchExpr.accept(ctx.getAsPathMatchExprEvaluator(), asPath));
   }
 
   @JsonProperty(PROP_AS_PATH_EXPR)
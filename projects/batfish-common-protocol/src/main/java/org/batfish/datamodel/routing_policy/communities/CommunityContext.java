@@ -2,8 +2,12 @@ package org.batfish.datamodel.routing_policy.communities;
 
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.batfish.datamodel.HasReadableCommunities;
+import org.batfish.datamodel.bgp.community.Community;
+import org.batfish.datamodel.routing_policy.CompiledPolicyContext;
 import org.batfish.datamodel.routing_policy.Environment;
 
 /**
@@ -20,9 +24,16 @@ public final class CommunityContext {
           _communitySetExprs,
           _communitySetMatchExprs,
           _communitySets,
+          _compiledPolicyContext,
           _inputCommunitySet);
     }
 
+    public @Nonnull Builder setCompiledPolicyContext(
+        @Nullable CompiledPolicyContext compiledPolicyContext) {
+      _compiledPolicyContext = compiledPolicyContext;
+      return this;
+    }
+
     public @Nonnull Builder setCommunityMatchExprs(
         Map<String, CommunityMatchExpr> communityMatchExprs) {
       _communityMatchExprs = communityMatchExprs;
@@ -54,6 +65,7 @@ public final class CommunityContext {
     private @Nonnull Map<String, CommunitySetExpr> _communitySetExprs;
     private @Nonnull Map<String, CommunitySetMatchExpr> _communitySetMatchExprs;
     private @Nonnull Map<String, CommunitySet> _communitySets;
+    private @Nullable CompiledPolicyContext _compiledPolicyContext;
     private @Nonnull CommunitySet _inputCommunitySet;
 
     private Builder() {
@@ -109,6 +121,7 @@ public final class CommunityContext {
         .setCommunitySetExprs(environment.getCommunitySetExprs())
         .setCommunitySetMatchExprs(environment.getCommunitySetMatchExprs())
         .setCommunitySets(environment.getCommunitySets())
+        .setCompiledPolicyContext(environment.getCompiledPolicyContext())
         .setInputCommunitySet(inputCommunitySet)
         .build();
   }
@@ -121,10 +134,26 @@ public final class CommunityContext {
     return _communitySetMatchExprEvaluator;
   }
 
+  /**
+   * Returns a predicate matching communities against the given expression: the compiled matcher of
+   * the expression if this context has a {@link CompiledPolicyContext} that can compile it, and
+   * otherwise evaluation with {@link #getCommunityMatchExprEvaluator()}.
+   */
+  public @Nonnull Predicate<Community> getCommunityMatcher(CommunityMatchExpr expr) {
+    if (_compiledPolicyContext != null) {
+      Predicate<Community> matcher = _compiledPolicyContext.getCommunityMatcher(expr);
+      if (matcher != null) {
+        return matcher;
+      }
+    }
+    return c -> expr.accept(_communityMatchExprEvaluator, c);
+  }
+
   private final @Nonnull Map<String, CommunityMatchExpr> _communityMatchExprs;
   private final @Nonnull Map<String, CommunitySetExpr> _communitySetExprs;
   private final @Nonnull Map<String, CommunitySetMatchExpr> _communitySetMatchExprs;
   private final @Nonnull Map<String, CommunitySet> _communitySets;
+  private final @Nullable CompiledPolicyContext _compiledPolicyContext;
   private final @Nonnull CommunitySet _inputCommunitySet;
 
   private final @Nonnull CommunityMatchExprEvaluator _communityMatchExprEvaluator;
@@ -135,11 +164,13 @@ public final class CommunityContext {
       Map<String, CommunitySetExpr> communitySetExprs,
       Map<String, CommunitySetMatchExpr> communitySetMatchExprs,
       Map<String, CommunitySet> communitySets,
+      @Nullable CompiledPolicyContext compiledPolicyContext,
       CommunitySet inputCommunitySet) {
     _communityMatchExprs = communityMatchExprs;
     _communitySetExprs = communitySetExprs;
     _communitySetMatchExprs = communitySetMatchExprs;
     _communitySets = communitySets;
+    _compiledPolicyContext = compiledPolicyContext;
     _inputCommunitySet = inputCommunitySet;
 
     // instantiate evaluators
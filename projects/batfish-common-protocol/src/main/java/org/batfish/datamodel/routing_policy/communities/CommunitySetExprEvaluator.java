@@ -1,6 +1,7 @@
 package org.batfish.datamodel.routing_policy.communities;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import org.batfish.datamodel.bgp.community.Community;
 
@@ -31,10 +32,11 @@ public final class CommunitySetExprEvaluator
   public @Nonnull CommunitySet visitCommunitySetDifference(
       CommunitySetDifference communitySetDifference, CommunityContext arg) {
     CommunitySet initial = communitySetDifference.getInitial().accept(this, arg);
-    CommunityMatchExpr removalCriterion = communitySetDifference.getRemovalCriterion();
+    Predicate<Community> removalCriterion =
+        arg.getCommunityMatcher(communitySetDifference.getRemovalCriterion());
     ImmutableSet.Builder<Community> ret = ImmutableSet.builder();
     for (Community c : initial.getCommunities()) {
-      if (!removalCriterion.accept(arg.getCommunityMatchExprEvaluator(), c)) {
+      if (!removalCriterion.test(c)) {
         ret.add(c);
       }
     }
@@ -3,6 +3,7 @@ package org.batfish.datamodel.routing_policy.communities;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.annotations.VisibleForTesting;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import org.batfish.common.util.PatternProvider;
 import org.batfish.datamodel.LineAction;
@@ -75,8 +76,9 @@ public final class CommunitySetMatchExprEvaluator
 
   @Override
   public @Nonnull Boolean visitHasCommunity(HasCommunity hasCommunity, CommunitySet arg) {
+    Predicate<Community> matcher = _ctx.getCommunityMatcher(hasCommunity.getExpr());
     for (Community c : arg.getCommunities()) {
-      if (hasCommunity.getExpr().accept(_ctx.getCommunityMatchExprEvaluator(), c)) {
+      if (matcher.test(c)) {
         return true;
       }
     }
@@ -5,10 +5,12 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Objects;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.routing_policy.CompiledPolicyContext;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 
@@ -50,7 +52,10 @@ public final class MatchPrefixSet extends BooleanExpr {
   @Override
   public Result evaluate(Environment environment) {
     Prefix prefix = _prefix.evaluate(environment);
-    return new Result(_prefixSet.matches(prefix, environment));
+    CompiledPolicyContext compiled = environment.getCompiledPolicyContext();
+    Predicate<Prefix> matcher = compiled == null ? null : compiled.getPrefixSetMatcher(_prefixSet);
+    return new Result(
+        matcher != null ? matcher.test(prefix) : _prefixSet.matches(prefix, environment));
   }
 
   @JsonProperty(PROP_PREFIX)
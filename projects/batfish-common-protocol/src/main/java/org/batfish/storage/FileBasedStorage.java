@@ -13,10 +13,14 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
 import com.google.common.io.MoreFiles;
@@ -41,6 +45,7 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -81,8 +86,11 @@ import org.batfish.common.util.ZipUtility;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.VrfForwardingBehavior;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -229,6 +237,34 @@ public class FileBasedStorage implements StorageProvider {
     }
   }
 
+  @Override
+  public @Nonnull Map<String, HashCode> loadConfigurationHashes(NetworkSnapshot snapshot) {
+    NetworkId network = snapshot.getNetwork();
+    SnapshotId snapshotId = snapshot.getSnapshot();
+    Path indepDir = getVendorIndependentConfigDir(network, snapshotId);
+    if (!Files.exists(indepDir) || !cachedConfigsAreCompatible(network, snapshotId)) {
+      return ImmutableMap.of();
+    }
+    List<Path> serializedConfigs = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(indepDir)) {
+      stream.forEach(serializedConfigs::add);
+    } catch (IOException e) {
+      throw new BatfishException(
+          "Error reading vendor-independent configs directory: '" + indepDir + "'", e);
+    }
+    return serializedConfigs.parallelStream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                path -> path.getFileName().toString(),
+                path -> {
+                  try {
+                    return MoreFiles.asByteSource(path).hash(Hashing.murmur3_128());
+                  } catch (IOException e) {
+                    throw new BatfishException("Error hashing configuration: '" + path + "'", e);
+                  }
+                }));
+  }
+
   @Override
   public @Nonnull ConversionContext loadConversionContext(NetworkSnapshot snapshot)
       throws IOException {
@@ -529,6 +565,14 @@ public class FileBasedStorage implements StorageProvider {
     writeStringToFile(answerPath, answerStr, UTF_8);
   }
 
+  @Override
+  public void storeAnswer(NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException {
+    Path answerPath = getAnswerPath(network, snapshot, answerId);
+    mkdirs(answerPath.getParent());
+    writeJsonFile(answerPath, answer);
+  }
+
   @Override
   public void storeAnswerMetadata(
       NetworkId networkId, SnapshotId snapshotId, AnswerMetadata answerMetadata, AnswerId answerId)
@@ -686,14 +730,26 @@ public class FileBasedStorage implements StorageProvider {
   @Override
   public @Nonnull String loadAnswer(NetworkId networkId, SnapshotId snapshotId, AnswerId answerId)
       throws IOException {
+    return readFileToString(getExistingAnswerPath(networkId, snapshotId, answerId), UTF_8);
+  }
+
+  @Override
+  public @Nonnull InputStream loadAnswerStream(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws IOException {
+    return Files.newInputStream(
+        validatePath(getExistingAnswerPath(networkId, snapshotId, answerId)));
+  }
+
+  private @Nonnull Path getExistingAnswerPath(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws FileNotFoundException {
     Path answerPath = getAnswerPath(networkId, snapshotId, answerId);
     if (Files.exists(answerPath)) {
-      return readFileToString(answerPath, UTF_8);
+      return answerPath;
     }
     // look for the answer in the legacy location
     Path oldAnswerPath = getOldAnswerPath(answerId);
     if (Files.exists(oldAnswerPath)) {
-      return readFileToString(oldAnswerPath, UTF_8);
+      return oldAnswerPath;
     }
     throw new FileNotFoundException(String.format("Could not find answer with ID: %s", answerId));
   }
@@ -1548,7 +1604,7 @@ public class FileBasedStorage implements StorageProvider {
   @Nonnull
   @Override
   public DataPlane loadDataPlane(NetworkSnapshot snapshot) throws IOException {
-    Map<Path, String> namesByPath = new TreeMap<>();
+    Map<String, Path> pathsByHostname = new TreeMap<>();
     Path dataplanePath = getDataPlanePath(snapshot);
     try (DirectoryStream<Path> hostDataPlanes = Files.newDirectoryStream(dataplanePath)) {
       for (Path hostDataPlane : hostDataPlanes) {
@@ -1556,16 +1612,68 @@ public class FileBasedStorage implements StorageProvider {
         if (name.equals(RELPATH_DATA_PLANE_FORWARDING_ANALYSIS)) {
           continue;
         }
-        namesByPath.put(hostDataPlane, fromBase64(name));
+        pathsByHostname.put(fromBase64(name), hostDataPlane);
       }
     } catch (IOException e) {
       throw new BatfishException("Error reading data plane directory", e);
     }
-    Map<String, PerHostDataPlane> perNodeDataPlanes =
-        deserializeObjects(namesByPath, PerHostDataPlane.class);
-    ForwardingAnalysis forwardingAnalysis =
-        deserializeObjectUnchecked(getDataPlaneForwardingAnalysisPath(snapshot));
-    return new SimpleFieldsDataPlane(perNodeDataPlanes, forwardingAnalysis);
+    // Defer deserialization until each part of the data plane is actually used.
+    return new LazyDataPlane(
+        ImmutableSortedSet.copyOf(pathsByHostname.keySet()),
+        hostname -> loadPerHostDataPlane(snapshot, hostname, pathsByHostname.get(hostname)),
+        () -> loadForwardingAnalysis(snapshot));
+  }
+
+  /**
+   * Loads the data plane of one host of a {@link LazyDataPlane}. The file may be gone by then, if
+   * the snapshot was deleted after its data plane was opened.
+   */
+  private @Nonnull PerHostDataPlane loadPerHostDataPlane(
+      NetworkSnapshot snapshot, String hostname, Path path) {
+    if (!Files.exists(path)) {
+      throw dataPlaneDeletedException(snapshot);
+    }
+    long start = System.currentTimeMillis();
+    PerHostDataPlane dataPlane = deserializeObject(path, PerHostDataPlane.class);
+    LOGGER.debug(
+        "Loaded data plane of host {} in snapshot {} in {}ms",
+        hostname,
+        snapshot,
+        System.currentTimeMillis() - start);
+    return dataPlane;
+  }
+
+  private static @Nonnull BatfishException dataPlaneDeletedException(NetworkSnapshot snapshot) {
+    return new BatfishException(
+        String.format("Data plane of snapshot %s was deleted while in use", snapshot));
+  }
+
+  /**
+   * Loads the forwarding analysis of the given snapshot, deserializing the parts of all hosts in
+   * parallel. A missing forwarding analysis directory is treated as a forwarding analysis without
+   * any hosts.
+   */
+  private @Nonnull ForwardingAnalysis loadForwardingAnalysis(NetworkSnapshot snapshot) {
+    Path forwardingAnalysisPath = getDataPlaneForwardingAnalysisPath(snapshot);
+    if (Files.isRegularFile(forwardingAnalysisPath)) {
+      // Stored as a single object by an older version.
+      return deserializeObjectUnchecked(forwardingAnalysisPath);
+    } else if (!Files.exists(forwardingAnalysisPath)) {
+      if (!Files.exists(getDataPlanePath(snapshot))) {
+        throw dataPlaneDeletedException(snapshot);
+      }
+      return PerHostForwardingAnalysis.combine(ImmutableMap.of());
+    }
+    Map<Path, String> namesByPath = new TreeMap<>();
+    try (DirectoryStream<Path> parts = Files.newDirectoryStream(forwardingAnalysisPath)) {
+      for (Path part : parts) {
+        namesByPath.put(part, fromBase64(part.getFileName().toString()));
+      }
+    } catch (IOException e) {
+      throw new BatfishException("Error reading forwarding analysis directory", e);
+    }
+    return PerHostForwardingAnalysis.combine(
+        deserializeObjects(namesByPath, PerHostForwardingAnalysis.class));
   }
 
   @Override
@@ -1586,8 +1694,42 @@ public class FileBasedStorage implements StorageProvider {
                       dataPlane.getRibs().row(hostname));
               serializeObject(dp, getDataPlaneHostPath(snapshot, hostname));
             });
-    serializeObject(
-        dataPlane.getForwardingAnalysis(), getDataPlaneForwardingAnalysisPath(snapshot));
+    // The forwarding analysis is stored in one part per host, so that loading it is not limited to
+    // deserializing a single large object on one thread.
+    ForwardingAnalysis forwardingAnalysis = dataPlane.getForwardingAnalysis();
+    Map<String, Map<String, IpSpace>> arpReplies = forwardingAnalysis.getArpReplies();
+    Map<String, Map<String, VrfForwardingBehavior>> vrfForwardingBehavior =
+        forwardingAnalysis.getVrfForwardingBehavior();
+    Path forwardingAnalysisPath = getDataPlaneForwardingAnalysisPath(snapshot);
+    if (Files.isRegularFile(forwardingAnalysisPath)) {
+      // Stored as a single object by an older version.
+      Files.delete(forwardingAnalysisPath);
+    } else {
+      // Drop the parts of hosts that are not in this data plane.
+      deleteDirectory(forwardingAnalysisPath);
+    }
+    ImmutableSet.copyOf(Sets.union(arpReplies.keySet(), vrfForwardingBehavior.keySet()))
+        .parallelStream()
+        .forEach(
+            hostname ->
+                serializeObject(
+                    new PerHostForwardingAnalysis(
+                        arpReplies.get(hostname), vrfForwardingBehavior.get(hostname)),
+                    forwardingAnalysisPath.resolve(toBase64(hostname))));
+  }
+
+  @Override
+  public long getSnapshotInputSize(NetworkSnapshot snapshot) {
+    Path inputDir = getSnapshotInputObjectsDir(snapshot.getNetwork(), snapshot.getSnapshot());
+    if (!Files.isDirectory(inputDir)) {
+      return 0L;
+    }
+    try (Stream<Path> paths = Files.walk(inputDir)) {
+      return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+    } catch (IOException | UncheckedIOException e) {
+      LOGGER.warn("Error computing input size of snapshot {}", snapshot, e);
+      return 0L;
+    }
   }
 
   @Override
@@ -1717,7 +1859,9 @@ public class FileBasedStorage implements StorageProvider {
     return getDataPlanePath(snapshot).resolve(toBase64(hostname));
   }
 
-  private @Nonnull Path getDataPlaneForwardingAnalysisPath(NetworkSnapshot snapshot) {
+  @VisibleForTesting
+  @Nonnull
+  Path getDataPlaneForwardingAnalysisPath(NetworkSnapshot snapshot) {
     return getDataPlanePath(snapshot).resolve(RELPATH_DATA_PLANE_FORWARDING_ANALYSIS);
   }
 
@@ -0,0 +1,189 @@
+package org.batfish.storage;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Table;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+import org.batfish.datamodel.vxlan.Layer3Vni;
+
+/**
+ * A {@link DataPlane} whose {@link PerHostDataPlane per-host data planes} and {@link
+ * ForwardingAnalysis} are loaded on first access.
+ *
+ * <p>{@link #getFibs()} is a view that loads the data plane of a host only when that host is
+ * looked up, so that e.g. a traceroute only loads the hosts it traverses. The remaining accessors
+ * span all hosts, and load all of them once on first use.
+ *
+ * <p>Per-host data planes are softly referenced, so that under memory pressure the garbage
+ * collector may drop the hosts a long-lived data plane looked up once, e.g. those traversed by an
+ * earlier traceroute; a dropped host is reloaded on its next lookup. The all-host tables are
+ * memoized once built, and keep the hosts they were built from reachable.
+ *
+ * <p>Files are read when their part is first used, not when the data plane is opened. If the
+ * snapshot is deleted while a question uses its data plane, parts that were not loaded yet cannot
+ * be read, and the question fails with an error saying so. If the data plane of the snapshot is
+ * recomputed meanwhile, parts loaded later come from the new data plane. Each file is replaced
+ * atomically, so each part is consistent on its own.
+ */
+final class LazyDataPlane implements DataPlane {
+  private static final Logger LOGGER = LogManager.getLogger(LazyDataPlane.class);
+
+  private final @Nonnull LoadingCache<String, PerHostDataPlane> _perHostDataPlanes;
+  private final @Nonnull Supplier<Table<String, String, Set<Bgpv4Route>>> _bgpRoutes;
+  private final @Nonnull Supplier<Table<String, String, Set<Bgpv4Route>>> _bgpBackupRoutes;
+  private final @Nonnull Supplier<Table<String, String, Set<EvpnRoute<?, ?>>>> _evpnRoutes;
+  private final @Nonnull Supplier<Table<String, String, Set<EvpnRoute<?, ?>>>> _evpnBackupRoutes;
+  private final @Nonnull Map<String, Map<String, Fib>> _fibs;
+  private final @Nonnull Supplier<ForwardingAnalysis> _forwardingAnalysis;
+  private final @Nonnull Supplier<Table<String, String, Set<Layer2Vni>>> _layer2Vnis;
+  private final @Nonnull Supplier<Table<String, String, Set<Layer3Vni>>> _layer3Vnis;
+  private final @Nonnull Supplier<
+          SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>>
+      _prefixTracingInfoSummary;
+  private final @Nonnull Supplier<Table<String, String, FinalMainRib>> _ribs;
+
+  LazyDataPlane(
+      SortedSet<String> hostnames,
+      Function<String, PerHostDataPlane> perHostDataPlaneLoader,
+      Supplier<ForwardingAnalysis> forwardingAnalysisLoader) {
+    _perHostDataPlanes =
+        CacheBuilder.newBuilder()
+            .softValues()
+            .build(CacheLoader.from(perHostDataPlaneLoader::apply));
+    Supplier<Map<String, PerHostDataPlane>> perHostDataPlanes =
+        () -> loadAllPerHostDataPlanes(hostnames);
+    _bgpRoutes =
+        Suppliers.memoize(() -> toTable(perHostDataPlanes.get(), PerHostDataPlane::getBgpRoutes));
+    _bgpBackupRoutes =
+        Suppliers.memoize(
+            () -> toTable(perHostDataPlanes.get(), PerHostDataPlane::getBgpBackupRoutes));
+    _evpnRoutes =
+        Suppliers.memoize(() -> toTable(perHostDataPlanes.get(), PerHostDataPlane::getEvpnRoutes));
+    _evpnBackupRoutes =
+        Suppliers.memoize(
+            () -> toTable(perHostDataPlanes.get(), PerHostDataPlane::getEvpnBackupRoutes));
+    _fibs = Maps.asMap(hostnames, hostname -> getPerHostDataPlane(hostname).getFibs());
+    _forwardingAnalysis = Suppliers.memoize(forwardingAnalysisLoader);
+    _layer2Vnis =
+        Suppliers.memoize(() -> toTable(perHostDataPlanes.get(), PerHostDataPlane::getLayer2Vnis));
+    _layer3Vnis =
+        Suppliers.memoize(() -> toTable(perHostDataPlanes.get(), PerHostDataPlane::getLayer3Vnis));
+    _prefixTracingInfoSummary =
+        Suppliers.memoize(
+            () ->
+                ImmutableSortedMap.copyOf(
+                    Maps.transformValues(
+                        perHostDataPlanes.get(), PerHostDataPlane::getPrefixTracingInfoSummary)));
+    _ribs = Suppliers.memoize(() -> toTable(perHostDataPlanes.get(), PerHostDataPlane::getRibs));
+  }
+
+  private static <T> Table<String, String, T> toTable(
+      Map<String, PerHostDataPlane> perHostDataPlane,
+      Function<PerHostDataPlane, Map<String, T>> getter) {
+    ImmutableTable.Builder<String, String, T> ret = ImmutableTable.builder();
+    perHostDataPlane.forEach(
+        (hostname, hostDataPlane) ->
+            getter.apply(hostDataPlane).forEach((key, t) -> ret.put(hostname, key, t)));
+    return ret.build();
+  }
+
+  /** Loads the data planes of all the given hosts in parallel. */
+  private @Nonnull Map<String, PerHostDataPlane> loadAllPerHostDataPlanes(
+      SortedSet<String> hostnames) {
+    long start = System.currentTimeMillis();
+    Map<String, PerHostDataPlane> perHostDataPlanes =
+        hostnames.parallelStream()
+            .collect(
+                ImmutableSortedMap.toImmutableSortedMap(
+                    Ordering.natural(), hostname -> hostname, this::getPerHostDataPlane));
+    LOGGER.info(
+        "Loaded data planes of all {} hosts in {}ms",
+        hostnames.size(),
+        System.currentTimeMillis() - start);
+    return perHostDataPlanes;
+  }
+
+  private @Nonnull PerHostDataPlane getPerHostDataPlane(String hostname) {
+    try {
+      return _perHostDataPlanes.getUnchecked(hostname);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
+    return _bgpRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
+    return _bgpBackupRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
+    return _evpnRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
+    return _evpnBackupRoutes.get();
+  }
+
+  @Override
+  public @Nonnull Map<String, Map<String, Fib>> getFibs() {
+    return _fibs;
+  }
+
+  @Override
+  public @Nonnull ForwardingAnalysis getForwardingAnalysis() {
+    return _forwardingAnalysis.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
+    return _layer2Vnis.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, Set<Layer3Vni>> getLayer3Vnis() {
+    return _layer3Vnis.get();
+  }
+
+  @Override
+  public @Nonnull SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      getPrefixTracingInfoSummary() {
+    return _prefixTracingInfoSummary.get();
+  }
+
+  @Override
+  public @Nonnull Table<String, String, FinalMainRib> getRibs() {
+    return _ribs.get();
+  }
+}
@@ -0,0 +1,289 @@
+package org.batfish.storage;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.InterfaceForwardingBehavior;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardIpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixIpSpace;
+import org.batfish.datamodel.VrfForwardingBehavior;
+
+/**
+ * The part of a {@link ForwardingAnalysis} that concerns a single host. The forwarding analysis is
+ * stored in one such part per host, so that it can be deserialized in parallel.
+ *
+ * <p>The IP spaces of a part are serialized compactly: the forwarding analysis canonicalizes them
+ * into sets of wildcards, which are stored as arrays of longs, once per distinct IP space of the
+ * host. IP spaces that are not sets of wildcards are stored as objects.
+ */
+final class PerHostForwardingAnalysis implements Serializable {
+  private final @Nullable Map<String, IpSpace> _arpReplies;
+  private final @Nullable Map<String, VrfForwardingBehavior> _vrfForwardingBehavior;
+
+  PerHostForwardingAnalysis(
+      @Nullable Map<String, IpSpace> arpReplies,
+      @Nullable Map<String, VrfForwardingBehavior> vrfForwardingBehavior) {
+    _arpReplies = arpReplies;
+    _vrfForwardingBehavior = vrfForwardingBehavior;
+  }
+
+  /** The ARP replies of the host by interface, or {@code null} if the host has none. */
+  @Nullable
+  Map<String, IpSpace> getArpReplies() {
+    return _arpReplies;
+  }
+
+  /** The forwarding behavior of the host by VRF, or {@code null} if the host has none. */
+  @Nullable
+  Map<String, VrfForwardingBehavior> getVrfForwardingBehavior() {
+    return _vrfForwardingBehavior;
+  }
+
+  /** Reassembles a {@link ForwardingAnalysis} from its parts, by hostname. */
+  static @Nonnull ForwardingAnalysis combine(Map<String, PerHostForwardingAnalysis> parts) {
+    ImmutableMap.Builder<String, Map<String, IpSpace>> arpReplies = ImmutableMap.builder();
+    ImmutableMap.Builder<String, Map<String, VrfForwardingBehavior>> vrfForwardingBehavior =
+        ImmutableMap.builder();
+    parts.forEach(
+        (hostname, part) -> {
+          if (part._arpReplies != null) {
+            arpReplies.put(hostname, part._arpReplies);
+          }
+          if (part._vrfForwardingBehavior != null) {
+            vrfForwardingBehavior.put(hostname, part._vrfForwardingBehavior);
+          }
+        });
+    return new CombinedForwardingAnalysis(arpReplies.build(), vrfForwardingBehavior.build());
+  }
+
+  private static final class CombinedForwardingAnalysis
+      implements ForwardingAnalysis, Serializable {
+    private final @Nonnull Map<String, Map<String, IpSpace>> _arpReplies;
+    private final @Nonnull Map<String, Map<String, VrfForwardingBehavior>> _vrfForwardingBehavior;
+
+    private CombinedForwardingAnalysis(
+        Map<String, Map<String, IpSpace>> arpReplies,
+        Map<String, Map<String, VrfForwardingBehavior>> vrfForwardingBehavior) {
+      _arpReplies = arpReplies;
+      _vrfForwardingBehavior = vrfForwardingBehavior;
+    }
+
+    @Override
+    public Map<String, Map<String, IpSpace>> getArpReplies() {
+      return _arpReplies;
+    }
+
+    @Override
+    public @Nonnull Map<String, Map<String, VrfForwardingBehavior>> getVrfForwardingBehavior() {
+      return _vrfForwardingBehavior;
+    }
+  }
+
+  private Object writeReplace() throws ObjectStreamException {
+    return new SerializedForm(this);
+  }
+
+  /**
+   * Serialized form of a {@link PerHostForwardingAnalysis}, in which each IP space is an index into
+   * a table of the distinct IP spaces of the host.
+   */
+  private static final class SerializedForm implements Serializable {
+    /**
+     * The wildcards of each distinct IP space, each packed as the IP in the high 32 bits and the
+     * wildcard mask in the low 32 bits, or {@code null} if the IP space is in {@link #_ipSpaces}.
+     */
+    private final @Nonnull long[][] _wildcards;
+
+    /** The distinct IP spaces that are not stored as wildcards. */
+    private final @Nonnull IpSpace[] _ipSpaces;
+
+    private final @Nullable Map<String, Integer> _arpReplies;
+    private final @Nullable Map<String, SerializedVrf> _vrfs;
+
+    private SerializedForm(PerHostForwardingAnalysis part) {
+      IpSpaceTable table = new IpSpaceTable();
+      _arpReplies = part._arpReplies == null ? null : table.indices(part._arpReplies);
+      if (part._vrfForwardingBehavior == null) {
+        _vrfs = null;
+      } else {
+        ImmutableMap.Builder<String, SerializedVrf> vrfs = ImmutableMap.builder();
+        part._vrfForwardingBehavior.forEach(
+            (vrf, behavior) -> vrfs.put(vrf, new SerializedVrf(table, behavior)));
+        _vrfs = vrfs.build();
+      }
+      _wildcards = table._wildcards.toArray(new long[0][]);
+      _ipSpaces = table._ipSpaces.toArray(new IpSpace[0]);
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+      IpSpace[] ipSpaces = new IpSpace[_wildcards.length];
+      for (int i = 0; i < ipSpaces.length; i++) {
+        ipSpaces[i] = _wildcards[i] == null ? _ipSpaces[i] : fromWildcards(_wildcards[i]);
+      }
+      return new PerHostForwardingAnalysis(
+          _arpReplies == null ? null : resolve(_arpReplies, ipSpaces),
+          _vrfs == null
+              ? null
+              : _vrfs.entrySet().stream()
+                  .collect(
+                      ImmutableMap.toImmutableMap(
+                          Map.Entry::getKey, e -> e.getValue().resolve(ipSpaces))));
+    }
+  }
+
+  /** Serialized form of a {@link VrfForwardingBehavior}, with IP spaces as table indices. */
+  private static final class SerializedVrf implements Serializable {
+    private final @Nonnull Map<Edge, Integer> _arpTrueEdge;
+
+    /**
+     * For each interface, the indices of its accepted, delivered-to-subnet, exits-network,
+     * neighbor-unreachable, and insufficient-info IP spaces.
+     */
+    private final @Nonnull Map<String, int[]> _interfaces;
+
+    private final @Nonnull Map<String, Integer> _nextVrf;
+    private final int _nullRoutedIps;
+    private final int _routableIps;
+
+    private SerializedVrf(IpSpaceTable table, VrfForwardingBehavior behavior) {
+      _arpTrueEdge = table.indices(behavior.getArpTrueEdge());
+      ImmutableMap.Builder<String, int[]> interfaces = ImmutableMap.builder();
+      behavior
+          .getInterfaceForwardingBehavior()
+          .forEach(
+              (iface, b) ->
+                  interfaces.put(
+                      iface,
+                      new int[] {
+                        table.index(b.getAcceptedIps()),
+                        table.index(b.getDeliveredToSubnet()),
+                        table.index(b.getExitsNetwork()),
+                        table.index(b.getNeighborUnreachable()),
+                        table.index(b.getInsufficientInfo())
+                      }));
+      _interfaces = interfaces.build();
+      _nextVrf = table.indices(behavior.getNextVrfIps());
+      _nullRoutedIps = table.index(behavior.getNullRoutedIps());
+      _routableIps = table.index(behavior.getRoutableIps());
+    }
+
+    private @Nonnull VrfForwardingBehavior resolve(IpSpace[] ipSpaces) {
+      return VrfForwardingBehavior.builder()
+          .setArpTrueEdge(resolve(_arpTrueEdge, ipSpaces))
+          .setInterfaceForwardingBehavior(
+              _interfaces.entrySet().stream()
+                  .collect(
+                      ImmutableMap.toImmutableMap(
+                          Map.Entry::getKey,
+                          e -> {
+                            int[] indices = e.getValue();
+                            return new InterfaceForwardingBehavior(
+                                ipSpaces[indices[0]],
+                                ipSpaces[indices[1]],
+                                ipSpaces[indices[2]],
+                                ipSpaces[indices[3]],
+                                ipSpaces[indices[4]]);
+                          })))
+          .setNextVrf(resolve(_nextVrf, ipSpaces))
+          .setNullRoutedIps(ipSpaces[_nullRoutedIps])
+          .setRoutableIps(ipSpaces[_routableIps])
+          .build();
+    }
+  }
+
+  /** Assigns an index to each distinct IP space, in the order they are first seen. */
+  private static final class IpSpaceTable {
+    private final Map<IpSpace, Integer> _indices = new HashMap<>();
+    private final List<long[]> _wildcards = new ArrayList<>();
+    private final List<IpSpace> _ipSpaces = new ArrayList<>();
+
+    private int index(IpSpace ipSpace) {
+      return _indices.computeIfAbsent(
+          ipSpace,
+          s -> {
+            long[] wildcards = toWildcards(s);
+            _wildcards.add(wildcards);
+            _ipSpaces.add(wildcards == null ? s : null);
+            return _wildcards.size() - 1;
+          });
+    }
+
+    private @Nonnull <K> Map<K, Integer> indices(Map<K, IpSpace> ipSpaces) {
+      ImmutableMap.Builder<K, Integer> indices = ImmutableMap.builder();
+      ipSpaces.forEach((key, ipSpace) -> indices.put(key, index(ipSpace)));
+      return indices.build();
+    }
+  }
+
+  private static @Nonnull <K> Map<K, IpSpace> resolve(
+      Map<K, Integer> indices, IpSpace[] ipSpaces) {
+    ImmutableMap.Builder<K, IpSpace> resolved = ImmutableMap.builder();
+    indices.forEach((key, index) -> resolved.put(key, ipSpaces[index]));
+    return resolved.build();
+  }
+
+  /**
+   * Returns the wildcards of the given IP space packed into longs, or {@code null} if the IP space
+   * would not be {@link #fromWildcards restored} as an equal IP space. The forms supported are the
+   * ones IP spaces are canonicalized to.
+   */
+  private static @Nullable long[] toWildcards(IpSpace ipSpace) {
+    if (ipSpace instanceof EmptyIpSpace) {
+      return new long[0];
+    } else if (ipSpace instanceof PrefixIpSpace) {
+      return new long[] {pack(IpWildcard.create(((PrefixIpSpace) ipSpace).getPrefix()))};
+    } else if (ipSpace instanceof IpWildcardIpSpace) {
+      IpWildcard wildcard = ((IpWildcardIpSpace) ipSpace).getIpWildcard();
+      return wildcard.isPrefix() ? null : new long[] {pack(wildcard)};
+    } else if (ipSpace instanceof IpWildcardSetIpSpace) {
+      IpWildcardSetIpSpace wildcardSet = (IpWildcardSetIpSpace) ipSpace;
+      Set<IpWildcard> whitelist = wildcardSet.getWhitelist();
+      if (!wildcardSet.getBlacklist().isEmpty() || whitelist.size() < 2) {
+        return null;
+      }
+      return whitelist.stream().mapToLong(PerHostForwardingAnalysis::pack).toArray();
+    }
+    return null;
+  }
+
+  private static @Nonnull IpSpace fromWildcards(long[] packed) {
+    if (packed.length == 0) {
+      return EmptyIpSpace.INSTANCE;
+    }
+    if (packed.length == 1) {
+      IpWildcard wildcard = unpack(packed[0]);
+      return wildcard.isPrefix() ? wildcard.toPrefix().toIpSpace() : wildcard.toIpSpace();
+    }
+    ImmutableSet.Builder<IpWildcard> whitelist =
+        ImmutableSet.builderWithExpectedSize(packed.length);
+    for (long wildcard : packed) {
+      whitelist.add(unpack(wildcard));
+    }
+    return IpWildcardSetIpSpace.create(ImmutableSet.of(), whitelist.build());
+  }
+
+  private static long pack(IpWildcard wildcard) {
+    return wildcard.getIp().asLong() << Prefix.MAX_PREFIX_LENGTH | wildcard.getWildcardMask();
+  }
+
+  private static @Nonnull IpWildcard unpack(long packed) {
+    return IpWildcard.ipWithWildcardMask(
+        Ip.create(packed >>> Prefix.MAX_PREFIX_LENGTH), packed & 0xFFFFFFFFL);
+  }
+}
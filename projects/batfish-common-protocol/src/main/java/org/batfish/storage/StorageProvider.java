@@ -1,5 +1,6 @@
 package org.batfish.storage;
 
+import com.google.common.hash.HashCode;
 import com.google.errorprone.annotations.MustBeClosed;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -23,6 +24,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -57,6 +59,14 @@ public interface StorageProvider {
   @Nullable
   SortedMap<String, Configuration> loadConfigurations(NetworkId network, SnapshotId snapshot);
 
+  /**
+   * Returns a hash of the stored serialized form of each configuration of the given snapshot, keyed
+   * by hostname. The configurations are not deserialized. Returns an empty map if no configurations
+   * compatible with this version of Batfish are stored for the snapshot.
+   */
+  @Nonnull
+  Map<String, HashCode> loadConfigurationHashes(NetworkSnapshot snapshot);
+
   /**
    * Returns the {@link ConvertConfigurationAnswerElement} that is the result of the phase that
    * converts vendor-specific configurations to vendor-independent configurations.
@@ -158,6 +168,19 @@ public interface StorageProvider {
   void storeAnswer(NetworkId network, SnapshotId snapshot, String answerStr, AnswerId answerId)
       throws IOException;
 
+  /**
+   * Store the answer to an ad-hoc question, serializing it directly to storage rather than
+   * materializing its text in memory first.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answer The answer
+   * @param answerId The ID of the answer
+   * @throws IOException if there is an error
+   */
+  void storeAnswer(NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException;
+
   /**
    * Store the metadata for the answer to an ad-hoc question.
    *
@@ -202,6 +225,21 @@ public interface StorageProvider {
   String loadAnswer(NetworkId network, SnapshotId snapshot, AnswerId answerId)
       throws FileNotFoundException, IOException;
 
+  /**
+   * Open a stream of the JSON-serialized answer to an ad-hoc question, so that it may be
+   * deserialized without first reading its full text into memory.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answerId The ID of the answer
+   * @throws FileNotFoundException if answer does not exist; {@link IOException} if there is an
+   *     error reading the answer.
+   */
+  @MustBeClosed
+  @Nonnull
+  InputStream loadAnswerStream(NetworkId network, SnapshotId snapshot, AnswerId answerId)
+      throws FileNotFoundException, IOException;
+
   /**
    * Load the metadata for the answer to an ad-hoc question.
    *
@@ -715,6 +753,12 @@ public interface StorageProvider {
    */
   boolean hasDataPlane(NetworkSnapshot snapshot) throws IOException;
 
+  /**
+   * Returns the total size in bytes of the input files of the given snapshot, or 0 if it has none.
+   * Unreadable files are counted as empty.
+   */
+  long getSnapshotInputSize(NetworkSnapshot snapshot);
+
   /**
    * Returns a list of snapshot input object keys corresponding to environment BGP tables.
    *
@@ -405,4 +405,47 @@ public class IpSpaceToBDDTest {
       assertTrue(_ipSpaceToBdd.getMemoizedBddForTesting(ipSpace).isPresent());
     }
   }
+
+  @Test
+  public void testToIpSpace() {
+    assertThat(
+        _ipSpaceToBdd.toIpSpace(_ipSpaceToBdd.visit(EmptyIpSpace.INSTANCE)),
+        equalTo(EmptyIpSpace.INSTANCE));
+    assertThat(
+        _ipSpaceToBdd.toIpSpace(_ipSpaceToBdd.visit(UniverseIpSpace.INSTANCE)),
+        equalTo(UniverseIpSpace.INSTANCE));
+    assertThat(
+        _ipSpaceToBdd.toIpSpace(_ipSpaceToBdd.visit(IP1_IP_SPACE)),
+        equalTo(Prefix.parse("1.1.1.1/32").toIpSpace()));
+
+    // Adjacent prefixes are merged
+    IpSpace union =
+        AclIpSpace.union(
+            Prefix.parse("10.0.0.0/9").toIpSpace(), Prefix.parse("10.128.0.0/9").toIpSpace());
+    assertThat(
+        _ipSpaceToBdd.toIpSpace(_ipSpaceToBdd.visit(union)),
+        equalTo(Prefix.parse("10.0.0.0/8").toIpSpace()));
+
+    IpWildcard wc = IpWildcard.parse("0.2.0.0:255.0.255.255");
+    assertThat(
+        _ipSpaceToBdd.toIpSpace(_ipSpaceToBdd.visit(wc.toIpSpace())), equalTo(wc.toIpSpace()));
+  }
+
+  @Test
+  public void testToIpSpace_canonical() {
+    // The same space, built two different ways
+    IpSpace difference =
+        AclIpSpace.rejecting(Prefix.parse("10.0.0.0/9").toIpSpace())
+            .thenPermitting(Prefix.parse("10.0.0.0/8").toIpSpace())
+            .thenPermitting(IP1_IP_SPACE)
+            .build();
+    IpSpace wildcards =
+        IpWildcardSetIpSpace.create(
+            ImmutableSet.of(),
+            ImmutableSet.of(
+                IpWildcard.parse("10.128.0.0/9"), IpWildcard.create(Ip.parse("1.1.1.1"))));
+    IpSpace canonical = _ipSpaceToBdd.toIpSpace(_ipSpaceToBdd.visit(difference));
+    assertThat(canonical, sameInstance(_ipSpaceToBdd.toIpSpace(_ipSpaceToBdd.visit(wildcards))));
+    assertThat(_ipSpaceToBdd.visit(canonical), equalTo(_ipSpaceToBdd.visit(difference)));
+  }
 }
@@ -0,0 +1,103 @@
+package org.batfish.datamodel;
+
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrc;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.not;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.batfish.datamodel.acl.AclLineEvaluator;
+import org.batfish.datamodel.acl.FalseExpr;
+import org.junit.Test;
+
+/** Tests of {@link AclLineDstIpIndex}. */
+public class AclLineDstIpIndexTest {
+
+  @Test
+  public void testCandidateLines() {
+    Map<String, IpSpace> namedIpSpaces =
+        ImmutableMap.of("named", Prefix.parse("20.0.0.0/8").toIpSpace());
+    List<AclLine> lines =
+        ImmutableList.of(
+            ExprAclLine.accepting(matchDst(Prefix.parse("10.0.0.0/8"))),
+            ExprAclLine.rejecting(matchDst(Prefix.parse("10.1.0.0/16"))),
+            ExprAclLine.accepting(matchSrc(Ip.parse("1.1.1.1"))),
+            ExprAclLine.accepting(
+                matchDst(
+                    IpWildcard.ipWithWildcardMask(Ip.parse("10.1.0.1"), Ip.parse("0.0.255.0")))),
+            ExprAclLine.accepting(FalseExpr.INSTANCE),
+            ExprAclLine.accepting(matchDst(new IpSpaceReference("named"))),
+            ExprAclLine.accepting(
+                and(matchSrc(Ip.parse("2.2.2.2")), matchDst(Prefix.parse("20.1.0.0/16")))),
+            ExprAclLine.accepting(not(matchDst(Prefix.parse("10.0.0.0/8")))));
+    AclLineDstIpIndex index = AclLineDstIpIndex.of(lines, namedIpSpaces);
+
+    assertThat(index.candidateLines(Ip.parse("10.1.2.3")), equalTo(new int[] {0, 1, 2, 3, 7}));
+    assertThat(index.candidateLines(Ip.parse("10.2.0.0")), equalTo(new int[] {0, 2, 7}));
+    assertThat(index.candidateLines(Ip.parse("20.1.0.1")), equalTo(new int[] {2, 5, 6, 7}));
+    assertThat(index.candidateLines(Ip.parse("30.0.0.0")), equalTo(new int[] {2, 7}));
+  }
+
+  @Test
+  public void testCyclicIpSpaceReference() {
+    Map<String, IpSpace> namedIpSpaces = ImmutableMap.of("self", new IpSpaceReference("self"));
+    AclLineDstIpIndex index =
+        AclLineDstIpIndex.of(
+            ImmutableList.of(ExprAclLine.accepting(matchDst(new IpSpaceReference("self")))),
+            namedIpSpaces);
+    assertThat(index.candidateLines(Ip.parse("1.1.1.1")), equalTo(new int[] {0}));
+  }
+
+  @Test
+  public void testFilterMatchesLinearEvaluation() {
+    Random random = new Random(0);
+    for (int i = 0; i < 20; i++) {
+      ImmutableList.Builder<AclLine> lines = ImmutableList.builder();
+      for (int j = 0; j < 100; j++) {
+        // cluster prefixes under 10.0.0.0/16 so that many of them nest
+        Prefix dst =
+            Prefix.create(Ip.create(0x0A000000L + random.nextInt(1 << 16)), 8 + random.nextInt(25));
+        LineAction action = random.nextBoolean() ? LineAction.PERMIT : LineAction.DENY;
+        lines.add(
+            ExprAclLine.builder()
+                .setAction(action)
+                .setMatchCondition(
+                    random.nextInt(10) == 0
+                        ? matchSrc(Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), 16))
+                        : and(matchSrc(Ip.create(random.nextInt(4))), matchDst(dst)))
+                .build());
+      }
+      IpAccessList acl = IpAccessList.builder().setName("acl").setLines(lines.build()).build();
+      for (int j = 0; j < 200; j++) {
+        Flow flow =
+            Flow.builder()
+                .setIngressNode("node")
+                .setSrcIp(Ip.create(random.nextInt(4)))
+                .setDstIp(Ip.create(0x0A000000L + random.nextInt(1 << 16)))
+                .build();
+        FilterResult expected = filterLinearly(acl, flow);
+        FilterResult actual = acl.filter(flow, null, ImmutableMap.of(), ImmutableMap.of());
+        assertThat(flow.toString(), actual.getMatchLine(), equalTo(expected.getMatchLine()));
+        assertThat(flow.toString(), actual.getAction(), equalTo(expected.getAction()));
+      }
+    }
+  }
+
+  private static FilterResult filterLinearly(IpAccessList acl, Flow flow) {
+    AclLineEvaluator lineEvaluator =
+        new AclLineEvaluator(flow, null, ImmutableMap.of(), ImmutableMap.of());
+    for (int i = 0; i < acl.getLines().size(); i++) {
+      LineAction action = lineEvaluator.visit(acl.getLines().get(i));
+      if (action != null) {
+        return new FilterResult(i, action);
+      }
+    }
+    return new FilterResult(null, LineAction.DENY);
+  }
+}
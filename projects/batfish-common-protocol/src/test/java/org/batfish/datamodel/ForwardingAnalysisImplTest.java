@@ -1,5 +1,7 @@
 package org.batfish.datamodel;
 
+import static org.batfish.datamodel.ForwardingAnalysisImpl.MAX_CANONICAL_WILDCARDS;
+import static org.batfish.datamodel.ForwardingAnalysisImpl.canonicalize;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeArpFalseDestIp;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeArpFalseNextHopIp;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeArpFalseNhipRoutes;
@@ -37,6 +39,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -51,7 +54,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.IpSpaceToBDD;
 import org.batfish.common.topology.GlobalBroadcastNoPointToPoint;
 import org.batfish.common.topology.IpOwners;
 import org.batfish.common.topology.IpOwnersBaseImpl;
@@ -98,6 +106,28 @@ public class ForwardingAnalysisImplTest {
     _ib = nf.interfaceBuilder();
   }
 
+  @Test
+  public void testCanonicalize() {
+    IpSpaceToBDD ipSpaceToBDD = new BDDPacket().getDstIpSpaceToBDD();
+    IpSpace union =
+        AclIpSpace.union(
+            Prefix.parse("10.0.0.0/25").toIpSpace(), Prefix.parse("10.0.0.128/25").toIpSpace());
+    assertThat(canonicalize(ipSpaceToBDD, union), equalTo(Prefix.parse("10.0.0.0/24").toIpSpace()));
+  }
+
+  @Test
+  public void testCanonicalizeTooLarge() {
+    IpSpaceToBDD ipSpaceToBDD = new BDDPacket().getDstIpSpaceToBDD();
+    Random random = new Random(0);
+    IpSpace union =
+        AclIpSpace.union(
+            IntStream.range(0, MAX_CANONICAL_WILDCARDS * 2)
+                .mapToObj(i -> Ip.create(random.nextInt() & 0xFFFFFFFFL).toIpSpace())
+                .collect(Collectors.toList()));
+    // Too many wildcards to enumerate, so the IP space is kept as is.
+    assertThat(canonicalize(ipSpaceToBDD, union), sameInstance(union));
+  }
+
   @Test
   public void testComputeArpReplies() {
     Configuration c1 = _cb.build();
@@ -0,0 +1,99 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/** Tests of {@link LongestPrefixMatchTable} */
+public class LongestPrefixMatchTableTest {
+
+  @Test
+  public void testEmpty() {
+    LongestPrefixMatchTable<Integer> table =
+        LongestPrefixMatchTable.of(new PrefixTrieMultiMap<>());
+    assertThat(table.getNumRanges(), equalTo(1));
+    assertThat(table.longestPrefixMatch(Ip.ZERO), empty());
+    assertThat(table.longestPrefixMatch(Ip.MAX), empty());
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    PrefixTrieMultiMap<Integer> trie = new PrefixTrieMultiMap<>();
+    trie.put(Prefix.ZERO, 0);
+    trie.put(Prefix.parse("10.0.0.0/8"), 1);
+    trie.put(Prefix.parse("10.0.0.0/24"), 2);
+    trie.put(Prefix.parse("10.0.0.0/24"), 3);
+    trie.put(Prefix.parse("10.0.0.128/25"), 4);
+    trie.put(Prefix.parse("255.255.255.255/32"), 5);
+    LongestPrefixMatchTable<Integer> table = LongestPrefixMatchTable.of(trie);
+
+    assertThat(table.longestPrefixMatch(Ip.ZERO), containsInAnyOrder(0));
+    assertThat(table.longestPrefixMatch(Ip.parse("9.255.255.255")), containsInAnyOrder(0));
+    assertThat(table.longestPrefixMatch(Ip.parse("10.0.0.0")), containsInAnyOrder(2, 3));
+    assertThat(table.longestPrefixMatch(Ip.parse("10.0.0.127")), containsInAnyOrder(2, 3));
+    assertThat(table.longestPrefixMatch(Ip.parse("10.0.0.128")), containsInAnyOrder(4));
+    assertThat(table.longestPrefixMatch(Ip.parse("10.0.0.255")), containsInAnyOrder(4));
+    assertThat(table.longestPrefixMatch(Ip.parse("10.0.1.0")), containsInAnyOrder(1));
+    assertThat(table.longestPrefixMatch(Ip.parse("10.255.255.255")), containsInAnyOrder(1));
+    assertThat(table.longestPrefixMatch(Ip.parse("11.0.0.0")), containsInAnyOrder(0));
+    assertThat(table.longestPrefixMatch(Ip.parse("255.255.255.254")), containsInAnyOrder(0));
+    assertThat(table.longestPrefixMatch(Ip.MAX), containsInAnyOrder(5));
+  }
+
+  @Test
+  public void testNoDefaultRoute() {
+    PrefixTrieMultiMap<Integer> trie = new PrefixTrieMultiMap<>();
+    trie.put(Prefix.parse("128.0.0.0/1"), 1);
+    LongestPrefixMatchTable<Integer> table = LongestPrefixMatchTable.of(trie);
+
+    assertThat(table.getNumRanges(), equalTo(2));
+    assertThat(table.longestPrefixMatch(Ip.parse("127.255.255.255")), empty());
+    assertThat(table.longestPrefixMatch(Ip.parse("128.0.0.0")), containsInAnyOrder(1));
+    assertThat(table.longestPrefixMatch(Ip.MAX), containsInAnyOrder(1));
+  }
+
+  @Test
+  public void testAdjacentRangesWithEqualElementsAreMerged() {
+    PrefixTrieMultiMap<Integer> trie = new PrefixTrieMultiMap<>();
+    trie.put(Prefix.parse("10.0.0.0/25"), 1);
+    trie.put(Prefix.parse("10.0.0.128/25"), 1);
+    LongestPrefixMatchTable<Integer> table = LongestPrefixMatchTable.of(trie);
+
+    // [0.0.0.0, 10.0.0.0), [10.0.0.0, 10.0.1.0), [10.0.1.0, 255.255.255.255]
+    assertThat(table.getNumRanges(), equalTo(3));
+  }
+
+  @Test
+  public void testMatchesTrie() {
+    Random random = new Random(0);
+    for (int i = 0; i < 50; i++) {
+      PrefixTrieMultiMap<Integer> trie = new PrefixTrieMultiMap<>();
+      List<Ip> probes = new ArrayList<>(ImmutableList.of(Ip.ZERO, Ip.MAX));
+      for (int j = 0; j < 50; j++) {
+        // cluster prefixes under 10.0.0.0/16 so that many of them nest
+        Prefix prefix =
+            Prefix.create(
+                Ip.create(0x0A000000L + random.nextInt(1 << 16)), 8 + random.nextInt(25));
+        trie.put(prefix, random.nextInt(5));
+        long start = prefix.getStartIp().asLong();
+        long end = prefix.getEndIp().asLong();
+        probes.add(Ip.create(start - 1));
+        probes.add(prefix.getStartIp());
+        probes.add(prefix.getEndIp());
+        probes.add(Ip.create(end + 1));
+      }
+      LongestPrefixMatchTable<Integer> table = LongestPrefixMatchTable.of(trie);
+      for (Ip ip : probes) {
+        assertThat(
+            ip.toString(), table.longestPrefixMatch(ip), equalTo(trie.longestPrefixMatch(ip)));
+      }
+    }
+  }
+}
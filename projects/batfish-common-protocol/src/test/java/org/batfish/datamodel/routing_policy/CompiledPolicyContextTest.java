@@ -0,0 +1,193 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.List;
+import java.util.Map;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.RouteFilterLine;
+import org.batfish.datamodel.RouteFilterList;
+import org.batfish.datamodel.bgp.community.StandardCommunity;
+import org.batfish.datamodel.routing_policy.Environment.Direction;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchExprReference;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchRegex;
+import org.batfish.datamodel.routing_policy.as_path.InputAsPath;
+import org.batfish.datamodel.routing_policy.as_path.MatchAsPath;
+import org.batfish.datamodel.routing_policy.communities.ColonSeparatedRendering;
+import org.batfish.datamodel.routing_policy.communities.CommunityIn;
+import org.batfish.datamodel.routing_policy.communities.CommunityIs;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchAny;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchExprReference;
+import org.batfish.datamodel.routing_policy.communities.CommunityMatchRegex;
+import org.batfish.datamodel.routing_policy.communities.CommunitySet;
+import org.batfish.datamodel.routing_policy.communities.CommunitySetReference;
+import org.batfish.datamodel.routing_policy.communities.HasCommunity;
+import org.batfish.datamodel.routing_policy.communities.InputCommunities;
+import org.batfish.datamodel.routing_policy.communities.MatchCommunities;
+import org.batfish.datamodel.routing_policy.expr.BooleanExpr;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.NamedPrefixSet;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Test;
+
+/** Tests of {@link CompiledPolicyContext}. */
+public final class CompiledPolicyContextTest {
+
+  private static final BooleanExpr MATCH_PREFIX_SET =
+      new MatchPrefixSet(DestinationNetwork.instance(), new NamedPrefixSet("rfl"));
+  private static final BooleanExpr MATCH_COMMUNITIES =
+      new MatchCommunities(
+          InputCommunities.instance(), new HasCommunity(new CommunityMatchExprReference("cm")));
+  private static final BooleanExpr MATCH_AS_PATH =
+      MatchAsPath.of(InputAsPath.instance(), AsPathMatchExprReference.of("am"));
+
+  private static Configuration configuration() {
+    Configuration c = new NetworkFactory().configurationBuilder().build();
+    c.getRouteFilterLists()
+        .put(
+            "rfl",
+            new RouteFilterList(
+                "rfl",
+                ImmutableList.of(
+                    new RouteFilterLine(
+                        LineAction.PERMIT, PrefixRange.fromString("10.0.0.0/8:8-24")))));
+    c.setCommunitySets(ImmutableMap.of("cs", CommunitySet.of(StandardCommunity.of(3, 3))));
+    c.setCommunityMatchExprs(
+        ImmutableMap.of(
+            "cm",
+            new CommunityMatchAny(
+                ImmutableList.of(
+                    new CommunityIs(StandardCommunity.of(1, 1)),
+                    new CommunityIn(new CommunitySetReference("cs")),
+                    new CommunityMatchRegex(ColonSeparatedRendering.instance(), "^2:")))));
+    c.setAsPathMatchExprs(ImmutableMap.of("am", AsPathMatchRegex.of("^65001 ")));
+    for (BooleanExpr guard : ImmutableList.of(MATCH_PREFIX_SET, MATCH_COMMUNITIES, MATCH_AS_PATH)) {
+      RoutingPolicy.builder()
+          .setOwner(c)
+          .setName(guard.getClass().getSimpleName())
+          .addStatement(
+              new If(guard, ImmutableList.of(Statements.ExitAccept.toStaticStatement())))
+          .build();
+    }
+    return c;
+  }
+
+  private static List<Bgpv4Route> routes() {
+    ImmutableList.Builder<Bgpv4Route> routes = ImmutableList.builder();
+    for (String prefix : ImmutableList.of("10.1.0.0/16", "10.1.1.0/25", "11.0.0.0/8")) {
+      for (CommunitySet communities :
+          ImmutableList.of(
+              CommunitySet.empty(),
+              CommunitySet.of(StandardCommunity.of(1, 1)),
+              CommunitySet.of(StandardCommunity.of(2, 5)),
+              CommunitySet.of(StandardCommunity.of(3, 3)),
+              CommunitySet.of(StandardCommunity.of(4, 4)))) {
+        for (AsPath asPath :
+            ImmutableList.of(
+                AsPath.empty(),
+                AsPath.ofSingletonAsSets(65001L, 2L),
+                AsPath.ofSingletonAsSets(2L, 65001L))) {
+          routes.add(
+              Bgpv4Route.testBuilder()
+                  .setNetwork(Prefix.parse(prefix))
+                  .setCommunities(communities)
+                  .setAsPath(asPath)
+                  .build());
+        }
+      }
+    }
+    return routes.build();
+  }
+
+  private static List<Boolean> evaluate(
+      Map<String, RoutingPolicy> policies, List<Bgpv4Route> routes) {
+    ImmutableList.Builder<Boolean> results = ImmutableList.builder();
+    for (RoutingPolicy policy : ImmutableSortedMap.copyOf(policies).values()) {
+      for (Bgpv4Route route : routes) {
+        results.add(policy.process(route, Bgpv4Route.testBuilder(), Direction.IN));
+      }
+    }
+    return results.build();
+  }
+
+  @Test
+  public void testCompiledPoliciesAgreeWithInterpretedPolicies() {
+    Configuration c = configuration();
+    List<Bgpv4Route> routes = routes();
+    List<Boolean> interpreted = evaluate(c.getRoutingPolicies(), routes);
+
+    CompiledPolicyContext context = CompiledPolicyContext.compile(c);
+
+    assertThat(evaluate(context.getRoutingPolicies(), routes), equalTo(interpreted));
+    // Evaluation used the compiled matchers of the expressions
+    assertThat(
+        context.getPrefixSetMatcher(((MatchPrefixSet) MATCH_PREFIX_SET).getPrefixSet()),
+        notNullValue());
+    assertThat(
+        context.getCommunityMatcher(
+            ((HasCommunity) ((MatchCommunities) MATCH_COMMUNITIES).getCommunitySetMatchExpr())
+                .getExpr()),
+        notNullValue());
+    assertThat(
+        context.getAsPathMatcher(((MatchAsPath) MATCH_AS_PATH).getAsPathMatchExpr()),
+        notNullValue());
+  }
+
+  @Test
+  public void testCompileDoesNotModifyConfiguration() {
+    Configuration c = configuration();
+    CompiledPolicyContext context = CompiledPolicyContext.compile(c);
+    String name = MatchPrefixSet.class.getSimpleName();
+    RoutingPolicy policy = c.getRoutingPolicies().get(name);
+    RoutingPolicy compiledPolicy = context.getRoutingPolicies().get(name);
+    assertThat(compiledPolicy, not(sameInstance(policy)));
+
+    c.getRouteFilterLists()
+        .put(
+            "rfl",
+            new RouteFilterList(
+                "rfl",
+                ImmutableList.of(
+                    new RouteFilterLine(
+                        LineAction.PERMIT, PrefixRange.fromString("11.0.0.0/8:8-24")))));
+    Bgpv4Route route = Bgpv4Route.testBuilder().setNetwork(Prefix.parse("11.0.0.0/8")).build();
+
+    // The policy of the configuration sees the replaced list, the compiled copy keeps its snapshot
+    assertTrue(policy.process(route, Bgpv4Route.testBuilder(), Direction.IN));
+    assertFalse(compiledPolicy.process(route, Bgpv4Route.testBuilder(), Direction.IN));
+  }
+
+  @Test
+  public void testUncompiledExpressions() {
+    CompiledPolicyContext context = CompiledPolicyContext.compile(configuration());
+
+    // A missing list is reported by the expression when evaluated
+    assertThat(context.getPrefixSetMatcher(new NamedPrefixSet("missing")), nullValue());
+    // The communities of the route are not known when compiling
+    assertThat(
+        context.getCommunityMatcher(new CommunityIn(InputCommunities.instance())), nullValue());
+    assertThat(context.getAsPathMatcher(AsPathMatchExprReference.of("missing")), nullValue());
+    // A missing set is left to the evaluator
+    assertThat(
+        context.getCommunityMatcher(new CommunityIn(new CommunitySetReference("missing"))),
+        notNullValue());
+  }
+}
@@ -1,7 +1,9 @@
 package org.batfish.datamodel.routing_policy.as_path;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.testing.EqualsTester;
 import org.apache.commons.lang3.SerializationUtils;
@@ -31,4 +33,11 @@ public final class AsPathMatchRegexTest {
         .addEqualityGroup(AsPathMatchRegex.of("b"))
         .testEquals();
   }
+
+  @Test
+  public void testGetMatcher() {
+    AsPathMatchRegex obj = AsPathMatchRegex.of("^1 ");
+    assertThat(obj.getMatcher(), sameInstance(obj.getMatcher()));
+    assertTrue(SerializationUtils.clone(obj).getMatcher().matches("1 2"));
+  }
 }
@@ -0,0 +1,122 @@
+package org.batfish.datamodel.routing_policy.as_path;
+
+import static org.batfish.datamodel.routing_policy.Common.DEFAULT_UNDERSCORE_REPLACEMENT;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import dk.brics.automaton.RegExp;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.apache.commons.text.StringEscapeUtils;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.AsSet;
+import org.junit.Test;
+
+/** Tests of {@link AsPathRegexMatcher}. */
+public final class AsPathRegexMatcherTest {
+
+  private static final String UNDERSCORE =
+      StringEscapeUtils.unescapeJava(DEFAULT_UNDERSCORE_REPLACEMENT);
+
+  private static final List<AsPath> PATHS =
+      ImmutableList.of(
+          AsPath.empty(),
+          AsPath.ofSingletonAsSets(1L),
+          AsPath.ofSingletonAsSets(40L),
+          AsPath.ofSingletonAsSets(400L),
+          AsPath.ofSingletonAsSets(40L, 50L),
+          AsPath.ofSingletonAsSets(1L, 40L, 50L, 2L),
+          AsPath.ofSingletonAsSets(65000L, 65000L, 40L),
+          AsPath.of(ImmutableList.of(AsSet.of(1L), AsSet.of(40L, 50L))));
+
+  @Test
+  public void testMatchesLikeJavaRegex() {
+    List<String> regexes =
+        ImmutableList.of(
+            "",
+            "^$",
+            ".*",
+            "^40$",
+            "40",
+            "^40",
+            "40$",
+            ".40",
+            "[^0-9]40",
+            "\\D40",
+            UNDERSCORE + "40" + UNDERSCORE,
+            UNDERSCORE + "40" + UNDERSCORE + "50" + UNDERSCORE,
+            "^(^| )40$",
+            "^((^| )\\d+)*(^| )40$",
+            "^(^| )40((^| )\\d+)*$",
+            "^(?:65000 )+40$",
+            "^\\d{1,3}( \\d+)?$",
+            "(40|)50",
+            "|40",
+            "\\{40,50\\}",
+            "[ ,]50\\}",
+            "4+?0",
+            "\\$",
+            "^^40",
+            "\\s40\\S",
+            "(^| ){1,2}40",
+            "$^",
+            "($^(^| )|( ){1,2})",
+            "((4)*\\d[^1 ][^1 ].[^1 ][0-4])*");
+    for (String regex : regexes) {
+      AsPathRegexMatcher matcher = AsPathRegexMatcher.of(regex);
+      assertTrue(regex, matcher.usesDfa());
+      Pattern pattern = Pattern.compile(regex);
+      for (AsPath path : PATHS) {
+        assertThat(
+            String.format("/%s/ on '%s'", regex, path.getAsPathString()),
+            matcher.matches(path),
+            equalTo(pattern.matcher(path.getAsPathString()).find()));
+      }
+    }
+  }
+
+  @Test
+  public void testFallback() {
+    // back-reference, lookahead, possessive quantifier, required repetitions of an anchor, too
+    // large DFA
+    for (String regex :
+        ImmutableList.of(
+            "^(\\d+) \\1$",
+            "^(?=40)\\d+$",
+            "^\\d++ 40$",
+            "(($|0)){2}",
+            "(^|\\{){2}\\d",
+            "4.{20}$")) {
+      AsPathRegexMatcher matcher = AsPathRegexMatcher.of(regex);
+      assertFalse(regex, matcher.usesDfa());
+      Pattern pattern = Pattern.compile(regex);
+      for (AsPath path : PATHS) {
+        assertThat(
+            matcher.matches(path), equalTo(pattern.matcher(path.getAsPathString()).find()));
+      }
+    }
+  }
+
+  @Test
+  public void testOf() {
+    assertThat(AsPathRegexMatcher.of("^40$"), sameInstance(AsPathRegexMatcher.of("^40$")));
+  }
+
+  @Test
+  public void testToAutomaton() {
+    // anchors consume markers; the wildcard cannot
+    assertThat(
+        AsPathRegexMatcher.toAutomaton(".40$", '^', '$')
+            .intersection(new RegExp("\\^\\^40\\$").toAutomaton())
+            .isEmpty(),
+        equalTo(true));
+    assertTrue(AsPathRegexMatcher.toAutomaton("^40$", '^', '$').run("^^40$"));
+    assertFalse(AsPathRegexMatcher.toAutomaton("^40$", '^', '$').run("^^400$"));
+    assertThat(AsPathRegexMatcher.toAutomaton("(?=40)", '^', '$'), nullValue());
+  }
+}
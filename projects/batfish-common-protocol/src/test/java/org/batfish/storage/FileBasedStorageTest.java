@@ -31,6 +31,7 @@ import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -68,6 +69,7 @@ import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EmptyIpSpace;
 import org.batfish.datamodel.EvpnType5Route;
 import org.batfish.datamodel.FinalMainRib;
 import org.batfish.datamodel.ForwardingAnalysis;
@@ -83,6 +85,8 @@ import org.batfish.datamodel.ReceivedFromIp;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.VrfForwardingBehavior;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
@@ -542,6 +546,26 @@ public final class FileBasedStorageTest {
     _storage.loadAnswer(networkId, snapshotId, new AnswerId("missing"));
   }
 
+  @Test
+  public void testStoreAnswerAndLoadAnswerStream() throws IOException {
+    NetworkId networkId = new NetworkId("network");
+    SnapshotId snapshotId = new SnapshotId("snapshot");
+    AnswerId answerId = new AnswerId("answerId");
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+
+    _storage.storeAnswer(networkId, snapshotId, answer, answerId);
+
+    assertThat(
+        _storage.loadAnswer(networkId, snapshotId, answerId),
+        equalTo(BatfishObjectMapper.writeString(answer)));
+    try (InputStream answerStream = _storage.loadAnswerStream(networkId, snapshotId, answerId)) {
+      assertThat(
+          BatfishObjectMapper.mapper().readValue(answerStream, Answer.class).getStatus(),
+          equalTo(AnswerStatus.SUCCESS));
+    }
+  }
+
   /**
    * Test that the answer metadata is loaded from the legacy location if nothing is found in the
    * primary location
@@ -1026,9 +1050,16 @@ public final class FileBasedStorageTest {
             .setVni(1)
             .build();
     EvpnType5Route evpnBackup = evpn.toBuilder().setNetwork(Prefix.MULTICAST).build();
+    // Host m has forwarding behavior but no data plane of its own.
     ForwardingAnalysis fa =
         MockForwardingAnalysis.builder()
             .setArpReplies(ImmutableMap.of("n", ImmutableMap.of("i", UniverseIpSpace.INSTANCE)))
+            .setVrfForwardingBehavior(
+                ImmutableMap.of(
+                    "m",
+                    ImmutableMap.of(
+                        "v",
+                        VrfForwardingBehavior.withInterfaceForwardingBehavior(ImmutableMap.of()))))
             .build();
 
     DataPlane dp =
@@ -1058,11 +1089,133 @@ public final class FileBasedStorageTest {
         contains(evpnBackup));
     assertThat(dp2.getFibs(), hasEntry(equalTo("n"), hasKey("v")));
     assertThat(
-        dp2.getForwardingAnalysis().getArpReplies().get("n"),
-        hasEntry("i", UniverseIpSpace.INSTANCE));
+        dp2.getForwardingAnalysis().getArpReplies(),
+        equalTo(ImmutableMap.of("n", ImmutableMap.of("i", UniverseIpSpace.INSTANCE))));
+    assertThat(dp2.getForwardingAnalysis().getVrfForwardingBehavior().keySet(), contains("m"));
+    assertThat(dp2.getForwardingAnalysis().getVrfForwardingBehavior().get("m"), hasKey("v"));
     assertThat(dp2.getLayer2Vnis().rowMap(), hasEntry(equalTo("n"), hasKey("v2")));
     assertThat(dp2.getLayer3Vnis().rowMap(), hasEntry(equalTo("n"), hasKey("v3")));
     assertThat(dp2.getPrefixTracingInfoSummary(), hasEntry(equalTo("n"), hasKey("vp")));
     assertThat(dp2.getRibs().rowMap(), hasEntry(equalTo("n"), hasKey("vr")));
   }
+
+  /** Test that a forwarding analysis stored as a single object by an older version is loaded. */
+  @Test
+  public void testDataplaneSingleForwardingAnalysisFile() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    ForwardingAnalysis fa =
+        MockForwardingAnalysis.builder()
+            .setArpReplies(ImmutableMap.of("n", ImmutableMap.of("i", UniverseIpSpace.INSTANCE)))
+            .build();
+    DataPlane dp =
+        MockDataPlane.builder()
+            .setForwardingAnalysis(fa)
+            .setFibs(ImmutableMap.of("n", ImmutableMap.of("v", MockFib.builder().build())))
+            .setPrefixTracingInfoSummary(ImmutableSortedMap.of("n", ImmutableSortedMap.of()))
+            .build();
+    _storage.storeDataPlane(dp, snapshot);
+    Path forwardingAnalysisPath = _storage.getDataPlaneForwardingAnalysisPath(snapshot);
+    MoreFiles.deleteRecursively(forwardingAnalysisPath);
+    _storage.serializeObject(fa, forwardingAnalysisPath);
+
+    assertThat(
+        _storage.loadDataPlane(snapshot).getForwardingAnalysis().getArpReplies(),
+        equalTo(fa.getArpReplies()));
+
+    // Storing the data plane again replaces the old format.
+    _storage.storeDataPlane(dp, snapshot);
+    assertTrue(Files.isDirectory(forwardingAnalysisPath));
+    assertThat(
+        _storage.loadDataPlane(snapshot).getForwardingAnalysis().getArpReplies(),
+        equalTo(fa.getArpReplies()));
+  }
+
+  /** Test that a forwarding analysis without any hosts, which has no parts, is loaded. */
+  @Test
+  public void testDataplaneMissingForwardingAnalysis() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    DataPlane dp =
+        MockDataPlane.builder()
+            .setForwardingAnalysis(MockForwardingAnalysis.builder().build())
+            .setFibs(ImmutableMap.of("n", ImmutableMap.of("v", MockFib.builder().build())))
+            .setPrefixTracingInfoSummary(ImmutableSortedMap.of("n", ImmutableSortedMap.of()))
+            .build();
+    _storage.storeDataPlane(dp, snapshot);
+    assertFalse(Files.exists(_storage.getDataPlaneForwardingAnalysisPath(snapshot)));
+
+    ForwardingAnalysis fa = _storage.loadDataPlane(snapshot).getForwardingAnalysis();
+    assertThat(fa.getArpReplies(), equalTo(ImmutableMap.of()));
+    assertThat(fa.getVrfForwardingBehavior(), equalTo(ImmutableMap.of()));
+  }
+
+  /** Test that a data plane deleted after it was opened fails with an error saying so. */
+  @Test
+  public void testDataplaneDeletedWhileInUse() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    DataPlane dp =
+        MockDataPlane.builder()
+            .setForwardingAnalysis(MockForwardingAnalysis.builder().build())
+            .setFibs(ImmutableMap.of("n", ImmutableMap.of("v", MockFib.builder().build())))
+            .setPrefixTracingInfoSummary(ImmutableSortedMap.of("n", ImmutableSortedMap.of()))
+            .build();
+    _storage.storeDataPlane(dp, snapshot);
+    DataPlane dp2 = _storage.loadDataPlane(snapshot);
+    MoreFiles.deleteRecursively(_storage.getDataPlaneForwardingAnalysisPath(snapshot).getParent());
+
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage(containsString("was deleted while in use"));
+    dp2.getFibs().get("n");
+  }
+
+  /** Test that storing a data plane again drops the forwarding analysis of removed hosts. */
+  @Test
+  public void testDataplaneStoredAgain() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    MockDataPlane.Builder dp =
+        MockDataPlane.builder()
+            .setFibs(ImmutableMap.of("n", ImmutableMap.of("v", MockFib.builder().build())))
+            .setPrefixTracingInfoSummary(ImmutableSortedMap.of("n", ImmutableSortedMap.of()));
+    _storage.storeDataPlane(
+        dp.setForwardingAnalysis(
+                MockForwardingAnalysis.builder()
+                    .setArpReplies(
+                        ImmutableMap.of(
+                            "m",
+                            ImmutableMap.of("i", UniverseIpSpace.INSTANCE),
+                            "n",
+                            ImmutableMap.of("i", UniverseIpSpace.INSTANCE)))
+                    .build())
+            .build(),
+        snapshot);
+    _storage.storeDataPlane(
+        dp.setForwardingAnalysis(
+                MockForwardingAnalysis.builder()
+                    .setArpReplies(
+                        ImmutableMap.of("n", ImmutableMap.of("i", EmptyIpSpace.INSTANCE)))
+                    .build())
+            .build(),
+        snapshot);
+
+    assertThat(
+        _storage.loadDataPlane(snapshot).getForwardingAnalysis().getArpReplies(),
+        equalTo(ImmutableMap.of("n", ImmutableMap.of("i", EmptyIpSpace.INSTANCE))));
+  }
+
+  @Test
+  public void testGetSnapshotInputSize() throws IOException {
+    NetworkId networkId = new NetworkId("network-id");
+    SnapshotId snapshotId = new SnapshotId("snapshot-id");
+    NetworkSnapshot snapshot = new NetworkSnapshot(networkId, snapshotId);
+    assertThat(_storage.getSnapshotInputSize(snapshot), equalTo(0L));
+
+    Path inputDir = _storage.getSnapshotInputObjectsDir(networkId, snapshotId);
+    _storage.writeStringToFile(inputDir.resolve("configs/a.cfg"), "12345", UTF_8);
+    _storage.writeStringToFile(inputDir.resolve("configs/b.cfg"), "123", UTF_8);
+    _storage.writeStringToFile(inputDir.resolve("hosts/c.json"), "12", UTF_8);
+    assertThat(_storage.getSnapshotInputSize(snapshot), equalTo(10L));
+  }
 }
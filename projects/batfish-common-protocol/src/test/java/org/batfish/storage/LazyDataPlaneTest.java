@@ -0,0 +1,118 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.MockFib;
+import org.batfish.datamodel.MockForwardingAnalysis;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link LazyDataPlane}. */
+public final class LazyDataPlaneTest {
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static PerHostDataPlane perHostDataPlane() {
+    return new PerHostDataPlane(
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableMap.of("v", MockFib.builder().build()),
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        ImmutableSortedMap.of(),
+        ImmutableMap.of("v", FinalMainRib.of()));
+  }
+
+  /** Loads a new {@link PerHostDataPlane} on every call, and records the hosts it loaded. */
+  private static final class RecordingLoader implements Function<String, PerHostDataPlane> {
+    private final List<String> _loaded = new ArrayList<>();
+
+    @Override
+    public synchronized PerHostDataPlane apply(String hostname) {
+      _loaded.add(hostname);
+      return perHostDataPlane();
+    }
+  }
+
+  private static LazyDataPlane lazyDataPlane(Function<String, PerHostDataPlane> loader) {
+    ForwardingAnalysis fa = MockForwardingAnalysis.builder().build();
+    return new LazyDataPlane(ImmutableSortedSet.of("a", "b"), loader, Suppliers.ofInstance(fa));
+  }
+
+  @Test
+  public void testLaziness() {
+    RecordingLoader loader = new RecordingLoader();
+    LazyDataPlane dp = lazyDataPlane(loader);
+    assertThat(loader._loaded, empty());
+
+    // Looking up one host's FIBs loads only that host, once.
+    dp.getFibs().get("a");
+    dp.getFibs().get("a");
+    assertThat(loader._loaded, contains("a"));
+
+    // All-host accessors load the remaining hosts, once.
+    dp.getRibs();
+    dp.getBgpRoutes();
+    dp.getFibs().get("b");
+    assertThat(loader._loaded, contains("a", "b"));
+  }
+
+  @Test
+  public void testLoadedHostsAreRetained() {
+    RecordingLoader loader = new RecordingLoader();
+    LazyDataPlane dp = lazyDataPlane(loader);
+    Fib fib = dp.getFibs().get("a").get("v");
+    dp.getRibs();
+    assertThat(dp.getFibs().get("a").get("v"), sameInstance(fib));
+    assertThat(loader._loaded, contains("a", "b"));
+  }
+
+  @Test
+  public void testReloadEquality() {
+    LazyDataPlane dp1 = lazyDataPlane(new RecordingLoader());
+    LazyDataPlane dp2 = lazyDataPlane(new RecordingLoader());
+    assertThat(dp2.getRibs(), equalTo(dp1.getRibs()));
+    assertThat(dp2.getFibs().keySet(), equalTo(dp1.getFibs().keySet()));
+    assertThat(dp2.getPrefixTracingInfoSummary(), equalTo(dp1.getPrefixTracingInfoSummary()));
+  }
+
+  @Test
+  public void testErrorPropagation() {
+    LazyDataPlane dp =
+        lazyDataPlane(
+            hostname -> {
+              throw new BatfishException("cannot load " + hostname);
+            });
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage("cannot load a");
+    dp.getFibs().get("a");
+  }
+
+  @Test
+  public void testErrorPropagationAllHosts() {
+    LazyDataPlane dp =
+        lazyDataPlane(
+            hostname -> {
+              throw new BatfishException("cannot load " + hostname);
+            });
+    _thrown.expect(BatfishException.class);
+    dp.getRibs();
+  }
+}
@@ -0,0 +1,110 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.InterfaceForwardingBehavior;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.VrfForwardingBehavior;
+import org.junit.Test;
+
+/** Tests of {@link PerHostForwardingAnalysis}. */
+public final class PerHostForwardingAnalysisTest {
+
+  private static final IpSpace PREFIX = Prefix.parse("10.0.0.0/24").toIpSpace();
+  private static final IpSpace WILDCARD =
+      IpWildcard.ipWithWildcardMask(Ip.parse("10.0.0.1"), Ip.parse("0.255.0.255").asLong())
+          .toIpSpace();
+  private static final IpSpace WILDCARD_SET =
+      IpWildcardSetIpSpace.create(
+          ImmutableSet.of(),
+          ImmutableSet.of(IpWildcard.parse("1.1.1.1"), IpWildcard.parse("255.255.255.254/31")));
+  private static final IpSpace PREFIX_WILDCARD =
+      IpWildcard.create(Prefix.parse("2.0.0.0/8")).toIpSpace();
+  private static final IpSpace ACL = AclIpSpace.union(PREFIX, Ip.parse("3.3.3.3").toIpSpace());
+
+  @Test
+  public void testSerializationRoundTrip() {
+    PerHostForwardingAnalysis part =
+        new PerHostForwardingAnalysis(
+            ImmutableMap.of("i1", PREFIX, "i2", PREFIX, "i3", UniverseIpSpace.INSTANCE),
+            ImmutableMap.of(
+                "v",
+                VrfForwardingBehavior.builder()
+                    .setArpTrueEdge(ImmutableMap.of(Edge.of("n", "i1", "m", "j"), WILDCARD_SET))
+                    .setInterfaceForwardingBehavior(
+                        ImmutableMap.of(
+                            "i1",
+                            new InterfaceForwardingBehavior(
+                                PREFIX,
+                                WILDCARD,
+                                WILDCARD_SET,
+                                PREFIX_WILDCARD,
+                                EmptyIpSpace.INSTANCE)))
+                    .setNextVrf(ImmutableMap.of("v2", ACL))
+                    .setNullRoutedIps(EmptyIpSpace.INSTANCE)
+                    .setRoutableIps(UniverseIpSpace.INSTANCE)
+                    .build()));
+
+    PerHostForwardingAnalysis clone = SerializationUtils.clone(part);
+
+    assertThat(clone.getArpReplies(), equalTo(part.getArpReplies()));
+    VrfForwardingBehavior vrf = clone.getVrfForwardingBehavior().get("v");
+    assertThat(
+        vrf.getArpTrueEdge(),
+        equalTo(ImmutableMap.of(Edge.of("n", "i1", "m", "j"), WILDCARD_SET)));
+    InterfaceForwardingBehavior iface = vrf.getInterfaceForwardingBehavior().get("i1");
+    assertThat(iface.getAcceptedIps(), equalTo(PREFIX));
+    assertThat(iface.getDeliveredToSubnet(), equalTo(WILDCARD));
+    assertThat(iface.getExitsNetwork(), equalTo(WILDCARD_SET));
+    assertThat(iface.getNeighborUnreachable(), equalTo(PREFIX_WILDCARD));
+    assertThat(iface.getInsufficientInfo(), equalTo(EmptyIpSpace.INSTANCE));
+    assertThat(vrf.getNextVrfIps(), equalTo(ImmutableMap.of("v2", ACL)));
+    assertThat(vrf.getNullRoutedIps(), equalTo(EmptyIpSpace.INSTANCE));
+    assertThat(vrf.getRoutableIps(), equalTo(UniverseIpSpace.INSTANCE));
+  }
+
+  @Test
+  public void testCombinedSerializationRoundTrip() {
+    ForwardingAnalysis combined =
+        PerHostForwardingAnalysis.combine(
+            ImmutableMap.of(
+                "n",
+                new PerHostForwardingAnalysis(ImmutableMap.of("i", PREFIX), null),
+                "m",
+                new PerHostForwardingAnalysis(
+                    null,
+                    ImmutableMap.of(
+                        "v",
+                        VrfForwardingBehavior.withInterfaceForwardingBehavior(
+                            ImmutableMap.of())))));
+
+    ForwardingAnalysis clone = SerializationUtils.clone(combined);
+
+    assertThat(clone.getArpReplies(), equalTo(combined.getArpReplies()));
+    assertThat(clone.getVrfForwardingBehavior().keySet(), contains("m"));
+  }
+
+  @Test
+  public void testSerializationRoundTripEmpty() {
+    PerHostForwardingAnalysis clone =
+        SerializationUtils.clone(new PerHostForwardingAnalysis(null, null));
+
+    assertThat(clone.getArpReplies(), nullValue());
+    assertThat(clone.getVrfForwardingBehavior(), nullValue());
+  }
+}
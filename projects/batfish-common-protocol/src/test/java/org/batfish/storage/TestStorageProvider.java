@@ -1,5 +1,6 @@
 package org.batfish.storage;
 
+import com.google.common.hash.HashCode;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,6 +22,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
@@ -52,6 +54,11 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public Map<String, HashCode> loadConfigurationHashes(NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Nullable
   @Override
   public ConversionContext loadConversionContext(NetworkSnapshot snapshot)
@@ -155,6 +162,12 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public void storeAnswer(NetworkId network, SnapshotId snapshot, Answer answer, AnswerId answerId)
+      throws IOException {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public void storeAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerMetadata answerMetadata, AnswerId answerId)
@@ -168,6 +181,12 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public InputStream loadAnswerStream(NetworkId network, SnapshotId snapshot, AnswerId answerId)
+      throws FileNotFoundException, IOException {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public AnswerMetadata loadAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerId answerId)
@@ -506,6 +525,11 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public long getSnapshotInputSize(NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException();
+  }
+
   @Nonnull
   @Override
   public Stream<String> listInputEnvironmentBgpTableKeys(NetworkSnapshot snapshot)
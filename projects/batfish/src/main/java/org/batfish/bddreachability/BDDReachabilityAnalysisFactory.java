@@ -26,6 +26,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.BoundType;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -250,6 +251,10 @@ public final class BDDReachabilityAnalysisFactory {
   private final BDD _zero;
   private final IpsRoutedOutInterfacesFactory _ipsRoutesOutInterfacesFactory;
 
+  /* The edges that do not depend on the query, generated once and shared by all queries. */
+  private final Supplier<List<Edge>> _queryIndependentEdges =
+      Suppliers.memoize(() -> generateEdges().collect(ImmutableList.toImmutableList()));
+
   public BDDReachabilityAnalysisFactory(
       BDDPacket packet,
       Map<String, Configuration> configs,
@@ -622,8 +627,8 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   /*
-   * These edges do not depend on the query. Compute them separately so that we can later cache them
-   * across queries if we want to.
+   * These edges do not depend on the query. Compute them separately so that they are generated
+   * once and reused across queries.
    */
   private Stream<Edge> generateEdges() {
     return Streams.concat(
@@ -643,6 +648,10 @@ public final class BDDReachabilityAnalysisFactory {
         generateFibRules());
   }
 
+  private Stream<Edge> queryIndependentEdges() {
+    return _queryIndependentEdges.get().stream();
+  }
+
   private @Nonnull Stream<Edge> generateFibRules() {
     return _bddFibGenerator.generateForwardingEdges(
         alwaysTrue(),
@@ -1273,9 +1282,15 @@ public final class BDDReachabilityAnalysisFactory {
         useInterfaceRoots);
   }
 
+  /** The {@link BDDPacket} of this factory. All BDDs of its analyses belong to its factory. */
+  public @Nonnull BDDPacket getBDDPacket() {
+    return _bddPacket;
+  }
+
   public BDDLoopDetectionAnalysis bddLoopDetectionAnalysis(IpSpaceAssignment srcIpSpaceAssignment) {
     Map<StateExpr, BDD> ingressLocationStates = rootConstraints(srcIpSpaceAssignment, _one, false);
-    Stream<Edge> edges = Stream.concat(generateEdges(), generateRootEdges(ingressLocationStates));
+    Stream<Edge> edges =
+        Stream.concat(queryIndependentEdges(), generateRootEdges(ingressLocationStates));
     return new BDDLoopDetectionAnalysis(_bddPacket, edges, ingressLocationStates.keySet());
   }
 
@@ -1341,7 +1356,8 @@ public final class BDDReachabilityAnalysisFactory {
     Map<StateExpr, BDD> roots = rootConstraints(srcIpSpaceAssignment, initialHeaderSpaceBdd, false);
 
     List<Edge> sharedEdges =
-        Stream.concat(generateEdges(), generateRootEdges(roots)).collect(Collectors.toList());
+        Stream.concat(queryIndependentEdges(), generateRootEdges(roots))
+            .collect(Collectors.toList());
 
     Stream<Edge> reachabilityEdges =
         Streams.concat(
@@ -1420,7 +1436,7 @@ public final class BDDReachabilityAnalysisFactory {
 
     Stream<Edge> edgeStream =
         Streams.concat(
-            generateEdges(),
+            queryIndependentEdges(),
             generateRootEdges(roots),
             generateDispositionEdges(finalNodes),
             generateQueryEdges(actions));
@@ -1527,7 +1543,8 @@ public final class BDDReachabilityAnalysisFactory {
                     _lastHopMgr,
                     _bddOutgoingOriginalFlowFilterManagers,
                     _aclPermitBDDs,
-                    Stream.concat(generateEdges(), generateDispositionEdges(_configs.keySet())),
+                    Stream.concat(
+                        queryIndependentEdges(), generateDispositionEdges(_configs.keySet())),
                     initializedSessions,
                     _bddFibGenerator)),
             generateRootEdges(returnPassOrigBdds),
@@ -5,26 +5,40 @@ import static com.google.common.collect.ImmutableTable.toImmutableTable;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import com.google.common.collect.Table;
 import com.google.common.collect.Tables;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.bddreachability.transition.Transition;
 import org.batfish.bddreachability.transition.Transitions;
 import org.batfish.common.BatfishException;
@@ -52,6 +66,8 @@ import org.batfish.symbolic.state.StateExpr;
  * Utility methods for {@link BDDReachabilityAnalysis} and {@link BDDReachabilityAnalysisFactory}.
  */
 public final class BDDReachabilityUtils {
+  private static final Logger LOGGER = LogManager.getLogger(BDDReachabilityUtils.class);
+
   public static Table<StateExpr, StateExpr, Transition> computeForwardEdgeTable(
       Iterable<Edge> edges) {
     return computeForwardEdgeTable(Streams.stream(edges));
@@ -63,15 +79,57 @@ public final class BDDReachabilityUtils {
             Edge::getPreState, Edge::getPostState, Edge::getTransition, Transitions::or));
   }
 
-  /** Apply edges to the reachableSets until a fixed point is reached. */
+  /**
+   * Apply edges to the reachableSets until a fixed point is reached.
+   *
+   * <p>States are processed sequentially, in topological order of the strongly connected components
+   * (SCCs) of the graph, so that each SCC converges locally after all of its upstream SCCs have
+   * converged. States outside of cycles are thus visited only once. At debug level, the slowest
+   * SCCs are logged.
+   *
+   * <p>SCCs that do not reach one another could converge in parallel, but they are not. The
+   * transitions of the graph hold BDDs of the single factory of the analysis, and a {@link
+   * BDDFactory} is not thread-safe. A parallel fixpoint would need a factory per thread. It would
+   * also have to {@link BDDFactory#transfer transfer} the transitions of each SCC and its inputs
+   * to that factory, and the results back. That copying costs about as much as traversing the SCC
+   * once.
+   */
   @VisibleForTesting
   static void fixpoint(
       Map<StateExpr, BDD> reachableSets,
       Table<StateExpr, StateExpr, Transition> edges,
       BiFunction<Transition, BDD, BDD> traverse) {
+    if (!LOGGER.isDebugEnabled()) {
+      fixpoint(reachableSets, edges, traverse, false);
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    FixpointStats stats = fixpoint(reachableSets, edges, traverse, true);
+    assert stats != null;
+    LOGGER.debug(
+        "Fixpoint over {} SCCs took {}ms: {} state visits",
+        stats._sccVisits.length,
+        System.currentTimeMillis() - startTime,
+        Arrays.stream(stats._sccVisits).sum());
+    stats.logSlowestSccs(MAX_LOGGED_SCCS);
+  }
+
+  /**
+   * Apply edges to the reachableSets until a fixed point is reached, as {@link #fixpoint(Map,
+   * Table, BiFunction)}.
+   *
+   * @param collectStats whether to count the state visits and time spent in each SCC
+   * @return the collected statistics, or {@code null} if {@code collectStats} is false
+   */
+  @VisibleForTesting
+  static @Nullable FixpointStats fixpoint(
+      Map<StateExpr, BDD> reachableSets,
+      Table<StateExpr, StateExpr, Transition> edges,
+      BiFunction<Transition, BDD, BDD> traverse,
+      boolean collectStats) {
     if (reachableSets.isEmpty()) {
       // No work to do.
-      return;
+      return collectStats ? new FixpointStats(ImmutableMap.of(), 0) : null;
     }
     // Get a BDDFactory for zero and orAll.
     BDDFactory factory = reachableSets.entrySet().iterator().next().getValue().getFactory();
@@ -79,14 +137,28 @@ public final class BDDReachabilityUtils {
     // For each state to process in the next round, all the incoming BDDs.
     ListMultimap<StateExpr, BDD> dirtyInputs = LinkedListMultimap.create();
 
-    // To (try to) minimize how many times we're transiting the same edges, dirtyStates will be
-    // removed in order of increasing visitCounts.
+    // Topological index of the SCC of each state. Each initial state not in the graph has no
+    // edges, so it is an SCC of its own, whose order does not matter.
+    Map<StateExpr, Integer> sccIndices = new HashMap<>(topologicalSccIndices(edges));
+    int numSccs = sccIndices.isEmpty() ? 0 : Collections.max(sccIndices.values()) + 1;
+    for (StateExpr state : reachableSets.keySet()) {
+      if (!sccIndices.containsKey(state)) {
+        sccIndices.put(state, numSccs++);
+      }
+    }
+    FixpointStats stats = collectStats ? new FixpointStats(sccIndices, numSccs) : null;
+
+    // dirtyStates are removed in topological order of their SCCs. Within an SCC, to (try to)
+    // minimize how many times we're transiting the same edges, dirtyStates will be removed in order
+    // of increasing visitCounts.
     // invariants:
     // 1. the queue never contains duplicate elements.
     // 2. visitCounts are never incremented while the state is in the queue.
     HashMap<StateExpr, Integer> visitCounts = new HashMap<>();
     PriorityQueue<StateExpr> dirtyStates =
-        new PriorityQueue<>(Comparator.comparingInt(st -> visitCounts.getOrDefault(st, 0)));
+        new PriorityQueue<>(
+            Comparator.<StateExpr>comparingInt(sccIndices::get)
+                .thenComparingInt(st -> visitCounts.getOrDefault(st, 0)));
 
     // Seed the dirty inputs with the initial reachable sets, then clear the reachable sets.
     reachableSets.forEach(
@@ -99,6 +171,9 @@ public final class BDDReachabilityUtils {
     while (!dirtyStates.isEmpty()) {
       StateExpr dirtyState = dirtyStates.remove();
       visitCounts.compute(dirtyState, (unused, oldCount) -> oldCount == null ? 1 : oldCount + 1);
+      if (stats != null) {
+        stats.recordVisit(sccIndices.get(dirtyState));
+      }
       List<BDD> inputs = dirtyInputs.removeAll(dirtyState);
       assert !inputs.isEmpty();
       BDD prior = reachableSets.get(dirtyState);
@@ -154,6 +229,154 @@ public final class BDDReachabilityUtils {
           });
       learned.free();
     }
+    if (stats != null) {
+      stats.finishScc();
+    }
+    return stats;
+  }
+
+  /** How many of the slowest SCCs of a {@link #fixpoint} to log at debug level. */
+  private static final int MAX_LOGGED_SCCS = 10;
+
+  /** Per-SCC statistics of a {@link #fixpoint} run. */
+  @VisibleForTesting
+  static final class FixpointStats {
+    private final @Nonnull Map<StateExpr, Integer> _sccIndices;
+    private final @Nonnull int[] _sccVisits;
+    private final @Nonnull long[] _sccNanos;
+    /** The SCC being visited, or -1 before the first visit. */
+    private int _currentScc = -1;
+    private long _currentSccStartNanos;
+
+    private FixpointStats(Map<StateExpr, Integer> sccIndices, int numSccs) {
+      _sccIndices = sccIndices;
+      _sccVisits = new int[numSccs];
+      _sccNanos = new long[numSccs];
+      _currentSccStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Record a visit of a state in the given SCC. SCCs are visited in topological order, so the
+     * clock is only read when the visited SCC changes.
+     */
+    private void recordVisit(int scc) {
+      _sccVisits[scc]++;
+      if (scc != _currentScc) {
+        finishScc();
+        _currentScc = scc;
+      }
+    }
+
+    /** Charge the time since the current SCC was entered to it. */
+    private void finishScc() {
+      long now = System.nanoTime();
+      if (_currentScc >= 0) {
+        _sccNanos[_currentScc] += now - _currentSccStartNanos;
+      }
+      _currentSccStartNanos = now;
+    }
+
+    /** The number of SCCs, including those of initial states outside the graph. */
+    int getNumSccs() {
+      return _sccVisits.length;
+    }
+
+    /** The number of times states in the SCC of {@code state} were visited. */
+    int getVisits(StateExpr state) {
+      Integer scc = _sccIndices.get(state);
+      return scc == null ? 0 : _sccVisits[scc];
+    }
+
+    /** The time spent visiting states in the SCC of {@code state}, in nanoseconds. */
+    long getNanos(StateExpr state) {
+      Integer scc = _sccIndices.get(state);
+      return scc == null ? 0 : _sccNanos[scc];
+    }
+
+    private void logSlowestSccs(int maxSccs) {
+      int[] sccSizes = new int[_sccVisits.length];
+      _sccIndices.values().forEach(scc -> sccSizes[scc]++);
+      IntStream.range(0, _sccVisits.length)
+          .boxed()
+          .sorted(Comparator.comparingLong((Integer scc) -> _sccNanos[scc]).reversed())
+          .limit(maxSccs)
+          .forEach(
+              scc ->
+                  LOGGER.debug(
+                      "Fixpoint SCC {} ({} states): {} visits, {}ms",
+                      scc,
+                      sccSizes[scc],
+                      _sccVisits[scc],
+                      _sccNanos[scc] / 1_000_000));
+    }
+  }
+
+  /**
+   * Computes the strongly connected components (SCCs) of the graph, and returns the index of the
+   * SCC of each state in a topological order of the SCCs: if there is an edge from a state in SCC
+   * {@code i} to a state in a different SCC {@code j}, then {@code i < j}.
+   */
+  @VisibleForTesting
+  static Map<StateExpr, Integer> topologicalSccIndices(
+      Table<StateExpr, StateExpr, Transition> edges) {
+    // Iterative version of Tarjan's algorithm, which completes SCCs in reverse topological order.
+    Map<StateExpr, Integer> index = new HashMap<>();
+    Map<StateExpr, Integer> lowLink = new HashMap<>();
+    Deque<StateExpr> sccStack = new ArrayDeque<>();
+    Set<StateExpr> onSccStack = new HashSet<>();
+    Deque<StateExpr> callStack = new ArrayDeque<>();
+    Deque<Iterator<StateExpr>> successorsStack = new ArrayDeque<>();
+    Map<StateExpr, Integer> reverseSccIndices = new HashMap<>();
+    int numSccs = 0;
+
+    for (StateExpr root : Sets.union(edges.rowKeySet(), edges.columnKeySet())) {
+      if (index.containsKey(root)) {
+        continue;
+      }
+      index.put(root, index.size());
+      lowLink.put(root, index.get(root));
+      sccStack.push(root);
+      onSccStack.add(root);
+      callStack.push(root);
+      successorsStack.push(edges.row(root).keySet().iterator());
+      while (!callStack.isEmpty()) {
+        StateExpr state = callStack.peek();
+        Iterator<StateExpr> successors = successorsStack.peek();
+        if (successors.hasNext()) {
+          StateExpr successor = successors.next();
+          if (!index.containsKey(successor)) {
+            index.put(successor, index.size());
+            lowLink.put(successor, index.get(successor));
+            sccStack.push(successor);
+            onSccStack.add(successor);
+            callStack.push(successor);
+            successorsStack.push(edges.row(successor).keySet().iterator());
+          } else if (onSccStack.contains(successor)) {
+            lowLink.put(state, Math.min(lowLink.get(state), index.get(successor)));
+          }
+          continue;
+        }
+        callStack.pop();
+        successorsStack.pop();
+        if (lowLink.get(state).equals(index.get(state))) {
+          // state is the root of an SCC
+          StateExpr member;
+          do {
+            member = sccStack.pop();
+            onSccStack.remove(member);
+            reverseSccIndices.put(member, numSccs);
+          } while (!member.equals(state));
+          numSccs++;
+        }
+        if (!callStack.isEmpty()) {
+          StateExpr caller = callStack.peek();
+          lowLink.put(caller, Math.min(lowLink.get(caller), lowLink.get(state)));
+        }
+      }
+    }
+    int lastSccIndex = numSccs - 1;
+    return toImmutableMap(
+        reverseSccIndices, Entry::getKey, entry -> lastSccIndex - entry.getValue());
   }
 
   @VisibleForTesting
@@ -26,6 +26,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_DATAPLANE_ENGINE_NAME = "dataplaneengine";
 
+  private static final String ARG_DATAPLANE_REUSE = "dataplanereuse";
+
   private static final String ARG_DEBUG_FLAGS = "debugflags";
 
   private static final String ARG_PARSE_REUSE = "parsereuse";
@@ -158,6 +160,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(BfConsts.COMMAND_DUMP_DP);
   }
 
+  public boolean getDataPlaneReuse() {
+    return _config.getBoolean(ARG_DATAPLANE_REUSE);
+  }
+
   public List<String> getDebugFlags() {
     return Arrays.asList(_config.getStringArray(ARG_DEBUG_FLAGS));
   }
@@ -365,6 +371,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(BfConsts.ARG_BDP_RECORD_ALL_ITERATIONS, false);
     setDefaultProperty(CAN_EXECUTE, true);
     setDefaultProperty(BfConsts.ARG_CONTAINER, null);
+    setDefaultProperty(ARG_DATAPLANE_REUSE, false);
     setDefaultProperty(ARG_DEBUG_FLAGS, ImmutableList.of());
     setDefaultProperty(DIFFERENTIAL_QUESTION, false);
     setDefaultProperty(ARG_DEBUG_FLAGS, ImmutableList.of());
@@ -455,6 +462,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addOption(BfConsts.ARG_CONTAINER, "ID of network", ARGNAME_NAME);
 
+    addBooleanOption(
+        ARG_DATAPLANE_REUSE,
+        "reuse the data plane of other snapshots in the network for nodes with unchanged inputs"
+            + " (disabled by default)");
+
     addListOption(ARG_DEBUG_FLAGS, "a list of flags to enable debugging code", "debug flags");
 
     addOption(BfConsts.ARG_DELTA_TESTRIG, "name of delta testrig", ARGNAME_NAME);
@@ -666,6 +678,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(ARG_CHECK_BGP_REACHABILITY);
     getStringOptionValue(BfConsts.ARG_CONTAINER);
     getBooleanOptionValue(BfConsts.COMMAND_DUMP_DP);
+    getBooleanOptionValue(ARG_DATAPLANE_REUSE);
     getStringListOptionValue(ARG_DEBUG_FLAGS);
     getStringOptionValue(BfConsts.ARG_DELTA_TESTRIG);
     getBooleanOptionValue(BfConsts.ARG_DIFFERENTIAL);
@@ -714,6 +727,18 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(BfConsts.ARG_CONTAINER, container);
   }
 
+  public void setDataPlaneReuse(boolean dataPlaneReuse) {
+    _config.setProperty(ARG_DATAPLANE_REUSE, dataPlaneReuse);
+  }
+
+  /**
+   * Sets a property read by the data plane engine, e.g. a property of {@code
+   * IncrementalDataPlaneSettings}.
+   */
+  public void setDataPlaneEngineProperty(String key, Object value) {
+    _config.setProperty(key, value);
+  }
+
   public void setDebugFlags(List<String> debugFlags) {
     _config.setProperty(ARG_DEBUG_FLAGS, debugFlags);
   }
@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -11,6 +12,7 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -35,6 +37,19 @@ public final class TracerouteEngineImpl implements TracerouteEngine {
    */
   private static final int CHUNK_SIZE = 256;
 
+  /**
+   * Order in which flows are split into chunks. Flows that enter the network at the same place and
+   * have the same destination mostly make the same forwarding lookups, which are cached per chunk.
+   */
+  @VisibleForTesting
+  static final Comparator<Flow> CHUNK_ORDER =
+      Comparator.comparing(Flow::getIngressNode)
+          .thenComparing(Flow::getIngressVrf, Comparator.nullsFirst(Comparator.naturalOrder()))
+          .thenComparing(
+              Flow::getIngressInterface, Comparator.nullsFirst(Comparator.naturalOrder()))
+          .thenComparing(Flow::getDstIp)
+          .thenComparing(Comparator.naturalOrder());
+
   private final DataPlane _dataPlane;
   private final Topology _topology;
   private final Map<String, Configuration> _configurations;
@@ -74,7 +89,7 @@ public final class TracerouteEngineImpl implements TracerouteEngine {
       Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters) {
     ImmutableMap.Builder<Flow, TraceDag> result =
         ImmutableMap.builderWithExpectedSize(flows.size());
-    Iterables.partition(flows, CHUNK_SIZE)
+    Iterables.partition(ImmutableList.sortedCopyOf(CHUNK_ORDER, flows), CHUNK_SIZE)
         .forEach(
             c ->
                 result.putAll(
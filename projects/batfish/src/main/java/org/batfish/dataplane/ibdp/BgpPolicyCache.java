@@ -0,0 +1,302 @@
+package org.batfish.dataplane.ibdp;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.MapMaker;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AbstractRouteDecorator;
+import org.batfish.datamodel.BgpSessionProperties;
+import org.batfish.datamodel.BgpSessionProperties.SessionType;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.ReceivedFrom;
+import org.batfish.datamodel.ReceivedFromSelf;
+import org.batfish.datamodel.route.nh.NextHop;
+import org.batfish.datamodel.route.nh.NextHopDiscard;
+import org.batfish.datamodel.routing_policy.Environment;
+import org.batfish.datamodel.routing_policy.Environment.Direction;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.TrackSucceeded;
+
+/**
+ * A bounded, thread-safe memo of the results of BGP import and export policy evaluations, so that
+ * a route is not run through the same policy again when it is received from or sent to another
+ * peer, or again in a later iteration. One cache is shared by the BGP processes of all VRFs of a
+ * {@link Node}.
+ *
+ * <p>An evaluation is identified by the policy object, the direction, the input route, and the
+ * route as transformed before the policy ran. Policies cannot read the peer a route was received
+ * from, so it is left out of both routes and restored on the result. The session is only part of
+ * the key for policies that have read it through the {@link Environment}: evaluation is
+ * deterministic until the first read, so an evaluation that did not read the session has the same
+ * result for every session. For the others, the key includes the session attributes policies can
+ * read: local and remote AS and IP, and session type. Track state changes between iterations, so
+ * evaluations that consult a {@link TrackSucceeded} are never memoized, and policies that did so
+ * once are always evaluated directly afterwards.
+ *
+ * <p>Results are softly referenced, so they are dropped before the data plane computation runs out
+ * of memory.
+ */
+@ParametersAreNonnullByDefault
+final class BgpPolicyCache {
+
+  /** Maximum number of evaluations memoized by one cache */
+  @VisibleForTesting static final long MAXIMUM_SIZE = 100_000L;
+
+  private final @Nonnull Cache<Key, Optional<RouteState>> _results;
+
+  /** Policies that consulted tracks when evaluated. Weak keys are compared by identity. */
+  private final @Nonnull Set<RoutingPolicy> _policiesReadingTracks;
+
+  /** Policies that read the session when evaluated. Weak keys are compared by identity. */
+  private final @Nonnull Set<RoutingPolicy> _policiesReadingSession;
+
+  BgpPolicyCache() {
+    _results =
+        CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE).softValues().recordStats().build();
+    _policiesReadingTracks = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+    _policiesReadingSession = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+  }
+
+  /**
+   * Process the route built by {@code outputRoute} through {@code policy}, reusing the result of
+   * an equivalent earlier evaluation if there is one.
+   *
+   * @param policy the policy to evaluate
+   * @param inputRoute the route before BGP transformations
+   * @param outputRoute builder for the route after BGP transformations; may be modified by the
+   *     policy
+   * @param sessionProperties {@link BgpSessionProperties} representing the session for the local
+   *     node
+   * @param direction {@link Direction} in which route is being sent
+   * @param successfulTracks names of the tracks that are currently successful
+   * @return a builder for the route produced by the policy, which is either {@code outputRoute} or
+   *     a new builder in the same state, or {@code null} if the policy rejects the route
+   */
+  @Nullable
+  Bgpv4Route.Builder process(
+      RoutingPolicy policy,
+      AbstractRouteDecorator inputRoute,
+      Bgpv4Route.Builder outputRoute,
+      BgpSessionProperties sessionProperties,
+      Direction direction,
+      Set<String> successfulTracks) {
+    if (_policiesReadingTracks.contains(policy)) {
+      return policy.processBgpRoute(
+              inputRoute, outputRoute, sessionProperties, direction, successfulTracks::contains)
+          ? outputRoute
+          : null;
+    }
+    ReceivedFrom receivedFrom = outputRoute.getReceivedFrom();
+    assert receivedFrom != null;
+    AbstractRouteDecorator normalizedInput = normalize(inputRoute);
+    RouteState transformed = RouteState.of(outputRoute);
+    Session session = new Session(sessionProperties);
+    Optional<RouteState> cached =
+        _results.getIfPresent(
+            new Key(
+                policy,
+                direction,
+                normalizedInput,
+                transformed,
+                _policiesReadingSession.contains(policy) ? session : null));
+    if (cached != null) {
+      return cached.map(state -> state.toBuilder(receivedFrom)).orElse(null);
+    }
+    AtomicBoolean readTracks = new AtomicBoolean();
+    AtomicBoolean readSession = new AtomicBoolean();
+    boolean accepted =
+        policy.processBgpRoute(
+            inputRoute,
+            outputRoute,
+            sessionProperties,
+            direction,
+            track -> {
+              readTracks.set(true);
+              return successfulTracks.contains(track);
+            },
+            () -> readSession.set(true));
+    if (readTracks.get()) {
+      _policiesReadingTracks.add(policy);
+    } else {
+      if (readSession.get()) {
+        _policiesReadingSession.add(policy);
+      }
+      _results.put(
+          new Key(
+              policy,
+              direction,
+              normalizedInput,
+              transformed,
+              _policiesReadingSession.contains(policy) ? session : null),
+          accepted ? Optional.of(RouteState.of(outputRoute)) : Optional.empty());
+    }
+    return accepted ? outputRoute : null;
+  }
+
+  /** Hit and miss counts of this cache */
+  @Nonnull
+  CacheStats getStats() {
+    return _results.stats();
+  }
+
+  /** Forget the peer {@code route} was received from, which policies cannot read. */
+  private static @Nonnull AbstractRouteDecorator normalize(AbstractRouteDecorator route) {
+    return route instanceof Bgpv4Route ? normalize((Bgpv4Route) route) : route;
+  }
+
+  private static @Nonnull Bgpv4Route normalize(Bgpv4Route route) {
+    return route.getReceivedFrom().equals(ReceivedFromSelf.instance())
+        ? route
+        : route.toBuilder().setReceivedFrom(ReceivedFromSelf.instance()).build();
+  }
+
+  /**
+   * The state of a {@link Bgpv4Route.Builder}, without the peer the route was received from. On
+   * export, the next hop is not set until after the policy ran.
+   */
+  private static final class RouteState {
+    /** The built route, with a discard next hop if the next hop is not set. */
+    private final @Nonnull Bgpv4Route _route;
+
+    private final boolean _nextHopSet;
+
+    private RouteState(Bgpv4Route route, boolean nextHopSet) {
+      _route = route;
+      _nextHopSet = nextHopSet;
+    }
+
+    static @Nonnull RouteState of(Bgpv4Route.Builder builder) {
+      NextHop nextHop = builder.getNextHop();
+      Bgpv4Route route =
+          normalize(builder.setNextHop(firstNonNull(nextHop, NextHopDiscard.instance())).build());
+      if (nextHop == null) {
+        builder.clearNextHop();
+      }
+      return new RouteState(route, nextHop != null);
+    }
+
+    /** A new builder in this state, for a route received from {@code receivedFrom} */
+    @Nonnull
+    Bgpv4Route.Builder toBuilder(ReceivedFrom receivedFrom) {
+      Bgpv4Route.Builder builder = _route.toBuilder().setReceivedFrom(receivedFrom);
+      return _nextHopSet ? builder : builder.clearNextHop();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof RouteState)) {
+        return false;
+      }
+      RouteState other = (RouteState) o;
+      return _nextHopSet == other._nextHopSet && _route.equals(other._route);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * _route.hashCode() + Boolean.hashCode(_nextHopSet);
+    }
+  }
+
+  /** The session attributes policies can read */
+  private static final class Session {
+    private final long _localAs;
+    private final long _remoteAs;
+    private final @Nonnull Ip _localIp;
+    private final @Nonnull Ip _remoteIp;
+    private final @Nullable SessionType _sessionType;
+
+    private Session(BgpSessionProperties sessionProperties) {
+      _localAs = sessionProperties.getLocalAs();
+      _remoteAs = sessionProperties.getRemoteAs();
+      _localIp = sessionProperties.getLocalIp();
+      _remoteIp = sessionProperties.getRemoteIp();
+      _sessionType = sessionProperties.getSessionType();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Session)) {
+        return false;
+      }
+      Session other = (Session) o;
+      return _localAs == other._localAs
+          && _remoteAs == other._remoteAs
+          && _localIp.equals(other._localIp)
+          && _remoteIp.equals(other._remoteIp)
+          && _sessionType == other._sessionType;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_localAs, _remoteAs, _localIp, _remoteIp, _sessionType);
+    }
+  }
+
+  /** Identifies one evaluation of a policy */
+  private static final class Key {
+    /** Compared by identity: policies with equal names and statements may resolve differently. */
+    private final @Nonnull RoutingPolicy _policy;
+
+    private final @Nonnull Direction _direction;
+    private final @Nonnull AbstractRouteDecorator _inputRoute;
+    private final @Nonnull RouteState _transformedRoute;
+
+    /** {@code null} for evaluations that did not read the session */
+    private final @Nullable Session _session;
+
+    private final int _hashCode;
+
+    private Key(
+        RoutingPolicy policy,
+        Direction direction,
+        AbstractRouteDecorator inputRoute,
+        RouteState transformedRoute,
+        @Nullable Session session) {
+      _policy = policy;
+      _direction = direction;
+      _inputRoute = inputRoute;
+      _transformedRoute = transformedRoute;
+      _session = session;
+      _hashCode =
+          31 * System.identityHashCode(policy)
+              + Objects.hash(direction, inputRoute, transformedRoute, session);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return _hashCode == other._hashCode
+          && _policy == other._policy
+          && _direction == other._direction
+          && _inputRoute.equals(other._inputRoute)
+          && _transformedRoute.equals(other._transformedRoute)
+          && Objects.equals(_session, other._session);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
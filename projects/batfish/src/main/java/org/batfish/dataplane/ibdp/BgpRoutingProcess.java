@@ -113,6 +113,7 @@ import org.batfish.dataplane.rib.EvpnMasterRib;
 import org.batfish.dataplane.rib.Rib;
 import org.batfish.dataplane.rib.RibDelta;
 import org.batfish.dataplane.rib.RibDelta.Builder;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.batfish.dataplane.rib.RouteAdvertisement;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 
@@ -331,8 +332,32 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
    */
   private boolean _successfulWatchedTracksChanged;
 
+  /** Memoized results of IPv4 unicast import and export policies, shared by the VRFs of a node */
+  private final @Nonnull BgpPolicyCache _policyCache;
+
   private static final Logger LOGGER = LogManager.getLogger(BgpRoutingProcess.class);
 
+  /** Create a new BGP process with its own policies and cache of policy results */
+  @VisibleForTesting
+  BgpRoutingProcess(
+      BgpProcess process,
+      Configuration configuration,
+      String vrfName,
+      Rib mainRib,
+      BgpTopology topology,
+      PrefixTracer prefixTracer) {
+    this(
+        process,
+        configuration,
+        vrfName,
+        mainRib,
+        topology,
+        prefixTracer,
+        RoutingPolicies.from(configuration),
+        new BgpPolicyCache(),
+        RibStoreKind.TRIE);
+  }
+
   /**
    * Create a new BGP process
    *
@@ -340,6 +365,9 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
    * @param configuration the parent {@link Configuration}
    * @param vrfName name of the VRF this process is in
    * @param mainRib take in a reference to MainRib for read-only use (e.g., getting IGP cost to
+   * @param policies the routing policies of the node
+   * @param policyCache memoized import and export policy results, shared by the VRFs of the node
+   * @param ribStoreKind the kind of store backing the RIBs of this process
    */
   BgpRoutingProcess(
       BgpProcess process,
@@ -347,11 +375,15 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
       String vrfName,
       Rib mainRib,
       BgpTopology topology,
-      PrefixTracer prefixTracer) {
+      PrefixTracer prefixTracer,
+      RoutingPolicies policies,
+      BgpPolicyCache policyCache,
+      RibStoreKind ribStoreKind) {
     _process = process;
+    _policyCache = policyCache;
     _c = configuration;
     _hostname = configuration.getHostname();
-    _policies = RoutingPolicies.from(configuration);
+    _policies = policies;
     _vrfName = vrfName;
     _mainRib = mainRib;
     _topology = topology;
@@ -386,7 +418,8 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
             clusterListAsIbgpCost,
             _process.getLocalOriginationTypeTieBreaker(),
             _process.getNetworkNextHopIpTieBreaker(),
-            _process.getRedistributeNextHopIpTieBreaker());
+            _process.getRedistributeNextHopIpTieBreaker(),
+            ribStoreKind);
     _ibgpv4Rib =
         new Bgpv4Rib(
             _mainRib,
@@ -396,7 +429,8 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
             clusterListAsIbgpCost,
             _process.getLocalOriginationTypeTieBreaker(),
             _process.getNetworkNextHopIpTieBreaker(),
-            _process.getRedistributeNextHopIpTieBreaker());
+            _process.getRedistributeNextHopIpTieBreaker(),
+            ribStoreKind);
     _bgpv4Rib =
         new Bgpv4Rib(
             _mainRib,
@@ -406,7 +440,8 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
             clusterListAsIbgpCost,
             _process.getLocalOriginationTypeTieBreaker(),
             _process.getNetworkNextHopIpTieBreaker(),
-            _process.getRedistributeNextHopIpTieBreaker());
+            _process.getRedistributeNextHopIpTieBreaker(),
+            ribStoreKind);
 
     _mainRibDelta = RibDelta.empty();
 
@@ -416,37 +451,43 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
             bestPathTieBreaker,
             multiPathMatchMode,
             clusterListAsIbgpCost,
-            _process.getLocalOriginationTypeTieBreaker());
+            _process.getLocalOriginationTypeTieBreaker(),
+            ribStoreKind);
     _ibgpType3EvpnRib =
         new EvpnMasterRib<>(
             bestPathTieBreaker,
             multiPathMatchMode,
             clusterListAsIbgpCost,
-            _process.getLocalOriginationTypeTieBreaker());
+            _process.getLocalOriginationTypeTieBreaker(),
+            ribStoreKind);
     _evpnType3Rib =
         new EvpnMasterRib<>(
             bestPathTieBreaker,
             multiPathMatchMode,
             clusterListAsIbgpCost,
-            _process.getLocalOriginationTypeTieBreaker());
+            _process.getLocalOriginationTypeTieBreaker(),
+            ribStoreKind);
     _ebgpType5EvpnRib =
         new EvpnMasterRib<>(
             bestPathTieBreaker,
             multiPathMatchMode,
             clusterListAsIbgpCost,
-            _process.getLocalOriginationTypeTieBreaker());
+            _process.getLocalOriginationTypeTieBreaker(),
+            ribStoreKind);
     _ibgpType5EvpnRib =
         new EvpnMasterRib<>(
             bestPathTieBreaker,
             multiPathMatchMode,
             clusterListAsIbgpCost,
-            _process.getLocalOriginationTypeTieBreaker());
+            _process.getLocalOriginationTypeTieBreaker(),
+            ribStoreKind);
     _evpnType5Rib =
         new EvpnMasterRib<>(
             bestPathTieBreaker,
             multiPathMatchMode,
             clusterListAsIbgpCost,
-            _process.getLocalOriginationTypeTieBreaker());
+            _process.getLocalOriginationTypeTieBreaker(),
+            ribStoreKind);
     _evpnInitializationDelta = RibDelta.empty();
     _mainRibIndependentNetworkInitializationDelta = RibDelta.empty();
     _aggregates = new PrefixTrieMultiMap<>();
@@ -975,21 +1016,20 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
 
       // Process route through import policy, if one exists
       String importPolicyName = ourBgpConfig.getIpv4UnicastAddressFamily().getImportPolicy();
-      boolean acceptIncoming = true;
       // TODO: ensure there is always an import policy
-      if (importPolicyName != null) {
-        RoutingPolicy importPolicy = _policies.get(importPolicyName).orElse(null);
-        if (importPolicy != null) {
-          acceptIncoming =
-              importPolicy.processBgpRoute(
+      RoutingPolicy importPolicy =
+          importPolicyName != null ? _policies.get(importPolicyName).orElse(null) : null;
+      Bgpv4Route.Builder importedRouteBuilder =
+          importPolicy != null
+              ? _policyCache.process(
+                  importPolicy,
                   remoteRoute,
                   transformedIncomingRouteBuilder,
                   ourSessionProperties,
                   IN,
-                  _successfulWatchedTracks::contains);
-        }
-      }
-      if (!acceptIncoming) {
+                  _successfulWatchedTracks)
+              : transformedIncomingRouteBuilder;
+      if (importedRouteBuilder == null) {
         // Route could not be imported due to routing policy
         _prefixTracer.filtered(
             remoteRoute.getNetwork(),
@@ -1000,7 +1040,7 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
             IN);
         continue;
       }
-      Bgpv4Route transformedIncomingRoute = transformedIncomingRouteBuilder.build();
+      Bgpv4Route transformedIncomingRoute = importedRouteBuilder.build();
 
       // If new route gets leaked to other VRFs via RibGroup, this VRF should be its source VRF.
       AnnotatedRoute<AbstractRoute> annotatedTransformedRoute =
@@ -1725,14 +1765,32 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
       return Optional.empty();
     }
 
-    // Process transformed outgoing route by the export policy
-    boolean shouldExport =
-        exportPolicy.processBgpRoute(
-            exportCandidate,
-            transformedOutgoingRouteBuilder,
-            ourSessionProperties,
-            Direction.OUT,
-            _successfulWatchedTracks::contains);
+    // Process transformed outgoing route by the export policy. IPv4 unicast results are memoized.
+    boolean shouldExport;
+    if (transformedOutgoingRouteBuilder instanceof Bgpv4Route.Builder) {
+      @SuppressWarnings("unchecked") // B is Bgpv4Route.Builder
+      B exportedRouteBuilder =
+          (B)
+              _policyCache.process(
+                  exportPolicy,
+                  exportCandidate,
+                  (Bgpv4Route.Builder) transformedOutgoingRouteBuilder,
+                  ourSessionProperties,
+                  Direction.OUT,
+                  _successfulWatchedTracks);
+      shouldExport = exportedRouteBuilder != null;
+      if (shouldExport) {
+        transformedOutgoingRouteBuilder = exportedRouteBuilder;
+      }
+    } else {
+      shouldExport =
+          exportPolicy.processBgpRoute(
+              exportCandidate,
+              transformedOutgoingRouteBuilder,
+              ourSessionProperties,
+              Direction.OUT,
+              _successfulWatchedTracks::contains);
+    }
 
     if (!shouldExport) {
       // This route could not be exported due to export policy
@@ -1834,15 +1892,16 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
                 REDISTRIBUTE);
 
     // Process transformed outgoing route by the export policy
-    boolean shouldExport =
-        exportPolicy.processBgpRoute(
+    Bgpv4Route.Builder exportedRouteBuilder =
+        _policyCache.process(
+            exportPolicy,
             exportCandidate,
             transformedOutgoingRouteBuilder,
             ourSessionProperties,
             Direction.OUT,
-            _successfulWatchedTracks::contains);
+            _successfulWatchedTracks);
 
-    if (!shouldExport) {
+    if (exportedRouteBuilder == null) {
       // This route could not be exported due to export policy
       _prefixTracer.filtered(
           exportCandidate.getNetwork(),
@@ -1857,7 +1916,7 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     // Apply final post-policy transformations before sending advertisement to neighbor
     BgpProtocolHelper.transformBgpRoutePostExport(
         exportCandidate,
-        transformedOutgoingRouteBuilder,
+        exportedRouteBuilder,
         ourSessionProperties,
         v4Family,
         Route.UNSET_ROUTE_NEXT_HOP_IP,
@@ -1865,7 +1924,7 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
         _routesToPathIds);
 
     // Successfully exported route
-    Bgpv4Route transformedOutgoingRoute = transformedOutgoingRouteBuilder.build();
+    Bgpv4Route transformedOutgoingRoute = exportedRouteBuilder.build();
     _prefixTracer.sentTo(
         transformedOutgoingRoute.getNetwork(),
         remoteConfigId.getHostname(),
@@ -2405,6 +2464,18 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     _successfulWatchedTracksChanged = false;
   }
 
+  /**
+   * Whether the last inner round produced advertisements that neighbors pull in later inner rounds.
+   */
+  boolean hasOutgoingDeltas() {
+    return !_ebgpv4DeltaPrev.isEmpty()
+        || !_ebgpv4DeltaPrevBestPath.isEmpty()
+        || !_bgpv4DeltaPrev.isEmpty()
+        || !_bgpv4DeltaPrevBestPath.isEmpty()
+        || !_evpnType3DeltaPrev.isEmpty()
+        || !_evpnType5DeltaPrev.isEmpty();
+  }
+
   /** Record state at beginning of round prior to pulling from neighbors. */
   public void startOfInnerRound() {
     // Take a snapshot of current RIBs so we know to to send to new add-path sessions.
@@ -0,0 +1,258 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.graph.EndpointPair;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.eigrp.EigrpNeighborConfigId;
+import org.batfish.datamodel.isis.IsisNode;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+import org.batfish.datamodel.vxlan.VxlanNode;
+
+/**
+ * Tracks which nodes have work to do in each round of the EGP computation, so that rounds only
+ * visit those nodes instead of the whole network.
+ *
+ * <p>A node is dirty at the end of a round if any of its virtual routers {@link
+ * VirtualRouter#isDirty() is dirty}, i.e., has a non-empty RIB delta or message queue. A node is
+ * active in the next round if it is dirty, or if it is adjacent to a dirty node in some topology,
+ * since protocols may pull routes from their neighbors' deltas. All virtual routers of a node are
+ * considered together, since routes leak between VRFs of the same node.
+ *
+ * <p>BGP advertisements produced in a step of the schedule are only kept until the node is next
+ * processed, so neighbors that come later in the schedule must pull them in the same round. After
+ * each step, the neighbors of nodes with new BGP advertisements are activated for the rest of the
+ * round.
+ *
+ * <p>Active nodes may push messages to their neighbors, so at the end of a round the state of
+ * active nodes and their neighbors is re-examined. The state of any other node is unchanged and its
+ * summary from a previous round is reused. IS-IS converges in an inner loop that may reach beyond
+ * the neighbors of active nodes, so nodes running IS-IS are always processed and re-examined.
+ */
+@ParametersAreNonnullByDefault
+final class DirtyRouterTracker {
+
+  /** What the engine needs to know about a virtual router at the end of a round. */
+  private static final class Summary {
+    private final boolean _dirty;
+    private final int _iterationHashCode;
+    private final int _numBgpBestPaths;
+    private final int _numBgpPaths;
+    private final int _numMainRibRoutes;
+
+    private Summary(VirtualRouter vr) {
+      _dirty = vr.isDirty();
+      _iterationHashCode = vr.computeIterationHashCode();
+      _numBgpBestPaths = vr.getNumBgpBestPaths();
+      _numBgpPaths = vr.getNumBgpPaths();
+      _numMainRibRoutes = vr.getMainRib().getTypedRoutes().size();
+    }
+  }
+
+  private final @Nonnull ListMultimap<String, VirtualRouter> _vrsByHostname;
+  private final @Nonnull SetMultimap<String, String> _neighborsByHostname;
+  private final @Nonnull Set<String> _alwaysActive;
+  private final @Nonnull Map<VirtualRouter, Summary> _summaries;
+  private final @Nonnull Set<String> _dirty;
+  private final @Nonnull Set<String> _active;
+
+  private int _iterationHashCode;
+  private int _numBgpBestPaths;
+  private int _numBgpPaths;
+  private int _numMainRibRoutes;
+
+  /**
+   * Create a tracker in which all nodes are active.
+   *
+   * @param nodes all nodes in the network
+   * @param topologyContext the topologies along which nodes exchange routes
+   */
+  DirtyRouterTracker(Map<String, Node> nodes, TopologyContext topologyContext) {
+    ImmutableListMultimap.Builder<String, VirtualRouter> vrsByHostname =
+        ImmutableListMultimap.builder();
+    ImmutableSet.Builder<String> alwaysActive = ImmutableSet.builder();
+    nodes.forEach(
+        (hostname, node) -> {
+          vrsByHostname.putAll(hostname, node.getVirtualRouters());
+          if (node.getConfiguration().getVrfs().values().stream()
+              .anyMatch(vrf -> vrf.getIsisProcess() != null)) {
+            alwaysActive.add(hostname);
+          }
+        });
+    _vrsByHostname = vrsByHostname.build();
+    _neighborsByHostname = computeNeighbors(topologyContext);
+    _alwaysActive = alwaysActive.build();
+    _summaries = new IdentityHashMap<>();
+    _dirty = new HashSet<>();
+    _active = new HashSet<>(nodes.keySet());
+  }
+
+  @SuppressWarnings("deprecation")
+  private static @Nonnull SetMultimap<String, String> computeNeighbors(
+      TopologyContext topologyContext) {
+    ImmutableSetMultimap.Builder<String, String> neighbors = ImmutableSetMultimap.builder();
+    for (EndpointPair<BgpPeerConfigId> edge : topologyContext.getBgpTopology().getGraph().edges()) {
+      putEdge(neighbors, edge.source().getHostname(), edge.target().getHostname());
+    }
+    for (EdgeId edge : topologyContext.getOspfTopology().edges()) {
+      putEdge(neighbors, edge.getTail().getHostname(), edge.getHead().getHostname());
+    }
+    for (EndpointPair<EigrpNeighborConfigId> edge :
+        topologyContext.getEigrpTopology().getNetwork().asGraph().edges()) {
+      putEdge(neighbors, edge.source().getHostname(), edge.target().getHostname());
+    }
+    for (EndpointPair<IsisNode> edge :
+        topologyContext.getIsisTopology().getNetwork().asGraph().edges()) {
+      putEdge(neighbors, edge.source().getNode(), edge.target().getNode());
+    }
+    for (EndpointPair<VxlanNode> edge : topologyContext.getVxlanTopology().getGraph().edges()) {
+      putEdge(neighbors, edge.nodeU().getHostname(), edge.nodeV().getHostname());
+    }
+    for (Edge edge : topologyContext.getLayer3Topology().getEdges()) {
+      putEdge(neighbors, edge.getNode1(), edge.getNode2());
+    }
+    return neighbors.build();
+  }
+
+  private static void putEdge(
+      ImmutableSetMultimap.Builder<String, String> neighbors, String node1, String node2) {
+    neighbors.put(node1, node2);
+    neighbors.put(node2, node1);
+  }
+
+  /** Return the names of the nodes that must be processed in the current round. */
+  @Nonnull
+  Set<String> getActiveNodes() {
+    return ImmutableSet.copyOf(_active);
+  }
+
+  /** Check whether the given node must be processed in the current round. */
+  boolean isActive(String hostname) {
+    return _active.contains(hostname);
+  }
+
+  /**
+   * Activate the neighbors of the nodes processed in the step of the schedule that just ended that
+   * have new BGP advertisements, so that the neighbors pull them later in this round. Must be
+   * called after {@link VirtualRouter#endOfEgpInnerRound()}.
+   *
+   * @param hostnames the nodes processed in the step
+   * @return the nodes that were activated, which have not been processed yet in this round
+   */
+  @Nonnull
+  Set<String> endOfStep(Collection<String> hostnames) {
+    ImmutableSet.Builder<String> activated = ImmutableSet.builder();
+    for (String hostname : hostnames) {
+      if (_vrsByHostname.get(hostname).stream().anyMatch(VirtualRouter::hasBgpAdvertisements)) {
+        for (String neighbor : _neighborsByHostname.get(hostname)) {
+          if (_active.add(neighbor)) {
+            activated.add(neighbor);
+          }
+        }
+      }
+    }
+    return activated.build();
+  }
+
+  /** Return the virtual routers of the nodes that must be processed in the current round. */
+  @Nonnull
+  List<VirtualRouter> getActiveVirtualRouters() {
+    return _active.stream()
+        .flatMap(hostname -> _vrsByHostname.get(hostname).stream())
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Re-examine the nodes whose state may have changed in the round that just ended, and compute
+   * the nodes to process in the next round. Must be called after {@link
+   * VirtualRouter#endOfEgpRound()}.
+   */
+  void endOfRound() {
+    Set<String> touched = new HashSet<>(_active);
+    _active.forEach(hostname -> touched.addAll(_neighborsByHostname.get(hostname)));
+    List<Entry<VirtualRouter, Summary>> updated =
+        touched.parallelStream()
+            .flatMap(hostname -> _vrsByHostname.get(hostname).stream())
+            .map(vr -> Maps.immutableEntry(vr, new Summary(vr)))
+            .collect(ImmutableList.toImmutableList());
+    for (Entry<VirtualRouter, Summary> e : updated) {
+      Summary previous = _summaries.put(e.getKey(), e.getValue());
+      if (previous != null) {
+        addToTotals(previous, -1);
+      }
+      addToTotals(e.getValue(), 1);
+    }
+    for (String hostname : touched) {
+      if (_vrsByHostname.get(hostname).stream().anyMatch(this::isDirty)) {
+        _dirty.add(hostname);
+      } else {
+        _dirty.remove(hostname);
+      }
+    }
+    _active.clear();
+    _active.addAll(_dirty);
+    _dirty.forEach(hostname -> _active.addAll(_neighborsByHostname.get(hostname)));
+    if (!_dirty.isEmpty()) {
+      _active.addAll(_alwaysActive);
+    }
+  }
+
+  private void addToTotals(Summary summary, int sign) {
+    _iterationHashCode += sign * summary._iterationHashCode;
+    _numBgpBestPaths += sign * summary._numBgpBestPaths;
+    _numBgpPaths += sign * summary._numBgpPaths;
+    _numMainRibRoutes += sign * summary._numMainRibRoutes;
+  }
+
+  /** Check whether any node has work left to do, as of the end of the last round. */
+  boolean hasDirtyNodes() {
+    return !_dirty.isEmpty();
+  }
+
+  /** Check whether the given virtual router was dirty at the end of the last round. */
+  boolean isDirty(VirtualRouter vr) {
+    Summary summary = _summaries.get(vr);
+    return summary != null && summary._dirty;
+  }
+
+  /**
+   * Return the {@link VirtualRouter#computeIterationHashCode() iteration hashcode} of the given
+   * virtual router at the end of the last round.
+   */
+  int getIterationHashCode(VirtualRouter vr) {
+    Summary summary = _summaries.get(vr);
+    return summary == null ? 0 : summary._iterationHashCode;
+  }
+
+  /** Return the sum of the iteration hashcodes of all virtual routers. */
+  int getIterationHashCode() {
+    return _iterationHashCode;
+  }
+
+  int getNumBgpBestPaths() {
+    return _numBgpBestPaths;
+  }
+
+  int getNumBgpPaths() {
+    return _numBgpPaths;
+  }
+
+  int getNumMainRibRoutes() {
+    return _numMainRibRoutes;
+  }
+}
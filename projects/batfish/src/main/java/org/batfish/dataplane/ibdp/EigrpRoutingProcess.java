@@ -56,6 +56,7 @@ import org.batfish.dataplane.rib.EigrpInternalRib;
 import org.batfish.dataplane.rib.EigrpRib;
 import org.batfish.dataplane.rib.RibDelta;
 import org.batfish.dataplane.rib.RibDelta.Builder;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.batfish.dataplane.rib.RouteAdvertisement;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 
@@ -107,12 +108,18 @@ final class EigrpRoutingProcess implements RoutingProcess<EigrpTopology, EigrpRo
   /** Set of edges in the topology that are new in the current iteration */
   private Collection<EigrpEdge> _edgesWentUp = ImmutableSet.of();
 
+  @VisibleForTesting
   EigrpRoutingProcess(EigrpProcess process, String vrfName, RoutingPolicies policies) {
+    this(process, vrfName, policies, RibStoreKind.TRIE);
+  }
+
+  EigrpRoutingProcess(
+      EigrpProcess process, String vrfName, RoutingPolicies policies, RibStoreKind ribStoreKind) {
     _process = process;
     _asn = process.getAsn();
-    _externalRib = new EigrpExternalRib();
-    _internalRib = new EigrpInternalRib();
-    _rib = new EigrpRib();
+    _externalRib = new EigrpExternalRib(ribStoreKind);
+    _internalRib = new EigrpInternalRib(ribStoreKind);
+    _rib = new EigrpRib(ribStoreKind);
     _vrfName = vrfName;
     _routingPolicies = policies;
     _topology = EigrpTopology.EMPTY;
@@ -1,5 +1,7 @@
 package org.batfish.dataplane.ibdp;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.topology.TopologyUtil.computeLayer2Topology;
 import static org.batfish.common.topology.TopologyUtil.computeLayer3Topology;
 import static org.batfish.common.topology.TopologyUtil.computeRawLayer3Topology;
@@ -16,13 +18,20 @@ import static org.batfish.dataplane.ibdp.TrackReachabilityUtils.evaluateTrackRea
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
@@ -32,6 +41,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.BdpOscillationException;
@@ -49,7 +59,9 @@ import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Fib;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IsisRoute;
 import org.batfish.datamodel.NetworkConfigurations;
@@ -69,13 +81,17 @@ import org.batfish.datamodel.tracking.TrackMethodReference;
 import org.batfish.datamodel.tracking.TrackReachability;
 import org.batfish.datamodel.tracking.TrackRoute;
 import org.batfish.datamodel.tracking.TrackTrue;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+import org.batfish.datamodel.vxlan.Layer3Vni;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.dataplane.TracerouteEngineImpl;
 import org.batfish.dataplane.ibdp.DataplaneTrackEvaluator.DataPlaneTrackMethodEvaluatorProvider;
 import org.batfish.dataplane.ibdp.TrackRouteUtils.GetRoutesForPrefix;
+import org.batfish.dataplane.ibdp.schedule.ConnectedComponentSchedule;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
 import org.batfish.dataplane.rib.RibDelta;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.batfish.version.BatfishVersion;
 
 /** Computes the entire dataplane by executing a fixed-point computation. */
@@ -255,19 +271,57 @@ final class IncrementalBdpEngine {
       TopologyContext initialTopologyContext,
       Set<BgpAdvertisement> externalAdverts,
       IpOwners initialIpOwners) {
+    return computeDataPlane(
+        configurations,
+        initialTopologyContext,
+        externalAdverts,
+        initialIpOwners,
+        null,
+        ImmutableSet.of());
+  }
+
+  /**
+   * Compute the data plane, taking the converged state of {@code reusedHosts} from {@code
+   * baseDataPlane} instead of computing it.
+   *
+   * <p>The reused hosts must have the same inputs as when {@code baseDataPlane} was computed, and
+   * must not exchange routes with or forward traffic to any other host, since their routing
+   * processes are not run. Their FIBs still take part in the traceroutes that prune the topologies.
+   */
+  ComputeDataPlaneResult computeDataPlane(
+      Map<String, Configuration> configurations,
+      TopologyContext initialTopologyContext,
+      Set<BgpAdvertisement> externalAdverts,
+      IpOwners initialIpOwners,
+      @Nullable DataPlane baseDataPlane,
+      Set<String> reusedHosts) {
     LOGGER.info("Computing Data Plane using iBDP");
 
     Map<Ip, Map<String, Set<String>>> initialIpVrfOwners = initialIpOwners.getIpVrfOwners();
 
     // Generate our nodes, keyed by name, sorted for determinism
+    RibStoreKind ribStoreKind = _settings.getRibStoreKind();
     SortedMap<String, Node> nodes =
-        toImmutableSortedMap(configurations.values(), Configuration::getHostname, Node::new);
+        toImmutableSortedMap(
+            configurations.values(), Configuration::getHostname, c -> new Node(c, ribStoreKind));
+    // Only the nodes that are not reused take part in route computation
+    SortedMap<String, Node> computedNodes = nodes;
+    if (baseDataPlane != null && !reusedHosts.isEmpty()) {
+      LOGGER.info("Reusing the converged state of {} nodes", reusedHosts.size());
+      reuseConvergedState(nodes, baseDataPlane, reusedHosts);
+      computedNodes =
+          ImmutableSortedMap.copyOf(Maps.filterKeys(nodes, h -> !reusedHosts.contains(h)));
+    }
+    // Policies are evaluated for many routes during the computation, so compile them once. The
+    // compiled policies belong to the nodes of this computation, and are dropped at its end.
+    computedNodes.values().parallelStream().forEach(Node::compileRoutingPolicies);
     // A collection of all the virtual routers in random order enables parallelization across all
     // VRs, and likely spreads nodes with similar hostnames across different cores. In contrast,
     // nodes.values().parallelStream().flatMap(get vrs stream) is only node-parallel and clusters
     // nodes by hostname. See https://github.com/batfish/batfish/pull/7054 description.
     List<VirtualRouter> vrs =
-        toListInRandomOrder(nodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
+        toListInRandomOrder(
+            computedNodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
     NetworkConfigurations networkConfigurations = NetworkConfigurations.of(configurations);
 
     /*
@@ -279,7 +333,7 @@ final class IncrementalBdpEngine {
      */
     IncrementalBdpAnswerElement answerElement = new IncrementalBdpAnswerElement();
     // TODO: eventually, IGP needs to be part of fixed-point below, because tunnels.
-    computeIgpDataPlane(nodes, vrs, initialTopologyContext, answerElement);
+    computeIgpDataPlane(computedNodes, vrs, initialTopologyContext, answerElement);
 
     LOGGER.info("Initialize virtual routers before topology fixed point");
     vrs.parallelStream()
@@ -333,7 +387,7 @@ final class IncrementalBdpEngine {
       LOGGER.info("Starting topology iteration {}", topologyIterations);
       boolean isOscillating =
           computeNonMonotonicPortionOfDataPlane(
-              nodes,
+              computedNodes,
               vrs,
               answerElement,
               currentTopologyContext,
@@ -393,18 +447,51 @@ final class IncrementalBdpEngine {
               "Could not reach a fixed point topology in %d iterations", MAX_TOPOLOGY_ITERATIONS));
     }
 
+    if (LOGGER.isDebugEnabled()) {
+      nodes.values().stream()
+          .map(n -> n.getBgpPolicyCache().getStats())
+          .reduce(CacheStats::plus)
+          .ifPresent(stats -> LOGGER.debug("BGP policy cache: {}", stats));
+    }
+
+    computedNodes.values().forEach(Node::clearCompiledRoutingPolicies);
+
     // Generate the answers from the computation, compute final FIBs
     // TODO: Properly finalize topologies, IpOwners, etc.
     LOGGER.info("Finalizing dataplane");
     answerElement.setVersion(BatfishVersion.getVersionStatic());
-    IncrementalDataPlane finalDataplane =
-        IncrementalDataPlane.builder()
-            .setNodes(nodes)
-            .setPartialDataplane(currentDataplane)
-            .build();
+    IncrementalDataPlane.Builder finalDataplaneBuilder =
+        IncrementalDataPlane.builder().setNodes(nodes).setPartialDataplane(currentDataplane);
+    if (baseDataPlane != null && !reusedHosts.isEmpty()) {
+      finalDataplaneBuilder.setReusedDataPlane(baseDataPlane, reusedHosts);
+    }
+    IncrementalDataPlane finalDataplane = finalDataplaneBuilder.build();
     return new IbdpResult(answerElement, finalDataplane, currentTopologyContext, nodes);
   }
 
+  /** Seed the virtual routers of the reused hosts with their FIBs and VNI settings. */
+  private static void reuseConvergedState(
+      Map<String, Node> nodes, DataPlane baseDataPlane, Set<String> reusedHosts) {
+    Map<String, Map<String, Fib>> fibs = baseDataPlane.getFibs();
+    Table<String, String, Set<Layer2Vni>> layer2Vnis = baseDataPlane.getLayer2Vnis();
+    Table<String, String, Set<Layer3Vni>> layer3Vnis = baseDataPlane.getLayer3Vnis();
+    reusedHosts.stream()
+        .map(nodes::get)
+        .filter(Objects::nonNull)
+        .flatMap(n -> n.getVirtualRouters().stream())
+        .forEach(
+            vr -> {
+              String hostname = vr.getConfiguration().getHostname();
+              Fib fib = fibs.getOrDefault(hostname, ImmutableMap.of()).get(vr.getName());
+              checkArgument(
+                  fib != null, "No FIB for reused VRF %s of node %s", vr.getName(), hostname);
+              vr.reuseConvergedState(
+                  fib,
+                  firstNonNull(layer2Vnis.get(hostname, vr.getName()), ImmutableSet.of()),
+                  firstNonNull(layer3Vnis.get(hostname, vr.getName()), ImmutableSet.of()));
+            });
+  }
+
   private @Nonnull Map<String, Map<TrackRoute, Boolean>> nextTrackRoutesByHostname(
       Map<String, Collection<TrackRoute>> trackRoutesByHostname, SortedMap<String, Node> nodes) {
     ImmutableMap.Builder<String, Map<TrackRoute, Boolean>> trackRouteResultsByHostname =
@@ -818,8 +905,30 @@ final class IncrementalBdpEngine {
 
     Map<Integer, SortedSet<Integer>> iterationsByHashCode = new HashMap<>();
 
+    // Only nodes with work to do, and their neighbors, are processed in each iteration.
+    DirtyRouterTracker dirtyRouters = new DirtyRouterTracker(nodes, topologyContext);
+
     Schedule currentSchedule = _settings.getScheduleName();
 
+    /*
+     * With a connected component schedule, oscillations are also tracked per component, so that
+     * only the components that repeat a state while still dirty get serialized.
+     */
+    List<SortedSet<String>> components =
+        currentSchedule == Schedule.CONNECTED_COMPONENTS
+            ? ConnectedComponentSchedule.computeComponents(nodes, topologyContext)
+            : ImmutableList.of();
+    Map<SortedSet<String>, List<VirtualRouter>> vrsByComponent =
+        ImmutableMap.copyOf(
+            Maps.transformValues(
+                ConnectedComponentSchedule.nodesByComponent(nodes, components),
+                componentNodes ->
+                    componentNodes.values().stream()
+                        .flatMap(n -> n.getVirtualRouters().stream())
+                        .collect(ImmutableList.toImmutableList())));
+    Map<SortedSet<String>, Set<Integer>> hashCodesByComponent = new HashMap<>();
+    Set<SortedSet<String>> serializedComponents = new HashSet<>();
+
     // Go into iteration mode, until the routes converge (or oscillation is detected)
     do {
       _numIterations++;
@@ -827,44 +936,50 @@ final class IncrementalBdpEngine {
       LOGGER.info("Compute schedule");
       // Compute node schedule
       IbdpSchedule schedule =
-          IbdpSchedule.getSchedule(_settings, currentSchedule, nodes, topologyContext);
+          currentSchedule == Schedule.CONNECTED_COMPONENTS
+              ? new ConnectedComponentSchedule(nodes, components, serializedComponents)
+              : IbdpSchedule.getSchedule(_settings, currentSchedule, nodes, topologyContext);
 
       // (Re)initialization of dependent route calculation
       //  Since this is a local step, coloring not required.
 
-      LOGGER.info("Re-Init for new route iteration");
-      vrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
-
-      /*
-      Redistribution: take all the routes merged into the main RIB during previous iteration
-      and offer them to each routing process.
-
-      This must be called before any `executeIteration` calls on any routing process.
-      Since this is a local step, coloring not required.
-      */
-      LOGGER.info("Redistribute");
-      vrs.parallelStream().forEach(VirtualRouter::redistribute);
+      Set<String> activeNodes = dirtyRouters.getActiveNodes();
+      List<VirtualRouter> activeVrs = dirtyRouters.getActiveVirtualRouters();
+      LOGGER.info(
+          "Iteration {}: {} of {} nodes active", _numIterations, activeNodes.size(), nodes.size());
 
-      // Handle process-specific route resolution and cross-VRF leaking here too.
-      vrs.parallelStream().forEach(VirtualRouter::updateResolvableRoutes);
-      queueRoutesForCrossVrfLeaking(vrs);
+      initIteration(activeVrs);
 
       // compute dependent routes for each allowable set of nodes until we cover all nodes
       int nodeSet = 0;
       while (schedule.hasNext()) {
-        Map<String, Node> iterationNodes = schedule.next();
+        Map<String, Node> iterationNodes =
+            ImmutableMap.copyOf(Maps.filterKeys(schedule.next(), dirtyRouters::isActive));
+        if (iterationNodes.isEmpty()) {
+          continue;
+        }
         List<VirtualRouter> iterationVrs =
             toListInRandomOrder(
                 iterationNodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
         String iterationlabel = String.format("Iteration %d Schedule %d", _numIterations, nodeSet);
         computeDependentRoutesIteration(
             iterationVrs, iterationlabel, nodes, networkConfigurations, provider, _numIterations);
+        // Neighbors later in the schedule must pull the BGP advertisements of this step
+        Set<String> activated = dirtyRouters.endOfStep(iterationNodes.keySet());
+        if (!activated.isEmpty()) {
+          initIteration(
+              activated.stream()
+                  .flatMap(hostname -> nodes.get(hostname).getVirtualRouters().stream())
+                  .collect(ImmutableList.toImmutableList()));
+        }
         ++nodeSet;
       }
 
       // Tell each VR that a route computation round has ended.
       // This must be the last thing called on a VR in a routing round.
-      vrs.parallelStream().forEach(VirtualRouter::endOfEgpRound);
+      dirtyRouters.getActiveVirtualRouters().parallelStream()
+          .forEach(VirtualRouter::endOfEgpRound);
+      dirtyRouters.endOfRound();
 
       /*
        * Perform various bookkeeping at the end of the iteration:
@@ -872,10 +987,15 @@ final class IncrementalBdpEngine {
        * - Compute iteration hashcode
        * - Check for oscillations
        */
-      computeIterationStatistics(vrs, ae, _numIterations);
+      computeIterationStatistics(dirtyRouters, ae, _numIterations);
+
+      if (currentSchedule == Schedule.CONNECTED_COMPONENTS) {
+        serializeOscillatingComponents(
+            dirtyRouters, vrsByComponent, hashCodesByComponent, serializedComponents);
+      }
 
       // This hashcode uniquely identifies the iteration (i.e., network state)
-      int iterationHashCode = computeIterationHashCode(vrs);
+      int iterationHashCode = dirtyRouters.getIterationHashCode();
       SortedSet<Integer> iterationsWithThisHashCode =
           iterationsByHashCode.computeIfAbsent(iterationHashCode, h -> new TreeSet<>());
 
@@ -893,42 +1013,89 @@ final class IncrementalBdpEngine {
           return true; // Found an oscillation
         }
       }
-    } while (hasNotReachedRoutingFixedPoint(vrs));
+    } while (hasNotReachedRoutingFixedPoint(dirtyRouters));
 
     ae.setDependentRoutesIterations(_numIterations);
     return false; // No oscillations
   }
 
-  /** Check if we have reached a routing fixed point */
-  private boolean hasNotReachedRoutingFixedPoint(List<VirtualRouter> vrs) {
-    LOGGER.info("Iteration {}: Check if fixed point reached", _numIterations);
-    return vrs.parallelStream().anyMatch(VirtualRouter::isDirty);
-  }
-
   /**
-   * Compute the hashcode that uniquely identifies the state of the network at a given iteration
+   * Serialize each component that is still dirty and whose state has been seen in a previous
+   * iteration. Components that do not oscillate keep being processed in parallel; oscillations
+   * that survive serialization are detected by the network-wide iteration hashcode.
    *
-   * @param vrs all virtual routers in the network
-   * @return integer hashcode
+   * <p>The hashcode of a component covers only its own virtual routers. A repeated state therefore
+   * means an oscillation only because no routes enter the component from outside. That is why the
+   * components must include every adjacency along which routes are exchanged: see {@link
+   * ConnectedComponentSchedule}.
+   *
+   * @param dirtyRouters the state of each virtual router at the end of the iteration
+   * @param vrsByComponent the virtual routers of each component
+   * @param hashCodesByComponent the iteration hashcodes seen so far for each component
+   * @param serializedComponents the components to serialize, updated in place
    */
-  private int computeIterationHashCode(List<VirtualRouter> vrs) {
-    LOGGER.info("Iteration {}: Compute hashCode", _numIterations);
-    return vrs.parallelStream().mapToInt(VirtualRouter::computeIterationHashCode).sum();
+  private void serializeOscillatingComponents(
+      DirtyRouterTracker dirtyRouters,
+      Map<SortedSet<String>, List<VirtualRouter>> vrsByComponent,
+      Map<SortedSet<String>, Set<Integer>> hashCodesByComponent,
+      Set<SortedSet<String>> serializedComponents) {
+    vrsByComponent.forEach(
+        (component, componentVrs) -> {
+          if (serializedComponents.contains(component)
+              || componentVrs.stream().noneMatch(dirtyRouters::isDirty)) {
+            return;
+          }
+          int hashCode = componentVrs.stream().mapToInt(dirtyRouters::getIterationHashCode).sum();
+          Set<Integer> hashCodes =
+              hashCodesByComponent.computeIfAbsent(component, c -> new HashSet<>());
+          if (!hashCodes.add(hashCode)) {
+            LOGGER.debug(
+                "Serializing component of {} nodes containing {}, iteration {}",
+                component.size(),
+                component.first(),
+                _numIterations);
+            serializedComponents.add(component);
+          }
+        });
+  }
+
+  /** Prepare the given virtual routers for a new iteration, before any of them is processed. */
+  private static void initIteration(List<VirtualRouter> vrs) {
+    LOGGER.info("Re-Init for new route iteration");
+    vrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
+
+    /*
+    Redistribution: take all the routes merged into the main RIB during previous iteration
+    and offer them to each routing process.
+
+    This must be called before any `executeIteration` calls on any routing process.
+    Since this is a local step, coloring not required.
+    */
+    LOGGER.info("Redistribute");
+    vrs.parallelStream().forEach(VirtualRouter::redistribute);
+
+    // Handle process-specific route resolution and cross-VRF leaking here too.
+    vrs.parallelStream().forEach(VirtualRouter::updateResolvableRoutes);
+    queueRoutesForCrossVrfLeaking(vrs);
+  }
+
+  /** Check if we have reached a routing fixed point */
+  private boolean hasNotReachedRoutingFixedPoint(DirtyRouterTracker dirtyRouters) {
+    LOGGER.info("Iteration {}: Check if fixed point reached", _numIterations);
+    return dirtyRouters.hasDirtyNodes();
   }
 
   private static void computeIterationStatistics(
-      List<VirtualRouter> vrs, IncrementalBdpAnswerElement ae, int dependentRoutesIterations) {
+      DirtyRouterTracker dirtyRouters,
+      IncrementalBdpAnswerElement ae,
+      int dependentRoutesIterations) {
     LOGGER.info("Iteration {}: Compute statistics", dependentRoutesIterations);
-    int numBgpBestPathRibRoutes =
-        vrs.parallelStream().mapToInt(VirtualRouter::getNumBgpBestPaths).sum();
-    ae.getBgpBestPathRibRoutesByIteration().put(dependentRoutesIterations, numBgpBestPathRibRoutes);
-    int numBgpMultipathRibRoutes =
-        vrs.parallelStream().mapToInt(VirtualRouter::getNumBgpPaths).sum();
+    ae.getBgpBestPathRibRoutesByIteration()
+        .put(dependentRoutesIterations, dirtyRouters.getNumBgpBestPaths());
     ae.getBgpMultipathRibRoutesByIteration()
-        .put(dependentRoutesIterations, numBgpMultipathRibRoutes);
-    int numMainRibRoutes =
-        vrs.parallelStream().mapToInt(vr -> vr.getMainRib().getTypedRoutes().size()).sum();
-    ae.getMainRibRoutesByIteration().put(dependentRoutesIterations, numMainRibRoutes);
+        .put(dependentRoutesIterations, dirtyRouters.getNumBgpPaths());
+    ae.getMainRibRoutesByIteration()
+        .put(dependentRoutesIterations, dirtyRouters.getNumMainRibRoutes());
   }
 
   /**
@@ -962,6 +1129,14 @@ final class IncrementalBdpEngine {
     int ospfInternalIterations = 0;
     boolean dirty = true;
 
+    if (_settings.getOspfSpf()) {
+      // Intra-area routes in one pass, so that only inter-area and external routes are exchanged
+      LOGGER.info("OSPF internal: SPF");
+      allNodes.values().parallelStream()
+          .flatMap(n -> n.getVirtualRouters().stream())
+          .forEach(vr -> vr.ospfSpf(allNodes));
+    }
+
     while (dirty) {
       ospfInternalIterations++;
       LOGGER.info("OSPF internal: Iteration {}", ospfInternalIterations);
@@ -6,7 +6,10 @@ import static org.batfish.common.util.StreamUtil.toListInRandomOrder;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Table;
 import java.io.Serializable;
 import java.util.List;
@@ -120,6 +123,8 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
 
     @Nullable private Map<String, Node> _nodes;
     @Nullable private PartialDataplane _partialDataplane;
+    @Nullable private DataPlane _reusedDataPlane;
+    @Nonnull private Set<String> _reusedHosts = ImmutableSet.of();
 
     public Builder setNodes(@Nonnull Map<String, Node> nodes) {
       _nodes = ImmutableMap.copyOf(nodes);
@@ -131,6 +136,16 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
       return this;
     }
 
+    /**
+     * Take the routes of the given hosts from a previously computed data plane, since their routes
+     * were not computed. Their FIBs and VNI settings must already be in the nodes.
+     */
+    public Builder setReusedDataPlane(DataPlane reusedDataPlane, Set<String> reusedHosts) {
+      _reusedDataPlane = reusedDataPlane;
+      _reusedHosts = ImmutableSet.copyOf(reusedHosts);
+      return this;
+    }
+
     public IncrementalDataPlane build() {
       return new IncrementalDataPlane(this);
     }
@@ -173,26 +188,70 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
     _forwardingAnalysis = dataplane.getForwardingAnalysis();
 
     Map<String, Node> nodes = builder._nodes;
+    // The VNI settings of reused hosts were seeded in their virtual routers
+    _layer2VniSettings = DataplaneUtil.computeLayer2VniSettings(nodes);
+    _layer3VniSettings = DataplaneUtil.computeLayer3VniSettings(nodes);
+    Set<String> reusedHosts = builder._reusedHosts;
+    DataPlane reused = builder._reusedDataPlane;
+    if (reused != null) {
+      nodes = ImmutableMap.copyOf(Maps.filterKeys(nodes, h -> !reusedHosts.contains(h)));
+    }
     List<VirtualRouter> vrs =
         toListInRandomOrder(nodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
     LOGGER.info("Computing BGP routes");
-    _bgpRoutes = DataplaneUtil.computeBgpRoutes(vrs);
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes = DataplaneUtil.computeBgpRoutes(vrs);
     LOGGER.info("Computing BGP backup routes");
-    _bgpBackupRoutes = DataplaneUtil.computeBgpBackupRoutes(nodes, _bgpRoutes);
+    Table<String, String, Set<Bgpv4Route>> bgpBackupRoutes =
+        DataplaneUtil.computeBgpBackupRoutes(nodes, bgpRoutes);
+    if (reused != null) {
+      bgpRoutes = withReusedRows(bgpRoutes, reused.getBgpRoutes(), reusedHosts);
+      bgpBackupRoutes = withReusedRows(bgpBackupRoutes, reused.getBgpBackupRoutes(), reusedHosts);
+    }
+    _bgpRoutes = bgpRoutes;
+    _bgpBackupRoutes = bgpBackupRoutes;
     LOGGER.info("Computing EVPN routes");
-    _evpnRoutes = DataplaneUtil.computeEvpnRoutes(vrs);
+    Table<String, String, Set<EvpnRoute<?, ?>>> evpnRoutes = DataplaneUtil.computeEvpnRoutes(vrs);
     LOGGER.info("Computing EVPN BGP backup routes");
-    _evpnBackupRoutes = DataplaneUtil.computeEvpnBackupRoutes(nodes, _evpnRoutes);
+    Table<String, String, Set<EvpnRoute<?, ?>>> evpnBackupRoutes =
+        DataplaneUtil.computeEvpnBackupRoutes(nodes, evpnRoutes);
     LOGGER.info("Computing main RIBs");
-    _ribs = computeRibs(vrs);
-    _prefixTracerSummary = computePrefixTracingInfo(nodes);
-    _layer2VniSettings = DataplaneUtil.computeLayer2VniSettings(nodes);
-    _layer3VniSettings = DataplaneUtil.computeLayer3VniSettings(nodes);
+    Table<String, String, FinalMainRib> ribs = computeRibs(vrs);
+    SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+        prefixTracerSummary = computePrefixTracingInfo(nodes);
+    if (reused == null) {
+      _evpnRoutes = evpnRoutes;
+      _evpnBackupRoutes = evpnBackupRoutes;
+      _ribs = ribs;
+      _prefixTracerSummary = prefixTracerSummary;
+    } else {
+      LOGGER.info("Adding routes of {} reused nodes", reusedHosts.size());
+      _evpnRoutes = withReusedRows(evpnRoutes, reused.getEvpnRoutes(), reusedHosts);
+      _evpnBackupRoutes =
+          withReusedRows(evpnBackupRoutes, reused.getEvpnBackupRoutes(), reusedHosts);
+      _ribs = withReusedRows(ribs, reused.getRibs(), reusedHosts);
+      ImmutableSortedMap.Builder<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+          summary = ImmutableSortedMap.naturalOrder();
+      summary.putAll(prefixTracerSummary);
+      summary.putAll(
+          Maps.filterKeys(reused.getPrefixTracingInfoSummary(), reusedHosts::contains));
+      _prefixTracerSummary = summary.build();
+    }
 
     // For testing only
     _annotatedRibs = computeAnnotatedRibs(nodes);
   }
 
+  /** Returns the rows of {@code computed}, plus the rows of the reused hosts from {@code base}. */
+  private static @Nonnull <V> Table<String, String, V> withReusedRows(
+      Table<String, String, V> computed, Table<String, String, V> base, Set<String> reusedHosts) {
+    ImmutableTable.Builder<String, String, V> table = ImmutableTable.builder();
+    table.putAll(computed);
+    for (String host : reusedHosts) {
+      base.row(host).forEach((vrf, value) -> table.put(host, vrf, value));
+    }
+    return table.build();
+  }
+
   private static @Nonnull SortedMap<
           String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>>
       computeAnnotatedRibs(Map<String, Node> nodes) {
@@ -1,8 +1,10 @@
 package org.batfish.dataplane.ibdp;
 
 import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableSet;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.NetworkSnapshot;
@@ -11,6 +13,7 @@ import org.batfish.common.plugin.Plugin;
 import org.batfish.common.topology.TopologyProvider;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
 import org.batfish.datamodel.isis.IsisTopology;
 
@@ -28,6 +31,12 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
 
   @Override
   public ComputeDataPlaneResult computeDataPlane(NetworkSnapshot snapshot) {
+    return computeDataPlane(snapshot, null, ImmutableSet.of());
+  }
+
+  @Override
+  public ComputeDataPlaneResult computeDataPlane(
+      NetworkSnapshot snapshot, @Nullable DataPlane baseDataPlane, Set<String> reusedHosts) {
     Map<String, Configuration> configurations = _batfish.loadConfigurations(snapshot);
     Set<BgpAdvertisement> externalAdverts =
         _batfish.loadExternalBgpAnnouncements(snapshot, configurations);
@@ -52,7 +61,9 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
             configurations,
             topologyContext,
             externalAdverts,
-            topologyProvider.getInitialIpOwners(snapshot));
+            topologyProvider.getInitialIpOwners(snapshot),
+            baseDataPlane,
+            reusedHosts);
     _logger.infof(
         "Generated data-plane for snapshot:%s; iterations:%s",
         snapshot.getSnapshot(),
@@ -3,20 +3,29 @@ package org.batfish.dataplane.ibdp;
 import static org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule.NODE_COLORED;
 import static org.batfish.dataplane.ibdp.schedule.NodeColoredSchedule.Coloring.SATURATION;
 
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.SortedMap;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ConfigurationUtils;
 import org.apache.commons.configuration2.ImmutableConfiguration;
 import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
 import org.batfish.dataplane.ibdp.schedule.NodeColoredSchedule;
 import org.batfish.dataplane.ibdp.schedule.NodeColoredSchedule.Coloring;
+import org.batfish.dataplane.rib.RibStoreKind;
 
 /** Settings for {@link IncrementalDataPlanePlugin} */
 public final class IncrementalDataPlaneSettings {
 
+  private static final Logger LOGGER = LogManager.getLogger(IncrementalDataPlaneSettings.class);
+
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_OSPF_SPF = "ospfspf";
+  public static final String PROP_RIB_STORE = "ribstore";
   public static final String PROP_SCHEDULE = "schedule";
 
   /**
@@ -45,9 +54,24 @@ public final class IncrementalDataPlaneSettings {
     ConfigurationUtils.copy(configSource, _config);
   }
 
+  /**
+   * Return the values of all properties of the engine, by name. These are the properties given a
+   * default in {@link #initDefaults()}, so a property added there is included here too.
+   */
+  public SortedMap<String, String> getEngineProperties() {
+    ImmutableSortedMap.Builder<String, String> properties = ImmutableSortedMap.naturalOrder();
+    new IncrementalDataPlaneSettings()
+        ._config
+        .getKeys()
+        .forEachRemaining(key -> properties.put(key, _config.getString(key)));
+    return properties.build();
+  }
+
   /** Initialize defaults for all properties */
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
+    _config.setProperty(PROP_OSPF_SPF, false);
+    _config.setProperty(PROP_RIB_STORE, RibStoreKind.TRIE.toString());
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
   }
 
@@ -56,6 +80,32 @@ public final class IncrementalDataPlaneSettings {
     return Schedule.valueOf(_config.getString(PROP_SCHEDULE));
   }
 
+  /**
+   * Whether to compute OSPF intra-area routes with a shortest path first computation over each
+   * area, rather than by exchanging them between neighbors until convergence. Areas with inbound
+   * distribute lists still exchange their intra-area routes.
+   */
+  public boolean getOspfSpf() {
+    return _config.getBoolean(PROP_OSPF_SPF);
+  }
+
+  /**
+   * Return the kind of store backing the RIBs of the data plane computation. The name is matched
+   * ignoring case, and an unknown name falls back to {@link RibStoreKind#TRIE}.
+   */
+  public RibStoreKind getRibStoreKind() {
+    String value = _config.getString(PROP_RIB_STORE, "").trim();
+    if (value.isEmpty()) {
+      return RibStoreKind.TRIE;
+    }
+    try {
+      return RibStoreKind.valueOf(value.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      LOGGER.warn("Unknown {} '{}', using {}", PROP_RIB_STORE, value, RibStoreKind.TRIE);
+      return RibStoreKind.TRIE;
+    }
+  }
+
   /**
    * If the schedule is of type {@link NodeColoredSchedule}, get the type of {@link Coloring} to
    * perform
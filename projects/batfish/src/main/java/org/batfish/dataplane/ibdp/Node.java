@@ -9,6 +9,7 @@ import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.dataplane.rib.RibId;
 import org.batfish.dataplane.rib.Rib;
+import org.batfish.dataplane.rib.RibStoreKind;
 
 /** Dataplane-specific encapsulation of {@link Configuration} */
 @ParametersAreNonnullByDefault
@@ -18,6 +19,12 @@ public final class Node {
   private final SortedMap<String, VirtualRouter> _virtualRouters;
   @Nonnull private final RoutingPolicies _routingPolicies;
 
+  /** Memoized BGP policy results, shared by the virtual routers of this node */
+  @Nonnull private final BgpPolicyCache _bgpPolicyCache = new BgpPolicyCache();
+
+  /** The kind of store backing the RIBs of this node */
+  @Nonnull private final RibStoreKind _ribStoreKind;
+
   /**
    * Create a new node based on the configuration. Initializes virtual routers based on {@link
    * Configuration} VRFs.
@@ -25,14 +32,26 @@ public final class Node {
    * @param configuration the {@link Configuration} backing this node
    */
   public Node(Configuration configuration) {
+    this(configuration, RibStoreKind.TRIE);
+  }
+
+  /**
+   * Create a new node based on the configuration, whose RIBs are backed by stores of the given
+   * kind. Initializes virtual routers based on {@link Configuration} VRFs.
+   *
+   * @param configuration the {@link Configuration} backing this node
+   * @param ribStoreKind the kind of store backing the RIBs of this node
+   */
+  public Node(Configuration configuration, RibStoreKind ribStoreKind) {
     _c = configuration;
+    _ribStoreKind = ribStoreKind;
+    _routingPolicies = RoutingPolicies.from(configuration);
     ImmutableSortedMap.Builder<String, VirtualRouter> b = ImmutableSortedMap.naturalOrder();
     for (String vrfName : _c.getVrfs().keySet()) {
       VirtualRouter vr = new VirtualRouter(vrfName, this);
       b.put(vrfName, vr);
     }
     _virtualRouters = b.build();
-    _routingPolicies = RoutingPolicies.from(configuration);
   }
 
   /**
@@ -49,6 +68,32 @@ public final class Node {
     return _routingPolicies;
   }
 
+  /**
+   * Compile the routing policies of this node for the data plane computation. Until {@link
+   * #clearCompiledRoutingPolicies()}, {@link #getRoutingPolicies()} returns compiled copies, which
+   * are not shared with the configuration.
+   */
+  void compileRoutingPolicies() {
+    _routingPolicies.compile(_c);
+  }
+
+  /** Drop the compiled routing policies of this node, once the data plane computation is done. */
+  void clearCompiledRoutingPolicies() {
+    _routingPolicies.clearCompiled();
+  }
+
+  /** Returns the memoized BGP policy results shared by the virtual routers of this node. */
+  @Nonnull
+  BgpPolicyCache getBgpPolicyCache() {
+    return _bgpPolicyCache;
+  }
+
+  /** Returns the kind of store backing the RIBs of this node. */
+  @Nonnull
+  RibStoreKind getRibStoreKind() {
+    return _ribStoreKind;
+  }
+
   /** Return the list of virtual routers at this node */
   @Nonnull
   Collection<VirtualRouter> getVirtualRouters() {
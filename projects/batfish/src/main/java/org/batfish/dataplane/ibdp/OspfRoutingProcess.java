@@ -13,6 +13,7 @@ import com.google.common.collect.Streams;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -70,6 +71,7 @@ import org.batfish.dataplane.rib.OspfInternalSummaryRib;
 import org.batfish.dataplane.rib.OspfIntraAreaRib;
 import org.batfish.dataplane.rib.OspfRib;
 import org.batfish.dataplane.rib.RibDelta;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.batfish.dataplane.rib.RouteAdvertisement;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 
@@ -139,8 +141,29 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
    */
   @Nonnull private Set<OspfNeighborConfigId> _neighborsWhereDefaultIARouteWasInjected;
 
+  /* Link-state database contributions, see computeIntraAreaRoutesWithSpf */
+  /** The intra-area routes this process originates from its own interfaces */
+  @Nonnull private Set<OspfIntraAreaRoute> _originatedIntraAreaRoutes;
+  /**
+   * Area -> incoming edge from a neighbor in that area -> cost added to routes received on the
+   * edge
+   */
+  @Nonnull private Map<Long, Map<EdgeId, Long>> _adjacencyCosts;
+  /** Areas whose intra-area routes are computed with SPF rather than exchanged with neighbors */
+  @Nonnull private Set<Long> _intraAreaSpfAreas;
+
+  @VisibleForTesting
   OspfRoutingProcess(
       OspfProcess process, String vrfName, Configuration configuration, OspfTopology topology) {
+    this(process, vrfName, configuration, topology, RibStoreKind.TRIE);
+  }
+
+  OspfRoutingProcess(
+      OspfProcess process,
+      String vrfName,
+      Configuration configuration,
+      OspfTopology topology,
+      RibStoreKind ribStoreKind) {
     _c = configuration;
     _vrfName = vrfName;
     _process = process;
@@ -155,13 +178,14 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
             .filter(Objects::nonNull)
             .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
     _topology = topology;
+    _adjacencyCosts = computeAdjacencyCosts(topology);
 
-    _intraAreaRib = new OspfIntraAreaRib();
-    _interAreaRib = new OspfInterAreaRib();
-    _internalSummaryRib = new OspfInternalSummaryRib();
-    _type1Rib = new OspfExternalType1Rib(_c.getHostname());
-    _type2Rib = new OspfExternalType2Rib(_c.getHostname());
-    _ospfRib = new OspfRib();
+    _intraAreaRib = new OspfIntraAreaRib(ribStoreKind);
+    _interAreaRib = new OspfInterAreaRib(ribStoreKind);
+    _internalSummaryRib = new OspfInternalSummaryRib(ribStoreKind);
+    _type1Rib = new OspfExternalType1Rib(_c.getHostname(), ribStoreKind);
+    _type2Rib = new OspfExternalType2Rib(_c.getHostname(), ribStoreKind);
+    _ospfRib = new OspfRib(ribStoreKind);
 
     updateQueues(topology);
 
@@ -187,6 +211,8 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
     _queuedForRedistribution = new ExternalDelta();
     _activatedGeneratedRoutes = RibDelta.empty();
     _neighborsWhereDefaultIARouteWasInjected = new HashSet<>(0);
+    _originatedIntraAreaRoutes = ImmutableSet.of();
+    _intraAreaSpfAreas = new HashSet<>(0);
   }
 
   @Override
@@ -278,6 +304,7 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
   @Override
   public void updateTopology(OspfTopology topology) {
     _topology = topology;
+    _adjacencyCosts = computeAdjacencyCosts(topology);
     updateQueues(topology);
     /*
     TODO:
@@ -352,6 +379,154 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
     RibDelta<OspfInterAreaRoute> interAreaDelta = initializeInterAreaRoutes(intraAreaDelta);
     _initializationDelta = new InternalDelta(intraAreaDelta, interAreaDelta, RibDelta.empty());
     _changeset.from(RibDelta.importRibDelta(_ospfRib, intraAreaDelta));
+    _originatedIntraAreaRoutes = ImmutableSet.copyOf(_intraAreaRib.getTypedRoutes());
+  }
+
+  /**
+   * Compute the intra-area routes of this process with a shortest path first computation over each
+   * of its areas, instead of exchanging them with neighbors over many iterations.
+   *
+   * <p>The link-state database of an area is made of the adjacencies in that area and the
+   * intra-area routes originated by each process. For each prefix, this process installs a route
+   * for every first hop of the shortest paths to the processes that originate the prefix at the
+   * lowest total metric.
+   *
+   * <p>The exchange applies the inbound distribute list of every router a route passes through,
+   * and a distribute list may change the route. So the SPF only gives the same routes as the
+   * exchange if no process reachable in the area has an inbound distribute list on its interfaces
+   * in the area. Areas where one does keep exchanging their intra-area routes with neighbors. All
+   * processes reachable in an area make the same choice for it.
+   *
+   * <p>Must be called on every process after all processes are initialized and before the first
+   * iteration. Inter-area and external routes are still exchanged with neighbors.
+   *
+   * @param allNodes all nodes participating in DP computation
+   */
+  void computeIntraAreaRoutesWithSpf(Map<String, Node> allNodes) {
+    RibDelta.Builder<OspfIntraAreaRoute> intraAreaDelta = RibDelta.builder();
+    RibDelta.Builder<OspfInterAreaRoute> interAreaDelta = RibDelta.builder();
+    for (long area : _process.getAreas().keySet()) {
+      OspfSpf spf = OspfSpf.compute(this, area, allNodes);
+      if (spf.getCosts().keySet().stream().anyMatch(p -> p.hasInboundDistributeList(area))) {
+        continue;
+      }
+      _intraAreaSpfAreas.add(area);
+      // Lowest total metric of each prefix, and the originated routes that achieve it
+      Map<Prefix, Long> metrics = new HashMap<>();
+      Map<Prefix, Map<OspfRoutingProcess, OspfIntraAreaRoute>> bestOrigins = new HashMap<>();
+      spf.getCosts()
+          .forEach(
+              (originator, cost) -> {
+                for (OspfIntraAreaRoute route : originator._originatedIntraAreaRoutes) {
+                  if (route.getArea() != area) {
+                    continue;
+                  }
+                  Prefix prefix = route.getNetwork();
+                  long metric = cost + route.getMetric();
+                  Long bestMetric = metrics.get(prefix);
+                  if (bestMetric == null || metric < bestMetric) {
+                    metrics.put(prefix, metric);
+                    bestOrigins.put(prefix, new HashMap<>());
+                  }
+                  if (bestMetric == null || metric <= bestMetric) {
+                    bestOrigins.get(prefix).putIfAbsent(originator, route);
+                  }
+                }
+              });
+      bestOrigins.forEach(
+          (prefix, origins) ->
+              origins.forEach(
+                  (originator, route) -> {
+                    for (EdgeId edge : spf.getFirstHops(originator)) {
+                      OspfIntraAreaRoute.Builder routeBuilder =
+                          transformIntraAreaRouteFromSpf(route, metrics.get(prefix), edge);
+                      applyDistributeList(
+                          _c, _vrfName, edge.getHead().getInterfaceName(), routeBuilder);
+                      OspfIntraAreaRoute intraAreaRoute = routeBuilder.build();
+                      intraAreaDelta.from(_intraAreaRib.mergeRouteGetDelta(intraAreaRoute));
+                      convertToInterAreaRouteAtABR(intraAreaRoute, Reason.ADD, interAreaDelta);
+                    }
+                  }));
+    }
+    InternalDelta spfDelta =
+        new InternalDelta(intraAreaDelta.build(), interAreaDelta.build(), RibDelta.empty());
+    _changeset.from(RibDelta.importRibDelta(_ospfRib, spfDelta._intraArea));
+    _changeset.from(RibDelta.importRibDelta(_ospfRib, spfDelta._interArea));
+    // Inter-area routes are advertised in the first iteration, along with the initial ones
+    _initializationDelta =
+        new InternalDelta(
+            RibDelta.<OspfIntraAreaRoute>builder()
+                .from(_initializationDelta._intraArea)
+                .from(spfDelta._intraArea)
+                .build(),
+            RibDelta.<OspfInterAreaRoute>builder()
+                .from(_initializationDelta._interArea)
+                .from(spfDelta._interArea)
+                .build(),
+            _initializationDelta._internalSummary);
+  }
+
+  /** Whether an interface of this process in the given area has an inbound distribute list */
+  private boolean hasInboundDistributeList(long area) {
+    OspfArea areaConfig = _process.getAreas().get(area);
+    return areaConfig != null
+        && areaConfig.getInterfaces().stream()
+            .map(_c.getAllInterfaces()::get)
+            .anyMatch(
+                iface -> iface != null && iface.getOspfInboundDistributeListPolicy() != null);
+  }
+
+  /**
+   * Build the route for a prefix originated by another process, as if it was received on the
+   * given incoming edge with the given total metric.
+   */
+  @Nonnull
+  private OspfIntraAreaRoute.Builder transformIntraAreaRouteFromSpf(
+      OspfIntraAreaRoute originatedRoute, long metric, EdgeId edge) {
+    Optional<OspfSessionProperties> session = _topology.getSession(edge.reverse());
+    assert session.isPresent(); // Otherwise the edge would have no cost
+    // Same as the neighbor's next hop on export, see sendOutIntraAreaRoutesPerEdge
+    Ip nextHopIp = session.get().getIpLink().getIp2();
+    return originatedRoute.toBuilder()
+        .setMetric(metric)
+        .setAdmin(_process.getAdminCosts().get(originatedRoute.getProtocol()))
+        .setNextHop(NextHopInterface.of(edge.getHead().getInterfaceName(), nextHopIp))
+        .setNonRouting(false)
+        .setNonForwarding(false);
+  }
+
+  /**
+   * Compute the cost of the adjacencies of this process: routes received on an incoming edge cost
+   * as much more as the receiving interface.
+   */
+  @Nonnull
+  private Map<Long, Map<EdgeId, Long>> computeAdjacencyCosts(OspfTopology topology) {
+    Map<Long, ImmutableMap.Builder<EdgeId, Long>> costs = new HashMap<>();
+    getIncomingEdgeStream(topology)
+        .sorted()
+        .forEach(
+            edgeId ->
+                // Neighbors advertise over the reverse edge, in the area of its session
+                topology
+                    .getSession(edgeId.reverse())
+                    .ifPresent(
+                        session ->
+                            costs
+                                .computeIfAbsent(session.getArea(), a -> ImmutableMap.builder())
+                                .put(
+                                    edgeId,
+                                    getIncrementalCost(
+                                        edgeId.getHead().getInterfaceName(), false))));
+    return costs.entrySet().stream()
+        .collect(ImmutableMap.toImmutableMap(Entry::getKey, e -> e.getValue().build()));
+  }
+
+  /**
+   * Return the cost of the adjacencies of this process in the given area, keyed by incoming edge.
+   */
+  @Nonnull
+  Map<EdgeId, Long> getAdjacencyCosts(long area) {
+    return _adjacencyCosts.getOrDefault(area, ImmutableMap.of());
   }
 
   /** Initialize inter-area routes based the initial intra-area routes. */
@@ -473,7 +648,7 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
    * OspfNeighborId}
    */
   @Nullable
-  private static OspfRoutingProcess getNeighborProcess(
+  static OspfRoutingProcess getNeighborProcess(
       OspfNeighborConfigId ospfNeighborId, Map<String, Node> allNodes) {
     return allNodes
         .get(ospfNeighborId.getHostname())
@@ -664,25 +839,34 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
         processRouteAdvertisement(
             routeAdvertisement.toBuilder().setRoute(intraAreaRoute).build(), _intraAreaRib));
 
-    /*
-    If we are an ABR, convert intra-area routes to inter-area routes (i.e., Type 1 -> Type 3) and put them
-    into our inter-area RIB. Note these non-routing because intra-area specific routes should always be preferred.
-    */
-    if (isABR()) {
-      // If this area has summaries, make sure we only convert the non-summarized-routes to
-      // inter-area routes.
-      RouteFilterList areaFilter = _areaFilters.get(intraAreaRoute.getArea());
-      if (areaFilter == null || areaFilter.permits(intraAreaRoute.getNetwork())) {
-        OspfInterAreaRoute interAreaRoute =
-            OspfInterAreaRoute.builder(intraAreaRoute).setNonRouting(true).build();
-        interAreaDelta.from(
-            processRouteAdvertisement(
-                RouteAdvertisement.<OspfInterAreaRoute>builder()
-                    .setReason(routeAdvertisement.getReason())
-                    .setRoute(interAreaRoute)
-                    .build(),
-                _interAreaRib));
-      }
+    convertToInterAreaRouteAtABR(intraAreaRoute, routeAdvertisement.getReason(), interAreaDelta);
+  }
+
+  /**
+   * If we are an ABR, convert an intra-area route to an inter-area route (i.e., Type 1 -> Type 3)
+   * and put it into our inter-area RIB. Note these are non-routing because intra-area specific
+   * routes should always be preferred.
+   */
+  private void convertToInterAreaRouteAtABR(
+      OspfIntraAreaRoute intraAreaRoute,
+      Reason reason,
+      RibDelta.Builder<OspfInterAreaRoute> interAreaDelta) {
+    if (!isABR()) {
+      return;
+    }
+    // If this area has summaries, make sure we only convert the non-summarized-routes to
+    // inter-area routes.
+    RouteFilterList areaFilter = _areaFilters.get(intraAreaRoute.getArea());
+    if (areaFilter == null || areaFilter.permits(intraAreaRoute.getNetwork())) {
+      OspfInterAreaRoute interAreaRoute =
+          OspfInterAreaRoute.builder(intraAreaRoute).setNonRouting(true).build();
+      interAreaDelta.from(
+          processRouteAdvertisement(
+              RouteAdvertisement.<OspfInterAreaRoute>builder()
+                  .setReason(reason)
+                  .setRoute(interAreaRoute)
+                  .build(),
+              _interAreaRib));
     }
   }
 
@@ -900,8 +1084,10 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
     assert session.isPresent(); // Otherwise the edge should not have been established
 
     OspfArea areaConfig = _process.getAreas().get(session.get().getArea());
-    sendOutIntraAreaRoutesPerEdge(
-        delta._intraArea, edgeId, remoteProcess, areaConfig, session.get());
+    if (!_intraAreaSpfAreas.contains(areaConfig.getAreaNumber())) {
+      sendOutIntraAreaRoutesPerEdge(
+          delta._intraArea, edgeId, remoteProcess, areaConfig, session.get());
+    }
     if (isABR()) {
       sendOutInterAreaRoutesPerEdgeABR(
           delta._interArea, edgeId, remoteProcess, areaConfig, session.get());
@@ -0,0 +1,107 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+
+/**
+ * Shortest paths from one {@link OspfRoutingProcess} to the other processes of an OSPF area,
+ * computed with Dijkstra's algorithm over the adjacencies of the area.
+ *
+ * <p>Paths are followed in the direction opposite to route advertisements: a process reaches a
+ * neighbor over the edge on which it would receive the neighbor's routes, at the cost that
+ * receiving a route on that edge adds to its metric.
+ */
+@ParametersAreNonnullByDefault
+final class OspfSpf {
+
+  /** The cost of the shortest paths to each reachable process, including the root at cost 0. */
+  private final @Nonnull Map<OspfRoutingProcess, Long> _costs;
+
+  /**
+   * For each reachable process other than the root, the incoming edges of the root on which the
+   * shortest paths to the process start.
+   */
+  private final @Nonnull Map<OspfRoutingProcess, Set<EdgeId>> _firstHops;
+
+  private OspfSpf(
+      Map<OspfRoutingProcess, Long> costs, Map<OspfRoutingProcess, Set<EdgeId>> firstHops) {
+    _costs = costs;
+    _firstHops = firstHops;
+  }
+
+  /**
+   * Compute the shortest paths from {@code root} to the other processes of an area.
+   *
+   * @param root the process from which paths start
+   * @param area the area whose adjacencies paths may use
+   * @param allNodes all nodes participating in DP computation
+   */
+  static @Nonnull OspfSpf compute(OspfRoutingProcess root, long area, Map<String, Node> allNodes) {
+    Map<OspfRoutingProcess, Long> costs = new HashMap<>();
+    Map<OspfRoutingProcess, Set<EdgeId>> firstHops = new HashMap<>();
+    Set<OspfRoutingProcess> settled = new HashSet<>();
+    PriorityQueue<Entry<Long, OspfRoutingProcess>> queue =
+        new PriorityQueue<>(Entry.comparingByKey());
+    costs.put(root, 0L);
+    queue.add(Maps.immutableEntry(0L, root));
+    while (!queue.isEmpty()) {
+      Entry<Long, OspfRoutingProcess> next = queue.remove();
+      long cost = next.getKey();
+      OspfRoutingProcess process = next.getValue();
+      if (cost > costs.get(process)) {
+        // Stale entry, the process was reached at a lower cost since
+        continue;
+      }
+      settled.add(process);
+      for (Entry<EdgeId, Long> adjacency : process.getAdjacencyCosts(area).entrySet()) {
+        EdgeId edge = adjacency.getKey();
+        OspfRoutingProcess neighbor =
+            OspfRoutingProcess.getNeighborProcess(edge.getTail(), allNodes);
+        assert neighbor != null; // Otherwise the edge should not have been established
+        if (neighbor == root) {
+          continue;
+        }
+        long neighborCost = cost + adjacency.getValue();
+        Set<EdgeId> hops = process == root ? ImmutableSet.of(edge) : firstHops.get(process);
+        Long oldCost = costs.get(neighbor);
+        if (oldCost == null || neighborCost < oldCost) {
+          costs.put(neighbor, neighborCost);
+          firstHops.put(neighbor, new HashSet<>(hops));
+          queue.add(Maps.immutableEntry(neighborCost, neighbor));
+        } else if (neighborCost == oldCost
+            && firstHops.get(neighbor).addAll(hops)
+            && settled.contains(neighbor)) {
+          // Only possible over zero-cost adjacencies: pass the new first hops on to the processes
+          // already reached through the neighbor.
+          queue.add(Maps.immutableEntry(neighborCost, neighbor));
+        }
+      }
+    }
+    return new OspfSpf(costs, firstHops);
+  }
+
+  /** The cost of the shortest paths to each reachable process, including the root at cost 0. */
+  @Nonnull
+  Map<OspfRoutingProcess, Long> getCosts() {
+    return _costs;
+  }
+
+  /**
+   * Return the incoming edges of the root on which the shortest paths to the given process start.
+   * Empty for the root and for unreachable processes.
+   */
+  @Nonnull
+  Set<EdgeId> getFirstHops(OspfRoutingProcess process) {
+    Set<EdgeId> hops = _firstHops.get(process);
+    return hops == null ? ImmutableSet.of() : hops;
+  }
+}
@@ -6,6 +6,7 @@ import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.routing_policy.CompiledPolicyContext;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
 
 /** Internal iBDP implementation. A collection of all routing polices on a single device. */
@@ -13,10 +14,24 @@ import org.batfish.datamodel.routing_policy.RoutingPolicy;
 final class RoutingPolicies {
 
   RoutingPolicies(Map<String, RoutingPolicy> policies, String hostname) {
-    _policies = ImmutableMap.copyOf(policies);
+    _uncompiledPolicies = ImmutableMap.copyOf(policies);
+    _policies = _uncompiledPolicies;
     _hostname = hostname;
   }
 
+  /**
+   * Return the compiled copies of the policies of {@code c} from now on, until {@link
+   * #clearCompiled()}. See {@link CompiledPolicyContext}.
+   */
+  void compile(Configuration c) {
+    _policies = CompiledPolicyContext.compile(c).getRoutingPolicies();
+  }
+
+  /** Return the policies this collection was created with again, dropping their compiled copies. */
+  void clearCompiled() {
+    _policies = _uncompiledPolicies;
+  }
+
   /** Return a routing policy of a given name */
   @Nonnull
   public Optional<RoutingPolicy> get(String name) {
@@ -42,7 +57,8 @@ final class RoutingPolicies {
     return new RoutingPolicies(c.getRoutingPolicies(), c.getHostname());
   }
 
-  @Nonnull private final Map<String, RoutingPolicy> _policies;
+  @Nonnull private final Map<String, RoutingPolicy> _uncompiledPolicies;
+  @Nonnull private volatile Map<String, RoutingPolicy> _policies;
   // For internal informational purposes only
   @Nonnull private final String _hostname;
 }
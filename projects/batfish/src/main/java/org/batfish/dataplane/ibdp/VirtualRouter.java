@@ -118,6 +118,7 @@ import org.batfish.dataplane.rib.LocalRib;
 import org.batfish.dataplane.rib.Rib;
 import org.batfish.dataplane.rib.RibDelta;
 import org.batfish.dataplane.rib.RibDelta.Builder;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.batfish.dataplane.rib.RipInternalRib;
 import org.batfish.dataplane.rib.RipRib;
 import org.batfish.dataplane.rib.RouteAdvertisement;
@@ -234,7 +235,10 @@ public final class VirtualRouter {
             ? alwaysTrue()
             : _c.getRoutingPolicies().get(resolutionPolicy)::processReadOnly;
     // Main RIB + delta builder
-    _mainRib = new Rib(_c.getMainRibEnforceResolvability() ? _resolutionRestriction : null);
+    _mainRib =
+        new Rib(
+            _c.getMainRibEnforceResolvability() ? _resolutionRestriction : null,
+            node.getRibStoreKind());
     _mainRibs = ImmutableMap.of(RibId.DEFAULT_RIB_NAME, _mainRib);
     _mainRibDeltaPrevRound = RibDelta.empty();
     _mainRibRouteDeltaBuilder = RibDelta.builder();
@@ -250,7 +254,15 @@ public final class VirtualRouter {
     if (_vrf.getBgpProcess() != null) {
       _bgpRoutingProcess =
           new BgpRoutingProcess(
-              _vrf.getBgpProcess(), _c, _name, _mainRib, BgpTopology.EMPTY, _prefixTracer);
+              _vrf.getBgpProcess(),
+              _c,
+              _name,
+              _mainRib,
+              BgpTopology.EMPTY,
+              _prefixTracer,
+              node.getRoutingPolicies(),
+              node.getBgpPolicyCache(),
+              node.getRibStoreKind());
     }
     _hmmRoutes = ImmutableList.of();
     _kernelConditionalRoutes = ImmutableList.of();
@@ -320,7 +332,11 @@ public final class VirtualRouter {
                     Entry::getKey,
                     e ->
                         new OspfRoutingProcess(
-                            e.getValue(), _name, _c, topologyContext.getOspfTopology())));
+                            e.getValue(),
+                            _name,
+                            _c,
+                            topologyContext.getOspfTopology(),
+                            _node.getRibStoreKind())));
     _ospfProcesses.values().forEach(p -> p.initialize(_node));
 
     initEigrp();
@@ -410,7 +426,11 @@ public final class VirtualRouter {
         _vrf.getEigrpProcesses().values().stream()
             .map(
                 eigrpProcess ->
-                    new EigrpRoutingProcess(eigrpProcess, _name, RoutingPolicies.from(_c)))
+                    new EigrpRoutingProcess(
+                        eigrpProcess,
+                        _name,
+                        _node.getRoutingPolicies(),
+                        _node.getRibStoreKind()))
             .collect(ImmutableMap.toImmutableMap(EigrpRoutingProcess::getAsn, Function.identity()));
     _eigrpProcesses.values().forEach(p -> p.initialize(_node));
   }
@@ -700,6 +720,20 @@ public final class VirtualRouter {
     _fib = new FibImpl(_mainRib, _resolutionRestriction);
   }
 
+  /**
+   * Adopt the FIB and VNI settings this VRF converged to in a previously computed data plane,
+   * instead of computing them. The routing processes and RIBs of this VRF are left uninitialized,
+   * so it must not take part in route computation; the final data plane takes the RIBs of this VRF
+   * from the previously computed data plane instead.
+   */
+  void reuseConvergedState(Fib fib, Set<Layer2Vni> layer2Vnis, Set<Layer3Vni> layer3Vnis) {
+    _fib = fib;
+    _layer2Vnis = ImmutableSet.copyOf(layer2Vnis);
+    _layer3Vnis =
+        layer3Vnis.stream()
+            .collect(ImmutableMap.toImmutableMap(Layer3Vni::getVni, Function.identity()));
+  }
+
   void initBgpAggregateRoutes() {
     if (_bgpRoutingProcess == null) {
       return;
@@ -1071,27 +1105,29 @@ public final class VirtualRouter {
   /** Initialize all ribs on this router. All RIBs will be empty */
   @VisibleForTesting
   final void initRibs() {
+    RibStoreKind storeKind = _node.getRibStoreKind();
+
     // Non-learned-protocol RIBs
-    _connectedRib = new ConnectedRib();
-    _localRib = new LocalRib();
-    _generatedRib = new Rib();
-    _independentRib = new Rib();
+    _connectedRib = new ConnectedRib(storeKind);
+    _localRib = new LocalRib(storeKind);
+    _generatedRib = new Rib(null, storeKind);
+    _independentRib = new Rib(null, storeKind);
 
     // ISIS
-    _isisRib = new IsisRib(isL1Only());
-    _isisL1Rib = new IsisLevelRib(true);
-    _isisL2Rib = new IsisLevelRib(true);
-    _isisL1StagingRib = new IsisLevelRib(false);
-    _isisL2StagingRib = new IsisLevelRib(false);
+    _isisRib = new IsisRib(isL1Only(), storeKind);
+    _isisL1Rib = new IsisLevelRib(true, storeKind);
+    _isisL2Rib = new IsisLevelRib(true, storeKind);
+    _isisL1StagingRib = new IsisLevelRib(false, storeKind);
+    _isisL2StagingRib = new IsisLevelRib(false, storeKind);
 
     // RIP
-    _ripInternalRib = new RipInternalRib();
-    _ripInternalStagingRib = new RipInternalRib();
-    _ripRib = new RipRib();
+    _ripInternalRib = new RipInternalRib(storeKind);
+    _ripInternalStagingRib = new RipInternalRib(storeKind);
+    _ripRib = new RipRib(storeKind);
 
     // Static
-    _staticConditionalRib = new StaticRib();
-    _staticUnconditionalRib = new StaticRib();
+    _staticConditionalRib = new StaticRib(storeKind);
+    _staticUnconditionalRib = new StaticRib(storeKind);
   }
 
   private boolean isL1Only() {
@@ -1368,7 +1404,7 @@ public final class VirtualRouter {
     /*
      * RIBs not read from can just be re-initialized
      */
-    _ripRib = new RipRib();
+    _ripRib = new RipRib(_node.getRibStoreKind());
 
     /*
      * Add routes that cannot change (does not affect below computation)
@@ -1586,6 +1622,11 @@ public final class VirtualRouter {
     _eigrpProcesses.values().forEach(p -> p.executeIteration(allNodes));
   }
 
+  /** Compute the intra-area routes of all OSPF processes with SPF */
+  void ospfSpf(Map<String, Node> allNodes) {
+    _ospfProcesses.values().forEach(p -> p.computeIntraAreaRoutesWithSpf(allNodes));
+  }
+
   /** Execute one OSPF iteration, for all processes */
   void ospfIteration(Map<String, Node> allNodes) {
     _ospfProcesses.values().forEach(p -> p.executeIteration(allNodes));
@@ -1819,6 +1860,14 @@ public final class VirtualRouter {
     }
   }
 
+  /**
+   * Whether the BGP process produced advertisements in the last inner round that neighbors have yet
+   * to pull.
+   */
+  boolean hasBgpAdvertisements() {
+    return _bgpRoutingProcess != null && _bgpRoutingProcess.hasOutgoingDeltas();
+  }
+
   /** End of a single "EGP" inner routing round (schedule). */
   void endOfEgpInnerRound() {
     if (_bgpRoutingProcess != null) {
@@ -0,0 +1,194 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.google.common.graph.EndpointPair;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.eigrp.EigrpNeighborConfigId;
+import org.batfish.datamodel.isis.IsisNode;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+import org.batfish.datamodel.vxlan.VxlanNode;
+import org.batfish.dataplane.ibdp.Node;
+import org.batfish.dataplane.ibdp.TopologyContext;
+import org.jgrapht.Graph;
+import org.jgrapht.alg.connectivity.ConnectivityInspector;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+
+/**
+ * Partitions nodes into the connected components of the graph of protocol adjacencies, as built by
+ * {@link #buildAdjacencyGraph}. While the dependent routes are computed, routes are exchanged only
+ * along the BGP, OSPF, IS-IS, EIGRP and VXLAN adjacencies of the current topologies. Nodes in
+ * different components therefore do not exchange routes, and the state of each component depends
+ * only on its own nodes. This holds only for the given topologies: once the routes converge, the
+ * topologies are recomputed and the components may merge, so they are recomputed too.
+ *
+ * <p>The components are not ordered: by default all nodes are processed in parallel, as with {@link
+ * Schedule#ALL}. Ordering the strongly connected components of the adjacency graph would only help
+ * if some edges were one-way. BGP sessions always have edges in both directions. OSPF and IS-IS
+ * edges are one-way only when the two ends of an adjacency are configured inconsistently. Running
+ * both ends of such an edge in parallel delays routes by at most one iteration per one-way hop.
+ * Components that are known to oscillate can be serialized: their nodes are processed one at a
+ * time, while the other components are still processed alongside them.
+ */
+@ParametersAreNonnullByDefault
+public final class ConnectedComponentSchedule extends IbdpSchedule {
+
+  private final @Nonnull Iterator<Set<String>> _iterator;
+
+  /**
+   * Create a new schedule based on existing nodes and topology, with no serialized components
+   *
+   * @param nodes all nodes in the network
+   * @param topologyContext the various network topologies
+   */
+  public ConnectedComponentSchedule(Map<String, Node> nodes, TopologyContext topologyContext) {
+    this(nodes, computeComponents(nodes, topologyContext), ImmutableSet.of());
+  }
+
+  /**
+   * Create a new schedule from previously computed components
+   *
+   * @param nodes all nodes in the network
+   * @param components the components, as returned by {@link #computeComponents}
+   * @param serializedComponents components whose nodes must be processed one at a time
+   */
+  public ConnectedComponentSchedule(
+      Map<String, Node> nodes,
+      List<SortedSet<String>> components,
+      Set<SortedSet<String>> serializedComponents) {
+    super(nodes);
+    ImmutableList.Builder<Set<String>> steps = ImmutableList.builder();
+    Set<String> parallel = new HashSet<>();
+    List<Iterator<String>> serialized = new ArrayList<>();
+    for (SortedSet<String> component : components) {
+      if (serializedComponents.contains(component)) {
+        serialized.add(component.iterator());
+      } else {
+        parallel.addAll(component);
+      }
+    }
+    // Take one node from each serialized component per step, until all are exhausted.
+    Set<String> step = parallel;
+    do {
+      for (Iterator<String> it : serialized) {
+        if (it.hasNext()) {
+          step.add(it.next());
+        }
+      }
+      if (!step.isEmpty()) {
+        steps.add(ImmutableSet.copyOf(step));
+      }
+      step = new HashSet<>();
+    } while (serialized.stream().anyMatch(Iterator::hasNext));
+    _iterator = steps.build().iterator();
+  }
+
+  /**
+   * Compute the connected components of the graph of protocol adjacencies.
+   *
+   * @param nodes all nodes in the network
+   * @param topologyContext the various network topologies
+   */
+  public static @Nonnull List<SortedSet<String>> computeComponents(
+      Map<String, Node> nodes, TopologyContext topologyContext) {
+    return new ConnectivityInspector<>(buildAdjacencyGraph(nodes, topologyContext))
+        .connectedSets().stream()
+        .map(ImmutableSortedSet::copyOf)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Create a directed graph of protocol adjacencies between nodes. There is an edge from one node
+   * to another if:
+   *
+   * <ul>
+   *   <li>They have established a BGP session
+   *   <li>They have an OSPF adjacency
+   *   <li>They have an IS-IS adjacency
+   *   <li>They have an EIGRP adjacency
+   *   <li>They have a VXLAN tunnel, in which case there are edges in both directions
+   * </ul>
+   *
+   * <p>Edges to nodes that are not in {@code nodes} are ignored.
+   *
+   * @param nodes the nodes whose routes are being computed
+   * @param topologyContext the various network topologies
+   */
+  @SuppressWarnings("deprecation")
+  private static Graph<String, DefaultEdge> buildAdjacencyGraph(
+      Map<String, Node> nodes, TopologyContext topologyContext) {
+    // Add all nodes first
+    Graph<String, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+    nodes.keySet().forEach(graph::addVertex);
+
+    // Process BGP connections
+    for (EndpointPair<BgpPeerConfigId> edge : topologyContext.getBgpTopology().getGraph().edges()) {
+      addEdge(graph, edge.source().getHostname(), edge.target().getHostname());
+    }
+    // Process OSPF edges
+    for (EdgeId edge : topologyContext.getOspfTopology().edges()) {
+      addEdge(graph, edge.getTail().getHostname(), edge.getHead().getHostname());
+    }
+    // Process IS-IS edges
+    for (EndpointPair<IsisNode> edge :
+        topologyContext.getIsisTopology().getNetwork().asGraph().edges()) {
+      addEdge(graph, edge.source().getNode(), edge.target().getNode());
+    }
+    // Process EIGRP edges
+    for (EndpointPair<EigrpNeighborConfigId> edge :
+        topologyContext.getEigrpTopology().getNetwork().asGraph().edges()) {
+      addEdge(graph, edge.source().getHostname(), edge.target().getHostname());
+    }
+    // Process VXLAN edges, which are undirected
+    for (EndpointPair<VxlanNode> edge : topologyContext.getVxlanTopology().getGraph().edges()) {
+      addEdge(graph, edge.nodeU().getHostname(), edge.nodeV().getHostname());
+      addEdge(graph, edge.nodeV().getHostname(), edge.nodeU().getHostname());
+    }
+    return graph;
+  }
+
+  private static void addEdge(Graph<String, DefaultEdge> graph, String source, String target) {
+    if (graph.containsVertex(source) && graph.containsVertex(target)) {
+      graph.addEdge(source, target);
+    }
+  }
+
+  /**
+   * Group the given nodes by the component they belong to.
+   *
+   * @param nodes all nodes in the network
+   * @param components the components, as returned by {@link #computeComponents}
+   */
+  public static @Nonnull Map<SortedSet<String>, Map<String, Node>> nodesByComponent(
+      Map<String, Node> nodes, Collection<SortedSet<String>> components) {
+    ImmutableMap.Builder<SortedSet<String>, Map<String, Node>> builder = ImmutableMap.builder();
+    components.forEach(
+        c -> builder.put(c, ImmutableMap.copyOf(Maps.filterKeys(nodes, c::contains))));
+    return builder.build();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return _iterator.hasNext();
+  }
+
+  @Override
+  public Map<String, Node> next() {
+    Set<String> nodeNames = _iterator.next();
+    return Maps.filterKeys(_nodes, nodeNames::contains);
+  }
+}
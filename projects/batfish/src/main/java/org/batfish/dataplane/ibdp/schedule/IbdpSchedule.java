@@ -21,6 +21,7 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
     ALL,
     NODE_COLORED,
     NODE_SERIALIZED,
+    CONNECTED_COMPONENTS,
   }
 
   protected ImmutableMap<String, Node> _nodes;
@@ -87,6 +88,8 @@ public abstract class IbdpSchedule implements Iterator<Map<String, Node>> {
       case NODE_COLORED:
         Coloring coloring = settings.getColoringType();
         return new NodeColoredSchedule(allNodes, coloring, topologyContext);
+      case CONNECTED_COMPONENTS:
+        return new ConnectedComponentSchedule(allNodes, topologyContext);
       default:
         throw new BatfishException(String.format("Unsupported ibdp schedule: %s", schedule));
     }
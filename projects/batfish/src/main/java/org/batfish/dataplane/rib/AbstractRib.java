@@ -43,9 +43,14 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
   @Nullable protected final LinkedHashMultimap<Prefix, R> _backupRoutes;
 
   protected AbstractRib(boolean withBackupRoutes) {
+    this(withBackupRoutes, RibStoreKind.TRIE);
+  }
+
+  /** Create an AbstractRib whose routes are stored in a store of the given kind */
+  protected AbstractRib(boolean withBackupRoutes, RibStoreKind storeKind) {
     _allRoutes = ImmutableSet.of();
     _backupRoutes = withBackupRoutes ? LinkedHashMultimap.create() : null;
-    _tree = new RibTree<>(this);
+    _tree = new RibTree<>(this, storeKind.create());
   }
 
   /** Create an AbstractRib without backup routes */
@@ -167,8 +172,9 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
     return _allRoutes;
   }
 
+  /** Compute all routes in the RIB. The stores return immutable snapshots, so none is copied. */
   protected @Nonnull Set<R> computeTypedRoutes() {
-    return ImmutableSet.copyOf(_tree.getRoutes());
+    return _tree.getRoutes();
   }
 
   @Override
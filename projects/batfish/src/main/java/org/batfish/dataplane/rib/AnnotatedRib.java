@@ -23,6 +23,10 @@ public abstract class AnnotatedRib<R extends AbstractRoute> extends AbstractRib<
     super(withBackupRoutes);
   }
 
+  AnnotatedRib(boolean withBackupRoutes, RibStoreKind storeKind) {
+    super(withBackupRoutes, storeKind);
+  }
+
   /*
   TODO If an AnnotatedRoute is added to a RIB that already has an identical route with a different
    source VRF, the new route should not be installed or added to _backupRoutes. If the routes are
@@ -95,8 +95,9 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
       @Nullable MultipathEquivalentAsPathMatchMode multipathEquivalentAsPathMatchMode,
       boolean withBackups,
       boolean clusterListAsIgpCost,
-      LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker) {
-    super(withBackups);
+      LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker,
+      RibStoreKind storeKind) {
+    super(withBackups, storeKind);
     _mainRib = mainRib;
     _tieBreaker = tieBreaker;
     _clusterListAsIgpCost = clusterListAsIgpCost;
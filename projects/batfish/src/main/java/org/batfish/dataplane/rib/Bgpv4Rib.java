@@ -138,6 +138,28 @@ public final class Bgpv4Rib extends BgpRib<Bgpv4Route> {
       LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker,
       NextHopIpTieBreaker networkNextHopIpTieBreaker,
       NextHopIpTieBreaker redistributeNextHopIpTieBreaker) {
+    this(
+        mainRib,
+        tieBreaker,
+        maxPaths,
+        multipathEquivalentAsPathMatchMode,
+        clusterListAsIgpCost,
+        localOriginationTypeTieBreaker,
+        networkNextHopIpTieBreaker,
+        redistributeNextHopIpTieBreaker,
+        RibStoreKind.TRIE);
+  }
+
+  public Bgpv4Rib(
+      @Nullable GenericRibReadOnly<AnnotatedRoute<AbstractRoute>> mainRib,
+      BgpTieBreaker tieBreaker,
+      @Nullable Integer maxPaths,
+      @Nullable MultipathEquivalentAsPathMatchMode multipathEquivalentAsPathMatchMode,
+      boolean clusterListAsIgpCost,
+      LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker,
+      NextHopIpTieBreaker networkNextHopIpTieBreaker,
+      NextHopIpTieBreaker redistributeNextHopIpTieBreaker,
+      RibStoreKind storeKind) {
     super(
         mainRib,
         tieBreaker,
@@ -145,7 +167,8 @@ public final class Bgpv4Rib extends BgpRib<Bgpv4Route> {
         multipathEquivalentAsPathMatchMode,
         true,
         clusterListAsIgpCost,
-        localOriginationTypeTieBreaker);
+        localOriginationTypeTieBreaker,
+        storeKind);
     _resolvabilityEnforcer = new ResolvabilityEnforcer();
     _localRouteComparators =
         initLocalRouteComparators(networkNextHopIpTieBreaker, redistributeNextHopIpTieBreaker);
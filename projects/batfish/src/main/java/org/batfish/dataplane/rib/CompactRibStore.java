@@ -0,0 +1,538 @@
+package org.batfish.dataplane.rib;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AbstractRouteDecorator;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.PrefixTrieMultiMap;
+
+/**
+ * A {@link RibStore} that keeps its trie in primitive arrays.
+ *
+ * <p>Like {@link PrefixTrieMultiMap}, this is a path-compressed binary trie over prefixes. A node
+ * is an index into parallel arrays holding its prefix, packed into a {@code long}, the indices of
+ * its children, and its routes. A single route is stored as is, and multiple routes as an array
+ * that is replaced, never modified, when they change. So a node takes about 20 bytes, instead of
+ * separate node, {@link Prefix}, {@link Ip}, and set objects, and the sets returned are views of
+ * the stored routes rather than copies.
+ *
+ * <p>As in {@link PrefixTrieMultiMap}, a node whose routes are all removed stays in the trie until
+ * the store is {@link #clear() cleared}.
+ *
+ * <p>{@link #getAll()} does not copy the routes either: it returns a view of the arrays, which are
+ * then shared until the next change to the store copies them (copy on write). RIBs whose routes
+ * are read after every change pay one array copy instead of a set of all routes per read.
+ */
+@ParametersAreNonnullByDefault
+final class CompactRibStore<R> implements RibStore<R> {
+
+  private static final int NONE = -1;
+  private static final int INITIAL_CAPACITY = 8;
+  private static final int LENGTH_BITS = 6;
+  private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+  private static final long IP_MASK = 0xFFFFFFFFL;
+
+  /** Start IP and length of the prefix of each node. */
+  private long[] _prefixes;
+
+  private int[] _left;
+  private int[] _right;
+
+  /** Routes of each node: {@code null} if none, a single route, or an array of routes. */
+  private Object[] _routes;
+
+  private int _size;
+  private int _root;
+
+  /** Number of routes stored in all nodes. */
+  private int _routeCount;
+
+  /** Whether the arrays are shared with a snapshot returned by {@link #getAll()}. */
+  private transient boolean _shared;
+
+  CompactRibStore() {
+    clear();
+  }
+
+  private long startIp(int node) {
+    return _prefixes[node] >>> LENGTH_BITS;
+  }
+
+  private int length(int node) {
+    return (int) (_prefixes[node] & LENGTH_MASK);
+  }
+
+  /** Whether the prefix of {@code node} contains the prefix of the given length starting at ip. */
+  private boolean contains(int node, long ip, int length) {
+    int nodeLength = length(node);
+    return nodeLength <= length
+        && ((startIp(node) ^ ip) >>> (Prefix.MAX_PREFIX_LENGTH - nodeLength)) == 0;
+  }
+
+  private int child(int node, long ip) {
+    return Ip.getBitAtPosition(ip, length(node)) ? _right[node] : _left[node];
+  }
+
+  private int newNode(long startIp, int length) {
+    if (_size == _prefixes.length) {
+      int capacity = _size * 2;
+      _prefixes = Arrays.copyOf(_prefixes, capacity);
+      _left = Arrays.copyOf(_left, capacity);
+      _right = Arrays.copyOf(_right, capacity);
+      _routes = Arrays.copyOf(_routes, capacity);
+    }
+    int node = _size++;
+    _prefixes[node] = startIp << LENGTH_BITS | length;
+    _left[node] = NONE;
+    _right[node] = NONE;
+    return node;
+  }
+
+  private int exactMatchNode(Prefix prefix) {
+    return exactMatchNode(_prefixes, _left, _right, _root, prefix);
+  }
+
+  private static int exactMatchNode(
+      long[] prefixes, int[] left, int[] right, int root, Prefix prefix) {
+    long ip = prefix.getStartIp().asLong();
+    int length = prefix.getPrefixLength();
+    int node = root;
+    while (node != NONE) {
+      int nodeLength = (int) (prefixes[node] & LENGTH_MASK);
+      long nodeIp = prefixes[node] >>> LENGTH_BITS;
+      if (nodeLength > length
+          || ((nodeIp ^ ip) >>> (Prefix.MAX_PREFIX_LENGTH - nodeLength)) != 0) {
+        return NONE;
+      }
+      if (nodeLength == length) {
+        return node;
+      }
+      node = Ip.getBitAtPosition(ip, nodeLength) ? right[node] : left[node];
+    }
+    return NONE;
+  }
+
+  /** Stop sharing the arrays with snapshots, before they are changed. */
+  private void unshare() {
+    if (_shared) {
+      _prefixes = _prefixes.clone();
+      _left = _left.clone();
+      _right = _right.clone();
+      _routes = _routes.clone();
+      _shared = false;
+    }
+  }
+
+  private static int routeCount(@Nullable Object routes) {
+    if (routes == null) {
+      return 0;
+    }
+    return routes instanceof Object[] ? ((Object[]) routes).length : 1;
+  }
+
+  private void setRoutes(int node, @Nullable Object routes) {
+    unshare();
+    _routeCount += routeCount(routes) - routeCount(_routes[node]);
+    _routes[node] = routes;
+  }
+
+  /** Find or create the node for a given prefix. */
+  private int findOrCreateNode(Prefix prefix) {
+    long ip = prefix.getStartIp().asLong();
+    int length = prefix.getPrefixLength();
+    int parent = NONE;
+    int node = _root;
+    while (node != NONE && contains(node, ip, length)) {
+      if (length(node) == length) {
+        return node;
+      }
+      parent = node;
+      node = child(node, ip);
+    }
+    unshare();
+    int created = newNode(ip, length);
+    int subtree = node == NONE ? created : combine(created, node);
+    if (parent == NONE) {
+      _root = subtree;
+    } else if (Ip.getBitAtPosition(ip, length(parent))) {
+      _right[parent] = subtree;
+    } else {
+      _left[parent] = subtree;
+    }
+    return created;
+  }
+
+  /**
+   * Combine a newly created node with an existing subtree, whose prefix does not contain the new
+   * node's prefix. Returns the root of the combined subtree.
+   */
+  private int combine(int created, int existing) {
+    long newIp = startIp(created);
+    int newLength = length(created);
+    long oldIp = startIp(existing);
+    int oldLength = length(existing);
+    if (contains(created, oldIp, oldLength)) {
+      // The existing subtree is a child of the new node.
+      if (Ip.getBitAtPosition(oldIp, newLength)) {
+        _right[created] = existing;
+      } else {
+        _left[created] = existing;
+      }
+      return created;
+    }
+    // Branch at the longest common prefix, where the two prefixes differ.
+    int lcpLength =
+        Math.min(
+            Math.min(newLength, oldLength),
+            Long.numberOfLeadingZeros(newIp ^ oldIp) - (Long.SIZE - Prefix.MAX_PREFIX_LENGTH));
+    long lcpIp = newIp & (IP_MASK << (Prefix.MAX_PREFIX_LENGTH - lcpLength)) & IP_MASK;
+    int branch = newNode(lcpIp, lcpLength);
+    if (Ip.getBitAtPosition(newIp, lcpLength)) {
+      _right[branch] = created;
+      _left[branch] = existing;
+    } else {
+      _right[branch] = existing;
+      _left[branch] = created;
+    }
+    return branch;
+  }
+
+  private static int indexOf(Object[] routes, Object route) {
+    for (int i = 0; i < routes.length; i++) {
+      if (routes[i].equals(route)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean containsRoute(@Nullable Object routes, Object route) {
+    if (routes instanceof Object[]) {
+      return indexOf((Object[]) routes, route) >= 0;
+    }
+    return routes != null && routes.equals(route);
+  }
+
+  private static @Nonnull Object append(@Nullable Object routes, Object route) {
+    if (routes == null) {
+      return route;
+    }
+    if (routes instanceof Object[]) {
+      Object[] array = (Object[]) routes;
+      Object[] appended = Arrays.copyOf(array, array.length + 1);
+      appended[array.length] = route;
+      return appended;
+    }
+    return new Object[] {routes, route};
+  }
+
+  @SuppressWarnings("unchecked")
+  private static @Nonnull <R> Set<R> view(@Nullable Object routes) {
+    if (routes == null) {
+      return ImmutableSet.of();
+    }
+    if (routes instanceof Object[]) {
+      return new RoutesView<>((Object[]) routes);
+    }
+    return ImmutableSet.of((R) routes);
+  }
+
+  @Override
+  public @Nonnull Set<R> get(Prefix prefix) {
+    int node = exactMatchNode(prefix);
+    return node == NONE ? ImmutableSet.of() : view(_routes[node]);
+  }
+
+  @Override
+  public @Nonnull Set<R> getAll() {
+    if (_routeCount == 0) {
+      return ImmutableSet.of();
+    }
+    _shared = true;
+    return new Snapshot<>(_prefixes, _left, _right, _routes, _root, _routeCount);
+  }
+
+  @Override
+  public @Nonnull Set<R> longestPrefixMatch(Ip address, int maxPrefixLength) {
+    long ip = address.asLong();
+    int longestNonEmpty = NONE;
+    int node = _root;
+    while (node != NONE && contains(node, ip, maxPrefixLength)) {
+      if (_routes[node] != null) {
+        longestNonEmpty = node;
+      }
+      if (length(node) == Prefix.MAX_PREFIX_LENGTH) {
+        break;
+      }
+      node = child(node, ip);
+    }
+    return longestNonEmpty == NONE ? ImmutableSet.of() : view(_routes[longestNonEmpty]);
+  }
+
+  @Override
+  public boolean put(Prefix prefix, R route) {
+    int node = findOrCreateNode(prefix);
+    if (containsRoute(_routes[node], route)) {
+      return false;
+    }
+    setRoutes(node, append(_routes[node], route));
+    return true;
+  }
+
+  @Override
+  public boolean putAll(Prefix prefix, Collection<R> routes) {
+    int node = findOrCreateNode(prefix);
+    Object current = _routes[node];
+    Object updated = current;
+    for (R route : routes) {
+      if (!containsRoute(updated, route)) {
+        updated = append(updated, route);
+      }
+    }
+    if (updated == current) {
+      return false;
+    }
+    setRoutes(node, updated);
+    return true;
+  }
+
+  @Override
+  public boolean replaceAll(Prefix prefix, R route) {
+    int node = findOrCreateNode(prefix);
+    Object current = _routes[node];
+    if (current != null && !(current instanceof Object[]) && current.equals(route)) {
+      return false;
+    }
+    setRoutes(node, route);
+    return true;
+  }
+
+  @Override
+  public boolean remove(Prefix prefix, R route) {
+    int node = exactMatchNode(prefix);
+    if (node == NONE) {
+      return false;
+    }
+    Object current = _routes[node];
+    if (current instanceof Object[]) {
+      Object[] array = (Object[]) current;
+      int i = indexOf(array, route);
+      if (i < 0) {
+        return false;
+      }
+      if (array.length == 2) {
+        setRoutes(node, array[1 - i]);
+      } else {
+        Object[] remaining = new Object[array.length - 1];
+        System.arraycopy(array, 0, remaining, 0, i);
+        System.arraycopy(array, i + 1, remaining, i, array.length - i - 1);
+        setRoutes(node, remaining);
+      }
+      return true;
+    }
+    if (current != null && current.equals(route)) {
+      setRoutes(node, null);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    _prefixes = new long[INITIAL_CAPACITY];
+    _left = new int[INITIAL_CAPACITY];
+    _right = new int[INITIAL_CAPACITY];
+    _routes = new Object[INITIAL_CAPACITY];
+    _size = 0;
+    _root = NONE;
+    _routeCount = 0;
+    _shared = false;
+  }
+
+  @Override
+  public boolean intersectsPrefixSpace(PrefixSpace prefixSpace) {
+    return _root != NONE
+        && prefixSpace.getPrefixRanges().stream()
+            .anyMatch(prefixRange -> intersectsPrefixRange(_root, prefixRange));
+  }
+
+  /**
+   * Returns true iff there is a prefix with routes in the subtree of {@code node} included in
+   * {@code prefixRange}. See {@link PrefixTrieMultiMap#intersectsPrefixSpace}.
+   */
+  private boolean intersectsPrefixRange(int node, PrefixRange prefixRange) {
+    int length = length(node);
+    if (length > prefixRange.getLengthRange().getEnd()) {
+      return false;
+    }
+    Prefix prefix = Prefix.create(Ip.create(startIp(node)), length);
+    if (_routes[node] != null
+        && prefixRange.includesPrefixRange(PrefixRange.fromPrefix(prefix))) {
+      return true;
+    }
+    Prefix rangePrefix = prefixRange.getPrefix();
+    return (prefix.containsPrefix(rangePrefix) || rangePrefix.containsPrefix(prefix))
+        && ((_left[node] != NONE && intersectsPrefixRange(_left[node], prefixRange))
+            || (_right[node] != NONE && intersectsPrefixRange(_right[node], prefixRange)));
+  }
+
+  /** The routes of each prefix that has any. */
+  private @Nonnull Map<Long, Set<R>> entries() {
+    Map<Long, Set<R>> entries = new HashMap<>();
+    for (int node = 0; node < _size; node++) {
+      if (_routes[node] != null) {
+        entries.put(_prefixes[node], view(_routes[node]));
+      }
+    }
+    return entries;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    return obj == this
+        || (obj instanceof CompactRibStore
+            && entries().equals(((CompactRibStore<?>) obj).entries()));
+  }
+
+  @Override
+  public int hashCode() {
+    return entries().hashCode();
+  }
+
+  /** An immutable view of an array of distinct routes, which is never modified once stored. */
+  private static final class RoutesView<R> extends AbstractSet<R> implements Serializable {
+    private final @Nonnull Object[] _routes;
+
+    private RoutesView(Object[] routes) {
+      _routes = routes;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return indexOf(_routes, o) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @Nonnull Iterator<R> iterator() {
+      return (Iterator<R>) Iterators.forArray(_routes);
+    }
+
+    @Override
+    public int size() {
+      return _routes.length;
+    }
+  }
+
+  /**
+   * An immutable view of all routes of the store at the time it was created, in post-order like
+   * {@link PrefixTrieMultiMap#getAllElements}. The store copies its arrays before changing them,
+   * so nodes reachable from the root of the snapshot never change.
+   */
+  private static final class Snapshot<R> extends AbstractSet<R> implements Serializable {
+    private final @Nonnull long[] _prefixes;
+    private final @Nonnull int[] _left;
+    private final @Nonnull int[] _right;
+    private final @Nonnull Object[] _routes;
+    private final int _root;
+    private final int _size;
+
+    private Snapshot(
+        long[] prefixes, int[] left, int[] right, Object[] routes, int root, int size) {
+      _prefixes = prefixes;
+      _left = left;
+      _right = right;
+      _routes = routes;
+      _root = root;
+      _size = size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof AbstractRouteDecorator)) {
+        return super.contains(o);
+      }
+      int node =
+          exactMatchNode(
+              _prefixes, _left, _right, _root, ((AbstractRouteDecorator) o).getNetwork());
+      return node != NONE && containsRoute(_routes[node], o);
+    }
+
+    @Override
+    public @Nonnull Iterator<R> iterator() {
+      return new SnapshotIterator();
+    }
+
+    @Override
+    public int size() {
+      return _size;
+    }
+
+    /** Serialize as a regular immutable set, rather than the whole arrays. */
+    private Object writeReplace() {
+      return ImmutableSet.copyOf(this);
+    }
+
+    /** Iterates over the routes of the nodes in post-order, keeping the current path on a stack. */
+    private final class SnapshotIterator extends AbstractIterator<R> {
+      /** Prefix lengths strictly increase along a path, so it has at most 33 nodes. */
+      private final int[] _path = new int[Prefix.MAX_PREFIX_LENGTH + 1];
+
+      /** Number of children of each node on the path that were visited, 2 once both were. */
+      private final int[] _visited = new int[Prefix.MAX_PREFIX_LENGTH + 1];
+
+      private int _depth;
+      private @Nonnull Iterator<R> _nodeRoutes = ImmutableSet.<R>of().iterator();
+
+      private SnapshotIterator() {
+        push(_root);
+      }
+
+      private void push(int node) {
+        _path[_depth] = node;
+        _visited[_depth] = 0;
+        _depth++;
+      }
+
+      @Override
+      protected R computeNext() {
+        while (!_nodeRoutes.hasNext()) {
+          if (_depth == 0) {
+            return endOfData();
+          }
+          int top = _depth - 1;
+          int node = _path[top];
+          int visited = _visited[top]++;
+          if (visited == 0) {
+            if (_left[node] != NONE) {
+              push(_left[node]);
+            }
+          } else if (visited == 1) {
+            if (_right[node] != NONE) {
+              push(_right[node]);
+            }
+          } else {
+            _depth--;
+            _nodeRoutes = CompactRibStore.<R>view(_routes[node]).iterator();
+          }
+        }
+        return _nodeRoutes.next();
+      }
+    }
+  }
+}
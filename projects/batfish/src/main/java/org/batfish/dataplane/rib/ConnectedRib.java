@@ -12,6 +12,10 @@ public class ConnectedRib extends AnnotatedRib<ConnectedRoute> {
     super();
   }
 
+  public ConnectedRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(
       AnnotatedRoute<ConnectedRoute> lhs, AnnotatedRoute<ConnectedRoute> rhs) {
@@ -12,6 +12,10 @@ public class EigrpExternalRib extends AbstractRib<EigrpExternalRoute> {
     super(true);
   }
 
+  public EigrpExternalRib(RibStoreKind storeKind) {
+    super(true, storeKind);
+  }
+
   @Override
   public int comparePreference(EigrpExternalRoute lhs, EigrpExternalRoute rhs) {
     return Comparator.comparing(EigrpExternalRoute::getCompositeCost)
@@ -12,6 +12,10 @@ public class EigrpInternalRib extends AbstractRib<EigrpInternalRoute> {
     super();
   }
 
+  public EigrpInternalRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(EigrpInternalRoute lhs, EigrpInternalRoute rhs) {
     return Comparator.comparing(EigrpInternalRoute::getCompositeCost)
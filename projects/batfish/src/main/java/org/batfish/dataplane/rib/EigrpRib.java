@@ -13,6 +13,10 @@ public class EigrpRib extends AbstractRib<EigrpRoute> {
     super();
   }
 
+  public EigrpRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   private static int getTypeCost(EigrpRoute route) {
     switch (route.getProtocol()) {
       case EIGRP:
@@ -25,10 +25,25 @@ public final class EvpnMasterRib<R extends EvpnRoute<?, ?>> {
       @Nullable MultipathEquivalentAsPathMatchMode multipathEquivalentAsPathMatchMode,
       boolean clusterListAsIgpCost,
       LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker) {
+    this(
+        tieBreaker,
+        multipathEquivalentAsPathMatchMode,
+        clusterListAsIgpCost,
+        localOriginationTypeTieBreaker,
+        RibStoreKind.TRIE);
+  }
+
+  public EvpnMasterRib(
+      BgpTieBreaker tieBreaker,
+      @Nullable MultipathEquivalentAsPathMatchMode multipathEquivalentAsPathMatchMode,
+      boolean clusterListAsIgpCost,
+      LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker,
+      RibStoreKind storeKind) {
     _tieBreaker = tieBreaker;
     _multipathEquivalentAsPathMatchMode = multipathEquivalentAsPathMatchMode;
     _clusterListAsIgpCost = clusterListAsIgpCost;
     _localOriginationTypeTieBreaker = localOriginationTypeTieBreaker;
+    _storeKind = storeKind;
     _ribsByRd = new HashMap<>();
   }
 
@@ -56,6 +71,7 @@ public final class EvpnMasterRib<R extends EvpnRoute<?, ?>> {
   private final @Nonnull LocalOriginationTypeTieBreaker _localOriginationTypeTieBreaker;
   private final @Nullable MultipathEquivalentAsPathMatchMode _multipathEquivalentAsPathMatchMode;
   private final @Nonnull Map<RouteDistinguisher, EvpnRib<R>> _ribsByRd;
+  private final @Nonnull RibStoreKind _storeKind;
   private final @Nonnull BgpTieBreaker _tieBreaker;
 
   private @Nonnull EvpnRib<R> getOrCreateRib(RouteDistinguisher rd) {
@@ -66,6 +82,7 @@ public final class EvpnMasterRib<R extends EvpnRoute<?, ?>> {
                 _tieBreaker,
                 _multipathEquivalentAsPathMatchMode,
                 _clusterListAsIgpCost,
-                _localOriginationTypeTieBreaker));
+                _localOriginationTypeTieBreaker,
+                _storeKind));
   }
 }
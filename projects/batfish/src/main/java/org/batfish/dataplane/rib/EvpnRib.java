@@ -15,7 +15,8 @@ final class EvpnRib<R extends EvpnRoute<?, ?>> extends BgpRib<R> {
       BgpTieBreaker tieBreaker,
       @Nullable MultipathEquivalentAsPathMatchMode multipathEquivalentAsPathMatchMode,
       boolean clusterListAsIgpCost,
-      LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker) {
+      LocalOriginationTypeTieBreaker localOriginationTypeTieBreaker,
+      RibStoreKind storeKind) {
     super(
         null,
         tieBreaker,
@@ -23,6 +24,7 @@ final class EvpnRib<R extends EvpnRoute<?, ?>> extends BgpRib<R> {
         multipathEquivalentAsPathMatchMode,
         true,
         clusterListAsIgpCost,
-        localOriginationTypeTieBreaker);
+        localOriginationTypeTieBreaker,
+        storeKind);
   }
 }
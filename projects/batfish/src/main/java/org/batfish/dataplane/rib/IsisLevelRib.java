@@ -11,6 +11,10 @@ public class IsisLevelRib extends AbstractRib<IsisRoute> {
     super(withBackups);
   }
 
+  public IsisLevelRib(boolean withBackups, RibStoreKind storeKind) {
+    super(withBackups, storeKind);
+  }
+
   @Override
   public int comparePreference(IsisRoute lhs, IsisRoute rhs) {
     return IsisRib.routePreferenceComparator.compare(lhs, rhs);
@@ -32,7 +32,11 @@ public class IsisRib extends AbstractRib<IsisRoute> {
   private final boolean _l1Only;
 
   public IsisRib(boolean l1Only) {
-    super();
+    this(l1Only, RibStoreKind.TRIE);
+  }
+
+  public IsisRib(boolean l1Only, RibStoreKind storeKind) {
+    super(false, storeKind);
     _l1Only = l1Only;
   }
 
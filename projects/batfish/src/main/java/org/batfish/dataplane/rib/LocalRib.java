@@ -11,6 +11,10 @@ public class LocalRib extends AnnotatedRib<LocalRoute> {
     super();
   }
 
+  public LocalRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(AnnotatedRoute<LocalRoute> lhs, AnnotatedRoute<LocalRoute> rhs) {
     return 0;
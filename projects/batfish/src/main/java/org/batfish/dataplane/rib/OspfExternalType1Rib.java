@@ -10,7 +10,11 @@ public class OspfExternalType1Rib extends AbstractRib<OspfExternalType1Route> {
   private final String _hostname;
 
   public OspfExternalType1Rib(String hostname) {
-    super(true);
+    this(hostname, RibStoreKind.TRIE);
+  }
+
+  public OspfExternalType1Rib(String hostname, RibStoreKind storeKind) {
+    super(true, storeKind);
     _hostname = hostname;
   }
 
@@ -10,7 +10,11 @@ public class OspfExternalType2Rib extends AbstractRib<OspfExternalType2Route> {
   private final String _hostname;
 
   public OspfExternalType2Rib(String hostname) {
-    super(true);
+    this(hostname, RibStoreKind.TRIE);
+  }
+
+  public OspfExternalType2Rib(String hostname, RibStoreKind storeKind) {
+    super(true, storeKind);
     _hostname = hostname;
   }
 
@@ -10,6 +10,10 @@ public class OspfInterAreaRib extends AbstractRib<OspfInterAreaRoute> {
     super();
   }
 
+  public OspfInterAreaRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(OspfInterAreaRoute lhs, OspfInterAreaRoute rhs) {
     // reversed on purpose
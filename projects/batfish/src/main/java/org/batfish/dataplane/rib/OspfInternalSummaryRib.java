@@ -10,6 +10,10 @@ public class OspfInternalSummaryRib extends AbstractRib<OspfInternalSummaryRoute
     super();
   }
 
+  public OspfInternalSummaryRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(OspfInternalSummaryRoute lhs, OspfInternalSummaryRoute rhs) {
     // Only way for these routes to differ is by area, which should not impact preference.
@@ -10,6 +10,10 @@ public class OspfIntraAreaRib extends AbstractRib<OspfIntraAreaRoute> {
     super();
   }
 
+  public OspfIntraAreaRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(OspfIntraAreaRoute lhs, OspfIntraAreaRoute rhs) {
     // reversed on purpose
@@ -12,6 +12,10 @@ public class OspfRib extends AbstractRib<OspfRoute> {
     super();
   }
 
+  public OspfRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(OspfRoute lhs, OspfRoute rhs) {
     int lhsTypeCost = getTypeCost(lhs.getProtocol());
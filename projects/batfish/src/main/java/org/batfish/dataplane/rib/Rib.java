@@ -375,7 +375,17 @@ public class Rib extends AnnotatedRib<AbstractRoute> implements Serializable {
    * {@link #getRoutes()}, {@link #getTypedRoutes()}, nor {@link #getTypedBackupRoutes()}.
    */
   public Rib(@Nullable ResolutionRestriction<AnnotatedRoute<AbstractRoute>> resolutionRestriction) {
-    super(true);
+    this(resolutionRestriction, RibStoreKind.TRIE);
+  }
+
+  /**
+   * Create a new empty RIB as {@link #Rib(ResolutionRestriction)}, whose routes are stored in a
+   * store of the given kind.
+   */
+  public Rib(
+      @Nullable ResolutionRestriction<AnnotatedRoute<AbstractRoute>> resolutionRestriction,
+      RibStoreKind storeKind) {
+    super(true, storeKind);
     _resolvabilityEnforcer =
         resolutionRestriction != null ? new ResolvabilityEnforcer(resolutionRestriction) : null;
   }
@@ -0,0 +1,75 @@
+package org.batfish.dataplane.rib;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixSpace;
+
+/**
+ * Storage of the routes of a {@link RibTree}: a multimap from prefixes to routes that supports
+ * longest prefix match.
+ *
+ * <p>The implementation is selected by the {@link RibStoreKind} a RIB is created with. Sets
+ * returned by a store are immutable snapshots, and are not affected by later changes to the store.
+ *
+ * <p>A route is only ever stored for its own network, so no route is stored for two prefixes.
+ */
+@ParametersAreNonnullByDefault
+interface RibStore<R> extends Serializable {
+
+  /** Return the routes stored for exactly the given prefix. */
+  @Nonnull
+  Set<R> get(Prefix prefix);
+
+  /** Return all routes in the store. */
+  @Nonnull
+  Set<R> getAll();
+
+  /**
+   * Return the routes of the longest prefix containing {@code address}, up to the given maximum
+   * length, that has any routes.
+   */
+  @Nonnull
+  Set<R> longestPrefixMatch(Ip address, int maxPrefixLength);
+
+  /**
+   * Store a route for a prefix.
+   *
+   * @return whether the store was modified
+   */
+  boolean put(Prefix prefix, R route);
+
+  /**
+   * Store routes for a prefix.
+   *
+   * @return whether the store was modified
+   */
+  boolean putAll(Prefix prefix, Collection<R> routes);
+
+  /**
+   * Replace all routes stored for a prefix with the given route.
+   *
+   * @return whether the store was modified
+   */
+  boolean replaceAll(Prefix prefix, R route);
+
+  /**
+   * Remove a route stored for a prefix.
+   *
+   * @return whether the store was modified
+   */
+  boolean remove(Prefix prefix, R route);
+
+  /** Remove all routes. */
+  void clear();
+
+  /**
+   * Returns {@code true} iff there is any intersection between the prefixes that have routes in
+   * this store and the provided {@code prefixSpace}.
+   */
+  boolean intersectsPrefixSpace(PrefixSpace prefixSpace);
+}
@@ -0,0 +1,24 @@
+package org.batfish.dataplane.rib;
+
+import javax.annotation.Nonnull;
+import org.batfish.datamodel.PrefixTrieMultiMap;
+
+/** The kinds of storage for the routes of a RIB. */
+public enum RibStoreKind {
+  /** Stores routes in a {@link PrefixTrieMultiMap}. */
+  TRIE,
+  /** Stores routes in a {@link CompactRibStore}, which needs less memory per prefix. */
+  COMPACT;
+
+  /** Create an empty store of this kind. */
+  @Nonnull
+  <R> RibStore<R> create() {
+    switch (this) {
+      case COMPACT:
+        return new CompactRibStore<>();
+      case TRIE:
+      default:
+        return new TrieRibStore<>();
+    }
+  }
+}
@@ -17,7 +17,6 @@ import org.batfish.datamodel.AbstractRouteDecorator;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.PrefixSpace;
-import org.batfish.datamodel.PrefixTrieMultiMap;
 import org.batfish.datamodel.ResolutionRestriction;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 
@@ -31,11 +30,11 @@ import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 @ParametersAreNonnullByDefault
 final class RibTree<R extends AbstractRouteDecorator> implements Serializable {
 
-  @Nonnull private final PrefixTrieMultiMap<R> _root;
+  @Nonnull private final RibStore<R> _root;
   @Nonnull private final AbstractRib<R> _owner;
 
-  RibTree(AbstractRib<R> owner) {
-    _root = new PrefixTrieMultiMap<>();
+  RibTree(AbstractRib<R> owner, RibStore<R> store) {
+    _root = store;
     _owner = owner;
   }
 
@@ -133,7 +132,7 @@ final class RibTree<R extends AbstractRouteDecorator> implements Serializable {
    * @return a {@link Set} of routes
    */
   public Set<R> getRoutes() {
-    return _root.getAllElements();
+    return _root.getAll();
   }
 
   /** Retrieve stored routes for a particular prefix only. */
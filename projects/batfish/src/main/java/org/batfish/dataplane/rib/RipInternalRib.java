@@ -11,6 +11,10 @@ public class RipInternalRib extends AbstractRib<RipInternalRoute> {
     super();
   }
 
+  public RipInternalRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(RipInternalRoute lhs, RipInternalRoute rhs) {
     // reversed on purpose, because lower metric is more preferable
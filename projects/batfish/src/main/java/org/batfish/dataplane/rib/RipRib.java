@@ -17,6 +17,10 @@ public class RipRib extends AbstractRib<RipRoute> {
     super();
   }
 
+  public RipRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(RipRoute lhs, RipRoute rhs) {
     int lhsTypeCost = getTypeCost(lhs.getProtocol());
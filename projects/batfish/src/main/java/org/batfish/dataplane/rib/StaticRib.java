@@ -8,6 +8,10 @@ public class StaticRib extends AbstractRib<StaticRoute> {
     super();
   }
 
+  public StaticRib(RibStoreKind storeKind) {
+    super(false, storeKind);
+  }
+
   @Override
   public int comparePreference(StaticRoute lhs, StaticRoute rhs) {
     // Treat all static routes equally
@@ -0,0 +1,78 @@
+package org.batfish.dataplane.rib;
+
+import java.util.Collection;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.PrefixTrieMultiMap;
+
+/** A {@link RibStore} backed by a {@link PrefixTrieMultiMap}. */
+@ParametersAreNonnullByDefault
+final class TrieRibStore<R> implements RibStore<R> {
+
+  @Nonnull private final PrefixTrieMultiMap<R> _trie;
+
+  TrieRibStore() {
+    _trie = new PrefixTrieMultiMap<>();
+  }
+
+  @Override
+  public @Nonnull Set<R> get(Prefix prefix) {
+    return _trie.get(prefix);
+  }
+
+  @Override
+  public @Nonnull Set<R> getAll() {
+    return _trie.getAllElements();
+  }
+
+  @Override
+  public @Nonnull Set<R> longestPrefixMatch(Ip address, int maxPrefixLength) {
+    return _trie.longestPrefixMatch(address, maxPrefixLength);
+  }
+
+  @Override
+  public boolean put(Prefix prefix, R route) {
+    return _trie.put(prefix, route);
+  }
+
+  @Override
+  public boolean putAll(Prefix prefix, Collection<R> routes) {
+    return _trie.putAll(prefix, routes);
+  }
+
+  @Override
+  public boolean replaceAll(Prefix prefix, R route) {
+    return _trie.replaceAll(prefix, route);
+  }
+
+  @Override
+  public boolean remove(Prefix prefix, R route) {
+    return _trie.remove(prefix, route);
+  }
+
+  @Override
+  public void clear() {
+    _trie.clear();
+  }
+
+  @Override
+  public boolean intersectsPrefixSpace(PrefixSpace prefixSpace) {
+    return _trie.intersectsPrefixSpace(prefixSpace);
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    return obj == this
+        || (obj instanceof TrieRibStore && _trie.equals(((TrieRibStore<?>) obj)._trie));
+  }
+
+  @Override
+  public int hashCode() {
+    return _trie.hashCode();
+  }
+}
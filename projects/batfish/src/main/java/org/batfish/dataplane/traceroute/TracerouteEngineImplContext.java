@@ -57,6 +57,7 @@ public class TracerouteEngineImplContext {
   private final Set<Flow> _flows;
   private final ForwardingAnalysis _forwardingAnalysis;
   private final Map<Ip, IpSpaceContainsIp> _containsIp;
+  private final Map<Ip, Map<String, Map<String, Optional<String>>>> _interfaceAcceptingIp;
   private final boolean _ignoreFilters;
   private final Topology _topology;
 
@@ -76,6 +77,7 @@ public class TracerouteEngineImplContext {
     _ignoreFilters = ignoreFilters;
     _forwardingAnalysis = dataPlane.getForwardingAnalysis();
     _containsIp = new ConcurrentHashMap<>();
+    _interfaceAcceptingIp = new ConcurrentHashMap<>();
     _sessionsByIngressInterface = buildSessionsByIngressInterface(sessions);
     _sessionsByOriginatingVrf = buildSessionsByOriginatingVrf(sessions);
     _topology = topology;
@@ -204,6 +206,15 @@ public class TracerouteEngineImplContext {
    */
   @Nonnull
   Optional<String> interfaceAcceptingIp(String node, String vrf, Ip ip) {
+    // Flows in a chunk are grouped by destination, so most calls are repeats.
+    return _interfaceAcceptingIp
+        .computeIfAbsent(ip, i -> new ConcurrentHashMap<>())
+        .computeIfAbsent(node, n -> new ConcurrentHashMap<>())
+        .computeIfAbsent(vrf, v -> computeInterfaceAcceptingIp(node, vrf, ip));
+  }
+
+  @Nonnull
+  private Optional<String> computeInterfaceAcceptingIp(String node, String vrf, Ip ip) {
     IpSpaceContainsIp containsIp =
         _containsIp.computeIfAbsent(ip, i -> new IpSpaceContainsIp(i, ImmutableMap.of()));
     return _forwardingAnalysis
@@ -2,6 +2,7 @@ package org.batfish.job;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Comparator.naturalOrder;
 import static org.batfish.common.bdd.util.AclPacketMatchValidityChecker.checkerFor;
 import static org.batfish.datamodel.vxlan.VxlanTopologyUtils.addTenantVniInterfaces;
@@ -9,6 +10,7 @@ import static org.batfish.vendor.ConversionContext.EMPTY_CONVERSION_CONTEXT;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -16,6 +18,10 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -34,6 +40,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.BatfishException;
 import org.batfish.common.Warnings;
 import org.batfish.common.bdd.util.AclPacketMatchValidityChecker;
@@ -110,10 +117,28 @@ import org.batfish.vendor.VendorStructureId;
 
 public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResult> {
 
+  /** The output of converting a vendor configuration, as cached across snapshots. */
+  private static final class CachedConversion implements Serializable {
+    private final @Nonnull ConvertConfigurationAnswerElement _answerElement;
+    private final @Nonnull Map<String, Configuration> _configurations;
+    private final @Nonnull Map<String, Warnings> _warningsByHost;
+
+    private CachedConversion(
+        ConvertConfigurationAnswerElement answerElement,
+        Map<String, Configuration> configurations,
+        Map<String, Warnings> warningsByHost) {
+      _answerElement = answerElement;
+      _configurations = configurations;
+      _warningsByHost = warningsByHost;
+    }
+  }
+
   private final Object _configObject;
   @Nonnull private final ConversionContext _conversionContext;
   @Nonnull private final SnapshotRuntimeData _runtimeData;
   private final String _name;
+  @Nullable private final Cache<String, byte[]> _conversionCache;
+  @Nullable private final String _contextFingerprint;
 
   public ConvertConfigurationJob(
       Settings settings,
@@ -121,11 +146,51 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
       @Nullable SnapshotRuntimeData runtimeData,
       Object configObject,
       String name) {
+    this(settings, conversionContext, runtimeData, configObject, name, null, null);
+  }
+
+  /**
+   * Creates a job that reuses the output of an earlier conversion of an identical vendor
+   * configuration from {@code conversionCache}, if the earlier conversion had the same {@code
+   * contextFingerprint}. The fingerprint must identify the conversion context, runtime data, and
+   * warnings settings of the job.
+   */
+  public ConvertConfigurationJob(
+      Settings settings,
+      @Nullable ConversionContext conversionContext,
+      @Nullable SnapshotRuntimeData runtimeData,
+      Object configObject,
+      String name,
+      @Nullable Cache<String, byte[]> conversionCache,
+      @Nullable String contextFingerprint) {
     super(settings);
     _configObject = configObject;
     _conversionContext = firstNonNull(conversionContext, EMPTY_CONVERSION_CONTEXT);
     _runtimeData = firstNonNull(runtimeData, SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA);
     _name = name;
+    _conversionCache = conversionCache;
+    _contextFingerprint = contextFingerprint;
+  }
+
+  /**
+   * Returns the key of the conversion of the given vendor configuration in the conversion cache, or
+   * {@code null} if its conversion should not be cached. Since the vendor configuration is hashed
+   * via its serialized form, equal inputs may rarely produce different keys, which only costs
+   * reuse.
+   */
+  private @Nullable String getConversionCacheKey(VendorConfiguration vendorConfiguration) {
+    if (_conversionCache == null
+        || _contextFingerprint == null
+        || !vendorConfiguration.isConversionReusable()) {
+      return null;
+    }
+    Hasher hasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString(_contextFingerprint, UTF_8)
+            .putString(_name, UTF_8);
+    SerializationUtils.serialize(vendorConfiguration, Funnels.asOutputStream(hasher));
+    return hasher.hash().toString();
   }
 
   /**
@@ -994,8 +1059,17 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
     Map<String, Warnings> warningsByHost = new HashMap<>();
     ConvertConfigurationAnswerElement answerElement = new ConvertConfigurationAnswerElement();
     Multimap<String, String> fileMap = answerElement.getFileMap();
+    String cacheKey = null;
     try {
       VendorConfiguration vendorConfiguration = (VendorConfiguration) _configObject;
+      // Compute the key before conversion modifies the vendor configuration.
+      cacheKey = getConversionCacheKey(vendorConfiguration);
+      if (cacheKey != null) {
+        ConvertConfigurationResult cached = getCachedResult(cacheKey, startTime);
+        if (cached != null) {
+          return cached;
+        }
+      }
       Warnings warnings = Batfish.buildWarnings(_settings);
       List<String> filenames =
           ImmutableList.<String>builder()
@@ -1052,11 +1126,54 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
     } finally {
       warningsByHost.forEach((hostname, warnings) -> Batfish.logWarnings(_logger, warnings));
     }
+    if (cacheKey != null) {
+      assert _conversionCache != null;
+      try {
+        _conversionCache.put(
+            cacheKey,
+            SerializationUtils.serialize(
+                new CachedConversion(answerElement, configurations, warningsByHost)));
+      } catch (Exception e) {
+        _logger.warnf(
+            "Error caching conversion result for %s: %s",
+            _name, Throwables.getStackTraceAsString(e));
+      }
+    }
     elapsedTime = System.currentTimeMillis() - startTime;
     return new ConvertConfigurationResult(
         elapsedTime, _logger.getHistory(), warningsByHost, _name, configurations, answerElement);
   }
 
+  /**
+   * Returns the result of an earlier conversion with the given cache key, or {@code null} if there
+   * is none. Cached conversions are deserialized anew for each use, so the result can be modified.
+   */
+  private @Nullable ConvertConfigurationResult getCachedResult(String cacheKey, long startTime) {
+    assert _conversionCache != null;
+    byte[] serialized = _conversionCache.getIfPresent(cacheKey);
+    if (serialized == null) {
+      return null;
+    }
+    CachedConversion cached;
+    try {
+      cached = SerializationUtils.deserialize(serialized);
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error deserializing cached conversion result for %s: %s",
+          _name, Throwables.getStackTraceAsString(e));
+      return null;
+    }
+    _logger.info(" ...OK (reused earlier conversion)\n");
+    cached._warningsByHost.forEach((hostname, warnings) -> Batfish.logWarnings(_logger, warnings));
+    return new ConvertConfigurationResult(
+        System.currentTimeMillis() - startTime,
+        _logger.getHistory(),
+        cached._warningsByHost,
+        _name,
+        cached._configurations,
+        cached._answerElement);
+  }
+
   @VisibleForTesting
   static void saveStructureInfo(
       ConvertConfigurationAnswerElement answerElement, VendorConfiguration vendorConfiguration) {
@@ -28,12 +28,17 @@ import static org.batfish.datamodel.interface_dependency.InterfaceDependencies.g
 import static org.batfish.main.ReachabilityParametersResolver.resolveReachabilityParameters;
 import static org.batfish.main.StreamDecoder.decodeStreamAndAppendNewline;
 import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
+import static org.batfish.vendor.ConversionContext.EMPTY_CONVERSION_CONTEXT;
 import static org.batfish.vendor.check_point_management.parsing.CheckpointManagementParser.parseCheckpointManagementData;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -41,17 +46,23 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.errorprone.annotations.MustBeClosed;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -86,6 +97,7 @@ import net.sf.javabdd.BDD;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.apache.commons.configuration2.ImmutableConfiguration;
+import org.apache.commons.lang3.SerializationException;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -143,6 +155,7 @@ import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Interface.Dependency;
 import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
+import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.SwitchportMode;
@@ -175,6 +188,7 @@ import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.vxlan.Layer2Vni;
 import org.batfish.datamodel.vxlan.Layer3Vni;
 import org.batfish.dataplane.TracerouteEngineImpl;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
 import org.batfish.grammar.BatfishCombinedParser;
 import org.batfish.grammar.BatfishParseException;
 import org.batfish.grammar.BatfishParseTreeWalker;
@@ -431,12 +445,19 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private final Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
 
+  private final Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>
+      _cachedBddReachabilityAnalysisFactories;
+
   private final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       _cachedEnvironmentBgpTables;
 
   private final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
       _cachedVendorConfigurations;
 
+  private final Cache<String, byte[]> _cachedParseResults;
+
+  private final Cache<String, byte[]> _cachedConversionResults;
+
   private SnapshotId _referenceSnapshot;
 
   private Set<ExternalBgpAdvertisementPlugin> _externalBgpAdvertisementPlugins;
@@ -463,6 +484,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Cache<NetworkSnapshot, DataPlane> cachedDataPlanes,
       Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
       Cache<NetworkSnapshot, Map<String, VendorConfiguration>> cachedVendorConfigurations,
+      Cache<String, byte[]> cachedParseResults,
+      Cache<String, byte[]> cachedConversionResults,
+      Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>
+          cachedBddReachabilityAnalysisFactories,
       @Nullable StorageProvider alternateStorageProvider,
       @Nullable IdResolver alternateIdResolver) {
     _settings = settings;
@@ -471,6 +496,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _cachedDataPlanes = cachedDataPlanes;
     _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
     _cachedVendorConfigurations = cachedVendorConfigurations;
+    _cachedParseResults = cachedParseResults;
+    _cachedConversionResults = cachedConversionResults;
+    _cachedBddReachabilityAnalysisFactories = cachedBddReachabilityAnalysisFactories;
     _externalBgpAdvertisementPlugins = new TreeSet<>();
     initLocalSettings(settings);
     _logger = _settings.getLogger();
@@ -707,23 +735,446 @@ public class Batfish extends PluginConsumer implements IBatfish {
     // If already present, invalidate a dataplane for this snapshot.
     // (unlikely, only when devs force recomputation)
     _cachedDataPlanes.invalidate(snapshot);
+    invalidateBddReachabilityAnalysisFactories(snapshot);
 
     // Reserve space for the new dataplane in the in-memory cache by inserting and invalidating a
     // dummy value.
     _cachedDataPlanes.put(DUMMY_SNAPSHOT, DUMMY_DATAPLANE);
     _cachedDataPlanes.invalidate(DUMMY_SNAPSHOT);
 
-    ComputeDataPlaneResult result = getDataPlanePlugin().computeDataPlane(snapshot);
+    DataPlaneInputs inputs = null;
+    if (_settings.getDataPlaneReuse()) {
+      inputs = computeDataPlaneInputs(snapshot);
+      Optional<DataPlaneAnswerElement> reused = reuseDataPlane(snapshot, inputs._id);
+      if (reused.isPresent()) {
+        LOGGER.info("Finished data plane computation successfully");
+        return reused.get();
+      }
+    }
+
+    Map<String, SortedSet<String>> islands = null;
+    ComputeDataPlaneResult result;
+    if (inputs == null) {
+      result = getDataPlanePlugin().computeDataPlane(snapshot);
+    } else {
+      islands = computeReusableIslands(snapshot, inputs);
+      result = computeDataPlaneReusingIslands(snapshot, inputs, islands);
+    }
     DataPlaneAnswerElement answerElement = result._answerElement;
     DataPlane dataplane = result._dataPlane;
     TopologyContainer topologyContainer = result._topologies;
     result = null; // let it be garbage collected.
 
     saveDataPlane(snapshot, dataplane, topologyContainer);
+    if (inputs != null) {
+      recordDataPlaneInputsId(snapshot, inputs._id, answerElement);
+      recordDataPlaneIslands(snapshot, inputs, islands.keySet());
+    }
     LOGGER.info("Finished data plane computation successfully");
     return answerElement;
   }
 
+  /**
+   * Returns an identifier for everything the data plane computation of the given snapshot depends
+   * on. See {@link #computeDataPlaneInputs}.
+   */
+  @VisibleForTesting
+  @Nonnull
+  String computeDataPlaneInputsId(NetworkSnapshot snapshot) {
+    return computeDataPlaneInputs(snapshot)._id;
+  }
+
+  /**
+   * Hashes everything the data plane computation of the given snapshot depends on: for each node,
+   * its stored configuration, whether it is blacklisted, and its runtime data; the layer-1
+   * topology, external BGP announcements, the data plane engine and its settings, and the Batfish
+   * version.
+   *
+   * <p>Configurations are hashed via the files they are stored in, so that the configurations need
+   * not be loaded, and other inputs via their JSON with sorted keys. Snapshots with the same {@link
+   * DataPlaneInputs#_id identifier} (e.g., a fork that does not change any data plane input of its
+   * base snapshot) have identical data planes. Equal inputs may rarely produce different
+   * identifiers, which only costs reuse.
+   */
+  private @Nonnull DataPlaneInputs computeDataPlaneInputs(NetworkSnapshot snapshot) {
+    long startTime = System.currentTimeMillis();
+    Hasher settingsHasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString("Data Plane Inputs", UTF_8)
+            .putString(BatfishVersion.getVersionStatic(), UTF_8)
+            .putString(_settings.getDataPlaneEngineName(), UTF_8)
+            .putBoolean(_settings.ignoreManagementInterfaces());
+    new IncrementalDataPlaneSettings(getSettingsConfiguration())
+        .getEngineProperties()
+        .forEach((key, value) -> settingsHasher.putString(key, UTF_8).putString(value, UTF_8));
+    HashCode settingsId = settingsHasher.hash();
+
+    NetworkId networkId = snapshot.getNetwork();
+    SnapshotId snapshotId = snapshot.getSnapshot();
+    Set<String> blacklistedNodes =
+        firstNonNull(_storage.loadNodeBlacklist(networkId, snapshotId), ImmutableSet.of());
+    SnapshotRuntimeData runtimeData =
+        firstNonNull(_storage.loadRuntimeData(networkId, snapshotId), EMPTY_SNAPSHOT_RUNTIME_DATA);
+    SortedMap<String, HashCode> hostIds =
+        loadConfigurationHashes(snapshot).entrySet().stream()
+            .collect(
+                ImmutableSortedMap.toImmutableSortedMap(
+                    Ordering.natural(),
+                    Entry::getKey,
+                    e ->
+                        Hashing.murmur3_128()
+                            .newHasher()
+                            .putBytes(e.getValue().asBytes())
+                            .putBoolean(blacklistedNodes.contains(e.getKey()))
+                            .putString(
+                                toSortedJson(runtimeData.getRuntimeData(e.getKey())), UTF_8)
+                            .hash()));
+
+    Layer1Topology synthesizedLayer1Topology;
+    try {
+      synthesizedLayer1Topology =
+          _storage.loadSynthesizedLayer1Topology(snapshot).orElse(Layer1Topology.EMPTY);
+    } catch (IOException e) {
+      synthesizedLayer1Topology = Layer1Topology.EMPTY;
+    }
+    List<Layer1Edge> layer1Edges =
+        Stream.concat(
+                _topologyProvider
+                    .getRawLayer1PhysicalTopology(snapshot)
+                    .orElse(Layer1Topology.EMPTY)
+                    .edgeStream(),
+                synthesizedLayer1Topology.edgeStream())
+            .sorted()
+            .collect(ImmutableList.toImmutableList());
+    // The external announcements plugins do not read the configurations
+    List<BgpAdvertisement> externalAdverts =
+        loadExternalBgpAnnouncements(snapshot, ImmutableMap.of()).stream()
+            .sorted()
+            .collect(ImmutableList.toImmutableList());
+
+    Hasher hasher = Hashing.murmur3_128().newHasher().putBytes(settingsId.asBytes());
+    hostIds.forEach(
+        (hostname, hostId) -> hasher.putString(hostname, UTF_8).putBytes(hostId.asBytes()));
+    layer1Edges.forEach(edge -> hasher.putString(edge.toString(), UTF_8));
+    externalAdverts.forEach(advert -> hasher.putString(toSortedJson(advert), UTF_8));
+    DataPlaneInputs inputs =
+        new DataPlaneInputs(
+            "dataplane-inputs-" + hasher.hash(),
+            settingsId,
+            hostIds,
+            layer1Edges,
+            externalAdverts);
+    LOGGER.info(
+        "Computing data plane inputs id for snapshot {} took {}ms",
+        snapshot,
+        System.currentTimeMillis() - startTime);
+    return inputs;
+  }
+
+  /**
+   * Returns a hash of the stored form of each configuration of the given snapshot, keyed by
+   * hostname. Configurations that are not stored (e.g., in tests) are hashed via their serialized
+   * form instead, which is only stable within a JVM.
+   */
+  private @Nonnull Map<String, HashCode> loadConfigurationHashes(NetworkSnapshot snapshot) {
+    Map<String, HashCode> hashes = _storage.loadConfigurationHashes(snapshot);
+    if (!hashes.isEmpty()) {
+      return hashes;
+    }
+    // Parses and stores the configurations if needed
+    SortedMap<String, Configuration> configurations = loadConfigurations(snapshot);
+    hashes = _storage.loadConfigurationHashes(snapshot);
+    if (!hashes.isEmpty()) {
+      return hashes;
+    }
+    return ImmutableMap.copyOf(
+        Maps.transformValues(
+            configurations,
+            c -> {
+              Hasher hasher = Hashing.murmur3_128().newHasher();
+              SerializationUtils.serialize(c, Funnels.asOutputStream(hasher));
+              return hasher.hash();
+            }));
+  }
+
+  private static final ObjectWriter SORTED_JSON_WRITER =
+      BatfishObjectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+  private static @Nonnull String toSortedJson(Object o) {
+    try {
+      return SORTED_JSON_WRITER.writeValueAsString(o);
+    } catch (JsonProcessingException e) {
+      throw new BatfishException("Could not serialize data plane input to JSON", e);
+    }
+  }
+
+  /**
+   * Returns the islands of the given snapshot whose data plane can be reused, keyed by an
+   * identifier for everything the data plane of the island depends on: the inputs of its nodes,
+   * the layer-1 edges touching it, and the external BGP announcements received by it. See {@link
+   * DataPlaneIslands}.
+   */
+  private @Nonnull Map<String, SortedSet<String>> computeReusableIslands(
+      NetworkSnapshot snapshot, DataPlaneInputs inputs) {
+    long startTime = System.currentTimeMillis();
+    SortedMap<String, Configuration> configurations = loadConfigurations(snapshot);
+    Map<Ip, Map<String, Set<String>>> ipVrfOwners =
+        _topologyProvider.getInitialIpOwners(snapshot).getIpVrfOwners();
+    List<SortedSet<String>> islands =
+        DataPlaneIslands.computeIslands(
+            configurations,
+            _topologyProvider.getLayer1Topologies(snapshot).getCombinedL1(),
+            _topologyProvider.getInitialLayer3Topology(snapshot),
+            _topologyProvider.getInitialOspfTopology(snapshot),
+            _topologyProvider.getInitialIpsecTopology(snapshot),
+            _topologyProvider.getInitialTunnelTopology(snapshot),
+            ipVrfOwners);
+    ImmutableMap.Builder<String, SortedSet<String>> reusable = ImmutableMap.builder();
+    for (SortedSet<String> island : islands) {
+      if (!DataPlaneIslands.isReusable(island, configurations)
+          || !inputs._hostIds.keySet().containsAll(island)) {
+        continue;
+      }
+      Hasher hasher = Hashing.murmur3_128().newHasher().putBytes(inputs._settingsId.asBytes());
+      island.forEach(
+          hostname ->
+              hasher
+                  .putString(hostname, UTF_8)
+                  .putBytes(inputs._hostIds.get(hostname).asBytes()));
+      inputs._layer1Edges.stream()
+          .filter(
+              edge ->
+                  island.contains(edge.getNode1().getHostname())
+                      || island.contains(edge.getNode2().getHostname()))
+          .forEach(edge -> hasher.putString(edge.toString(), UTF_8));
+      inputs._externalAdverts.stream()
+          .filter(
+              advert ->
+                  island.contains(advert.getDstNode())
+                      || ipVrfOwners
+                          .getOrDefault(advert.getDstIp(), ImmutableMap.of())
+                          .keySet()
+                          .stream()
+                          .anyMatch(island::contains))
+          .forEach(advert -> hasher.putString(toSortedJson(advert), UTF_8));
+      reusable.put("island-" + hasher.hash(), island);
+    }
+    Map<String, SortedSet<String>> result = reusable.build();
+    LOGGER.info(
+        "Computing {} reusable data plane islands of {} for snapshot {} took {}ms",
+        result.size(),
+        islands.size(),
+        snapshot,
+        System.currentTimeMillis() - startTime);
+    return result;
+  }
+
+  /**
+   * Computes the data plane of the given snapshot, taking the converged state of the islands that
+   * are unchanged since the last computed data plane with the same settings from that data plane.
+   */
+  private @Nonnull ComputeDataPlaneResult computeDataPlaneReusingIslands(
+      NetworkSnapshot snapshot, DataPlaneInputs inputs, Map<String, SortedSet<String>> islands) {
+    DataPlanePlugin plugin = getDataPlanePlugin();
+    DataPlaneIslandsRecord record;
+    try (InputStream in =
+        _storage.loadNetworkBlob(snapshot.getNetwork(), islandsRecordKey(inputs))) {
+      record = SerializationUtils.deserialize(in);
+    } catch (FileNotFoundException e) {
+      return plugin.computeDataPlane(snapshot);
+    } catch (IOException | SerializationException e) {
+      LOGGER.warn(
+          "Error loading data plane islands record for snapshot {}: {}",
+          snapshot,
+          Throwables.getStackTraceAsString(e));
+      return plugin.computeDataPlane(snapshot);
+    }
+    NetworkSnapshot donor =
+        new NetworkSnapshot(snapshot.getNetwork(), new SnapshotId(record._snapshotId));
+    Set<String> reusedHosts =
+        islands.entrySet().stream()
+            .filter(e -> record._islandIds.contains(e.getKey()))
+            .flatMap(e -> e.getValue().stream())
+            .collect(ImmutableSet.toImmutableSet());
+    if (donor.equals(snapshot) || reusedHosts.isEmpty()) {
+      return plugin.computeDataPlane(snapshot);
+    }
+    DataPlane baseDataPlane;
+    try {
+      if (!_storage.hasDataPlane(donor)) {
+        // donor snapshot was deleted or its data plane was never stored
+        return plugin.computeDataPlane(snapshot);
+      }
+      baseDataPlane = _storage.loadDataPlane(donor);
+    } catch (IOException e) {
+      LOGGER.warn(
+          "Error loading data plane of snapshot {} for reuse by snapshot {}: {}",
+          donor,
+          snapshot,
+          Throwables.getStackTraceAsString(e));
+      return plugin.computeDataPlane(snapshot);
+    }
+    LOGGER.info(
+        "Reusing data plane of {} of {} nodes from snapshot {} for snapshot {}",
+        reusedHosts.size(),
+        inputs._hostIds.size(),
+        donor,
+        snapshot);
+    return plugin.computeDataPlane(snapshot, baseDataPlane, reusedHosts);
+  }
+
+  /**
+   * Records that the given snapshot has a stored data plane in which the given islands were
+   * computed, replacing the record of any other snapshot computed with the same settings.
+   */
+  private void recordDataPlaneIslands(
+      NetworkSnapshot snapshot, DataPlaneInputs inputs, Set<String> islandIds) {
+    try {
+      _storage.storeNetworkBlob(
+          new ByteArrayInputStream(
+              SerializationUtils.serialize(
+                  new DataPlaneIslandsRecord(snapshot.getSnapshot().getId(), islandIds))),
+          snapshot.getNetwork(),
+          islandsRecordKey(inputs));
+    } catch (IOException e) {
+      LOGGER.warn(
+          "Error recording data plane islands record for snapshot {}: {}",
+          snapshot,
+          Throwables.getStackTraceAsString(e));
+    }
+  }
+
+  private static @Nonnull String islandsRecordKey(DataPlaneInputs inputs) {
+    return "dataplane-islands-" + inputs._settingsId;
+  }
+
+  /** Everything the data plane computation of a snapshot depends on, as hashes where possible. */
+  private static final class DataPlaneInputs {
+    /** Identifier of all inputs. */
+    private final @Nonnull String _id;
+    /** Hash of the data plane engine, its settings, and the Batfish version. */
+    private final @Nonnull HashCode _settingsId;
+    /** Hash of the inputs of each node, keyed by hostname. */
+    private final @Nonnull SortedMap<String, HashCode> _hostIds;
+
+    private final @Nonnull List<Layer1Edge> _layer1Edges;
+    private final @Nonnull List<BgpAdvertisement> _externalAdverts;
+
+    private DataPlaneInputs(
+        String id,
+        HashCode settingsId,
+        SortedMap<String, HashCode> hostIds,
+        List<Layer1Edge> layer1Edges,
+        List<BgpAdvertisement> externalAdverts) {
+      _id = id;
+      _settingsId = settingsId;
+      _hostIds = hostIds;
+      _layer1Edges = layer1Edges;
+      _externalAdverts = externalAdverts;
+    }
+  }
+
+  /**
+   * Copies the data plane of another snapshot of the same network with identical {@link
+   * #computeDataPlaneInputsId data plane inputs} to the given snapshot, if one has been recorded.
+   * Returns the answer element recorded with the reused data plane, or {@link Optional#empty()} if
+   * there is no such snapshot.
+   */
+  private @Nonnull Optional<DataPlaneAnswerElement> reuseDataPlane(
+      NetworkSnapshot snapshot, String dataPlaneInputsId) {
+    DataPlaneReuseRecord record;
+    try (InputStream in = _storage.loadNetworkBlob(snapshot.getNetwork(), dataPlaneInputsId)) {
+      record = SerializationUtils.deserialize(in);
+    } catch (FileNotFoundException e) {
+      return Optional.empty();
+    } catch (IOException | SerializationException e) {
+      LOGGER.warn(
+          "Error loading data plane reuse record for snapshot {}: {}",
+          snapshot,
+          Throwables.getStackTraceAsString(e));
+      return Optional.empty();
+    }
+    NetworkSnapshot donor =
+        new NetworkSnapshot(snapshot.getNetwork(), new SnapshotId(record._snapshotId));
+    if (donor.equals(snapshot)) {
+      return Optional.empty();
+    }
+    try {
+      if (!_storage.hasDataPlane(donor)) {
+        // donor snapshot was deleted or its data plane was never stored
+        return Optional.empty();
+      }
+      LOGGER.info(
+          "Reusing data plane of snapshot {} with identical inputs for snapshot {}",
+          donor,
+          snapshot);
+      DataPlane dataplane = _storage.loadDataPlane(donor);
+      _cachedDataPlanes.put(snapshot, dataplane);
+      _storage.storeDataPlane(dataplane, snapshot);
+      _storage.storeBgpTopology(_storage.loadBgpTopology(donor), snapshot);
+      _storage.storeEigrpTopology(_storage.loadEigrpTopology(donor), snapshot);
+      _storage.storeL3Adjacencies(_storage.loadL3Adjacencies(donor), snapshot);
+      _storage.storeLayer3Topology(_storage.loadLayer3Topology(donor), snapshot);
+      _storage.storeOspfTopology(_storage.loadOspfTopology(donor), snapshot);
+      _storage.storeVxlanTopology(_storage.loadVxlanTopology(donor), snapshot);
+    } catch (IOException e) {
+      LOGGER.warn(
+          "Error reusing data plane of snapshot {} for snapshot {}: {}",
+          donor,
+          snapshot,
+          Throwables.getStackTraceAsString(e));
+      _cachedDataPlanes.invalidate(snapshot);
+      invalidateBddReachabilityAnalysisFactories(snapshot);
+      return Optional.empty();
+    }
+    return Optional.of(record._answerElement);
+  }
+
+  /**
+   * Records that the given snapshot has a stored data plane computed from inputs with the given
+   * {@link #computeDataPlaneInputsId identifier}, along with the answer element of that
+   * computation.
+   */
+  private void recordDataPlaneInputsId(
+      NetworkSnapshot snapshot, String dataPlaneInputsId, DataPlaneAnswerElement answerElement) {
+    try {
+      _storage.storeNetworkBlob(
+          new ByteArrayInputStream(
+              SerializationUtils.serialize(
+                  new DataPlaneReuseRecord(snapshot.getSnapshot().getId(), answerElement))),
+          snapshot.getNetwork(),
+          dataPlaneInputsId);
+    } catch (IOException e) {
+      LOGGER.warn(
+          "Error recording data plane reuse record for snapshot {}: {}",
+          snapshot,
+          Throwables.getStackTraceAsString(e));
+    }
+  }
+
+  /** The snapshot whose stored data plane was computed from a given set of data plane inputs. */
+  private static final class DataPlaneReuseRecord implements Serializable {
+    private final @Nonnull String _snapshotId;
+    private final @Nonnull DataPlaneAnswerElement _answerElement;
+
+    private DataPlaneReuseRecord(String snapshotId, DataPlaneAnswerElement answerElement) {
+      _snapshotId = snapshotId;
+      _answerElement = answerElement;
+    }
+  }
+
+  /** The last snapshot whose data plane was computed with given settings, and its islands. */
+  private static final class DataPlaneIslandsRecord implements Serializable {
+    private final @Nonnull String _snapshotId;
+    private final @Nonnull Set<String> _islandIds;
+
+    private DataPlaneIslandsRecord(String snapshotId, Set<String> islandIds) {
+      _snapshotId = snapshotId;
+      _islandIds = ImmutableSet.copyOf(islandIds);
+    }
+  }
+
   /* Write the dataplane to disk and cache, and write the answer element to disk.
    */
   private void saveDataPlane(
@@ -762,11 +1213,18 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _logger.resetTimer();
     Map<String, Configuration> configurations = new TreeMap<>();
     List<ConvertConfigurationJob> jobs = new ArrayList<>();
+    String contextFingerprint = computeConversionContextFingerprint(conversionContext, runtimeData);
     for (Entry<String, VendorConfiguration> config : vendorConfigurations.entrySet()) {
       VendorConfiguration vc = config.getValue();
       ConvertConfigurationJob job =
           new ConvertConfigurationJob(
-              _settings, conversionContext, runtimeData, vc, config.getKey());
+              _settings,
+              conversionContext,
+              runtimeData,
+              vc,
+              config.getKey(),
+              _cachedConversionResults,
+              contextFingerprint);
       jobs.add(job);
     }
     BatfishJobExecutor.runJobsInExecutor(
@@ -777,10 +1235,42 @@ public class Batfish extends PluginConsumer implements IBatfish {
         answerElement,
         _settings.getHaltOnConvertError(),
         "Convert configurations to vendor-independent format");
+    LOGGER.info("Conversion cache: {}", _cachedConversionResults.stats());
     _logger.printElapsedTime();
     return configurations;
   }
 
+  /**
+   * Returns an identifier for everything the conversion of a vendor configuration depends on
+   * besides the vendor configuration itself: the conversion context, the runtime data, the warnings
+   * settings, and the Batfish version. Returns {@code null} if it cannot be computed, in which case
+   * no conversion is reused.
+   */
+  private @Nullable String computeConversionContextFingerprint(
+      @Nullable ConversionContext conversionContext, @Nullable SnapshotRuntimeData runtimeData) {
+    Hasher hasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString("Conversion Context", UTF_8)
+            .putString(BatfishVersion.getVersionStatic(), UTF_8);
+    try {
+      SerializationUtils.serialize(
+          firstNonNull(conversionContext, EMPTY_CONVERSION_CONTEXT),
+          Funnels.asOutputStream(hasher));
+      SerializationUtils.serialize(
+          Warnings.Settings.fromLogger(_settings.getLogger()), Funnels.asOutputStream(hasher));
+      hasher.putString(
+          BatfishObjectMapper.writeString(firstNonNull(runtimeData, EMPTY_SNAPSHOT_RUNTIME_DATA)),
+          UTF_8);
+    } catch (Exception e) {
+      _logger.warnf(
+          "Error fingerprinting conversion context, not reusing conversions: %s",
+          Throwables.getStackTraceAsString(e));
+      return null;
+    }
+    return hasher.hash().toString();
+  }
+
   @Override
   public boolean debugFlagEnabled(String flag) {
     return _settings.debugFlagEnabled(flag);
@@ -1129,10 +1619,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
           () -> {
             LOGGER.info("Data plane cache miss on snapshot {}", snapshot);
             long start = System.currentTimeMillis();
-            newBatch("Loading data plane from disk", 0);
+            newBatch("Opening data plane on disk", 0);
+            // Only lists the files; hosts are read and logged by the data plane on first use.
             DataPlane dp = _storage.loadDataPlane(snapshot);
             LOGGER.info(
-                "Loading data plane for snapshot {} took {}ms",
+                "Opening data plane for snapshot {} took {}ms",
                 snapshot,
                 System.currentTimeMillis() - start);
             return dp;
@@ -1310,13 +1801,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
       // - answering a question
       // - question successful
       // - client did not request full successful answers
-      String answerString = BatfishObjectMapper.writeString(answer);
       boolean summarizeWorkJsonLogAnswer =
           writeLog
               && _settings.getQuestionName() != null
               && !_settings.getAlwaysIncludeAnswerInWorkJsonLog()
               && answer.getStatus() == AnswerStatus.SUCCESS;
-      String workJsonLogAnswerString;
+      // The full answer can be very large, so it is streamed to storage and only serialized to a
+      // string when it must be logged in full.
+      String workJsonLogAnswerString = null;
       if (summarizeWorkJsonLogAnswer) {
         Answer summaryAnswer = new Answer();
         summaryAnswer.setQuestion(answer.getQuestion());
@@ -1324,11 +1816,13 @@ public class Batfish extends PluginConsumer implements IBatfish {
         summaryAnswer.setSummary(answer.getSummary());
         // do not include answer elements
         workJsonLogAnswerString = BatfishObjectMapper.writeString(summaryAnswer);
-      } else {
-        workJsonLogAnswerString = answerString;
+      } else if (writeLog) {
+        workJsonLogAnswerString = BatfishObjectMapper.writeString(answer);
       }
-      _logger.debug(answerString);
-      writeJsonAnswerWithLog(answerString, workJsonLogAnswerString, writeLog);
+      if (_logger.isActive(BatfishLogger.LEVEL_DEBUG)) {
+        _logger.debug(BatfishObjectMapper.writeString(answer));
+      }
+      writeJsonAnswerWithLog(answer, workJsonLogAnswerString, writeLog);
     } catch (Exception e) {
       BatfishException be = new BatfishException("Error in sending answer", e);
       try {
@@ -1337,7 +1831,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         String answerString = BatfishObjectMapper.writeString(failureAnswer);
         _logger.error(answerString);
         // write "answer" to work json log if caller requested
-        writeJsonAnswerWithLog(answerString, answerString, writeLog);
+        writeJsonAnswerWithLog(failureAnswer, answerString, writeLog);
       } catch (Exception e1) {
         _logger.errorf(
             "Could not serialize failure answer. %s", Throwables.getStackTraceAsString(e1));
@@ -2412,10 +2906,23 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  /** Where {@link #getOrParse} found the result of a parse job. */
+  private enum ParseReuse {
+    MEMORY,
+    STORAGE,
+    NONE
+  }
+
+  /**
+   * Returns the result of the given parse job, reusing a cached result for the same file texts and
+   * parse settings if one exists. Results are cached in memory across networks, and in the blob
+   * storage of the current network. Records where the result was found in {@code reuse}.
+   */
   private ParseVendorConfigurationResult getOrParse(
-      ParseVendorConfigurationJob job, GrammarSettings settings) {
+      ParseVendorConfigurationJob job, GrammarSettings settings, Multiset<ParseReuse> reuse) {
     // Short-circuit all cache-related code.
     if (!_settings.getParseReuse()) {
+      reuse.add(ParseReuse.NONE);
       long startTime = System.currentTimeMillis();
       ParseResult result = job.parse();
       long elapsed = System.currentTimeMillis() - startTime;
@@ -2443,25 +2950,45 @@ public class Batfish extends PluginConsumer implements IBatfish {
             });
     String id = hasher.hash().toString();
     long startTime = System.currentTimeMillis();
-    boolean cached = false;
-    ParseResult result;
-    try (InputStream in = _storage.loadNetworkBlob(getContainerName(), id)) {
-      result = SerializationUtils.deserialize(in);
-      // sanity-check filenames. In the extremely unlikely event of a collision, we'll lose reuse
-      // for this input.
-      cached = result.getFileResults().keySet().equals(job.getFileTexts().keySet());
-    } catch (FileNotFoundException e) {
-      result = job.parse();
-    } catch (Exception e) {
-      _logger.warnf(
-          "Error deserializing cached parse result for %s: %s",
-          job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
-      result = job.parse();
+    ParseReuse source = ParseReuse.MEMORY;
+    byte[] serialized = _cachedParseResults.getIfPresent(id);
+    if (serialized == null) {
+      source = ParseReuse.STORAGE;
+      try (InputStream in = _storage.loadNetworkBlob(getContainerName(), id)) {
+        serialized = ByteStreams.toByteArray(in);
+      } catch (FileNotFoundException e) {
+        // not cached
+      } catch (Exception e) {
+        _logger.warnf(
+            "Error loading cached parse result for %s: %s",
+            job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
+      }
+    }
+    ParseResult result = null;
+    if (serialized != null) {
+      try {
+        result = SerializationUtils.deserialize(serialized);
+        // sanity-check filenames. In the extremely unlikely event of a collision, we'll lose reuse
+        // for this input.
+        if (!result.getFileResults().keySet().equals(job.getFileTexts().keySet())) {
+          result = null;
+        } else if (source == ParseReuse.STORAGE) {
+          _cachedParseResults.put(id, serialized);
+        }
+      } catch (Exception e) {
+        _logger.warnf(
+            "Error deserializing cached parse result for %s: %s",
+            job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
+        result = null;
+      }
     }
-    if (!cached) {
+    if (result == null) {
+      source = ParseReuse.NONE;
+      result = job.parse();
       try {
-        byte[] serialized = SerializationUtils.serialize(result);
+        serialized = SerializationUtils.serialize(result);
         _storage.storeNetworkBlob(new ByteArrayInputStream(serialized), getContainerName(), id);
+        _cachedParseResults.put(id, serialized);
         result = SerializationUtils.deserialize(serialized);
       } catch (Exception e) {
         _logger.warnf(
@@ -2469,6 +2996,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
             job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
       }
     }
+    reuse.add(source);
     long elapsed = System.currentTimeMillis() - startTime;
     return job.fromResult(result, elapsed);
   }
@@ -2487,10 +3015,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
       NetworkSnapshot snapshot,
       ParseVendorConfigurationAnswerElement answerElement,
       SortedMap<String, VendorConfiguration> overlayHostConfigurations) {
-    if (!overlayHostConfigurations.isEmpty()) {
-      // Not able to cache with overlays.
-      return oldSerializeNetworkConfigs(snapshot, answerElement, overlayHostConfigurations);
-    }
     _logger.info("\n*** READING DEVICE CONFIGURATION FILES ***\n");
 
     List<ParseVendorConfigurationResult> parseResults;
@@ -2531,11 +3055,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     AtomicInteger batch = newBatch("Parse network configs", jobs.size());
     LOGGER.info("Parsing {} configuration files", jobs.size());
+    Multiset<ParseReuse> reuse = ConcurrentHashMultiset.create();
     parseResults =
         jobs.parallelStream()
             .map(
                 j -> {
-                  ParseVendorConfigurationResult result = getOrParse(j, _settings);
+                  ParseVendorConfigurationResult result = getOrParse(j, _settings, reuse);
                   int done = batch.incrementAndGet();
                   if (done % 100 == 0) {
                     LOGGER.info("Successfully parsed {}/{} configuration files", done, jobs.size());
@@ -2544,6 +3069,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
                 })
             .collect(ImmutableList.toImmutableList());
     LOGGER.info("Done parsing {} configuration files", jobs.size());
+    if (_settings.getParseReuse()) {
+      LOGGER.info(
+          "Reused {} parse results from memory and {} from storage, parsed {}. Memory cache: {}",
+          reuse.count(ParseReuse.MEMORY),
+          reuse.count(ParseReuse.STORAGE),
+          reuse.count(ParseReuse.NONE),
+          _cachedParseResults.stats());
+    }
 
     if (_settings.getHaltOnParseError()
         && parseResults.stream().anyMatch(r -> r.getFailureCause() != null)) {
@@ -2579,81 +3112,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
                       "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
                       "MISCELLANEOUS"));
             } else {
-              output.put(name, vc);
-            }
-          });
-
-      _storage.storeVendorConfigurations(output, snapshot);
-      _logger.printElapsedTime();
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-    // checking vendorConfigurations is a quick, common-case check before creating streams
-    return !vendorConfigurations.isEmpty() || networkConfigsExist(snapshot);
-  }
-
-  /** Returns {@code true} iff at least one network configuration was found. */
-  private boolean oldSerializeNetworkConfigs(
-      NetworkSnapshot snapshot,
-      ParseVendorConfigurationAnswerElement answerElement,
-      SortedMap<String, VendorConfiguration> overlayHostConfigurations) {
-    _logger.info("\n*** READING DEVICE CONFIGURATION FILES ***\n");
-
-    Map<String, VendorConfiguration> vendorConfigurations = new HashMap<>();
-    // consider what is in the configs folder
-    try (Stream<String> keys = _storage.listInputNetworkConfigurationsKeys(snapshot)) {
-      vendorConfigurations.putAll(
-          parseVendorConfigurations(
-              snapshot,
-              readAllInputObjects(keys, snapshot).entrySet().stream()
-                  .map(e -> ImmutableMap.of(e.getKey(), e.getValue()))
-                  .collect(ImmutableList.toImmutableList()),
-              answerElement,
-              ConfigurationFormat.UNKNOWN));
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-    // consider what is in the sonic_configs folder
-    try (Stream<String> keys = _storage.listInputSonicConfigsKeys(snapshot)) {
-      Map<String, String> sonicObjects = readAllInputObjects(keys, snapshot);
-      vendorConfigurations.putAll(
-          parseVendorConfigurations(
-              snapshot,
-              makeSonicFileGroups(sonicObjects.keySet(), answerElement).stream()
-                  .map(
-                      files ->
-                          files.stream()
-                              .collect(
-                                  ImmutableMap.toImmutableMap(
-                                      Function.identity(), sonicObjects::get)))
-                  .collect(ImmutableList.toImmutableList()),
-              answerElement,
-              ConfigurationFormat.SONIC));
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-
-    _logger.infof(
-        "Snapshot %s in network %s has total number of network configs:%d",
-        snapshot.getSnapshot(), snapshot.getNetwork(), vendorConfigurations.size());
-
-    try {
-      _logger.info("\n*** SERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
-      _logger.resetTimer();
-      Map<String, VendorConfiguration> output = new TreeMap<>();
-      vendorConfigurations.forEach(
-          (name, vc) -> {
-            if (name.contains(File.separator)) {
-              // iptables will get a hostname like configs/iptables-save if they
-              // are not set up correctly using host files
-              _logger.errorf("Cannot serialize configuration with hostname %s\n", name);
-              answerElement.addRedFlagWarning(
-                  name,
-                  new Warning(
-                      "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
-                      "MISCELLANEOUS"));
-            } else {
-              // apply overlay if it exists
+              // apply overlay if it exists. Cached parse results are deserialized anew for each
+              // use, so they can be modified.
               VendorConfiguration overlayConfig = overlayHostConfigurations.get(name);
               if (overlayConfig != null) {
                 vc.setOverlayConfiguration(overlayConfig);
@@ -2863,32 +3323,40 @@ public class Batfish extends PluginConsumer implements IBatfish {
         params.getSrcNatted() == SrcNattedConstraint.UNCONSTRAINED,
         "Requiring or forbidding Source NAT is currently unsupported");
 
-    BDDPacket pkt = new BDDPacket();
     boolean ignoreFilters = params.getIgnoreFilters();
-    BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-        getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
-
-    Map<IngressLocation, BDD> reachableBDDs =
-        bddReachabilityAnalysisFactory.getAllBDDs(
-            params.getSourceIpAssignment(),
-            params.getHeaderSpace(),
-            params.getForbiddenTransitNodes(),
-            params.getRequiredTransitNodes(),
-            params.getFinalNodes(),
-            params.getActions());
-
-    Set<Flow> flows = constructFlows(pkt, reachableBDDs);
+    Set<Flow> flows =
+        withBddReachabilityAnalysisFactory(
+            snapshot,
+            ignoreFilters,
+            bddReachabilityAnalysisFactory -> {
+              Map<IngressLocation, BDD> reachableBDDs =
+                  bddReachabilityAnalysisFactory.getAllBDDs(
+                      params.getSourceIpAssignment(),
+                      params.getHeaderSpace(),
+                      params.getForbiddenTransitNodes(),
+                      params.getRequiredTransitNodes(),
+                      params.getFinalNodes(),
+                      params.getActions());
+              return constructFlows(bddReachabilityAnalysisFactory.getBDDPacket(), reachableBDDs);
+            });
 
     return new TraceWrapperAsAnswerElement(buildFlows(snapshot, flows, ignoreFilters));
   }
 
   @Override
   public Set<Flow> bddLoopDetection(NetworkSnapshot snapshot) {
-    BDDPacket pkt = new BDDPacket();
     // TODO add ignoreFilters parameter
     boolean ignoreFilters = false;
-    BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-        getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+    return withBddReachabilityAnalysisFactory(
+        snapshot,
+        ignoreFilters,
+        bddReachabilityAnalysisFactory ->
+            bddLoopDetection(snapshot, bddReachabilityAnalysisFactory));
+  }
+
+  private Set<Flow> bddLoopDetection(
+      NetworkSnapshot snapshot, BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory) {
+    BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
     BDDLoopDetectionAnalysis analysis =
         bddReachabilityAnalysisFactory.bddLoopDetectionAnalysis(
             getAllSourcesInferFromLocationIpSpaceAssignment(snapshot));
@@ -2921,11 +3389,19 @@ public class Batfish extends PluginConsumer implements IBatfish {
   @Override
   public Set<Flow> bddMultipathConsistency(
       NetworkSnapshot snapshot, MultipathConsistencyParameters parameters) {
-    BDDPacket pkt = new BDDPacket();
     // TODO add ignoreFilters parameter
     boolean ignoreFilters = false;
-    BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-        getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+    return withBddReachabilityAnalysisFactory(
+        snapshot,
+        ignoreFilters,
+        bddReachabilityAnalysisFactory ->
+            bddMultipathConsistency(parameters, bddReachabilityAnalysisFactory));
+  }
+
+  private static Set<Flow> bddMultipathConsistency(
+      MultipathConsistencyParameters parameters,
+      BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory) {
+    BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
     IpSpaceAssignment srcIpSpaceAssignment = parameters.getSrcIpSpaceAssignment();
     Set<String> finalNodes = parameters.getFinalNodes();
     Set<FlowDisposition> failureDispositions =
@@ -2977,10 +3453,75 @@ public class Batfish extends PluginConsumer implements IBatfish {
         locations, specifierContext);
   }
 
+  /**
+   * Maximum size of the BDD node table of a cached {@link BDDReachabilityAnalysisFactory}. Each
+   * question grows the table with BDDs of its own, and the table never shrinks, so a factory that
+   * has grown past this size (about 160 MB) is dropped and the next question builds a new one.
+   */
+  @VisibleForTesting static final int MAX_REUSED_BDD_NODE_TABLE_SIZE = 1 << 23;
+
+  /**
+   * Apply {@code function} to a {@link BDDReachabilityAnalysisFactory} for the snapshot, reusing
+   * the factory (and so its {@link BDDPacket} and reachability graph) of an earlier question if it
+   * is cached. A factory is not thread-safe, so it is removed from the cache while in use:
+   * concurrent questions about the same snapshot build their own factories. A factory whose BDD
+   * node table has grown past {@link #MAX_REUSED_BDD_NODE_TABLE_SIZE} is not returned to the cache.
+   *
+   * <p>Cached factories are built from the data plane in {@link #_cachedDataPlanes}, and are
+   * invalidated along with it. A factory is only returned to the cache if that data plane is still
+   * cached afterwards, so that a factory built from a data plane that was recomputed or dropped in
+   * the meantime is never reused.
+   */
+  @VisibleForTesting
+  <T> T withBddReachabilityAnalysisFactory(
+      NetworkSnapshot snapshot,
+      boolean ignoreFilters,
+      Function<BDDReachabilityAnalysisFactory, T> function) {
+    Entry<NetworkSnapshot, Boolean> key = Maps.immutableEntry(snapshot, ignoreFilters);
+    // Read before taking the factory: a cached factory was built from the data plane cached then.
+    DataPlane dataPlane = _cachedDataPlanes.getIfPresent(snapshot);
+    BDDReachabilityAnalysisFactory factory =
+        _cachedBddReachabilityAnalysisFactories.asMap().remove(key);
+    if (factory == null) {
+      dataPlane = loadDataPlane(snapshot);
+      factory =
+          getBddReachabilityAnalysisFactory(snapshot, new BDDPacket(), ignoreFilters, dataPlane);
+    }
+    T result = function.apply(factory);
+    // If the function throws, the factory is dropped rather than returned to the cache.
+    int nodeTableSize = factory.getBDDPacket().getFactory().getNodeTableSize();
+    if (nodeTableSize > MAX_REUSED_BDD_NODE_TABLE_SIZE) {
+      LOGGER.info(
+          "Not reusing BDD reachability graph of {}: BDD node table has {} nodes",
+          snapshot,
+          nodeTableSize);
+    } else if (dataPlane == null || _cachedDataPlanes.getIfPresent(snapshot) != dataPlane) {
+      LOGGER.info("Not reusing BDD reachability graph of {}: data plane has changed", snapshot);
+    } else {
+      _cachedBddReachabilityAnalysisFactories.put(key, factory);
+      // The data plane may have been invalidated between the check and the put.
+      if (_cachedDataPlanes.getIfPresent(snapshot) != dataPlane) {
+        _cachedBddReachabilityAnalysisFactories.asMap().remove(key, factory);
+      }
+    }
+    return result;
+  }
+
+  private void invalidateBddReachabilityAnalysisFactories(NetworkSnapshot snapshot) {
+    _cachedBddReachabilityAnalysisFactories.invalidate(Maps.immutableEntry(snapshot, false));
+    _cachedBddReachabilityAnalysisFactories.invalidate(Maps.immutableEntry(snapshot, true));
+  }
+
   @Nonnull
   private BDDReachabilityAnalysisFactory getBddReachabilityAnalysisFactory(
       NetworkSnapshot snapshot, BDDPacket pkt, boolean ignoreFilters) {
-    DataPlane dataPlane = loadDataPlane(snapshot);
+    return getBddReachabilityAnalysisFactory(
+        snapshot, pkt, ignoreFilters, loadDataPlane(snapshot));
+  }
+
+  @Nonnull
+  private BDDReachabilityAnalysisFactory getBddReachabilityAnalysisFactory(
+      NetworkSnapshot snapshot, BDDPacket pkt, boolean ignoreFilters, DataPlane dataPlane) {
     return new BDDReachabilityAnalysisFactory(
         pkt,
         loadConfigurations(snapshot),
@@ -3102,7 +3643,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         .collect(ImmutableSet.toImmutableSet());
   }
 
-  private void writeJsonAnswer(String structuredAnswerString) throws IOException {
+  private void writeJsonAnswer(Answer answer) throws IOException {
     SnapshotId referenceSnapshot = _settings.getDiffQuestion() ? _referenceSnapshot : null;
     NetworkId networkId = _settings.getContainer();
     QuestionId questionId = _settings.getQuestionName();
@@ -3113,11 +3654,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
     AnswerId baseAnswerId =
         _idResolver.getAnswerId(
             networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot);
-    _storage.storeAnswer(networkId, _snapshot, structuredAnswerString, baseAnswerId);
+    _storage.storeAnswer(networkId, _snapshot, answer, baseAnswerId);
   }
 
   private void writeJsonAnswerWithLog(
-      String answerOutput, String workJsonLogAnswerString, boolean writeLog) throws IOException {
+      Answer answer, @Nullable String workJsonLogAnswerString, boolean writeLog)
+      throws IOException {
     if (writeLog && _settings.getTaskId() != null) {
       _storage.storeWorkJson(
           workJsonLogAnswerString,
@@ -3127,7 +3669,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
     // Write answer if WorkItem was answering a question
     if (_settings.getQuestionName() != null) {
-      writeJsonAnswer(answerOutput);
+      writeJsonAnswer(answer);
     }
   }
 
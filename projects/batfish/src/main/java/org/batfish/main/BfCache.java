@@ -4,8 +4,10 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import org.apache.commons.collections4.map.LRUMap;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
@@ -14,6 +16,15 @@ import org.batfish.vendor.VendorConfiguration;
 
 /** Internal caches. */
 public final class BfCache {
+  /**
+   * BDD reachability graphs keyed by snapshot and whether filters are ignored, so that reachability
+   * questions on a snapshot do not rebuild the graph. Each factory owns its own BDD factory, and is
+   * weighed by the size of its BDD node table, which holds the BDDs of the graph and of earlier
+   * questions.
+   */
+  public static final Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>
+      CACHED_BDD_REACHABILITY_ANALYSIS_FACTORIES = buildBddReachabilityAnalysisFactoryCache();
+
   public static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
   public static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
@@ -22,16 +33,46 @@ public final class BfCache {
   public static final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
       CACHED_VENDOR_CONFIGURATIONS = buildVendorConfigurationCache();
 
+  /**
+   * Serialized conversion results keyed by a hash of the vendor configuration and its conversion
+   * context, shared by every network this process works on.
+   */
+  public static final Cache<String, byte[]> CACHED_CONVERSION_RESULTS =
+      buildConversionResultCache();
+
+  /**
+   * Serialized parse results keyed by a hash of the parsed files and parse settings, shared by
+   * every network this process works on.
+   */
+  public static final Cache<String, byte[]> CACHED_PARSE_RESULTS = buildParseResultCache();
+
+  /** Maximum total size of the BDD node tables of the cached factories (about 320 MB). */
+  private static final long MAX_CACHED_BDD_NODES = 1L << 24;
+
   private static final int MAX_CACHED_DATA_PLANES = 2;
 
   private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
 
+  private static final long MAX_CACHED_CONVERSION_RESULTS_BYTES = 256L << 20;
+
+  private static final long MAX_CACHED_PARSE_RESULTS_BYTES = 256L << 20;
+
   private static final int MAX_CACHED_TESTRIGS = 5;
 
   private static final int MAX_CACHED_VENDOR_CONFIGURATIONS = 2;
 
   private BfCache() {}
 
+  static Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>
+      buildBddReachabilityAnalysisFactoryCache() {
+    return CacheBuilder.newBuilder()
+        .softValues()
+        .maximumWeight(MAX_CACHED_BDD_NODES)
+        .<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>weigher(
+            (key, factory) -> factory.getBDDPacket().getFactory().getNodeTableSize())
+        .build();
+  }
+
   static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_DATA_PLANES).build();
   }
@@ -41,6 +82,24 @@ public final class BfCache {
     return Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_ENVIRONMENT_BGP_TABLES));
   }
 
+  static Cache<String, byte[]> buildConversionResultCache() {
+    return CacheBuilder.newBuilder()
+        .softValues()
+        .maximumWeight(MAX_CACHED_CONVERSION_RESULTS_BYTES)
+        .<String, byte[]>weigher((key, serialized) -> serialized.length)
+        .recordStats()
+        .build();
+  }
+
+  static Cache<String, byte[]> buildParseResultCache() {
+    return CacheBuilder.newBuilder()
+        .softValues()
+        .maximumWeight(MAX_CACHED_PARSE_RESULTS_BYTES)
+        .<String, byte[]>weigher((key, serialized) -> serialized.length)
+        .recordStats()
+        .build();
+  }
+
   static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_TESTRIGS).build();
   }
@@ -0,0 +1,156 @@
+package org.batfish.main;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.graph.EndpointPair;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.topology.Layer1Topology;
+import org.batfish.common.topology.TunnelTopology;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpsecPeerConfigId;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.datamodel.ipsec.IpsecTopology;
+import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+import org.jgrapht.Graph;
+import org.jgrapht.alg.connectivity.ConnectivityInspector;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+
+/**
+ * Partitions the nodes of a snapshot into islands: sets of nodes whose data plane does not depend
+ * on any node outside the set.
+ *
+ * <p>Two nodes are in the same island if they may exchange routes or forward traffic to each other,
+ * or if the state of one may otherwise depend on the other: if they are connected at layer 1 or
+ * layer 3, over OSPF, IPsec or a tunnel, if one has a BGP neighbor at an IP owned by the other, if
+ * they share a VXLAN VNI, or if they own the same IP (e.g., through VRRP or HSRP). All potential
+ * edges are considered, not just the ones that end up established, so islands only depend on the
+ * configurations and the initial topologies.
+ *
+ * <p>Islands are coarser than the components the routing protocols alone would induce: BGP sessions
+ * are established by tracing traffic through transit nodes, and IP ownership elections span layer-3
+ * adjacencies, so the routes of a node can depend on nodes it never exchanges routes with.
+ */
+@ParametersAreNonnullByDefault
+final class DataPlaneIslands {
+
+  /**
+   * Compute the islands of the given configurations.
+   *
+   * @param configurations the post-processed configurations, keyed by hostname
+   * @param layer1Topology the combined layer-1 topology
+   * @param layer3Topology the initial layer-3 topology
+   * @param ospfTopology the initial OSPF topology
+   * @param ipsecTopology the initial IPsec topology
+   * @param tunnelTopology the initial tunnel topology
+   * @param ipVrfOwners the initial owners of each IP, as hostname -> VRF names
+   * @return the islands, each sorted by hostname
+   */
+  static @Nonnull List<SortedSet<String>> computeIslands(
+      Map<String, Configuration> configurations,
+      Layer1Topology layer1Topology,
+      Topology layer3Topology,
+      OspfTopology ospfTopology,
+      IpsecTopology ipsecTopology,
+      TunnelTopology tunnelTopology,
+      Map<Ip, Map<String, Set<String>>> ipVrfOwners) {
+    Graph<String, DefaultEdge> graph = new SimpleGraph<>(DefaultEdge.class);
+    configurations.keySet().forEach(graph::addVertex);
+
+    layer1Topology
+        .edgeStream()
+        .forEach(
+            edge -> addEdge(graph, edge.getNode1().getHostname(), edge.getNode2().getHostname()));
+    for (Edge edge : layer3Topology.getEdges()) {
+      addEdge(graph, edge.getNode1(), edge.getNode2());
+    }
+    for (EdgeId edge : ospfTopology.edges()) {
+      addEdge(graph, edge.getTail().getHostname(), edge.getHead().getHostname());
+    }
+    for (EndpointPair<IpsecPeerConfigId> edge : ipsecTopology.getGraph().edges()) {
+      addEdge(graph, edge.nodeU().getHostName(), edge.nodeV().getHostName());
+    }
+    for (EndpointPair<NodeInterfacePair> edge : tunnelTopology.getGraph().edges()) {
+      addEdge(graph, edge.nodeU().getHostname(), edge.nodeV().getHostname());
+    }
+
+    // BGP neighbors, which may be multiple hops away
+    configurations.forEach(
+        (hostname, c) ->
+            c.getVrfs().values().stream()
+                .map(Vrf::getBgpProcess)
+                .filter(Objects::nonNull)
+                .flatMap(p -> p.getActiveNeighbors().values().stream())
+                .map(BgpActivePeerConfig::getPeerAddress)
+                .filter(Objects::nonNull)
+                .flatMap(ip -> ipVrfOwners.getOrDefault(ip, ImmutableMap.of()).keySet().stream())
+                .forEach(owner -> addEdge(graph, hostname, owner)));
+
+    // IPs owned by multiple nodes
+    ipVrfOwners.values().forEach(owners -> connectAll(graph, owners.keySet()));
+
+    // Nodes that share a VNI, which may establish VXLAN tunnels
+    Multimap<Integer, String> nodesByVni = MultimapBuilder.hashKeys().treeSetValues().build();
+    configurations.forEach(
+        (hostname, c) ->
+            c.getVrfs()
+                .values()
+                .forEach(
+                    vrf -> {
+                      vrf.getLayer2Vnis().keySet().forEach(vni -> nodesByVni.put(vni, hostname));
+                      vrf.getLayer3Vnis().keySet().forEach(vni -> nodesByVni.put(vni, hostname));
+                    }));
+    nodesByVni.asMap().values().forEach(nodes -> connectAll(graph, nodes));
+
+    return new ConnectivityInspector<>(graph)
+        .connectedSets().stream()
+        .map(ImmutableSortedSet::copyOf)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Returns whether the data plane of the given island can be taken from a previous computation.
+   * Islands with tracking groups cannot, since tracked routes and reachability are evaluated
+   * against the routes of the whole network during the computation.
+   */
+  static boolean isReusable(Collection<String> island, Map<String, Configuration> configurations) {
+    return island.stream()
+        .map(configurations::get)
+        .allMatch(c -> c != null && c.getTrackingGroups().isEmpty());
+  }
+
+  private static void connectAll(Graph<String, DefaultEdge> graph, Collection<String> nodes) {
+    Iterator<String> it = nodes.iterator();
+    if (!it.hasNext()) {
+      return;
+    }
+    String first = it.next();
+    it.forEachRemaining(node -> addEdge(graph, first, node));
+  }
+
+  /** Add an edge between two distinct configured nodes, ignoring any other edge. */
+  private static void addEdge(Graph<String, DefaultEdge> graph, String node1, String node2) {
+    if (!node1.equals(node2) && graph.containsVertex(node1) && graph.containsVertex(node2)) {
+      graph.addEdge(node1, node2);
+    }
+  }
+
+  private DataPlaneIslands() {}
+}
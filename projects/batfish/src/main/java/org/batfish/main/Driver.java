@@ -2,8 +2,13 @@ package org.batfish.main;
 
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
@@ -16,9 +21,13 @@ import org.batfish.common.LaunchResult;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.QuestionException;
 import org.batfish.common.Task;
+import org.batfish.common.WorkerAdmission;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.main.TaskAdmission.TaskKind;
+import org.batfish.storage.FileBasedStorage;
+import org.batfish.storage.StorageProvider;
 import org.glassfish.grizzly.http.server.HttpServer;
 
 @SuppressWarnings("restriction")
@@ -31,7 +40,15 @@ public class Driver {
     WORKSERVICE,
   }
 
-  private static boolean _idle = true;
+  /** Decides whether another task can start alongside the tasks already running. */
+  private static final TaskAdmission ADMISSION = new TaskAdmission();
+
+  /** Storage of the snapshots tasks are launched on, by storage base. */
+  private static final Map<Path, StorageProvider> STORAGE = new ConcurrentHashMap<>();
+
+  /** Total size of the input files of recently launched snapshots. */
+  private static final Cache<NetworkSnapshot, Long> SNAPSHOT_INPUT_SIZES =
+      CacheBuilder.newBuilder().maximumSize(1024).build();
 
   private static BatfishLogger _mainLogger = null;
 
@@ -42,15 +59,6 @@ public class Driver {
   static Logger networkListenerLogger =
       Logger.getLogger("org.glassfish.grizzly.http.server.NetworkListener");
 
-  private static synchronized boolean claimIdle() {
-    if (_idle) {
-      _idle = false;
-      return true;
-    }
-
-    return false;
-  }
-
   @Deprecated
   @SuppressWarnings("unused")
   public static void main(String[] args, BatfishLogger logger, boolean unused) {
@@ -119,16 +127,17 @@ public class Driver {
           return task;
         }
 
+        @Override
+        public WorkerAdmission getAdmission() {
+          return ADMISSION.getAdmission();
+        }
+
         @Override
         public LaunchResult runTask(String taskId, String[] args) {
           return runBatfishThroughService(taskId, args);
         }
       };
 
-  private static synchronized void makeIdle() {
-    _idle = true;
-  }
-
   @SuppressWarnings("deprecation")
   private static String runBatfish(Settings settings) {
 
@@ -142,6 +151,9 @@ public class Driver {
               BfCache.CACHED_DATA_PLANES,
               BfCache.CACHED_ENVIRONMENT_BGP_TABLES,
               BfCache.CACHED_VENDOR_CONFIGURATIONS,
+              BfCache.CACHED_PARSE_RESULTS,
+              BfCache.CACHED_CONVERSION_RESULTS,
+              BfCache.CACHED_BDD_REACHABILITY_ANALYSIS_FACTORIES,
               null,
               null);
 
@@ -232,6 +244,36 @@ public class Driver {
     }
   }
 
+  /**
+   * Returns the total size of the input files of the snapshot of the task with the given settings,
+   * or 0 if the task has no snapshot or the size cannot be determined.
+   *
+   * <p>Snapshot inputs do not change once the snapshot is initialized, so the size is computed once
+   * per snapshot rather than on every attempt to launch a task on it, using one storage provider
+   * per storage base.
+   */
+  private static long getSnapshotInputSize(Settings settings) {
+    if (settings.getStorageBase() == null
+        || settings.getContainer() == null
+        || settings.getTestrig() == null) {
+      return 0L;
+    }
+    NetworkSnapshot snapshot = new NetworkSnapshot(settings.getContainer(), settings.getTestrig());
+    Long cached = SNAPSHOT_INPUT_SIZES.getIfPresent(snapshot);
+    if (cached != null) {
+      return cached;
+    }
+    StorageProvider storage =
+        STORAGE.computeIfAbsent(
+            settings.getStorageBase(), base -> new FileBasedStorage(base, _mainLogger));
+    long size = storage.getSnapshotInputSize(snapshot);
+    if (size > 0) {
+      // A size of 0 may mean the inputs are not there yet, so check again next time.
+      SNAPSHOT_INPUT_SIZES.put(snapshot, size);
+    }
+    return size;
+  }
+
   public static @Nonnull LaunchResult runBatfishThroughService(String taskId, String[] args) {
     Settings settings;
     try {
@@ -251,11 +293,15 @@ public class Driver {
       return LaunchResult.error("Non-executable command");
     }
 
-    if (!claimIdle()) {
-      return LaunchResult.busy();
+    TaskKind kind = TaskKind.of(settings);
+    long snapshotInputBytes = getSnapshotInputSize(settings);
+    String busyReason = ADMISSION.tryAdmit(kind, snapshotInputBytes);
+    if (busyReason != null) {
+      _mainLogger.infof("Not admitting %s task %s: %s\n", kind, taskId, busyReason);
+      return LaunchResult.busy(busyReason);
     }
 
-    // try/catch so that the worker becomes idle again in case of problem submitting thread.
+    // try/catch so that the task is released again in case of problem submitting thread.
     try {
 
       BatfishLogger jobLogger =
@@ -266,7 +312,7 @@ public class Driver {
 
       BatchManager.get().logTask(taskId, task);
 
-      // run batfish on a new thread and set idle to true when done
+      // run batfish on a new thread and release the task when done
       Thread thread =
           new Thread(
               () -> {
@@ -280,7 +326,7 @@ public class Driver {
                 }
                 task.setTerminated(new Date());
                 jobLogger.close();
-                makeIdle();
+                ADMISSION.release(kind, snapshotInputBytes);
               });
 
       thread.start();
@@ -288,7 +334,7 @@ public class Driver {
       return LaunchResult.launched();
     } catch (Exception e) {
       _mainLogger.error("Exception while launching task: " + e.getMessage());
-      makeIdle();
+      ADMISSION.release(kind, snapshotInputBytes);
       return LaunchResult.error(e.getMessage());
     }
   }
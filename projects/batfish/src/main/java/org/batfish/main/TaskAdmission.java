@@ -0,0 +1,177 @@
+package org.batfish.main;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSortedMap;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.WorkerAdmission;
+import org.batfish.config.Settings;
+
+/**
+ * Decides whether a worker can start another task while others are running, based on how much heap
+ * the tasks are expected to need.
+ *
+ * <p>The heap a task needs is estimated from the size of its snapshot's input files, and is at
+ * least a fixed share of the maximum heap for its kind. A task is admitted if its estimate fits in
+ * the maximum heap on top of the larger of the heap that was live after the last garbage collection
+ * and the estimates of the running tasks (which may not have allocated their memory yet). The raw
+ * heap size is not used, since it also counts garbage and softly-reachable cache entries that a
+ * collection would reclaim. An idle worker admits any task, so a task is never refused only because
+ * its estimate is large.
+ *
+ * <p>CPU is not budgeted: parsing, data plane computation and questions (e.g., reachability) all
+ * parallelize on the common fork-join pool, so concurrent tasks share the cores rather than
+ * oversubscribing them.
+ */
+@ParametersAreNonnullByDefault
+final class TaskAdmission {
+
+  enum TaskKind {
+    /** Parsing and converting configurations, which holds every vendor configuration in memory. */
+    PARSE(0.5, 20),
+    /** Computing the data plane, which holds every RIB in memory. */
+    DATA_PLANE(0.5, 40),
+    /** Answering a question against snapshots that are mostly already loaded and cached. */
+    ANSWER(0.125, 4);
+
+    private final double _minHeapFraction;
+    private final long _heapBytesPerInputByte;
+
+    TaskKind(double minHeapFraction, long heapBytesPerInputByte) {
+      _minHeapFraction = minHeapFraction;
+      _heapBytesPerInputByte = heapBytesPerInputByte;
+    }
+
+    /**
+     * Estimated heap needed by a task of this kind on a snapshot whose input files total {@code
+     * snapshotInputBytes}.
+     */
+    long estimateHeapBytes(long maxHeapBytes, long snapshotInputBytes) {
+      return Math.max(
+          (long) (_minHeapFraction * maxHeapBytes), _heapBytesPerInputByte * snapshotInputBytes);
+    }
+
+    static @Nonnull TaskKind of(Settings settings) {
+      if (settings.getSerializeVendor() || settings.getSerializeIndependent()) {
+        return PARSE;
+      } else if (settings.getDataPlane()) {
+        return DATA_PLANE;
+      } else {
+        return ANSWER;
+      }
+    }
+  }
+
+  private final @Nonnull LongSupplier _maxHeapBytes;
+  private final @Nonnull LongSupplier _liveHeapBytes;
+  private final @Nonnull Map<TaskKind, Integer> _running;
+  private final @Nonnull Map<TaskKind, Long> _reservedHeapBytesByKind;
+  private long _reservedHeapBytes;
+
+  TaskAdmission() {
+    this(Runtime.getRuntime()::maxMemory, TaskAdmission::getLiveHeapBytes);
+  }
+
+  @VisibleForTesting
+  TaskAdmission(LongSupplier maxHeapBytes, LongSupplier liveHeapBytes) {
+    _maxHeapBytes = maxHeapBytes;
+    _liveHeapBytes = liveHeapBytes;
+    _running = new EnumMap<>(TaskKind.class);
+    _reservedHeapBytesByKind = new EnumMap<>(TaskKind.class);
+  }
+
+  /**
+   * Admits a task of the given kind on a snapshot whose input files total {@code
+   * snapshotInputBytes}, if it fits alongside the running tasks. Returns {@code null} if the task
+   * was admitted, and must later be {@link #release(TaskKind, long) released} with the same
+   * arguments; otherwise returns the reason it was not.
+   */
+  synchronized @Nullable String tryAdmit(TaskKind kind, long snapshotInputBytes) {
+    long maxHeapBytes = _maxHeapBytes.getAsLong();
+    long estimate = kind.estimateHeapBytes(maxHeapBytes, snapshotInputBytes);
+    if (!_running.isEmpty()) {
+      long inUse = Math.max(_liveHeapBytes.getAsLong(), _reservedHeapBytes);
+      if (inUse + estimate > maxHeapBytes) {
+        return String.format(
+            "estimated heap use of %s (%d MB) on top of %d MB in use would exceed %d MB,"
+                + " running: %s",
+            kind, toMb(estimate), toMb(inUse), toMb(maxHeapBytes), _running);
+      }
+    }
+    _running.merge(kind, 1, Integer::sum);
+    _reservedHeapBytesByKind.merge(kind, estimate, Long::sum);
+    _reservedHeapBytes += estimate;
+    return null;
+  }
+
+  /** Releases a task that was previously admitted with the given arguments. */
+  synchronized void release(TaskKind kind, long snapshotInputBytes) {
+    Integer count = _running.get(kind);
+    checkState(count != null, "No running task of kind %s", kind);
+    long estimate = kind.estimateHeapBytes(_maxHeapBytes.getAsLong(), snapshotInputBytes);
+    if (count == 1) {
+      _running.remove(kind);
+      _reservedHeapBytesByKind.remove(kind);
+    } else {
+      _running.put(kind, count - 1);
+      _reservedHeapBytesByKind.merge(kind, -estimate, Long::sum);
+    }
+    _reservedHeapBytes -= estimate;
+  }
+
+  /** Number of admitted tasks of the given kind that have not been released. */
+  synchronized int getRunning(TaskKind kind) {
+    return _running.getOrDefault(kind, 0);
+  }
+
+  /**
+   * The heap reserved by the running tasks of each kind and the live heap, for reporting in the
+   * worker status.
+   */
+  synchronized @Nonnull WorkerAdmission getAdmission() {
+    return new WorkerAdmission(
+        _liveHeapBytes.getAsLong(),
+        _maxHeapBytes.getAsLong(),
+        byName(_reservedHeapBytesByKind),
+        byName(_running));
+  }
+
+  private static <V> Map<String, V> byName(Map<TaskKind, V> map) {
+    return map.entrySet().stream()
+        .collect(
+            ImmutableSortedMap.toImmutableSortedMap(
+                String::compareTo, e -> e.getKey().name(), Map.Entry::getValue));
+  }
+
+  /**
+   * Heap in use after the most recent garbage collection of each heap memory pool, i.e., an
+   * estimate of the live heap that excludes garbage allocated since.
+   */
+  private static long getLiveHeapBytes() {
+    long used = 0L;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() != MemoryType.HEAP) {
+        continue;
+      }
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (usage != null) {
+        used += usage.getUsed();
+      }
+    }
+    return used;
+  }
+
+  private static long toMb(long bytes) {
+    return bytes >> 20;
+  }
+}
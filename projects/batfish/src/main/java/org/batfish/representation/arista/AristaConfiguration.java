@@ -774,6 +774,11 @@ public final class AristaConfiguration extends VendorConfiguration {
     _eosVxlan = eosVxlan;
   }
 
+  @Override
+  public boolean isConversionReusable() {
+    return true;
+  }
+
   @Override
   public void setHostname(String hostname) {
     checkNotNull(hostname, "'hostname' cannot be null");
@@ -912,6 +912,11 @@ public final class CiscoConfiguration extends VendorConfiguration {
     _domainName = domainName;
   }
 
+  @Override
+  public boolean isConversionReusable() {
+    return true;
+  }
+
   @Override
   public void setHostname(String hostname) {
     checkNotNull(hostname, "'hostname' cannot be null");
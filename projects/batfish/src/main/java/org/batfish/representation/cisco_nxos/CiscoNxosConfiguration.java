@@ -1911,6 +1911,11 @@ public final class CiscoNxosConfiguration extends VendorConfiguration {
     _bootSystemSup2 = bootSystemSup2;
   }
 
+  @Override
+  public boolean isConversionReusable() {
+    return true;
+  }
+
   @Override
   public void setHostname(String hostname) {
     checkNotNull(hostname, "hostname cannot be null");
@@ -731,6 +731,11 @@ public final class CiscoXrConfiguration extends VendorConfiguration {
     _domainName = domainName;
   }
 
+  @Override
+  public boolean isConversionReusable() {
+    return true;
+  }
+
   @Override
   public void setHostname(String hostname) {
     checkNotNull(hostname, "'hostname' cannot be null");
@@ -4583,6 +4583,11 @@ public final class JuniperConfiguration extends VendorConfiguration {
     return _masterLogicalSystem.getHostname();
   }
 
+  @Override
+  public boolean isConversionReusable() {
+    return true;
+  }
+
   @Override
   public void setHostname(String hostname) {
     _masterLogicalSystem.setHostname(hostname);
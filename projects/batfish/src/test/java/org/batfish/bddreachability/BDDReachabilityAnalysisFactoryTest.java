@@ -219,6 +219,40 @@ public final class BDDReachabilityAnalysisFactoryTest {
     makeBddReachabilityAnalysisFactory(net._configs);
   }
 
+  @Test
+  public void testReuseFactoryAcrossQueries() throws IOException {
+    SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, temp);
+    BDDReachabilityAnalysisFactory factory = makeBddReachabilityAnalysisFactory(configs);
+
+    for (String node : configs.keySet()) {
+      // The query-independent edges are generated by the first query and reused by the rest
+      Map<IngressLocation, BDD> reused =
+          factory
+              .bddReachabilityAnalysis(
+                  ipSpaceAssignment(batfish),
+                  TRUE,
+                  ImmutableSet.of(),
+                  ImmutableSet.of(),
+                  ImmutableSet.of(node),
+                  ImmutableSet.of(ACCEPTED),
+                  false)
+              .getIngressLocationReachableBDDs();
+      Map<IngressLocation, BDD> fresh =
+          makeBddReachabilityAnalysisFactory(configs)
+              .bddReachabilityAnalysis(
+                  ipSpaceAssignment(batfish),
+                  TRUE,
+                  ImmutableSet.of(),
+                  ImmutableSet.of(),
+                  ImmutableSet.of(node),
+                  ImmutableSet.of(ACCEPTED),
+                  false)
+              .getIngressLocationReachableBDDs();
+      assertThat(reused, equalTo(fresh));
+    }
+  }
+
   @Test
   public void testAnalysisUseInterfaceRootsParam() throws IOException {
     SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
@@ -0,0 +1,147 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.bddreachability.BDDReachabilityUtils.fixpoint;
+import static org.batfish.bddreachability.BDDReachabilityUtils.topologicalSccIndices;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import java.util.HashMap;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.JFactory;
+import org.batfish.bddreachability.BDDReachabilityUtils.FixpointStats;
+import org.batfish.bddreachability.transition.Identity;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.symbolic.state.OriginateVrf;
+import org.batfish.symbolic.state.StateExpr;
+import org.junit.Test;
+
+/** Tests of {@link BDDReachabilityUtils}. */
+public final class BDDReachabilityUtilsTest {
+  @Test
+  public void testTopologicalSccIndices() {
+    StateExpr a = new OriginateVrf("a", "vrf");
+    StateExpr b = new OriginateVrf("b", "vrf");
+    StateExpr c = new OriginateVrf("c", "vrf");
+    StateExpr d = new OriginateVrf("d", "vrf");
+    StateExpr e = new OriginateVrf("e", "vrf");
+
+    // a <-> b -> c -> d <-> e, and b -> d
+    Table<StateExpr, StateExpr, Transition> edges =
+        ImmutableTable.<StateExpr, StateExpr, Transition>builder()
+            .put(a, b, Identity.INSTANCE)
+            .put(b, a, Identity.INSTANCE)
+            .put(b, c, Identity.INSTANCE)
+            .put(b, d, Identity.INSTANCE)
+            .put(c, d, Identity.INSTANCE)
+            .put(d, e, Identity.INSTANCE)
+            .put(e, d, Identity.INSTANCE)
+            .build();
+
+    Map<StateExpr, Integer> sccIndices = topologicalSccIndices(edges);
+    assertThat(sccIndices, aMapWithSize(5));
+    assertThat(sccIndices.get(a), equalTo(sccIndices.get(b)));
+    assertThat(sccIndices.get(d), equalTo(sccIndices.get(e)));
+    assertThat(sccIndices.get(b), lessThan(sccIndices.get(c)));
+    assertThat(sccIndices.get(c), lessThan(sccIndices.get(d)));
+  }
+
+  @Test
+  public void testFixpointCycleFeedingDownstreamScc() {
+    BDDFactory factory = JFactory.init(10000, 1000);
+    factory.setVarNum(2);
+    BDD x = factory.ithVar(0);
+    BDD y = factory.ithVar(1);
+
+    StateExpr a = new OriginateVrf("a", "vrf");
+    StateExpr b = new OriginateVrf("b", "vrf");
+    StateExpr c = new OriginateVrf("c", "vrf");
+    StateExpr d = new OriginateVrf("d", "vrf");
+
+    // a <-> b -> c -> d, with different initial sets at a and b.
+    Table<StateExpr, StateExpr, Transition> edges =
+        ImmutableTable.<StateExpr, StateExpr, Transition>builder()
+            .put(a, b, Identity.INSTANCE)
+            .put(b, a, Identity.INSTANCE)
+            .put(b, c, Identity.INSTANCE)
+            .put(c, d, Identity.INSTANCE)
+            .build();
+    Map<StateExpr, BDD> reachable = new HashMap<>();
+    reachable.put(a, x.id());
+    reachable.put(b, y.id());
+
+    long start = System.nanoTime();
+    FixpointStats stats = fixpoint(reachable, edges, Transition::transitForward, true);
+    long elapsed = System.nanoTime() - start;
+
+    BDD xOrY = x.or(y);
+    assertThat(reachable, equalTo(ImmutableMap.of(a, xOrY, b, xOrY, c, xOrY, d, xOrY)));
+    assertThat(stats.getNumSccs(), equalTo(3));
+    // whichever of a and b is visited first, the cycle takes four visits: each state learns its
+    // own set, then the other's, and the last visit finds no change.
+    assertThat(stats.getVisits(a), equalTo(4));
+    assertThat(stats.getVisits(b), equalTo(4));
+    // the cycle converges before anything flows downstream, so c and d are each visited once.
+    assertThat(stats.getVisits(c), equalTo(1));
+    assertThat(stats.getVisits(d), equalTo(1));
+    assertThat(
+        stats.getNanos(a) + stats.getNanos(c) + stats.getNanos(d), lessThanOrEqualTo(elapsed));
+  }
+
+  @Test
+  public void testFixpointStatsStatesOutsideGraph() {
+    BDDFactory factory = JFactory.init(10000, 1000);
+    factory.setVarNum(1);
+    StateExpr a = new OriginateVrf("a", "vrf");
+    StateExpr b = new OriginateVrf("b", "vrf");
+    StateExpr isolated = new OriginateVrf("isolated", "vrf");
+    Map<StateExpr, BDD> reachable = new HashMap<>();
+    reachable.put(a, factory.ithVar(0));
+    reachable.put(isolated, factory.ithVar(0));
+
+    FixpointStats stats =
+        fixpoint(
+            reachable,
+            ImmutableTable.of(a, b, Identity.INSTANCE),
+            Transition::transitForward,
+            true);
+
+    // the isolated state is an SCC of its own, not charged to the first SCC of the graph.
+    assertThat(stats.getNumSccs(), equalTo(3));
+    assertThat(stats.getVisits(a), equalTo(1));
+    assertThat(stats.getVisits(b), equalTo(1));
+    assertThat(stats.getVisits(isolated), equalTo(1));
+  }
+
+  @Test
+  public void testFixpointWithoutStats() {
+    BDDFactory factory = JFactory.init(10000, 1000);
+    factory.setVarNum(1);
+    StateExpr a = new OriginateVrf("a", "vrf");
+    StateExpr b = new OriginateVrf("b", "vrf");
+    Map<StateExpr, BDD> reachable = new HashMap<>();
+    reachable.put(a, factory.ithVar(0));
+
+    assertThat(
+        fixpoint(
+            reachable,
+            ImmutableTable.of(a, b, Identity.INSTANCE),
+            Transition::transitForward,
+            false),
+        nullValue());
+    assertThat(reachable.get(b), equalTo(factory.ithVar(0)));
+  }
+
+  @Test
+  public void testTopologicalSccIndicesEmpty() {
+    assertThat(topologicalSccIndices(ImmutableTable.of()), aMapWithSize(0));
+  }
+}
@@ -6,11 +6,13 @@ import static org.batfish.datamodel.FlowDisposition.ACCEPTED;
 import static org.batfish.datamodel.FlowDisposition.NO_ROUTE;
 import static org.batfish.datamodel.Ip.parse;
 import static org.batfish.datamodel.matchers.TraceMatchers.hasDisposition;
+import static org.batfish.dataplane.TracerouteEngineImpl.CHUNK_ORDER;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -470,4 +472,66 @@ public class TracerouteEngineTest {
     assertThat(
         arpErrorStep.getDetail().getOutputInterface(), equalTo(NodeInterfacePair.of("c1", "i1")));
   }
+
+  @Test
+  public void testChunkOrder() {
+    Builder fb = builder().setIngressNode("n").setIngressVrf("v");
+    Flow toA1 = fb.setDstIp(parse("1.1.1.1")).setSrcPort(1).build();
+    Flow toB1 = fb.setDstIp(parse("2.2.2.2")).setSrcPort(1).build();
+    Flow toA2 = fb.setDstIp(parse("1.1.1.1")).setSrcPort(2).build();
+    Flow toB2 = fb.setDstIp(parse("2.2.2.2")).setSrcPort(2).build();
+    Flow otherNode = fb.setIngressNode("m").setDstIp(parse("1.1.1.1")).setSrcPort(1).build();
+
+    // Flows are grouped by ingress location, then destination.
+    List<Flow> flows = ImmutableList.of(toA1, toB1, toA2, otherNode, toB2);
+    assertThat(
+        ImmutableList.sortedCopyOf(CHUNK_ORDER, flows),
+        contains(otherNode, toA1, toA2, toB1, toB2));
+
+    // The order is consistent with equals, so no distinct flows are conflated.
+    assertThat(CHUNK_ORDER.compare(toA1, toA2), lessThan(0));
+    assertThat(CHUNK_ORDER.compare(toA1, fb.setIngressNode("n").setSrcPort(1).build()), equalTo(0));
+  }
+
+  /** Tracing many flows in chunks yields the same traces as tracing each flow on its own. */
+  @Test
+  public void testChunkingDoesNotChangeTraces() throws IOException {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration config =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS).build();
+    Vrf vrf = nf.vrfBuilder().setOwner(config).build();
+    Interface.Builder ib = nf.interfaceBuilder().setOwner(config).setVrf(vrf);
+    Interface i1 = ib.setAddress(ConcreteInterfaceAddress.parse("1.1.1.1/24")).build();
+    ib.setAddress(ConcreteInterfaceAddress.parse("2.2.2.2/24")).build();
+
+    SortedMap<String, Configuration> configs = ImmutableSortedMap.of(config.getHostname(), config);
+    Batfish batfish = BatfishTestUtils.getBatfish(configs, _tempFolder);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+    DataPlane dp = batfish.loadDataPlane(snapshot);
+    TracerouteEngineImpl engine =
+        new TracerouteEngineImpl(
+            dp, batfish.getTopologyProvider().getLayer3Topology(snapshot), configs);
+
+    // More flows than fit in one chunk, to destinations that are accepted, routed, or unroutable.
+    List<Ip> dstIps = ImmutableList.of(parse("2.2.2.2"), parse("2.2.2.3"), parse("9.9.9.9"));
+    Builder fb =
+        builder()
+            .setIngressNode(config.getHostname())
+            .setIngressVrf(vrf.getName())
+            .setIngressInterface(i1.getName());
+    ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
+    for (int srcPort = 1; srcPort <= 200; srcPort++) {
+      for (Ip dstIp : dstIps) {
+        flows.add(fb.setDstIp(dstIp).setSrcPort(srcPort).build());
+      }
+    }
+
+    SortedMap<Flow, List<Trace>> chunked = engine.computeTraces(flows.build(), false);
+    assertThat(chunked.size(), equalTo(600));
+    chunked.forEach(
+        (flow, traces) ->
+            assertThat(
+                engine.computeTraces(ImmutableSet.of(flow), false), hasEntry(flow, traces)));
+  }
 }
@@ -0,0 +1,245 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.routing_policy.Environment.Direction.IN;
+import static org.batfish.datamodel.routing_policy.Environment.Direction.OUT;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.BgpSessionProperties;
+import org.batfish.datamodel.BgpSessionProperties.SessionType;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.ReceivedFromIp;
+import org.batfish.datamodel.bgp.BgpTopologyUtils.ConfedSessionType;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.LiteralLong;
+import org.batfish.datamodel.routing_policy.expr.MatchBgpSessionType;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.TrackSucceeded;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.SetLocalPreference;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link BgpPolicyCache} */
+public final class BgpPolicyCacheTest {
+
+  private Configuration _c;
+  private BgpSessionProperties.Builder _sessionBuilder;
+  private BgpSessionProperties _session;
+
+  @Before
+  public void setup() {
+    _c =
+        Configuration.builder()
+            .setHostname("c")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    _sessionBuilder =
+        BgpSessionProperties.builder()
+            .setLocalAs(1L)
+            .setRemoteAs(2L)
+            .setLocalIp(Ip.parse("10.0.0.1"))
+            .setRemoteIp(Ip.parse("10.0.0.2"))
+            .setSessionType(SessionType.EBGP_SINGLEHOP);
+    _session = _sessionBuilder.build();
+  }
+
+  private static Bgpv4Route route(String network) {
+    return Bgpv4Route.testBuilder()
+        .setNetwork(Prefix.parse(network))
+        .setAsPath(AsPath.ofSingletonAsSets(2L))
+        .build();
+  }
+
+  private static Bgpv4Route build(@Nullable Bgpv4Route.Builder builder) {
+    return builder == null ? null : builder.build();
+  }
+
+  @Test
+  public void testMemoizes() {
+    // Accept 10.0.0.0/8 with local preference 200, reject everything else
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("policy")
+            .addStatement(
+                new If(
+                    new MatchPrefixSet(
+                        DestinationNetwork.instance(),
+                        new ExplicitPrefixSet(
+                            new PrefixSpace(PrefixRange.fromPrefix(Prefix.parse("10.0.0.0/8"))))),
+                    ImmutableList.of(
+                        new SetLocalPreference(new LiteralLong(200)),
+                        Statements.ExitAccept.toStaticStatement()),
+                    ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+            .build();
+    BgpPolicyCache cache = new BgpPolicyCache();
+    Bgpv4Route accepted = route("10.0.0.0/8");
+    Bgpv4Route rejected = route("20.0.0.0/8");
+
+    Bgpv4Route expected = accepted.toBuilder().setLocalPreference(200).build();
+    for (int i = 0; i < 2; i++) {
+      assertThat(
+          build(
+              cache.process(
+                  policy, accepted, accepted.toBuilder(), _session, IN, ImmutableSet.of())),
+          equalTo(expected));
+      assertThat(
+          cache.process(policy, rejected, rejected.toBuilder(), _session, IN, ImmutableSet.of()),
+          nullValue());
+    }
+    assertThat(cache.getStats().missCount(), equalTo(2L));
+    assertThat(cache.getStats().hitCount(), equalTo(2L));
+
+    // The policy does not read the session, so its evaluations are shared by all sessions
+    BgpSessionProperties otherSession = _sessionBuilder.setRemoteAs(3L).build();
+    assertThat(
+        build(
+            cache.process(
+                policy, accepted, accepted.toBuilder(), otherSession, IN, ImmutableSet.of())),
+        equalTo(expected));
+    assertThat(cache.getStats().missCount(), equalTo(2L));
+
+    // Routes from different peers share evaluations, and keep their own peer
+    Bgpv4Route fromOtherPeer =
+        accepted.toBuilder().setReceivedFrom(ReceivedFromIp.of(Ip.parse("10.0.0.3"))).build();
+    assertThat(
+        build(
+            cache.process(
+                policy, fromOtherPeer, fromOtherPeer.toBuilder(), _session, IN, ImmutableSet.of())),
+        equalTo(fromOtherPeer.toBuilder().setLocalPreference(200).build()));
+    assertThat(cache.getStats().missCount(), equalTo(2L));
+  }
+
+  @Test
+  public void testSessionReadingPolicy() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("policy")
+            .addStatement(
+                new If(
+                    new MatchBgpSessionType(MatchBgpSessionType.Type.EBGP),
+                    ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                    ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+            .build();
+    BgpPolicyCache cache = new BgpPolicyCache();
+    Bgpv4Route r = route("10.0.0.0/8");
+    BgpSessionProperties ibgpSession = _sessionBuilder.setSessionType(SessionType.IBGP).build();
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(
+          build(cache.process(policy, r, r.toBuilder(), _session, IN, ImmutableSet.of())),
+          equalTo(r));
+      assertThat(
+          cache.process(policy, r, r.toBuilder(), ibgpSession, IN, ImmutableSet.of()),
+          nullValue());
+    }
+    assertThat(cache.getStats().missCount(), equalTo(2L));
+    assertThat(cache.getStats().hitCount(), equalTo(2L));
+  }
+
+  @Test
+  public void testExportWithUnsetNextHop() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("policy")
+            .addStatement(new SetLocalPreference(new LiteralLong(200)))
+            .addStatement(Statements.ExitAccept.toStaticStatement())
+            .build();
+    BgpPolicyCache cache = new BgpPolicyCache();
+    Bgpv4Route r = route("10.0.0.0/8");
+
+    for (int i = 0; i < 2; i++) {
+      Bgpv4Route.Builder exported =
+          cache.process(policy, r, r.toBuilder().clearNextHop(), _session, OUT, ImmutableSet.of());
+      assertThat(exported.getNextHop(), nullValue());
+      assertThat(exported.getLocalPreference(), equalTo(200L));
+    }
+    assertThat(cache.getStats().hitCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testSessionAttributesNotVisibleToPolicies() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("policy")
+            .addStatement(Statements.ExitAccept.toStaticStatement())
+            .build();
+    BgpPolicyCache cache = new BgpPolicyCache();
+    Bgpv4Route r = route("10.0.0.0/8");
+    cache.process(policy, r, r.toBuilder(), _session, IN, ImmutableSet.of());
+
+    // Policies cannot read the confederation session type, so the evaluation is reused.
+    BgpSessionProperties confedSession =
+        _sessionBuilder.setConfedSessionType(ConfedSessionType.WITHIN_CONFED).build();
+    assertThat(
+        build(cache.process(policy, r, r.toBuilder(), confedSession, IN, ImmutableSet.of())),
+        equalTo(r));
+    assertThat(cache.getStats().hitCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testPoliciesComparedByIdentity() {
+    // Identical policies of two nodes are evaluated separately: named structures they reference
+    // could differ between the nodes.
+    Configuration c2 =
+        Configuration.builder()
+            .setHostname("c2")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    RoutingPolicy.Builder pb =
+        RoutingPolicy.builder()
+            .setName("policy")
+            .addStatement(Statements.ExitAccept.toStaticStatement());
+    RoutingPolicy policy1 = pb.setOwner(_c).build();
+    RoutingPolicy policy2 = pb.setOwner(c2).build();
+    BgpPolicyCache cache = new BgpPolicyCache();
+    Bgpv4Route r = route("10.0.0.0/8");
+
+    cache.process(policy1, r, r.toBuilder(), _session, IN, ImmutableSet.of());
+    cache.process(policy2, r, r.toBuilder(), _session, IN, ImmutableSet.of());
+    assertThat(cache.getStats().missCount(), equalTo(2L));
+    cache.process(policy1, r, r.toBuilder(), _session, IN, ImmutableSet.of());
+    assertThat(cache.getStats().hitCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testTracksNotMemoized() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setOwner(_c)
+            .setName("policy")
+            .addStatement(
+                new If(
+                    new TrackSucceeded("t"),
+                    ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                    ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+            .build();
+    BgpPolicyCache cache = new BgpPolicyCache();
+    Bgpv4Route r = route("10.0.0.0/8");
+
+    assertThat(
+        cache.process(policy, r, r.toBuilder(), _session, IN, ImmutableSet.of()), nullValue());
+    assertThat(
+        build(cache.process(policy, r, r.toBuilder(), _session, IN, ImmutableSet.of("t"))),
+        equalTo(r));
+    assertThat(cache.getStats().hitCount(), equalTo(0L));
+  }
+}
@@ -0,0 +1,217 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.Map;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.ConnectedRoute;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IsoAddress;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.isis.IsisLevelSettings;
+import org.batfish.datamodel.isis.IsisProcess;
+import org.batfish.datamodel.route.nh.NextHopInterface;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.batfish.dataplane.rib.RibDelta;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link DirtyRouterTracker}. */
+public final class DirtyRouterTrackerTest {
+
+  private Map<String, Node> _nodes;
+  private TopologyContext _topologyContext;
+
+  /**
+   * Nodes a, b and c form a chain a-b-c in the layer-3 topology, and node d is isolated. Node b
+   * redistributes all main RIB routes into BGP.
+   */
+  @Before
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    ImmutableMap.Builder<String, Node> nodes = ImmutableMap.builder();
+    for (String hostname : ImmutableList.of("a", "b", "c", "d")) {
+      Configuration c = cb.setHostname(hostname).build();
+      Vrf vrf = nf.vrfBuilder().setOwner(c).setName(DEFAULT_VRF_NAME).build();
+      if (hostname.equals("b")) {
+        RoutingPolicy redistributeAll =
+            RoutingPolicy.builder()
+                .setOwner(c)
+                .setName("redistribute")
+                .addStatement(Statements.ExitAccept.toStaticStatement())
+                .build();
+        BgpProcess bgpProcess = BgpProcess.testBgpProcess(Ip.parse("2.2.2.2"));
+        bgpProcess.setRedistributionPolicy(redistributeAll.getName());
+        c.setExportBgpFromBgpRib(true);
+        vrf.setBgpProcess(bgpProcess);
+      }
+      nodes.put(hostname, new Node(c));
+    }
+    _nodes = nodes.build();
+    _topologyContext =
+        TopologyContext.builder()
+            .setLayer3Topology(
+                new Topology(
+                    ImmutableSortedSet.of(
+                        Edge.of("a", "i", "b", "i"),
+                        Edge.of("b", "i", "a", "i"),
+                        Edge.of("b", "j", "c", "j"),
+                        Edge.of("c", "j", "b", "j"))))
+            .build();
+    initVirtualRouters(_nodes);
+  }
+
+  /** Initialize the message queues of all virtual routers, as before the EGP computation. */
+  private void initVirtualRouters(Map<String, Node> nodes) {
+    nodes.values().stream()
+        .flatMap(n -> n.getVirtualRouters().stream())
+        .forEach(vr -> vr.initQueuesAndDeltaBuilders(_topologyContext));
+  }
+
+  private VirtualRouter vr(String hostname) {
+    return _nodes.get(hostname).getVirtualRouterOrThrow(DEFAULT_VRF_NAME);
+  }
+
+  /** Make the given node dirty, as if its main RIB changed in the last round. */
+  private void makeDirty(String hostname) {
+    vr(hostname)._mainRibDeltaPrevRound =
+        RibDelta.adding(
+            new AnnotatedRoute<>(
+                ConnectedRoute.builder()
+                    .setNetwork(Prefix.parse("10.0.0.0/24"))
+                    .setNextHop(NextHopInterface.of("i"))
+                    .build(),
+                DEFAULT_VRF_NAME));
+  }
+
+  @Test
+  public void testInitiallyAllActive() {
+    DirtyRouterTracker tracker = new DirtyRouterTracker(_nodes, _topologyContext);
+    assertThat(tracker.getActiveNodes(), containsInAnyOrder("a", "b", "c", "d"));
+    assertThat(tracker.getActiveVirtualRouters().size(), equalTo(4));
+
+    // Nothing has work to do, so the computation is done.
+    tracker.endOfRound();
+    assertFalse(tracker.hasDirtyNodes());
+    assertThat(tracker.getActiveNodes(), empty());
+  }
+
+  @Test
+  public void testDirtyNodeActivatesNeighbors() {
+    DirtyRouterTracker tracker = new DirtyRouterTracker(_nodes, _topologyContext);
+    makeDirty("a");
+    tracker.endOfRound();
+
+    assertTrue(tracker.hasDirtyNodes());
+    assertTrue(tracker.isDirty(vr("a")));
+    assertFalse(tracker.isDirty(vr("b")));
+    assertThat(tracker.getActiveNodes(), containsInAnyOrder("a", "b"));
+  }
+
+  @Test
+  public void testEndOfStepActivatesNeighbors() {
+    DirtyRouterTracker tracker = new DirtyRouterTracker(_nodes, _topologyContext);
+    makeDirty("a");
+    tracker.endOfRound();
+    assertThat(tracker.getActiveNodes(), containsInAnyOrder("a", "b"));
+
+    // A step without new BGP advertisements activates nothing.
+    assertThat(tracker.endOfStep(ImmutableList.of("b")), empty());
+
+    // b produces a BGP advertisement in a step: c must pull it later in the round.
+    BgpRoutingProcess bgp = vr("b").getBgpRoutingProcess();
+    bgp.redistribute(
+        RibDelta.adding(
+            new AnnotatedRoute<>(
+                ConnectedRoute.builder()
+                    .setNetwork(Prefix.parse("10.0.1.0/24"))
+                    .setNextHop(NextHopInterface.of("j"))
+                    .build(),
+                DEFAULT_VRF_NAME)));
+    vr("b").endOfEgpInnerRound();
+    assertTrue(vr("b").hasBgpAdvertisements());
+
+    // a is already active, so only c is activated.
+    assertThat(tracker.endOfStep(ImmutableList.of("b")), containsInAnyOrder("c"));
+    assertTrue(tracker.isActive("c"));
+    assertFalse(tracker.isActive("d"));
+    assertThat(tracker.getActiveNodes(), containsInAnyOrder("a", "b", "c"));
+  }
+
+  @Test
+  public void testUntouchedNodeSummaryReused() {
+    DirtyRouterTracker tracker = new DirtyRouterTracker(_nodes, _topologyContext);
+    makeDirty("a");
+    tracker.endOfRound();
+    int hashCode = tracker.getIterationHashCode();
+    int dHashCode = tracker.getIterationHashCode(vr("d"));
+
+    // Only a, b and their neighbors are re-examined at the end of the next round. A change to d,
+    // which is neither active nor adjacent to an active node, is not seen.
+    makeDirty("c");
+    makeDirty("d");
+    tracker.endOfRound();
+
+    assertTrue(tracker.isDirty(vr("c")));
+    assertFalse(tracker.isDirty(vr("d")));
+    assertThat(tracker.getIterationHashCode(vr("d")), equalTo(dHashCode));
+    assertThat(tracker.getActiveNodes(), containsInAnyOrder("a", "b", "c"));
+
+    // Totals are unchanged when no state changed.
+    vr("a")._mainRibDeltaPrevRound = RibDelta.empty();
+    vr("c")._mainRibDeltaPrevRound = RibDelta.empty();
+    tracker.endOfRound();
+    assertFalse(tracker.hasDirtyNodes());
+    assertThat(tracker.getIterationHashCode(), equalTo(hashCode));
+  }
+
+  @Test
+  public void testIsisNodesAlwaysActive() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration e =
+        nf.configurationBuilder()
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .setHostname("e")
+            .build();
+    Vrf vrf = nf.vrfBuilder().setOwner(e).setName(DEFAULT_VRF_NAME).build();
+    IsisProcess.builder()
+        .setNetAddress(new IsoAddress("49.0001.0100.0500.5005.00"))
+        .setLevel1(null)
+        .setLevel2(IsisLevelSettings.builder().build())
+        .setVrf(vrf)
+        .build();
+    Map<String, Node> nodes =
+        ImmutableMap.<String, Node>builder().putAll(_nodes).put("e", new Node(e)).build();
+    initVirtualRouters(ImmutableMap.of("e", nodes.get("e")));
+    DirtyRouterTracker tracker = new DirtyRouterTracker(nodes, _topologyContext);
+
+    // e is not adjacent to anything, but is processed whenever any node has work to do.
+    makeDirty("a");
+    tracker.endOfRound();
+    assertThat(tracker.getActiveNodes(), containsInAnyOrder("a", "b", "e"));
+
+    vr("a")._mainRibDeltaPrevRound = RibDelta.empty();
+    tracker.endOfRound();
+    assertFalse(tracker.hasDirtyNodes());
+    assertThat(tracker.getActiveNodes(), empty());
+  }
+}
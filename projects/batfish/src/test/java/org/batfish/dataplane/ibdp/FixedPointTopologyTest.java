@@ -6,6 +6,7 @@ import static org.batfish.common.topology.TopologyUtil.computeLayer3Topology;
 import static org.batfish.common.topology.TopologyUtil.computeRawLayer3Topology;
 import static org.batfish.datamodel.IpsecSession.IPSEC_UDP_PORT;
 import static org.batfish.datamodel.vxlan.VniLayer.LAYER_2;
+import static org.batfish.dataplane.ibdp.TestUtils.ribStoreSettings;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
@@ -67,13 +68,25 @@ import org.batfish.datamodel.tracking.PreDataPlaneTrackMethodEvaluator;
 import org.batfish.datamodel.vxlan.Layer2Vni;
 import org.batfish.datamodel.vxlan.VxlanNode;
 import org.batfish.datamodel.vxlan.VxlanTopology;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 /** Tests of correct computation of fixed-point topologies */
 @ParametersAreNonnullByDefault
+@RunWith(Parameterized.class)
 public final class FixedPointTopologyTest {
+  @Parameters(name = "{0}")
+  public static RibStoreKind[] data() {
+    return RibStoreKind.values();
+  }
+
+  @Parameter public RibStoreKind _ribStoreKind;
 
   private static final String E1_NAME = "E1";
   private static final String E12_NAME = "E12";
@@ -184,7 +197,7 @@ public final class FixedPointTopologyTest {
   @Test
   public void testFixedPointVxlanTopology() {
     Map<String, Configuration> configs = generateVxlanConfigs();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     TopologyContext callerTopologyContext = getCallerTopologyContext(configs);
 
     // Initially there should be no VXLAN tunnel
@@ -375,7 +388,7 @@ public final class FixedPointTopologyTest {
             .setIpsecTopology(getIpsecTopology(false))
             .setLayer3Topology(layer3Topology)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
 
     ComputeDataPlaneResult dp =
         engine.computeDataPlane(
@@ -406,7 +419,7 @@ public final class FixedPointTopologyTest {
             .setIpsecTopology(getIpsecTopology(false))
             .setLayer3Topology(layer3Topology)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
 
     ComputeDataPlaneResult dp =
         engine.computeDataPlane(
@@ -436,7 +449,7 @@ public final class FixedPointTopologyTest {
             .setIpsecTopology(getIpsecTopology(false))
             .setLayer3Topology(layer3Topology)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
 
     ComputeDataPlaneResult dp =
         engine.computeDataPlane(
@@ -481,7 +494,7 @@ public final class FixedPointTopologyTest {
             .setIpsecTopology(getIpsecTopology(true))
             .setLayer3Topology(layer3Topology)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
 
     ComputeDataPlaneResult dp =
         engine.computeDataPlane(
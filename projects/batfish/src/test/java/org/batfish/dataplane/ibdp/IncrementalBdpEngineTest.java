@@ -12,6 +12,7 @@ import static org.batfish.datamodel.tracking.TrackMethods.negated;
 import static org.batfish.datamodel.tracking.TrackMethods.reachability;
 import static org.batfish.datamodel.tracking.TrackMethods.route;
 import static org.batfish.dataplane.ibdp.IncrementalBdpEngine.evaluateTrackRoute;
+import static org.batfish.dataplane.ibdp.TestUtils.ribStoreSettings;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
@@ -58,18 +59,30 @@ import org.batfish.datamodel.tracking.PreDataPlaneTrackMethodEvaluator;
 import org.batfish.datamodel.tracking.TrackRoute;
 import org.batfish.dataplane.rib.Bgpv4Rib;
 import org.batfish.dataplane.rib.Rib;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 /** Test of {@link IncrementalBdpEngine}. */
 @ParametersAreNonnullByDefault
+@RunWith(Parameterized.class)
 public final class IncrementalBdpEngineTest {
+  @Parameters(name = "{0}")
+  public static RibStoreKind[] data() {
+    return RibStoreKind.values();
+  }
+
+  @Parameter public RibStoreKind _ribStoreKind;
 
   @Test
   public void testEvaluateTrackRoute() {
     Configuration c =
         Configuration.builder().setHostname("foo").setConfigurationFormat(CISCO_IOS).build();
     Vrf.builder().setOwner(c).setName(DEFAULT_VRF_NAME).build();
-    Node node = new Node(c);
+    Node node = new Node(c, _ribStoreKind);
     Rib rib = node.getVirtualRouter(DEFAULT_VRF_NAME).get().getMainRib();
     Prefix prefix = Prefix.parse("192.0.2.0/24");
     rib.mergeRoute(new AnnotatedRoute<>(new ConnectedRoute(prefix, "foo"), DEFAULT_VRF_NAME));
@@ -107,7 +120,7 @@ public final class IncrementalBdpEngineTest {
         .setNetworkNextHopIpTieBreaker(NextHopIpTieBreaker.HIGHEST_NEXT_HOP_IP)
         .setRedistributeNextHopIpTieBreaker(NextHopIpTieBreaker.HIGHEST_NEXT_HOP_IP)
         .build();
-    Node node = new Node(c);
+    Node node = new Node(c, _ribStoreKind);
     Bgpv4Rib rib = node.getVirtualRouter(DEFAULT_VRF_NAME).get().getBgpRoutingProcess()._bgpv4Rib;
     Prefix prefix = Prefix.parse("192.0.2.0/24");
     rib.mergeRoute(
@@ -220,7 +233,7 @@ public final class IncrementalBdpEngineTest {
         ImmutableMap.of(c1.getHostname(), c1, c2.getHostname(), c2);
     TopologyContext initialTopologyContext =
         TopologyContext.builder().setLayer3Topology(synthesizeL3Topology(configurations)).build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     ComputeDataPlaneResult dp =
         engine.computeDataPlane(
             configurations,
@@ -287,7 +300,7 @@ public final class IncrementalBdpEngineTest {
                 .build()));
     Map<String, Configuration> configurations = ImmutableMap.of(c.getHostname(), c);
     TopologyContext initialTopologyContext = TopologyContext.builder().build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     ComputeDataPlaneResult dp =
         engine.computeDataPlane(
             configurations,
@@ -402,7 +415,7 @@ public final class IncrementalBdpEngineTest {
         ImmutableMap.of(h.getHostname(), h, vrrp1.getHostname(), vrrp1, vrrp2.getHostname(), vrrp2);
     TopologyContext initialTopologyContext =
         TopologyContext.builder().setLayer3Topology(synthesizeL3Topology(configurations)).build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     ComputeDataPlaneResult dp =
         engine.computeDataPlane(
             configurations,
@@ -496,7 +509,7 @@ public final class IncrementalBdpEngineTest {
         ImmutableMap.of(r1.getHostname(), r1, r2.getHostname(), r2);
     TopologyContext initialTopologyContext =
         TopologyContext.builder().setLayer3Topology(synthesizeL3Topology(configurations)).build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     IncrementalDataPlane dp =
         (IncrementalDataPlane)
             engine.computeDataPlane(
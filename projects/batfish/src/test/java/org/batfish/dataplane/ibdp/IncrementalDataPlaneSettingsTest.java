@@ -0,0 +1,37 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings.PROP_RIB_STORE;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.junit.Assert.assertThat;
+
+import org.batfish.dataplane.rib.RibStoreKind;
+import org.junit.Test;
+
+/** Tests of {@link IncrementalDataPlaneSettings}. */
+public final class IncrementalDataPlaneSettingsTest {
+
+  private static RibStoreKind ribStoreKind(String value) {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(PROP_RIB_STORE, value);
+    return settings.getRibStoreKind();
+  }
+
+  @Test
+  public void testGetRibStoreKind() {
+    assertThat(new IncrementalDataPlaneSettings().getRibStoreKind(), equalTo(RibStoreKind.TRIE));
+    assertThat(ribStoreKind(""), equalTo(RibStoreKind.TRIE));
+    assertThat(ribStoreKind("compact"), equalTo(RibStoreKind.COMPACT));
+    assertThat(ribStoreKind(" Compact "), equalTo(RibStoreKind.COMPACT));
+    assertThat(ribStoreKind("TRIE"), equalTo(RibStoreKind.TRIE));
+    // Unknown values fall back to the default rather than failing the data plane computation
+    assertThat(ribStoreKind("bogus"), equalTo(RibStoreKind.TRIE));
+  }
+
+  @Test
+  public void testRibStoreKindEngineProperty() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(PROP_RIB_STORE, RibStoreKind.COMPACT.toString());
+    assertThat(settings.getEngineProperties(), hasEntry(PROP_RIB_STORE, "COMPACT"));
+  }
+}
@@ -12,6 +12,7 @@ import static org.batfish.datamodel.matchers.IsisRouteMatchers.isisRouteWith;
 import static org.batfish.dataplane.ibdp.TestUtils.assertIsisRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertNoRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertRoute;
+import static org.batfish.dataplane.ibdp.TestUtils.ribStoreSettings;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasItem;
@@ -49,10 +50,22 @@ import org.batfish.datamodel.isis.IsisLevelSettings;
 import org.batfish.datamodel.isis.IsisProcess;
 import org.batfish.datamodel.isis.IsisTopology;
 import org.batfish.datamodel.tracking.PreDataPlaneTrackMethodEvaluator;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
+@RunWith(Parameterized.class)
 public class IsisTest {
+  @Parameters(name = "{0}")
+  public static RibStoreKind[] data() {
+    return RibStoreKind.values();
+  }
+
+  @Parameter public RibStoreKind _ribStoreKind;
 
   private static final String R1 = "r1";
   private static final String R2 = "r2";
@@ -171,7 +184,7 @@ public class IsisTest {
 
     SortedMap<String, Configuration> configurations =
         ImmutableSortedMap.of(r1.getHostname(), r1, r2.getHostname(), r2);
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     TopologyContext topologyContext =
         TopologyContext.builder()
@@ -458,7 +471,7 @@ public class IsisTest {
             r4,
             r5.getHostname(),
             r5);
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     TopologyContext topologyContext =
         TopologyContext.builder()
@@ -650,7 +663,7 @@ public class IsisTest {
     SortedMap<String, Configuration> configurations =
         ImmutableSortedMap.of(
             r1.getHostname(), r1, r2.getHostname(), r2, r3.getHostname(), r3, r4.getHostname(), r4);
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     TopologyContext topologyContext =
         TopologyContext.builder()
@@ -11,6 +11,8 @@ import static org.batfish.datamodel.ospf.OspfAreaSummary.SummaryRouteBehavior.NO
 import static org.batfish.datamodel.ospf.OspfTopologyUtils.computeOspfTopology;
 import static org.batfish.dataplane.ibdp.TestUtils.assertNoRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertRoute;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
@@ -1285,6 +1287,142 @@ public class OspfTest {
     assertNoRoute(routesWithSummaries, "r3", Prefix.parse("10.10.10.10/32"));
   }
 
+  /*
+   * A ring of six routers in area 0, where r_i connects to r_(i+1) over 10.0.i.0/24 and has
+   * loopback 1.1.1.i/32, so that routers across the ring are reachable over equal-cost paths in
+   * both directions. r3 is an ABR, connected to r6 in area 1 over 10.0.6.0/24. With a distribute
+   * list, r1 raises the metric of 1.1.1.0/32 to 100 when it receives it from r0.
+   */
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfRingRoutes(
+      boolean spf) {
+    return getOspfRingRoutes(spf, false);
+  }
+
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfRingRoutes(
+      boolean spf, boolean distributeList) {
+    int size = 6;
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    Vrf.Builder vb = nf.vrfBuilder().setName(Configuration.DEFAULT_VRF_NAME);
+    Interface.Builder ib = nf.interfaceBuilder();
+    ImmutableSortedMap.Builder<String, Configuration> configurations =
+        ImmutableSortedMap.naturalOrder();
+    for (int i = 0; i <= size; i++) {
+      Configuration c = cb.setHostname("r" + i).build();
+      Vrf v = vb.setOwner(c).build();
+      OspfProcess op =
+          nf.ospfProcessBuilder()
+              .setVrf(v)
+              .setRouterId(Ip.parse("1.1.1." + i))
+              .setProcessId("1")
+              .build();
+      ib.setOwner(c).setVrf(v).setOspfSettings(baseOspfSettings().setAreaName(0L).build());
+      if (i < size) {
+        OspfArea area0 = nf.ospfAreaBuilder().setNumber(0L).setOspfProcess(op).build();
+        if (distributeList && i == 1) {
+          If raiseMetric = new If();
+          raiseMetric.setGuard(
+              new MatchPrefixSet(
+                  DestinationNetwork.instance(),
+                  new ExplicitPrefixSet(
+                      new PrefixSpace(PrefixRange.fromPrefix(Prefix.parse("1.1.1.0/32"))))));
+          raiseMetric.setTrueStatements(ImmutableList.of(new SetMetric(new LiteralLong(100L))));
+          nf.routingPolicyBuilder()
+              .setOwner(c)
+              .setName("distribute-list")
+              .setStatements(
+                  ImmutableList.of(raiseMetric, Statements.ExitAccept.toStaticStatement()))
+              .build();
+          ib.setOspfSettings(
+              baseOspfSettings()
+                  .setAreaName(0L)
+                  .setInboundDistributeListPolicy("distribute-list")
+                  .build());
+        }
+        area0.addInterface(
+            ib.setName("prev")
+                .setAddress(
+                    ConcreteInterfaceAddress.parse(
+                        String.format("10.0.%d.2/24", (i + size - 1) % size)))
+                .build()
+                .getName());
+        ib.setOspfSettings(baseOspfSettings().setAreaName(0L).build());
+        area0.addInterface(
+            ib.setName("next")
+                .setAddress(ConcreteInterfaceAddress.parse(String.format("10.0.%d.1/24", i)))
+                .build()
+                .getName());
+      }
+      if (i == 3 || i == size) {
+        OspfArea area1 = nf.ospfAreaBuilder().setNumber(1L).setOspfProcess(op).build();
+        ib.setOspfSettings(baseOspfSettings().setAreaName(1L).build());
+        area1.addInterface(
+            ib.setName("area1")
+                .setAddress(
+                    ConcreteInterfaceAddress.parse(
+                        String.format("10.0.%d.%d/24", size, i == size ? 2 : 1)))
+                .build()
+                .getName());
+      }
+      op.getAreas()
+          .get(i == size ? 1L : 0L)
+          .addInterface(
+              ib.setName("lo")
+                  .setAddress(ConcreteInterfaceAddress.parse(String.format("1.1.1.%d/32", i)))
+                  .build()
+                  .getName());
+      configurations.put(c.getHostname(), c);
+    }
+    SortedMap<String, Configuration> configs = configurations.build();
+
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_OSPF_SPF, spf);
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(settings);
+    OspfTopologyUtils.initNeighborConfigs(NetworkConfigurations.of(configs));
+    Topology topology = TopologyUtil.synthesizeL3Topology(configs);
+    TopologyContext topologyContext =
+        TopologyContext.builder()
+            .setLayer3Topology(topology)
+            .setOspfTopology(computeOspfTopology(NetworkConfigurations.of(configs), topology))
+            .build();
+    IncrementalDataPlane dp =
+        (IncrementalDataPlane)
+            engine.computeDataPlane(
+                    configs,
+                    topologyContext,
+                    Collections.emptySet(),
+                    new TestIpOwners(configs, topologyContext.getL3Adjacencies()))
+                ._dataPlane;
+    return IncrementalBdpEngine.getRoutes(dp);
+  }
+
+  @Test
+  public void testOspfSpfMatchesRouteExchange() {
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> routes = getOspfRingRoutes(false);
+
+    // Equal-cost paths across the ring
+    assertRoute(routes, OSPF, "r0", Prefix.parse("1.1.1.3/32"), 4, Ip.parse("10.0.0.2"));
+    assertRoute(routes, OSPF, "r0", Prefix.parse("1.1.1.3/32"), 4, Ip.parse("10.0.5.1"));
+    // Intra-area routes of the ABR become inter-area routes in area 1, and vice versa
+    assertRoute(routes, OSPF_IA, "r6", Prefix.parse("1.1.1.0/32"), 5, Ip.parse("10.0.6.1"));
+    assertRoute(routes, OSPF_IA, "r0", Prefix.parse("1.1.1.6/32"), 5, Ip.parse("10.0.0.2"));
+
+    assertThat(getOspfRingRoutes(true), equalTo(routes));
+  }
+
+  @Test
+  public void testOspfSpfMatchesRouteExchangeWithDistributeList() {
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> routes =
+        getOspfRingRoutes(false, true);
+
+    // r1 prefers the long way around the ring, and so does r2
+    assertRoute(routes, OSPF, "r1", Prefix.parse("1.1.1.0/32"), 6, Ip.parse("10.0.1.2"));
+    assertRoute(routes, OSPF, "r2", Prefix.parse("1.1.1.0/32"), 5, Ip.parse("10.0.2.2"));
+
+    assertThat(getOspfRingRoutes(true, true), equalTo(routes));
+  }
+
   @Rule public TemporaryFolder _folder = new TemporaryFolder();
 
   @Test
@@ -4,6 +4,7 @@ import static org.batfish.datamodel.bgp.LocalOriginationTypeTieBreaker.NO_PREFER
 import static org.batfish.datamodel.bgp.NextHopIpTieBreaker.HIGHEST_NEXT_HOP_IP;
 import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasPrefix;
 import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasProtocol;
+import static org.batfish.dataplane.ibdp.TestUtils.ribStoreSettings;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
@@ -46,10 +47,22 @@ import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
 import org.batfish.datamodel.routing_policy.statement.If;
 import org.batfish.datamodel.routing_policy.statement.Statements;
 import org.batfish.datamodel.tracking.PreDataPlaneTrackMethodEvaluator;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
+@RunWith(Parameterized.class)
 public class RouteReflectionTest {
+  @Parameters(name = "{0}")
+  public static RibStoreKind[] data() {
+    return RibStoreKind.values();
+  }
+
+  @Parameter public RibStoreKind _ribStoreKind;
 
   private static final Prefix AS1_PREFIX = Prefix.parse("1.0.0.0/8");
   private static final Prefix AS3_PREFIX = Prefix.parse("3.0.0.0/8");
@@ -211,7 +224,7 @@ public class RouteReflectionTest {
             .put(rr.getHostname(), rr)
             .put(edge2.getHostname(), edge2)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     TopologyContext topologyContext = TopologyContext.builder().setLayer3Topology(topology).build();
     ComputeDataPlaneResult dpResult =
@@ -343,7 +356,7 @@ public class RouteReflectionTest {
             .put(rr1.getHostname(), rr1)
             .put(rr2.getHostname(), rr2)
             .build();
-    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(ribStoreSettings(_ribStoreKind));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     TopologyContext topologyContext = TopologyContext.builder().setLayer3Topology(topology).build();
     IncrementalDataPlane dp =
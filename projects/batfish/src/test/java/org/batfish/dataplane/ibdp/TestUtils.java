@@ -27,6 +27,7 @@ import org.batfish.datamodel.NetworkFactory;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.matchers.IsisRouteMatchers;
+import org.batfish.dataplane.rib.RibStoreKind;
 import org.hamcrest.Matchers;
 
 public class TestUtils {
@@ -141,6 +142,15 @@ public class TestUtils {
     return new Node(c);
   }
 
+  /** Data plane settings whose RIBs are backed by stores of the given kind */
+  public static IncrementalDataPlaneSettings ribStoreSettings(RibStoreKind ribStoreKind) {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings
+        .getConfig()
+        .setProperty(IncrementalDataPlaneSettings.PROP_RIB_STORE, ribStoreKind.toString());
+    return settings;
+  }
+
   /** Annotates route with {@link Configuration#DEFAULT_VRF_NAME} */
   public static <T extends AbstractRoute> AnnotatedRoute<T> annotateRoute(T r) {
     return new AnnotatedRoute<>(r, Configuration.DEFAULT_VRF_NAME);
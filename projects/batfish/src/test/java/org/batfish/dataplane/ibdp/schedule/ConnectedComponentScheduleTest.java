@@ -0,0 +1,166 @@
+package org.batfish.dataplane.ibdp.schedule;
+
+import static org.batfish.datamodel.bgp.BgpTopologyUtils.initBgpTopology;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import org.batfish.common.topology.GlobalBroadcastNoPointToPoint;
+import org.batfish.common.topology.IpOwnersBaseImpl;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.bgp.BgpTopology;
+import org.batfish.datamodel.bgp.Ipv4UnicastAddressFamily;
+import org.batfish.datamodel.tracking.PreDataPlaneTrackMethodEvaluator;
+import org.batfish.datamodel.vxlan.VniLayer;
+import org.batfish.datamodel.vxlan.VxlanNode;
+import org.batfish.datamodel.vxlan.VxlanTopology;
+import org.batfish.dataplane.ibdp.Node;
+import org.batfish.dataplane.ibdp.TopologyContext;
+import org.junit.Test;
+
+/** Tests for {@link ConnectedComponentSchedule} */
+public class ConnectedComponentScheduleTest {
+
+  /**
+   * Four routers in AS 1: r1 is a route reflector with client r2, r2 has a regular iBGP session
+   * with r3, and r4 has no sessions.
+   */
+  private static SortedMap<String, Configuration> makeConfigurations() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    for (int i = 1; i <= 4; i++) {
+      Configuration c = cb.setHostname("r" + i).build();
+      Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+      nf.interfaceBuilder()
+          .setOwner(c)
+          .setVrf(vrf)
+          .setAddress(ConcreteInterfaceAddress.create(ip(i), 24))
+          .build();
+      vrf.setBgpProcess(BgpProcess.testBgpProcess(ip(i)));
+      configs.put(c.getHostname(), c);
+    }
+    SortedMap<String, Configuration> configurations = configs.build();
+    addNeighbor(configurations, 1, 2, true);
+    addNeighbor(configurations, 2, 1, false);
+    addNeighbor(configurations, 2, 3, false);
+    addNeighbor(configurations, 3, 2, false);
+    return configurations;
+  }
+
+  private static Ip ip(int router) {
+    return Ip.parse("10.0.0." + router);
+  }
+
+  private static void addNeighbor(
+      Map<String, Configuration> configurations, int local, int remote, boolean rrClient) {
+    Configuration c = configurations.get("r" + local);
+    BgpActivePeerConfig.builder()
+        .setPeerAddress(ip(remote))
+        .setLocalIp(ip(local))
+        .setLocalAs(1L)
+        .setRemoteAs(1L)
+        .setIpv4UnicastAddressFamily(
+            Ipv4UnicastAddressFamily.builder().setRouteReflectorClient(rrClient).build())
+        .setBgpProcess(c.getDefaultVrf().getBgpProcess())
+        .build();
+  }
+
+  private static TopologyContext makeTopologyContext(
+      SortedMap<String, Configuration> configurations) {
+    BgpTopology bgpTopology =
+        initBgpTopology(
+            configurations, new TestIpOwners(configurations).getIpVrfOwners(), false, null);
+    return TopologyContext.builder().setBgpTopology(bgpTopology).build();
+  }
+
+  private static Map<String, Node> makeNodes(Map<String, Configuration> configurations) {
+    return configurations.entrySet().stream()
+        .collect(ImmutableMap.toImmutableMap(Entry::getKey, e -> new Node(e.getValue())));
+  }
+
+  @Test
+  public void testComputeComponents() {
+    SortedMap<String, Configuration> configurations = makeConfigurations();
+    Map<String, Node> nodes = makeNodes(configurations);
+    TopologyContext topologyContext = makeTopologyContext(configurations);
+
+    // Sessions are symmetric, including the route reflector's, so all connected routers form one
+    // component.
+    assertThat(
+        ConnectedComponentSchedule.computeComponents(nodes, topologyContext),
+        containsInAnyOrder(ImmutableSortedSet.of("r1", "r2", "r3"), ImmutableSortedSet.of("r4")));
+
+    // With no serialized components, all nodes are processed together.
+    ConnectedComponentSchedule schedule = new ConnectedComponentSchedule(nodes, topologyContext);
+    assertThat(ImmutableList.copyOf(schedule.getAllRemaining()), contains(nodes));
+  }
+
+  @Test
+  public void testComputeComponentsVxlan() {
+    SortedMap<String, Configuration> configurations = makeConfigurations();
+    Map<String, Node> nodes = makeNodes(configurations);
+    MutableGraph<VxlanNode> vxlanGraph = GraphBuilder.undirected().build();
+    vxlanGraph.putEdge(
+        new VxlanNode("r3", 1, VniLayer.LAYER_2), new VxlanNode("r4", 1, VniLayer.LAYER_2));
+    TopologyContext topologyContext =
+        makeTopologyContext(configurations).toBuilder()
+            .setVxlanTopology(new VxlanTopology(vxlanGraph))
+            .build();
+
+    // The VXLAN tunnel joins r4 to the other routers.
+    assertThat(
+        ConnectedComponentSchedule.computeComponents(nodes, topologyContext),
+        contains(ImmutableSortedSet.of("r1", "r2", "r3", "r4")));
+  }
+
+  @Test
+  public void testSerializedComponent() {
+    SortedMap<String, Configuration> configurations = makeConfigurations();
+    Map<String, Node> nodes = makeNodes(configurations);
+    List<SortedSet<String>> components =
+        ConnectedComponentSchedule.computeComponents(nodes, makeTopologyContext(configurations));
+    SortedSet<String> connected = ImmutableSortedSet.of("r1", "r2", "r3");
+
+    ConnectedComponentSchedule schedule =
+        new ConnectedComponentSchedule(nodes, components, ImmutableSet.of(connected));
+
+    // Nodes of the serialized component run one at a time, alongside the other component
+    assertThat(
+        ImmutableList.copyOf(schedule.getAllRemaining()),
+        contains(
+            ImmutableMap.of("r1", nodes.get("r1"), "r4", nodes.get("r4")),
+            ImmutableMap.of("r2", nodes.get("r2")),
+            ImmutableMap.of("r3", nodes.get("r3"))));
+  }
+
+  private static class TestIpOwners extends IpOwnersBaseImpl {
+    protected TestIpOwners(Map<String, Configuration> configurations) {
+      super(
+          configurations,
+          GlobalBroadcastNoPointToPoint.instance(),
+          PreDataPlaneTrackMethodEvaluator::new,
+          false);
+    }
+  }
+}
@@ -38,9 +38,21 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 /** Tests of {@link AbstractRib} */
+@RunWith(Parameterized.class)
 public class AbstractRibTest {
+  @Parameters(name = "{0}")
+  public static RibStoreKind[] data() {
+    return RibStoreKind.values();
+  }
+
+  @Parameter public RibStoreKind _storeKind;
+
   /*
    * Test the AbstractRib tree logic. To avoid worrying about route preference comparisons, testing
    * with StaticRoutes and StaticRib. All static routes will be stored in the RIB, without eviction
@@ -53,7 +65,7 @@ public class AbstractRibTest {
 
   @Before
   public void setupEmptyRib() {
-    _rib = new StaticRib();
+    _rib = new StaticRib(_storeKind);
   }
 
   @Test
@@ -204,7 +216,7 @@ public class AbstractRibTest {
   @Test
   public void testHasSameRoutes() {
     // And create a new different RIB
-    AbstractRib<StaticRoute> rib2 = new StaticRib();
+    AbstractRib<StaticRoute> rib2 = new StaticRib(_storeKind);
     assertThat(rib2, equalTo(_rib));
 
     List<StaticRoute> routes = setupOverlappingRoutes();
@@ -227,7 +239,7 @@ public class AbstractRibTest {
   @Test
   public void testGetRoutesWithReplacement() {
     // Use OSPF RIBs for this, as routes with better metric can replace other routes
-    OspfIntraAreaRib rib = new OspfIntraAreaRib();
+    OspfIntraAreaRib rib = new OspfIntraAreaRib(_storeKind);
     Prefix prefix = Prefix.parse("1.1.1.1/32");
     OspfIntraAreaRoute ospfRoute =
         OspfIntraAreaRoute.builder()
@@ -302,7 +314,7 @@ public class AbstractRibTest {
   /** Test that correct delta is returned when adding a new route. */
   @Test
   public void testAddRouteGetDelta() {
-    AbstractRib<RipInternalRoute> rib = new RipInternalRib();
+    AbstractRib<RipInternalRoute> rib = new RipInternalRib(_storeKind);
     int admin = RoutingProtocol.RIP.getDefaultAdministrativeCost(ConfigurationFormat.CISCO_IOS);
     Prefix prefix = Prefix.create(Ip.parse("10.0.0.0"), 8);
     // High metric
@@ -0,0 +1,208 @@
+package org.batfish.dataplane.rib;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.route.nh.NextHopDiscard;
+import org.junit.Test;
+
+/** Tests of {@link CompactRibStore}. */
+public final class CompactRibStoreTest {
+
+  @Test
+  public void testPutGetRemove() {
+    CompactRibStore<String> store = new CompactRibStore<>();
+    Prefix p = Prefix.parse("10.0.0.0/8");
+    assertThat(store.put(p, "a"), equalTo(true));
+    assertThat(store.put(p, "a"), equalTo(false));
+    assertThat(store.put(p, "b"), equalTo(true));
+    assertThat(store.putAll(p, ImmutableList.of("b", "c")), equalTo(true));
+    assertThat(store.get(p), containsInAnyOrder("a", "b", "c"));
+    assertThat(store.get(Prefix.parse("10.0.0.0/9")), empty());
+
+    assertThat(store.remove(p, "b"), equalTo(true));
+    assertThat(store.remove(p, "b"), equalTo(false));
+    assertThat(store.get(p), containsInAnyOrder("a", "c"));
+
+    assertThat(store.replaceAll(p, "d"), equalTo(true));
+    assertThat(store.replaceAll(p, "d"), equalTo(false));
+    assertThat(store.get(p), contains("d"));
+  }
+
+  @Test
+  public void testGetIsSnapshot() {
+    CompactRibStore<String> store = new CompactRibStore<>();
+    Prefix p = Prefix.parse("10.0.0.0/8");
+    store.putAll(p, ImmutableList.of("a", "b"));
+    Set<String> routes = store.get(p);
+    store.put(p, "c");
+    store.remove(p, "a");
+    assertThat(routes, containsInAnyOrder("a", "b"));
+  }
+
+  @Test
+  public void testGetAllIsSnapshot() {
+    CompactRibStore<String> store = new CompactRibStore<>();
+    store.put(Prefix.parse("10.0.0.0/8"), "8");
+    store.putAll(Prefix.parse("10.1.0.0/16"), ImmutableList.of("16a", "16b"));
+    Set<String> all = store.getAll();
+
+    // Changes to existing nodes, new nodes, and clearing do not affect the snapshot
+    store.remove(Prefix.parse("10.1.0.0/16"), "16a");
+    store.put(Prefix.parse("10.0.0.0/8"), "8b");
+    store.put(Prefix.parse("10.0.0.0/9"), "9");
+    store.put(Prefix.parse("0.0.0.0/0"), "0");
+    assertThat(all, contains("16a", "16b", "8"));
+    assertThat(all.size(), equalTo(3));
+    assertThat(store.getAll(), contains("16b", "9", "8", "8b", "0"));
+    assertThat(store.getAll().size(), equalTo(5));
+
+    store.clear();
+    assertThat(all, contains("16a", "16b", "8"));
+    assertThat(store.getAll(), empty());
+  }
+
+  @Test
+  public void testGetAllContains() {
+    CompactRibStore<StaticRoute> store = new CompactRibStore<>();
+    StaticRoute.Builder sb = StaticRoute.testBuilder().setNextHop(NextHopDiscard.instance());
+    StaticRoute r8 = sb.setNetwork(Prefix.parse("10.0.0.0/8")).build();
+    StaticRoute r16 = sb.setNetwork(Prefix.parse("10.1.0.0/16")).build();
+    StaticRoute r16b = sb.setAdministrativeCost(2).build();
+    store.put(r8.getNetwork(), r8);
+    store.put(r16.getNetwork(), r16);
+    Set<StaticRoute> all = store.getAll();
+    store.put(r16b.getNetwork(), r16b);
+
+    assertTrue(all.contains(r8));
+    assertTrue(all.contains(r16));
+    assertFalse(all.contains(r16b));
+    assertFalse(all.contains("not a route"));
+    assertThat(all, equalTo(ImmutableSet.of(r8, r16)));
+    assertThat(store.getAll(), equalTo(ImmutableSet.of(r8, r16, r16b)));
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    CompactRibStore<String> store = new CompactRibStore<>();
+    store.put(Prefix.ZERO, "default");
+    store.put(Prefix.parse("10.0.0.0/8"), "8");
+    store.put(Prefix.parse("10.1.0.0/16"), "16");
+    store.put(Prefix.parse("10.1.1.1/32"), "32");
+    Ip ip = Ip.parse("10.1.1.1");
+    assertThat(store.longestPrefixMatch(ip, 32), contains("32"));
+    assertThat(store.longestPrefixMatch(ip, 31), contains("16"));
+    assertThat(store.longestPrefixMatch(ip, 15), contains("8"));
+    assertThat(store.longestPrefixMatch(Ip.parse("11.0.0.0"), 32), contains("default"));
+
+    // Prefixes without routes are skipped
+    store.remove(Prefix.parse("10.1.0.0/16"), "16");
+    assertThat(store.longestPrefixMatch(ip, 31), contains("8"));
+  }
+
+  @Test
+  public void testClear() {
+    CompactRibStore<String> store = new CompactRibStore<>();
+    store.put(Prefix.parse("10.0.0.0/8"), "a");
+    store.clear();
+    assertThat(store.getAll(), empty());
+    assertThat(store, equalTo(new CompactRibStore<String>()));
+  }
+
+  @Test
+  public void testEquals() {
+    CompactRibStore<String> store1 = new CompactRibStore<>();
+    CompactRibStore<String> store2 = new CompactRibStore<>();
+    store1.put(Prefix.parse("10.0.0.0/8"), "a");
+    store1.put(Prefix.parse("10.1.0.0/16"), "b");
+    // Different insertion order, and an empty node left behind by a removal
+    store2.put(Prefix.parse("10.1.0.0/16"), "b");
+    store2.put(Prefix.parse("10.2.0.0/16"), "c");
+    store2.put(Prefix.parse("10.0.0.0/8"), "a");
+    store2.remove(Prefix.parse("10.2.0.0/16"), "c");
+    assertThat(store1, equalTo(store2));
+    assertThat(store1.hashCode(), equalTo(store2.hashCode()));
+  }
+
+  private static Prefix randomPrefix(Random random) {
+    // Draw from a small space, so that prefixes frequently overlap
+    int length = random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1);
+    long ip = (long) random.nextInt(16) << 28 | random.nextInt(1 << 4) << 20 | random.nextInt(4);
+    return Prefix.create(Ip.create(ip), length);
+  }
+
+  /** Compare against {@link TrieRibStore} under a random sequence of operations. */
+  @Test
+  public void testMatchesTrieRibStore() {
+    Random random = new Random(0);
+    List<String> routes = ImmutableList.of("a", "b", "c", "d");
+    CompactRibStore<String> compact = new CompactRibStore<>();
+    TrieRibStore<String> trie = new TrieRibStore<>();
+    Map<Set<String>, List<String>> snapshots = new IdentityHashMap<>();
+    for (int i = 0; i < 5000; i++) {
+      Prefix prefix = randomPrefix(random);
+      // Routes are only stored for their own network
+      String route = prefix + routes.get(random.nextInt(routes.size()));
+      switch (random.nextInt(4)) {
+        case 0:
+          assertThat(compact.put(prefix, route), equalTo(trie.put(prefix, route)));
+          break;
+        case 1:
+          assertThat(compact.remove(prefix, route), equalTo(trie.remove(prefix, route)));
+          break;
+        case 2:
+          assertThat(compact.replaceAll(prefix, route), equalTo(trie.replaceAll(prefix, route)));
+          break;
+        default:
+          Set<String> all =
+              ImmutableSet.of(route, prefix + routes.get(random.nextInt(routes.size())));
+          assertThat(compact.putAll(prefix, all), equalTo(trie.putAll(prefix, all)));
+          break;
+      }
+      assertThat(compact.get(prefix), equalTo(trie.get(prefix)));
+      if (i % 100 == 0) {
+        // Same routes in the same order. Snapshots are checked again once the stores changed.
+        assertThat(
+            ImmutableList.copyOf(compact.getAll()),
+            equalTo(ImmutableList.copyOf(trie.getAll())));
+        snapshots.put(compact.getAll(), ImmutableList.copyOf(trie.getAll()));
+      }
+
+      Prefix query = randomPrefix(random);
+      int maxLength = random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1);
+      assertThat(
+          compact.longestPrefixMatch(query.getStartIp(), maxLength),
+          equalTo(trie.longestPrefixMatch(query.getStartIp(), maxLength)));
+      int queryLength = query.getPrefixLength();
+      PrefixSpace space =
+          new PrefixSpace(
+              new PrefixRange(
+                  query,
+                  new SubRange(
+                      queryLength, queryLength + random.nextInt(33 - queryLength))));
+      assertThat(
+          compact.intersectsPrefixSpace(space), equalTo(trie.intersectsPrefixSpace(space)));
+    }
+    assertThat(compact.getAll(), equalTo(trie.getAll()));
+    snapshots.forEach(
+        (snapshot, expected) -> assertThat(ImmutableList.copyOf(snapshot), equalTo(expected)));
+  }
+}
@@ -23,17 +23,29 @@ import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.route.nh.NextHopIp;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 /** Tests of {@link Rib} */
+@RunWith(Parameterized.class)
 public class RibTest {
+  @Parameters(name = "{0}")
+  public static RibStoreKind[] data() {
+    return RibStoreKind.values();
+  }
+
+  @Parameter public RibStoreKind _storeKind;
+
   @Test
   public void testCreatedEmpty() {
-    assertThat(new Rib().getRoutes(), empty());
+    assertThat(new Rib(null, _storeKind).getRoutes(), empty());
   }
 
   @Test
   public void testNonRoutingIsNotInstalled() {
-    Rib rib = new Rib();
+    Rib rib = new Rib(null, _storeKind);
     AnnotatedRoute<AbstractRoute> route =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -49,7 +61,7 @@ public class RibTest {
 
   @Test
   public void testComparePreferenceAdmin() {
-    Rib rib = new Rib();
+    Rib rib = new Rib(null, _storeKind);
     // Identical routes, different admin distance.
     StaticRoute.Builder sb =
         StaticRoute.testBuilder().setNextHopInterface("foo").setNetwork(Prefix.ZERO);
@@ -62,7 +74,7 @@ public class RibTest {
 
   @Test
   public void testComparePreferenceAdminEqual() {
-    Rib rib = new Rib();
+    Rib rib = new Rib(null, _storeKind);
     // Identical routes should be equally preferred
     StaticRoute.Builder sb =
         StaticRoute.testBuilder()
@@ -79,7 +91,7 @@ public class RibTest {
   public void testBackup() {
     Prefix prefix = Prefix.strict("1.0.0.0/31");
     Ip ip = Ip.parse("1.0.0.0");
-    Rib rib = new Rib();
+    Rib rib = new Rib(null, _storeKind);
     AnnotatedRoute<AbstractRoute> r1 =
         annotateRoute(
             OspfIntraAreaRoute.builder()
@@ -110,7 +122,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityMergeResolvableRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> activatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("10.0.0.0/31"), "foo"));
     AnnotatedRoute<AbstractRoute> nhipRoute =
@@ -129,7 +141,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityActivateResolvableRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> activatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("10.0.0.0/31"), "foo"));
     AnnotatedRoute<AbstractRoute> nhipRoute =
@@ -150,7 +162,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityActivateRoutesCascade() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> nhipRoute1 =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -182,7 +194,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityDeactivateRoutesCascade() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> nhipRoute1 =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -220,7 +232,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilitySimpleLoop() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> activatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("1.0.0.0/8"), "foo"));
     AnnotatedRoute<AbstractRoute> nhipRoute =
@@ -251,7 +263,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityLargeLoop() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> activatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("1.0.0.0/24"), "foo"));
     AnnotatedRoute<AbstractRoute> nhipRoute1 =
@@ -301,7 +313,7 @@ public class RibTest {
 
   @Test
   public void testNoEnforceResolvabilityMergeOwnNextHopRoute() {
-    Rib rib = new Rib(null);
+    Rib rib = new Rib(null, _storeKind);
     AnnotatedRoute<AbstractRoute> ownNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -317,7 +329,7 @@ public class RibTest {
 
   @Test
   public void testNoEnforceResolvabilityPreserveOwnNextHopRoute() {
-    Rib rib = new Rib(null);
+    Rib rib = new Rib(null, _storeKind);
     AnnotatedRoute<AbstractRoute> ownNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -338,7 +350,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityMergeInvalidOwnNextHopRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> ownNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -352,7 +364,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityMergeValidOwnNextHopRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> ownNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -369,7 +381,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityActivateOwnNextHopRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> ownNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -391,7 +403,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityActivateOwnNextHopRouteCascade() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> moreSpecificOwnNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -422,7 +434,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityRemoveActiveOwnNextHopRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> ownNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -443,7 +455,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityRemoveInactiveOwnNextHopRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> ownNextHopRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -467,7 +479,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityRemoveRedundantActivatingRoutes() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> moreSpecificActivatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("10.0.0.1/32"), "i1"));
     AnnotatedRoute<AbstractRoute> lessSpecificActivatingRoute =
@@ -501,7 +513,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityRemoveActivatingRouteCascade() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> activatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("10.0.1.1/32"), "lo"));
     AnnotatedRoute<AbstractRoute> moreSpecificOwnNextHopRoute =
@@ -533,7 +545,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityStaticNonrecursiveRouteCannotLoop() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     // would loop if non-recursive route were allowed to use it for resolution
     AnnotatedRoute<AbstractRoute> notLoopingRoute =
         annotateRoute(
@@ -567,7 +579,7 @@ public class RibTest {
   public void testEnforceResolvabilityRestrictedUnresolvable() {
     // A route forbidden by resolution restriction can still be prevented from being installed
     // if it cannot resolve.
-    Rib rib = new Rib(route -> route.getNetwork().getPrefixLength() != 24);
+    Rib rib = new Rib(route -> route.getNetwork().getPrefixLength() != 24, _storeKind);
     AnnotatedRoute<AbstractRoute> restrictedRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -583,7 +595,7 @@ public class RibTest {
   public void testEnforceResolvabilityRestrictedRouteNoLoopOwnNextHop() {
     // A route forbidden by resolution restriction cannot form a loop, even if it contains its own
     // next hop.
-    Rib rib = new Rib(route -> route.getNetwork().getPrefixLength() != 24);
+    Rib rib = new Rib(route -> route.getNetwork().getPrefixLength() != 24, _storeKind);
     // would loop if non-recursive route were allowed to use it for resolution
     AnnotatedRoute<AbstractRoute> restrictedRoute =
         annotateRoute(
@@ -606,7 +618,7 @@ public class RibTest {
   public void testEnforceResolvabilityConnectedRouteWhitelist() {
     // A connected route may be used to resolve any next hop IP route regardless of resolution
     // restriction.
-    Rib rib = new Rib(route -> route.getNetwork().getPrefixLength() != 16);
+    Rib rib = new Rib(route -> route.getNetwork().getPrefixLength() != 16, _storeKind);
     AnnotatedRoute<AbstractRoute> recursiveRoute =
         annotateRoute(
             StaticRoute.testBuilder()
@@ -626,7 +638,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityReplaceSucceeds() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> activatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("10.0.0.1/32"), "i1"));
     AnnotatedRoute<AbstractRoute> worseRoute =
@@ -652,7 +664,7 @@ public class RibTest {
 
   @Test
   public void testEnforceResolvabilityNonrecursiveRoute() {
-    Rib rib = new Rib(ResolutionRestriction.alwaysTrue());
+    Rib rib = new Rib(ResolutionRestriction.alwaysTrue(), _storeKind);
     AnnotatedRoute<AbstractRoute> activatingRoute =
         annotateRoute(new ConnectedRoute(Prefix.strict("10.0.0.1/32"), "i1"));
     AnnotatedRoute<AbstractRoute> nonrecursiveRoute =
@@ -8,8 +8,20 @@ import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.route.nh.NextHopDiscard;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
+@RunWith(Parameterized.class)
 public final class RibTreeTest {
+  @Parameters(name = "{0}")
+  public static RibStoreKind[] data() {
+    return RibStoreKind.values();
+  }
+
+  @Parameter public RibStoreKind _storeKind;
+
   @Test
   public void testRemoveRouteGetDelta() {
     StaticRoute.Builder srb =
@@ -28,7 +40,7 @@ public final class RibTreeTest {
             return rhs.getAdministrativeCost() - lhs.getAdministrativeCost();
           }
         };
-    RibTree<StaticRoute> ribTree = new RibTree<>(owner);
+    RibTree<StaticRoute> ribTree = new RibTree<>(owner, _storeKind.create());
     RibDelta<StaticRoute> addR1 = ribTree.mergeRoute(r1);
     assertThat(addR1, equalTo(RibDelta.adding(r1)));
     RibDelta<StaticRoute> addR2 = ribTree.mergeRoute(r2);
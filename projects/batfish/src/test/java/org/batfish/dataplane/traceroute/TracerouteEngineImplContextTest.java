@@ -0,0 +1,72 @@
+package org.batfish.dataplane.traceroute;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockForwardingAnalysis;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.VrfForwardingBehavior;
+import org.junit.Test;
+
+/** Tests of {@link TracerouteEngineImplContext}. */
+public final class TracerouteEngineImplContextTest {
+  /** A {@link ForwardingAnalysis} that counts lookups of VRF forwarding behavior. */
+  private static final class CountingForwardingAnalysis implements ForwardingAnalysis {
+    private final @Nonnull ForwardingAnalysis _delegate;
+    private final AtomicInteger _vrfForwardingBehaviorLookups = new AtomicInteger();
+
+    private CountingForwardingAnalysis(ForwardingAnalysis delegate) {
+      _delegate = delegate;
+    }
+
+    @Override
+    public Map<String, Map<String, IpSpace>> getArpReplies() {
+      return _delegate.getArpReplies();
+    }
+
+    @Override
+    public @Nonnull Map<String, Map<String, VrfForwardingBehavior>> getVrfForwardingBehavior() {
+      _vrfForwardingBehaviorLookups.incrementAndGet();
+      return _delegate.getVrfForwardingBehavior();
+    }
+  }
+
+  @Test
+  public void testInterfaceAcceptingIpMemoized() {
+    Ip acceptedIp = Ip.parse("1.1.1.1");
+    Ip otherIp = Ip.parse("2.2.2.2");
+    CountingForwardingAnalysis fa =
+        new CountingForwardingAnalysis(
+            MockForwardingAnalysis.withAcceptedIps("n", "v", "i", acceptedIp.toIpSpace()));
+    TracerouteEngineImplContext ctxt =
+        new TracerouteEngineImplContext(
+            MockDataPlane.builder().setForwardingAnalysis(fa).build(),
+            Topology.EMPTY,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            ImmutableMap.of(),
+            false,
+            ImmutableMap.of());
+
+    // Results are unchanged by memoization.
+    assertThat(ctxt.interfaceAcceptingIp("n", "v", acceptedIp), equalTo(Optional.of("i")));
+    assertThat(ctxt.interfaceAcceptingIp("n", "v", otherIp), equalTo(Optional.empty()));
+    assertThat(fa._vrfForwardingBehaviorLookups.get(), equalTo(2));
+
+    // Repeated lookups are served from the memo.
+    assertThat(ctxt.interfaceAcceptingIp("n", "v", acceptedIp), equalTo(Optional.of("i")));
+    assertThat(ctxt.interfaceAcceptingIp("n", "v", otherIp), equalTo(Optional.empty()));
+    assertThat(ctxt.vrfAcceptsIp("n", "v", acceptedIp), equalTo(true));
+    assertThat(fa._vrfForwardingBehaviorLookups.get(), equalTo(2));
+  }
+}
@@ -16,11 +16,15 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.iterableWithSize;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -32,8 +36,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import javax.annotation.Nonnull;
+import org.batfish.common.BatfishLogger;
 import org.batfish.common.VendorConversionException;
 import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
 import org.batfish.datamodel.AclAclLine;
 import org.batfish.datamodel.AclLine;
 import org.batfish.datamodel.BgpProcess;
@@ -96,6 +102,53 @@ public final class ConvertConfigurationJobTest {
     return vc;
   }
 
+  private static Settings conversionSettings() {
+    Settings settings = new Settings();
+    settings.setLogger(new BatfishLogger(BatfishLogger.LEVELSTR_FATAL, false));
+    return settings;
+  }
+
+  private static VendorConfiguration hostVendorConfig(String hostname) {
+    VendorConfiguration vc = new CiscoConfiguration();
+    vc.setFilename("configs/" + hostname);
+    vc.setHostname(hostname);
+    vc.setVendor(ConfigurationFormat.CISCO_IOS);
+    return vc;
+  }
+
+  @Test
+  public void testConversionCache() {
+    Cache<String, byte[]> cache = CacheBuilder.newBuilder().recordStats().build();
+    ConvertConfigurationResult converted =
+        new ConvertConfigurationJob(
+                conversionSettings(), null, null, hostVendorConfig("c"), "c", cache, "context")
+            .call();
+    assertThat(converted.getConfigurations(), hasKeys("c"));
+    assertThat(cache.size(), equalTo(1L));
+
+    // an identical vendor configuration with the same context reuses the conversion
+    ConvertConfigurationResult reused =
+        new ConvertConfigurationJob(
+                conversionSettings(), null, null, hostVendorConfig("c"), "c", cache, "context")
+            .call();
+    assertThat(cache.stats().hitCount(), equalTo(1L));
+    assertThat(reused.getConfigurations(), hasKeys("c"));
+    // each use gets its own copy
+    assertThat(
+        reused.getConfigurations().get("c"),
+        not(sameInstance(converted.getConfigurations().get("c"))));
+
+    // a different vendor configuration or context does not
+    new ConvertConfigurationJob(
+            conversionSettings(), null, null, hostVendorConfig("d"), "d", cache, "context")
+        .call();
+    new ConvertConfigurationJob(
+            conversionSettings(), null, null, hostVendorConfig("c"), "c", cache, "other context")
+        .call();
+    assertThat(cache.stats().hitCount(), equalTo(1L));
+    assertThat(cache.size(), equalTo(3L));
+  }
+
   @Test
   public void testCollectIpSpaceReferences() {
     Configuration c = new Configuration("c", ConfigurationFormat.CISCO_IOS);
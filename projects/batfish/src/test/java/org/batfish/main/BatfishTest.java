@@ -23,24 +23,32 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -52,31 +60,44 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
 import org.apache.commons.io.IOUtils;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.bddreachability.TestNetworkSources;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warnings;
+import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.common.topology.Layer1Edge;
 import org.batfish.common.topology.Layer1Node;
 import org.batfish.common.topology.Layer1Topologies;
 import org.batfish.common.topology.Layer1Topology;
 import org.batfish.common.util.isp.IspModelingUtils.ModeledNodes;
+import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.AsSet;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.BgpAdvertisement.BgpAdvertisementType;
 import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Interface.Dependency;
 import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpProtocol;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.NetworkFactory;
 import org.batfish.datamodel.OriginMechanism;
@@ -86,19 +107,25 @@ import org.batfish.datamodel.ReceivedFromIp;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.acl.AclLineMatchExprs;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
 import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.datamodel.bgp.community.StandardCommunity;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
+import org.batfish.datamodel.flow.TraceWrapperAsAnswerElement;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.TestQuestion;
+import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.TestIdResolver;
 import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.question.ReachabilityParameters;
 import org.batfish.storage.TestStorageProvider;
 import org.batfish.vendor.VendorConfiguration;
 import org.junit.Rule;
@@ -181,6 +208,236 @@ public class BatfishTest {
         notNullValue());
   }
 
+  private static final String PARSE_REUSE_PREFIX =
+      "org/batfish/grammar/host/testrigs/router-iptables";
+
+  @Test
+  public void testParseReuseAcrossSnapshots() throws IOException {
+    Cache<String, byte[]> parseResults = CacheBuilder.newBuilder().recordStats().build();
+    TestrigText text =
+        TestrigText.builder().setConfigurationFiles(PARSE_REUSE_PREFIX, "host1.cfg").build();
+    // Each snapshot is in a new network with its own storage, so only the memory cache is shared.
+    Batfish batfish1 =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            text, _folder.newFolder().toPath(), parseResults);
+    Map<String, Configuration> configs1 = batfish1.loadConfigurations(batfish1.getSnapshot());
+    assertThat(parseResults.stats().hitCount(), equalTo(0L));
+    assertThat(parseResults.size(), equalTo(1L));
+
+    Batfish batfish2 =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            text, _folder.newFolder().toPath(), parseResults);
+    assertThat(batfish2.getSnapshot(), not(equalTo(batfish1.getSnapshot())));
+    Map<String, Configuration> configs2 = batfish2.loadConfigurations(batfish2.getSnapshot());
+
+    assertThat(parseResults.stats().hitCount(), equalTo(1L));
+    assertThat(configs2.keySet(), equalTo(configs1.keySet()));
+    assertThat(
+        configs2.get("host1").getAllInterfaces().keySet(),
+        equalTo(configs1.get("host1").getAllInterfaces().keySet()));
+  }
+
+  @Test
+  public void testParseReuseWithOverlays() throws IOException {
+    Cache<String, byte[]> parseResults = CacheBuilder.newBuilder().recordStats().build();
+    TestrigText configsOnly =
+        TestrigText.builder().setConfigurationFiles(PARSE_REUSE_PREFIX, "host1.cfg").build();
+    Batfish batfish1 =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            configsOnly, _folder.newFolder().toPath(), parseResults);
+    batfish1.loadConfigurations(batfish1.getSnapshot());
+
+    // The same config with an overlay for it, and an overlay for a host with no config.
+    byte[] orphan =
+        "{\"hostname\": \"orphan\", \"hostInterfaces\": {}, \"overlay\": true}".getBytes(UTF_8);
+    Batfish batfish2 =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            TestrigText.builder()
+                .setConfigurationFiles(PARSE_REUSE_PREFIX, "host1.cfg")
+                .setHostsBytes(
+                    ImmutableMap.of(
+                        "host1.json",
+                        readResourceBytes(PARSE_REUSE_PREFIX + "/hosts/host1.json"),
+                        "orphan.json",
+                        orphan))
+                .setIptablesFiles(PARSE_REUSE_PREFIX, ImmutableList.of("host1.iptables"))
+                .build(),
+            _folder.newFolder().toPath(),
+            parseResults);
+    Map<String, Configuration> overlaid = batfish2.loadConfigurations(batfish2.getSnapshot());
+
+    // The cached parse result is used, the overlay is applied to it, and the orphan is reported.
+    assertThat(parseResults.stats().hitCount(), equalTo(1L));
+    assertThat(
+        overlaid.get("host1").getAllInterfaces().get("Ethernet0").getIncomingFilter(),
+        notNullValue());
+    assertThat(
+        batfish2.loadParseVendorConfigurationAnswerElement(batfish2.getSnapshot()).getParseStatus(),
+        hasEntry("hosts/orphan.json", ParseStatus.ORPHANED));
+
+    // Applying the overlay did not modify the cached result.
+    Batfish batfish3 =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            configsOnly, _folder.newFolder().toPath(), parseResults);
+    Map<String, Configuration> plain = batfish3.loadConfigurations(batfish3.getSnapshot());
+    assertThat(parseResults.stats().hitCount(), equalTo(2L));
+    assertThat(
+        plain.get("host1").getAllInterfaces().get("Ethernet0").getIncomingFilter(), nullValue());
+  }
+
+  private static final ReachabilityParameters ACCEPTED_PARAMETERS =
+      ReachabilityParameters.builder()
+          .setActions(ImmutableSortedSet.of(FlowDisposition.ACCEPTED))
+          .build();
+
+  private static Set<Flow> acceptedFlows(Batfish batfish, NetworkSnapshot snapshot) {
+    return ((TraceWrapperAsAnswerElement) batfish.standard(snapshot, ACCEPTED_PARAMETERS))
+        .getFlowTraces()
+        .keySet();
+  }
+
+  @Test
+  public void testBddReachabilityGraphReusedAcrossQuestions() throws IOException {
+    Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory> factories =
+        CacheBuilder.newBuilder().build();
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(TestNetworkSources.twoNodeNetwork(), _folder, factories);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+    Entry<NetworkSnapshot, Boolean> key = Maps.immutableEntry(snapshot, false);
+
+    Set<Flow> flows = acceptedFlows(batfish, snapshot);
+    BDDReachabilityAnalysisFactory factory = factories.getIfPresent(key);
+    assertThat(factory, notNullValue());
+    assertThat(flows, not(empty()));
+
+    // The second question uses the same factory, gets the same answer, and returns the factory.
+    assertThat(acceptedFlows(batfish, snapshot), equalTo(flows));
+    assertThat(factories.getIfPresent(key), sameInstance(factory));
+  }
+
+  @Test
+  public void testBddReachabilityGraphInvalidatedWithDataPlane() throws IOException {
+    Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory> factories =
+        CacheBuilder.newBuilder().build();
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(TestNetworkSources.twoNodeNetwork(), _folder, factories);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+    Entry<NetworkSnapshot, Boolean> key = Maps.immutableEntry(snapshot, false);
+    Set<Flow> flows = acceptedFlows(batfish, snapshot);
+    BDDReachabilityAnalysisFactory factory = factories.getIfPresent(key);
+    assertThat(factory, notNullValue());
+
+    // Recomputing the data plane drops the factory built from the old one.
+    batfish.computeDataPlane(snapshot);
+    assertThat(factories.getIfPresent(key), nullValue());
+
+    assertThat(acceptedFlows(batfish, snapshot), equalTo(flows));
+    assertThat(factories.getIfPresent(key), allOf(notNullValue(), not(sameInstance(factory))));
+  }
+
+  @Test
+  public void testBddReachabilityGraphNotReturnedAfterDataPlaneChange() throws IOException {
+    Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory> factories =
+        CacheBuilder.newBuilder().build();
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(TestNetworkSources.twoNodeNetwork(), _folder, factories);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+    Entry<NetworkSnapshot, Boolean> key = Maps.immutableEntry(snapshot, false);
+
+    // The data plane is recomputed while a question uses the factory built from the old one.
+    batfish.withBddReachabilityAnalysisFactory(
+        snapshot, false, factory -> batfish.computeDataPlane(snapshot));
+    assertThat(factories.getIfPresent(key), nullValue());
+
+    // Otherwise the factory is returned.
+    BDDReachabilityAnalysisFactory used =
+        batfish.withBddReachabilityAnalysisFactory(snapshot, false, factory -> factory);
+    assertThat(factories.getIfPresent(key), sameInstance(used));
+  }
+
+  @Test
+  public void testBddReachabilityConcurrentQuestions() throws Exception {
+    Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory> factories =
+        CacheBuilder.newBuilder().build();
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(TestNetworkSources.twoNodeNetwork(), _folder, factories);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+    Set<Flow> flows = acceptedFlows(batfish, snapshot);
+
+    // Tasks admitted to run at the same time in one worker share its caches. Their questions never
+    // share a factory, and all get the same answer.
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Set<Flow>>> answers = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        answers.add(executor.submit(() -> acceptedFlows(batfish, snapshot)));
+      }
+      for (Future<Set<Flow>> answer : answers) {
+        assertThat(answer.get(), equalTo(flows));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(factories.getIfPresent(Maps.immutableEntry(snapshot, false)), notNullValue());
+  }
+
+  @Test
+  public void testBddReachabilityGraphReuseEquivalence() throws IOException {
+    Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory> factories =
+        CacheBuilder.newBuilder().build();
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(TestNetworkSources.twoNodeNetwork(), _folder, factories);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+    SortedSet<FlowDisposition> denied =
+        ImmutableSortedSet.of(FlowDisposition.DENIED_IN, FlowDisposition.DENIED_OUT);
+    List<ReachabilityParameters> questions =
+        ImmutableList.of(
+            ACCEPTED_PARAMETERS,
+            ReachabilityParameters.builder()
+                .setActions(ImmutableSortedSet.of(FlowDisposition.ACCEPTED))
+                .setHeaderSpace(AclLineMatchExprs.matchIpProtocol(IpProtocol.TCP))
+                .build(),
+            ReachabilityParameters.builder().setActions(denied).build(),
+            ReachabilityParameters.builder().setActions(denied).setIgnoreFilters(true).build(),
+            ReachabilityParameters.builder()
+                .setActions(ImmutableSortedSet.of(FlowDisposition.ACCEPTED))
+                .setIgnoreFilters(true)
+                .build(),
+            ReachabilityParameters.builder()
+                .setActions(ImmutableSortedSet.of(FlowDisposition.ACCEPTED))
+                .setHeaderSpace(AclLineMatchExprs.matchIpProtocol(IpProtocol.UDP))
+                .setInvertSearch(true)
+                .build());
+
+    // Each question on a factory that has only built the graph.
+    ImmutableList.Builder<Set<Flow>> fresh = ImmutableList.builder();
+    for (ReachabilityParameters question : questions) {
+      factories.invalidateAll();
+      fresh.add(flows(batfish, snapshot, question));
+    }
+    // The same questions in turn on the cached factories, which keep the BDDs of earlier ones.
+    factories.invalidateAll();
+    ImmutableList.Builder<Set<Flow>> cached = ImmutableList.builder();
+    for (ReachabilityParameters question : questions) {
+      cached.add(flows(batfish, snapshot, question));
+    }
+
+    assertThat(factories.size(), equalTo(2L));
+    assertThat(cached.build(), equalTo(fresh.build()));
+  }
+
+  private static Set<Flow> flows(
+      Batfish batfish, NetworkSnapshot snapshot, ReachabilityParameters question) {
+    return ((TraceWrapperAsAnswerElement) batfish.bddSingleReachability(snapshot, question))
+        .getFlowTraces()
+        .keySet();
+  }
+
   @Test
   public void testInitTestrigWithDuplicateHostnames() throws IOException {
     // rtr1 and rtr2 have the same hostname
@@ -310,6 +567,244 @@ public class BatfishTest {
                             .build())))));
   }
 
+  /** A data plane plugin that counts the data planes it computes. */
+  private static final class CountingDataPlanePlugin extends DataPlanePlugin {
+    private final @Nonnull DataPlanePlugin _delegate;
+    private int _computations;
+    private @Nonnull Set<String> _reusedHosts = ImmutableSet.of();
+
+    private CountingDataPlanePlugin(DataPlanePlugin delegate) {
+      _delegate = delegate;
+    }
+
+    @Override
+    public ComputeDataPlaneResult computeDataPlane(NetworkSnapshot snapshot) {
+      _computations++;
+      _reusedHosts = ImmutableSet.of();
+      return _delegate.computeDataPlane(snapshot);
+    }
+
+    @Override
+    public ComputeDataPlaneResult computeDataPlane(
+        NetworkSnapshot snapshot, DataPlane baseDataPlane, Set<String> reusedHosts) {
+      _computations++;
+      _reusedHosts = ImmutableSet.copyOf(reusedHosts);
+      return _delegate.computeDataPlane(snapshot, baseDataPlane, reusedHosts);
+    }
+
+    @Override
+    public String getName() {
+      return IncrementalDataPlanePlugin.PLUGIN_NAME;
+    }
+  }
+
+  /** Registers a {@link CountingDataPlanePlugin} wrapping ibdp as the data plane engine. */
+  private static CountingDataPlanePlugin registerCountingDataPlanePlugin(Batfish batfish) {
+    IncrementalDataPlanePlugin ibdp = new IncrementalDataPlanePlugin();
+    ibdp.initialize(batfish);
+    CountingDataPlanePlugin plugin = new CountingDataPlanePlugin(ibdp);
+    plugin.initialize(batfish);
+    batfish.getSettings().setDataplaneEngineName(IncrementalDataPlanePlugin.PLUGIN_NAME);
+    return plugin;
+  }
+
+  /** A single node with a connected route for {@code address}. */
+  private static SortedMap<String, Configuration> dataPlaneReuseConfigs(String address) {
+    Configuration c = dataPlaneReuseNode(new NetworkFactory(), "n1", address);
+    return ImmutableSortedMap.of(c.getHostname(), c);
+  }
+
+  /** Two unconnected nodes, each with a connected route for its address. */
+  private static SortedMap<String, Configuration> dataPlaneReuseConfigs(
+      String n1Address, String n2Address) {
+    NetworkFactory nf = new NetworkFactory();
+    return ImmutableSortedMap.of(
+        "n1",
+        dataPlaneReuseNode(nf, "n1", n1Address),
+        "n2",
+        dataPlaneReuseNode(nf, "n2", n2Address));
+  }
+
+  private static Configuration dataPlaneReuseNode(
+      NetworkFactory nf, String hostname, String address) {
+    Configuration c =
+        nf.configurationBuilder().setConfigurationFormat(CISCO_IOS).setHostname(hostname).build();
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    nf.interfaceBuilder()
+        .setOwner(c)
+        .setVrf(vrf)
+        .setAddress(ConcreteInterfaceAddress.parse(address))
+        .build();
+    return c;
+  }
+
+  @Test
+  public void testDataPlaneReuseHit() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(
+            dataPlaneReuseConfigs("10.0.0.1/24"), dataPlaneReuseConfigs("10.0.0.1/24"), _folder);
+    batfish.getSettings().setDataPlaneReuse(true);
+    CountingDataPlanePlugin plugin = registerCountingDataPlanePlugin(batfish);
+
+    IncrementalBdpAnswerElement computed =
+        (IncrementalBdpAnswerElement) batfish.computeDataPlane(batfish.getSnapshot());
+    IncrementalBdpAnswerElement reused =
+        (IncrementalBdpAnswerElement) batfish.computeDataPlane(batfish.getReferenceSnapshot());
+
+    assertThat(plugin._computations, equalTo(1));
+    assertThat(
+        reused.getDependentRoutesIterations(), equalTo(computed.getDependentRoutesIterations()));
+    assertThat(reused.getVersion(), equalTo(computed.getVersion()));
+    assertThat(
+        batfish
+            .loadDataPlane(batfish.getReferenceSnapshot())
+            .getRibs()
+            .get("n1", Configuration.DEFAULT_VRF_NAME)
+            .getRoutes(),
+        equalTo(
+            batfish
+                .loadDataPlane(batfish.getSnapshot())
+                .getRibs()
+                .get("n1", Configuration.DEFAULT_VRF_NAME)
+                .getRoutes()));
+  }
+
+  @Test
+  public void testDataPlaneReuseMiss() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(
+            dataPlaneReuseConfigs("10.0.0.1/24"), dataPlaneReuseConfigs("10.0.1.1/24"), _folder);
+    batfish.getSettings().setDataPlaneReuse(true);
+    CountingDataPlanePlugin plugin = registerCountingDataPlanePlugin(batfish);
+
+    batfish.computeDataPlane(batfish.getSnapshot());
+    batfish.computeDataPlane(batfish.getReferenceSnapshot());
+
+    assertThat(plugin._computations, equalTo(2));
+    assertThat(
+        batfish
+            .loadDataPlane(batfish.getReferenceSnapshot())
+            .getRibs()
+            .get("n1", Configuration.DEFAULT_VRF_NAME)
+            .getRoutes()
+            .stream()
+            .map(AbstractRoute::getNetwork)
+            .collect(ImmutableSet.toImmutableSet()),
+        hasItem(Prefix.parse("10.0.1.0/24")));
+  }
+
+  @Test
+  public void testDataPlaneReuseSettingsChange() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(
+            dataPlaneReuseConfigs("10.0.0.1/24"), dataPlaneReuseConfigs("10.0.0.1/24"), _folder);
+    batfish.getSettings().setDataPlaneReuse(true);
+    CountingDataPlanePlugin plugin = registerCountingDataPlanePlugin(batfish);
+
+    String before = batfish.computeDataPlaneInputsId(batfish.getSnapshot());
+    batfish.computeDataPlane(batfish.getSnapshot());
+    batfish
+        .getSettings()
+        .setDataPlaneEngineProperty(IncrementalDataPlaneSettings.PROP_OSPF_SPF, true);
+    String after = batfish.computeDataPlaneInputsId(batfish.getReferenceSnapshot());
+    batfish.computeDataPlane(batfish.getReferenceSnapshot());
+
+    assertThat(after, not(equalTo(before)));
+    assertThat(plugin._computations, equalTo(2));
+
+    // Other engine properties are part of the identifier too.
+    batfish
+        .getSettings()
+        .setDataPlaneEngineProperty(IncrementalDataPlaneSettings.PROP_SCHEDULE, "NODE_SERIALIZED");
+    assertThat(
+        batfish.computeDataPlaneInputsId(batfish.getReferenceSnapshot()), not(equalTo(after)));
+  }
+
+  @Test
+  public void testDataPlaneReuseDisabledByDefault() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(
+            dataPlaneReuseConfigs("10.0.0.1/24"), dataPlaneReuseConfigs("10.0.0.1/24"), _folder);
+    CountingDataPlanePlugin plugin = registerCountingDataPlanePlugin(batfish);
+
+    batfish.computeDataPlane(batfish.getSnapshot());
+    batfish.computeDataPlane(batfish.getReferenceSnapshot());
+
+    assertThat(plugin._computations, equalTo(2));
+  }
+
+  @Test
+  public void testDataPlaneReuseUnchangedIsland() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(
+            dataPlaneReuseConfigs("10.0.0.1/24", "10.0.1.1/24"),
+            dataPlaneReuseConfigs("10.0.0.1/24", "10.0.2.1/24"),
+            _folder);
+    batfish.getSettings().setDataPlaneReuse(true);
+    CountingDataPlanePlugin plugin = registerCountingDataPlanePlugin(batfish);
+
+    batfish.computeDataPlane(batfish.getSnapshot());
+    batfish.computeDataPlane(batfish.getReferenceSnapshot());
+
+    // n2 changed, so only n1 is reused
+    assertThat(plugin._computations, equalTo(2));
+    assertThat(plugin._reusedHosts, contains("n1"));
+    DataPlane computed = batfish.loadDataPlane(batfish.getSnapshot());
+    DataPlane reused = batfish.loadDataPlane(batfish.getReferenceSnapshot());
+    assertThat(
+        reused.getRibs().get("n1", Configuration.DEFAULT_VRF_NAME).getRoutes(),
+        equalTo(computed.getRibs().get("n1", Configuration.DEFAULT_VRF_NAME).getRoutes()));
+    assertThat(
+        reused.getFibs().get("n1").get(Configuration.DEFAULT_VRF_NAME).allEntries(),
+        equalTo(computed.getFibs().get("n1").get(Configuration.DEFAULT_VRF_NAME).allEntries()));
+    assertThat(
+        reused.getRibs().get("n2", Configuration.DEFAULT_VRF_NAME).getRoutes().stream()
+            .map(AbstractRoute::getNetwork)
+            .collect(ImmutableSet.toImmutableSet()),
+        hasItem(Prefix.parse("10.0.2.0/24")));
+  }
+
+  @Test
+  public void testDataPlaneReuseMatchesRecomputation() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(
+            dataPlaneReuseConfigs("10.0.0.1/24", "10.0.1.1/24"),
+            dataPlaneReuseConfigs("10.0.0.1/24", "10.0.2.1/24"),
+            _folder);
+    batfish.getSettings().setDataPlaneReuse(true);
+    CountingDataPlanePlugin plugin = registerCountingDataPlanePlugin(batfish);
+    batfish.computeDataPlane(batfish.getSnapshot());
+    batfish.computeDataPlane(batfish.getReferenceSnapshot());
+    assertThat(plugin._reusedHosts, contains("n1"));
+    DataPlane reused = batfish.loadDataPlane(batfish.getReferenceSnapshot());
+
+    Batfish fresh =
+        BatfishTestUtils.getBatfish(dataPlaneReuseConfigs("10.0.0.1/24", "10.0.2.1/24"), _folder);
+    fresh.computeDataPlane(fresh.getSnapshot());
+    DataPlane recomputed = fresh.loadDataPlane(fresh.getSnapshot());
+
+    assertThat(reused.getRibs().cellSet(), hasSize(recomputed.getRibs().cellSet().size()));
+    recomputed
+        .getRibs()
+        .cellSet()
+        .forEach(
+            cell ->
+                assertThat(
+                    reused.getRibs().get(cell.getRowKey(), cell.getColumnKey()).getRoutes(),
+                    equalTo(cell.getValue().getRoutes())));
+    assertThat(reused.getFibs().keySet(), equalTo(recomputed.getFibs().keySet()));
+    recomputed
+        .getFibs()
+        .forEach(
+            (hostname, fibs) ->
+                fibs.forEach(
+                    (vrf, fib) ->
+                        assertThat(
+                            reused.getFibs().get(hostname).get(vrf).allEntries(),
+                            equalTo(fib.allEntries()))));
+    assertThat(reused.getBgpRoutes(), equalTo(recomputed.getBgpRoutes()));
+  }
+
   @Test
   public void testInitSnapshotWithExternalBgpAnnouncements() throws IOException {
     String snapshotResourcePrefix = "org/batfish/main/snapshots/external_bgp_announcements";
@@ -18,12 +18,14 @@ import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.collections4.map.LRUMap;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
@@ -73,6 +75,19 @@ public class BatfishTestUtils {
     return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
   }
 
+  private static Cache<String, byte[]> makeConversionResultCache() {
+    return CacheBuilder.newBuilder().recordStats().build();
+  }
+
+  private static Cache<String, byte[]> makeParseResultCache() {
+    return CacheBuilder.newBuilder().recordStats().build();
+  }
+
+  private static Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>
+      makeBddReachabilityAnalysisFactoryCache() {
+    return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
+  }
+
   private static Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
       makeVendorConfigurationCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
@@ -90,7 +105,10 @@ public class BatfishTestUtils {
   }
 
   private static Batfish initBatfish(
-      SortedMap<String, Configuration> configurations, @Nonnull TemporaryFolder tempFolder)
+      SortedMap<String, Configuration> configurations,
+      @Nonnull TemporaryFolder tempFolder,
+      Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>
+          bddReachabilityAnalysisFactoryCache)
       throws IOException {
     Settings settings = new Settings(new String[] {});
     settings.setLogger(new BatfishLogger("debug", false));
@@ -109,6 +127,9 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeParseResultCache(),
+            makeConversionResultCache(),
+            bddReachabilityAnalysisFactoryCache,
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     if (!configurations.isEmpty()) {
@@ -142,6 +163,9 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeParseResultCache(),
+            makeConversionResultCache(),
+            makeBddReachabilityAnalysisFactoryCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     batfish.getSettings().setDiffQuestion(true);
@@ -194,6 +218,21 @@ public class BatfishTestUtils {
    */
   public static Batfish getBatfishFromTestrigText(TestrigText testrigText, Path tempFolder)
       throws IOException {
+    return getBatfishFromTestrigText(testrigText, tempFolder, makeParseResultCache());
+  }
+
+  /**
+   * Get a new Batfish instance with given configurations that caches parse results in {@code
+   * parseResultCache}, so that several instances can share them.
+   *
+   * @param testrigText Structure containing names and content of testrig input files
+   * @param tempFolder Temporary folder to be used to files required for Batfish
+   * @param parseResultCache Cache of serialized parse results
+   * @return Batfish instance pointing at new testrig comprising testrigText
+   */
+  public static Batfish getBatfishFromTestrigText(
+      TestrigText testrigText, Path tempFolder, Cache<String, byte[]> parseResultCache)
+      throws IOException {
     Map<String, byte[]> awsBytes = testrigText.getAwsBytes();
     Map<String, byte[]> bgpTablesBytes = testrigText.getBgpTablesBytes();
     Map<String, byte[]> checkpointMgmtBytes = testrigText.getCheckpointMgmtBytes();
@@ -218,6 +257,9 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            parseResultCache,
+            makeConversionResultCache(),
+            makeBddReachabilityAnalysisFactoryCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     StorageProvider storage = new FileBasedStorage(settings.getStorageBase(), batfish.getLogger());
@@ -303,7 +345,25 @@ public class BatfishTestUtils {
   public static Batfish getBatfish(
       SortedMap<String, Configuration> configurations, @Nonnull TemporaryFolder tempFolder)
       throws IOException {
-    return initBatfish(configurations, tempFolder);
+    return initBatfish(configurations, tempFolder, makeBddReachabilityAnalysisFactoryCache());
+  }
+
+  /**
+   * Get a new Batfish instance with given configurations, like {@link #getBatfish(SortedMap,
+   * TemporaryFolder)}, that caches BDD reachability graphs in the given cache
+   *
+   * @param configurations Map of all Configuration Name -&gt; Configuration Object
+   * @param tempFolder Temporary folder to be used to files required for Batfish
+   * @param bddReachabilityAnalysisFactoryCache Cache of BDD reachability graphs
+   * @return New Batfish instance
+   */
+  public static Batfish getBatfish(
+      SortedMap<String, Configuration> configurations,
+      @Nonnull TemporaryFolder tempFolder,
+      Cache<Entry<NetworkSnapshot, Boolean>, BDDReachabilityAnalysisFactory>
+          bddReachabilityAnalysisFactoryCache)
+      throws IOException {
+    return initBatfish(configurations, tempFolder, bddReachabilityAnalysisFactoryCache);
   }
 
   /** Get a new Batfish instance with given storage provider and id resolver */
@@ -319,6 +379,9 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeParseResultCache(),
+            makeConversionResultCache(),
+            makeBddReachabilityAnalysisFactoryCache(),
             storageProvider,
             idResolver);
     registerDataPlanePlugins(batfish);
@@ -0,0 +1,112 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.batfish.common.WorkerAdmission;
+import org.batfish.main.TaskAdmission.TaskKind;
+import org.junit.Test;
+
+/** Tests of {@link TaskAdmission}. */
+public final class TaskAdmissionTest {
+
+  private static final long MAX_HEAP = 8L << 30;
+
+  private final AtomicLong _liveHeap = new AtomicLong();
+
+  private TaskAdmission newAdmission() {
+    return new TaskAdmission(() -> MAX_HEAP, _liveHeap::get);
+  }
+
+  @Test
+  public void testAnswersRunAlongsideDataPlane() {
+    TaskAdmission admission = newAdmission();
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    assertThat(admission.getRunning(TaskKind.DATA_PLANE), equalTo(1));
+    assertThat(admission.getRunning(TaskKind.ANSWER), equalTo(2));
+  }
+
+  @Test
+  public void testReservedHeap() {
+    TaskAdmission admission = newAdmission();
+    // Parse and data plane each reserve at least half the heap.
+    assertThat(admission.tryAdmit(TaskKind.PARSE, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), notNullValue());
+
+    admission.release(TaskKind.PARSE, 0);
+    assertThat(admission.getRunning(TaskKind.PARSE), equalTo(0));
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+  }
+
+  @Test
+  public void testLiveHeap() {
+    TaskAdmission admission = newAdmission();
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    // The running task has grown beyond its estimate.
+    _liveHeap.set(MAX_HEAP * 7 / 8);
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 0), containsString("would exceed 8192 MB"));
+
+    _liveHeap.set(0);
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 0), nullValue());
+  }
+
+  @Test
+  public void testDefaultLiveHeap() {
+    // Garbage and caches in the test JVM must not keep a second small task from starting.
+    TaskAdmission admission = new TaskAdmission();
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+  }
+
+  @Test
+  public void testSnapshotSize() {
+    TaskAdmission admission = newAdmission();
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    // A data plane on a snapshot with 100MB of input is estimated to need 4GB: it fits.
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 100L << 20), nullValue());
+    admission.release(TaskKind.DATA_PLANE, 100L << 20);
+    // With 200MB of input it is estimated to need 8GB, which does not fit next to the answer.
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 200L << 20), notNullValue());
+  }
+
+  @Test
+  public void testIdleWorkerAdmitsAnyTask() {
+    TaskAdmission admission = newAdmission();
+    _liveHeap.set(MAX_HEAP);
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 1L << 30), nullValue());
+    admission.release(TaskKind.DATA_PLANE, 1L << 30);
+    assertThat(admission.tryAdmit(TaskKind.PARSE, 1L << 30), nullValue());
+  }
+
+  @Test
+  public void testGetAdmission() {
+    TaskAdmission admission = newAdmission();
+    _liveHeap.set(1L << 30);
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.ANSWER, 0), nullValue());
+    assertThat(admission.tryAdmit(TaskKind.DATA_PLANE, 0), nullValue());
+
+    WorkerAdmission state = admission.getAdmission();
+    assertThat(state.getLiveHeapBytes(), equalTo(1L << 30));
+    assertThat(state.getMaxHeapBytes(), equalTo(MAX_HEAP));
+    assertThat(
+        state.getReservedHeapBytes(),
+        equalTo(ImmutableMap.of("ANSWER", MAX_HEAP / 4, "DATA_PLANE", MAX_HEAP / 2)));
+    assertThat(state.getRunning(), equalTo(ImmutableMap.of("ANSWER", 2, "DATA_PLANE", 1)));
+
+    admission.release(TaskKind.ANSWER, 0);
+    admission.release(TaskKind.DATA_PLANE, 0);
+    assertThat(
+        admission.getAdmission().getReservedHeapBytes(),
+        equalTo(ImmutableMap.of("ANSWER", MAX_HEAP / 8)));
+  }
+}
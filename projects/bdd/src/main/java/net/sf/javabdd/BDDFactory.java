@@ -622,6 +622,18 @@ public abstract class BDDFactory {
    */
   public abstract int duplicateVar(int var);
 
+  /**
+   * Returns a {@link BDD} in this factory representing the same function as the given {@link BDD},
+   * which may belong to a different factory.
+   *
+   * <p>BDD factories are not thread-safe, so independent computations can run in parallel on
+   * factories of their own, and their results can then be transferred to a shared factory. The
+   * source factory must not be modified while the transfer is in progress.
+   *
+   * @throws BDDException if the variable orders of the factories are not compatible.
+   */
+  public abstract BDD transfer(BDD bdd);
+
   /** ** BDD STATS *** */
 
   /**
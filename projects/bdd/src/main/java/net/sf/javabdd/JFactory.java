@@ -31,6 +31,8 @@ package net.sf.javabdd;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.IntIntMap;
 import com.carrotsearch.hppc.IntSet;
 import com.carrotsearch.hppc.IntStack;
 import com.carrotsearch.hppc.procedures.IntProcedure;
@@ -62,6 +64,10 @@ import org.apache.logging.log4j.Logger;
  *
  * <p>It was originally authored by John Whaley, and has since been heavily modified and improved by
  * the Batfish Authors.
+ *
+ * <p>A factory is not thread-safe: the node table, the operator caches and the reference stack are
+ * shared by all its operations without synchronization. To use multiple cores, give each thread a
+ * factory of its own and move results between factories with {@link #transfer(BDD)}.
  */
 public class JFactory extends BDDFactory implements Serializable {
   private static final Logger LOGGER = LogManager.getLogger(JFactory.class);
@@ -958,6 +964,67 @@ public class JFactory extends BDDFactory implements Serializable {
     return bdd;
   }
 
+  @Override
+  public BDD transfer(BDD bdd) {
+    JFactory src = (JFactory) bdd.getFactory();
+    int index = ((BDDImpl) bdd)._index;
+    if (src == this || ISCONST(index)) {
+      return makeBDD(index);
+    }
+    return makeBDD(bdd_transfer(src, index));
+  }
+
+  private int bdd_transfer(JFactory src, int r) {
+    // Map each level of the source factory to the level of the same variable in this factory, or
+    // to -1 if this factory does not have that variable. The mapping must preserve the order of
+    // levels so that nodes can be created bottom-up directly.
+    int[] levelMap = new int[src.bddvarnum];
+    int prevLevel = -1;
+    for (int level = 0; level < src.bddvarnum; level++) {
+      int var = src.bddlevel2var[level];
+      if (var >= bddvarnum) {
+        levelMap[level] = -1;
+        continue;
+      }
+      levelMap[level] = bddvar2level[var];
+      if (levelMap[level] <= prevLevel) {
+        throw new BDDException("Cannot transfer a BDD between factories with different var orders");
+      }
+      prevLevel = levelMap[level];
+    }
+
+    INITREF();
+    int res = transfer_rec(src, r, levelMap, new IntIntHashMap());
+    checkresize();
+    return res;
+  }
+
+  private int transfer_rec(JFactory src, int r, int[] levelMap, IntIntMap cache) {
+    if (ISCONST(r)) {
+      return r;
+    }
+    int cached = cache.getOrDefault(r, -1);
+    if (cached >= 0) {
+      return cached;
+    }
+    int level = levelMap[src.LEVEL(r)];
+    if (level < 0) {
+      throw new BDDException(
+          String.format(
+              "Cannot transfer a BDD over variable %d to a factory with %d variables",
+              src.bddlevel2var[src.LEVEL(r)], bddvarnum));
+    }
+    int low = PUSHREF(transfer_rec(src, src.LOW(r), levelMap, cache));
+    int high = PUSHREF(transfer_rec(src, src.HIGH(r), levelMap, cache));
+    int res = bdd_makenode(level, low, high);
+    POPREF(2);
+    // Keep every transferred node referenced until the transfer is done, so that garbage
+    // collections triggered by later node creation cannot free it.
+    PUSHREF(res);
+    cache.put(r, res);
+    return res;
+  }
+
   private int bdd_andLiterals(int[] literals) {
     assert literals.length > 0; // empty array handled in caller
     INITREF();
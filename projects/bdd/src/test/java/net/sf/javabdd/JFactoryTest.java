@@ -677,4 +677,35 @@ public class JFactoryTest {
     bddClone.not(); // can do operations after deserialization
     assertEquals(bdd.not().toReprString(), bddClone.not().toReprString());
   }
+
+  @Test
+  public void testTransfer() {
+    _factory.setVarNum(10);
+    JFactory other = (JFactory) JFactory.init(10000, 10000);
+    other.setVarNum(12);
+
+    BDD bdd = _factory.ithVar(1).xor(_factory.ithVar(2)).or(_factory.nithVar(7));
+    BDD transferred = other.transfer(bdd);
+    assertTrue(transferred.getFactory() == other);
+    assertEquals(bdd.toReprString(), transferred.toReprString());
+    assertThat(transferred, equalTo(other.ithVar(1).xor(other.ithVar(2)).or(other.nithVar(7))));
+
+    // transferring back yields the original BDD
+    assertThat(_factory.transfer(transferred), equalTo(bdd));
+
+    // constants
+    assertThat(other.transfer(_factory.one()), equalTo(other.one()));
+    assertThat(other.transfer(_factory.zero()), equalTo(other.zero()));
+  }
+
+  @Test
+  public void testTransferTooFewVars() {
+    _factory.setVarNum(10);
+    JFactory other = (JFactory) JFactory.init(10000, 10000);
+    other.setVarNum(5);
+    // BDDs that do not depend on the missing variables can be transferred.
+    assertThat(other.transfer(_factory.ithVar(3)), equalTo(other.ithVar(3)));
+    _exception.expect(BDDException.class);
+    other.transfer(_factory.ithVar(8));
+  }
 }
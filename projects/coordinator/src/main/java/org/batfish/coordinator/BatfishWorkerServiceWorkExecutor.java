@@ -12,12 +12,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishWorkerService;
 import org.batfish.common.BfConsts;
 import org.batfish.common.LaunchResult;
 import org.batfish.common.Task;
+import org.batfish.common.WorkerAdmission;
+import org.batfish.coordinator.WorkerStatus.StatusCode;
 
 /**
  * {@link WorkExecutor} implementation that delegates directly to a {@link BatfishWorkerService}.
@@ -53,6 +56,20 @@ public class BatfishWorkerServiceWorkExecutor implements WorkExecutor {
     return processLaunchResult(lr, taskId, _batfishWorkerService);
   }
 
+  @Override
+  public @Nonnull WorkerStatus getWorkerStatus() {
+    return getWorkerStatus(_batfishWorkerService.getAdmission());
+  }
+
+  @VisibleForTesting
+  static @Nonnull WorkerStatus getWorkerStatus(@Nullable WorkerAdmission admission) {
+    if (admission == null) {
+      return new WorkerStatus(StatusCode.UNKNOWN);
+    }
+    boolean running = admission.getRunning().values().stream().anyMatch(n -> n > 0);
+    return new WorkerStatus(running ? StatusCode.BUSY : StatusCode.IDLE, admission);
+  }
+
   @VisibleForTesting
   static @Nonnull SubmissionResult processLaunchResult(
       LaunchResult lr, String taskId, BatfishWorkerService batfishWorkerService) {
@@ -63,7 +80,7 @@ public class BatfishWorkerServiceWorkExecutor implements WorkExecutor {
                 Optional.ofNullable(batfishWorkerService.getTaskStatus(taskId))
                     .orElse(Task.unknown()));
       case BUSY:
-        return SubmissionResult.busy();
+        return lr.getBusyReason().map(SubmissionResult::busy).orElse(SubmissionResult.busy());
       case ERROR:
         return SubmissionResult.error(lr.getMessage());
       default:
@@ -2,6 +2,7 @@ package org.batfish.coordinator;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -33,6 +34,11 @@ public final class SubmissionResult {
     return BUSY;
   }
 
+  /** The executor is busy for the given reason. */
+  public static @Nonnull SubmissionResult busy(String reason) {
+    return new SubmissionResult(Type.BUSY, null, reason);
+  }
+
   public static @Nonnull SubmissionResult success(TaskHandle handle) {
     return new SubmissionResult(Type.SUCCESS, handle, null);
   }
@@ -69,6 +75,11 @@ public final class SubmissionResult {
     return _message;
   }
 
+  /** Reason for a result of type {@link Type#BUSY}, if the executor gave one. */
+  public @Nonnull Optional<String> getBusyReason() {
+    return _type == Type.BUSY ? Optional.ofNullable(_message) : Optional.empty();
+  }
+
   private SubmissionResult(Type type, @Nullable TaskHandle taskHandle, @Nullable String message) {
     _type = type;
     _taskHandle = taskHandle;
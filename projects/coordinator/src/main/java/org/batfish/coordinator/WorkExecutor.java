@@ -1,6 +1,8 @@
 package org.batfish.coordinator;
 
+import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.coordinator.WorkerStatus.StatusCode;
 
 /** Entity that executes work items to be performed work to some abstract batfish worker. */
 @ParametersAreNonnullByDefault
@@ -8,4 +10,9 @@ public interface WorkExecutor {
 
   /** Attempt to assign work and return the result of the attempt. */
   SubmissionResult submit(QueuedWork work);
+
+  /** Current status of the worker, including its heap admission state if it reports one. */
+  default @Nonnull WorkerStatus getWorkerStatus() {
+    return new WorkerStatus(StatusCode.UNKNOWN);
+  }
 }
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
 import com.google.errorprone.annotations.MustBeClosed;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -39,6 +40,7 @@ import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -184,6 +186,7 @@ public class WorkMgr extends AbstractCoordinator {
   private WorkQueueMgr _workQueueMgr;
   private final StorageProvider _storage;
   private final ExecutorService _gcExecutor;
+  private final ExecutorService _assignExecutor;
 
   public WorkMgr(
       Settings settings,
@@ -201,6 +204,12 @@ public class WorkMgr extends AbstractCoordinator {
     _gcExecutor =
         new ThreadPoolExecutor(
             0, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), new DiscardOldestPolicy());
+    // Likewise for assignment passes triggered by queued work, since each pass assigns all the
+    // work it can: a burst of queued work has at most one pass running and one waiting, instead
+    // of a new thread per work item.
+    _assignExecutor =
+        new ThreadPoolExecutor(
+            0, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), new DiscardOldestPolicy());
     _workExecutor = workExecutorCreator.apply(logger, settings);
   }
 
@@ -209,41 +218,76 @@ public class WorkMgr extends AbstractCoordinator {
     return _storage;
   }
 
-  private void assignWork() {
+  /**
+   * Assigns queued work to the worker until there is no unassigned work left that the worker may
+   * accept.
+   *
+   * <p>When the worker refuses work as busy, assignment continues with work of other types: the
+   * worker admits tasks by the heap their kind needs, so e.g. a question can still start while
+   * parsing is refused. Other work of a refused type is not offered again in the same pass.
+   */
+  @VisibleForTesting
+  void assignWork() {
+    Set<WorkType> refusedWorkTypes = EnumSet.noneOf(WorkType.class);
+    while (assignOneWork(refusedWorkTypes)) {}
+  }
+
+  /**
+   * Tries to assign one queued work item whose type is not in {@code refusedWorkTypes}, adding its
+   * type if the worker is busy. Returns whether another attempt may succeed.
+   */
+  private boolean assignOneWork(Set<WorkType> refusedWorkTypes) {
 
     try {
-      QueuedWork work = _workQueueMgr.getWorkForAssignment();
+      QueuedWork work = _workQueueMgr.getWorkForAssignment(refusedWorkTypes);
 
       // get out if no work was found
       if (work == null) {
         // _logger.info("WM:AssignWork: No unassigned work\n");
-        return;
+        return false;
       }
       SubmissionResult result = _workExecutor.submit(work);
       switch (result.getType()) {
         case ERROR:
           _logger.error(String.format("Error submitting work: %s\n", result.getMessage()));
           _workQueueMgr.markAssignmentError(work);
-          break;
+          return true;
         case SUCCESS:
           _logger.info(String.format("Work submitted with ID: %s\n", work.getId()));
           TaskHandle handle = result.getTaskHandle();
           _workQueueMgr.markAssignmentSuccess(work, handle);
-          break;
+          return true;
         case BUSY:
           _logger.warn(
-              String.format("Work with ID: %s requeued because worker is busy\n", work.getId()));
+              String.format(
+                  "Work with ID: %s requeued because worker is busy%s. Worker status: %s\n",
+                  work.getId(),
+                  result.getBusyReason().map(reason -> ": " + reason).orElse(""),
+                  _workExecutor.getWorkerStatus()));
           _workQueueMgr.markAssignmentFailure(work);
-          break;
+          refusedWorkTypes.add(work.getDetails().getWorkType());
+          return true;
         default:
           throw new IllegalArgumentException(
               String.format("Invalid SubmissionResult.Type: %s", result.getType()));
       }
     } catch (Exception e) {
       _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
+      return false;
     }
   }
 
+  /** Returns the current status of the worker, including its heap admission state. */
+  public @Nonnull WorkerStatus getWorkerStatus() {
+    return _workExecutor.getWorkerStatus();
+  }
+
+  @VisibleForTesting
+  @Nonnull
+  WorkQueueMgr getWorkQueueMgr() {
+    return _workQueueMgr;
+  }
+
   private void checkTasks() {
     try {
       List<QueuedWork> workToCheck = _workQueueMgr.getWorkForChecking();
@@ -257,6 +301,10 @@ public class WorkMgr extends AbstractCoordinator {
         Task task = assignedHandle.checkTask();
         try {
           _workQueueMgr.processTaskCheckResult(work, task);
+          if (work.getStatus().isTerminated()) {
+            // the worker has capacity again, and work blocked on this one may now be unassigned
+            _assignExecutor.execute(this::assignWork);
+          }
         } catch (Exception e) {
           _logger.errorf("exception: %s\n", Throwables.getStackTraceAsString(e));
         }
@@ -422,10 +470,18 @@ public class WorkMgr extends AbstractCoordinator {
   public @Nullable Answer getAnswer(
       String network, String snapshot, String question, @Nullable String referenceSnapshot)
       throws IOException {
-    String ansString = loadAnswer(network, snapshot, question, referenceSnapshot);
-    return ansString == null
-        ? null
-        : BatfishObjectMapper.mapper().readValue(ansString, Answer.class);
+    // Deserialize from a stream, since the text of a large answer may not fit in memory.
+    return loadAnswer(
+        network,
+        snapshot,
+        question,
+        referenceSnapshot,
+        (networkId, snapshotId, answerId) -> {
+          try (InputStream answerStream =
+              _storage.loadAnswerStream(networkId, snapshotId, answerId)) {
+            return BatfishObjectMapper.mapper().readValue(answerStream, Answer.class);
+          }
+        });
   }
 
   /** Get the answer string for the specified question. */
@@ -433,7 +489,8 @@ public class WorkMgr extends AbstractCoordinator {
       String network, String snapshot, String question, @Nullable String referenceSnapshot)
       throws JsonProcessingException {
     try {
-      String answer = loadAnswer(network, snapshot, question, referenceSnapshot);
+      String answer =
+          loadAnswer(network, snapshot, question, referenceSnapshot, _storage::loadAnswer);
       if (answer == null) {
         Answer ans = Answer.failureAnswer("Not answered", null);
         ans.setStatus(AnswerStatus.NOTFOUND);
@@ -452,12 +509,23 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
+  /** Loads a stored answer given the IDs of its network, snapshot, and answer. */
+  @FunctionalInterface
+  private interface AnswerLoader<T> {
+    @Nonnull
+    T load(NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws IOException;
+  }
+
   /**
-   * Get the answer string for the specified question. Returns {@code null} if the question is not
-   * answered.
+   * Load the answer for the specified question using the given loader. Returns {@code null} if the
+   * question is not answered.
    */
-  private @Nullable String loadAnswer(
-      String network, String snapshot, String question, @Nullable String referenceSnapshot)
+  private @Nullable <T> T loadAnswer(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      AnswerLoader<T> loader)
       throws IOException {
     Optional<NetworkId> networkIdOpt = _idManager.getNetworkId(network);
     checkArgument(networkIdOpt.isPresent(), "Missing network: '%s'", network);
@@ -489,7 +557,7 @@ public class WorkMgr extends AbstractCoordinator {
     if (!_storage.hasAnswerMetadata(networkId, snapshotId, answerId)) {
       return null;
     }
-    return _storage.loadAnswer(networkId, snapshotId, answerId);
+    return loader.load(networkId, snapshotId, answerId);
   }
 
   /**
@@ -1343,8 +1411,7 @@ public class WorkMgr extends AbstractCoordinator {
     }
     // as an optimization trigger AssignWork to see if we can schedule this (or another) work
     if (success) {
-      Thread thread = new Thread(this::assignWork);
-      thread.start();
+      _assignExecutor.execute(this::assignWork);
     }
     return success;
   }
@@ -1596,7 +1663,18 @@ public class WorkMgr extends AbstractCoordinator {
     Stream<Row> rowStream = filteredRows.stream();
     if (!options.getSortOrder().isEmpty()) {
       // sort using specified sort order
-      rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
+      Comparator<Row> comparator = buildComparator(rawColumnMap, options.getSortOrder());
+      long pageEnd = (long) options.getRowOffset() + options.getMaxRows();
+      if (!options.getUniqueRows() && pageEnd < filteredRows.size()) {
+        // Only the rows up to the end of the requested page need to be sorted. Ties are broken by
+        // position in the raw answer, as in a stable sort, so that pages are consistent.
+        rowStream =
+            Ordering.from(comparator.thenComparing(rowIds::get))
+                .leastOf(filteredRows, (int) pageEnd)
+                .stream();
+      } else {
+        rowStream = rowStream.sorted(comparator);
+      }
     }
     TableMetadata tableMetadata;
     if (options.getColumns().isEmpty()) {
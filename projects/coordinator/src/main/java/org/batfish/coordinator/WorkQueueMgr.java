@@ -2,16 +2,21 @@ package org.batfish.coordinator;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts.TaskStatus;
@@ -38,9 +43,54 @@ public class WorkQueueMgr {
     INCOMPLETE
   }
 
+  /** Time work waited in the incomplete queue before it was assigned to a worker. */
+  public static final class QueueWaitStats {
+    private long _count;
+    private long _maxMs;
+    private long _totalMs;
+
+    private QueueWaitStats() {}
+
+    private QueueWaitStats(QueueWaitStats other) {
+      _count = other._count;
+      _maxMs = other._maxMs;
+      _totalMs = other._totalMs;
+    }
+
+    private void record(long waitMs) {
+      _count++;
+      _maxMs = Math.max(_maxMs, waitMs);
+      _totalMs += waitMs;
+    }
+
+    /** Number of work items assigned. */
+    public long getCount() {
+      return _count;
+    }
+
+    /** Longest wait of any assigned work item, in milliseconds. */
+    public long getMaxMs() {
+      return _maxMs;
+    }
+
+    /** Sum of the waits of all assigned work items, in milliseconds. */
+    public long getTotalMs() {
+      return _totalMs;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d assigned, mean wait %d ms, max wait %d ms",
+          _count, _count == 0 ? 0 : _totalMs / _count, _maxMs);
+    }
+  }
+
   @GuardedBy("this")
   private Set<UUID> _blockingWork;
 
+  private static final Logger LOGGER = LogManager.getLogger(WorkQueueMgr.class);
+
   private BatfishLogger _logger;
   private SnapshotMetadataMgr _snapshotMetadataManager;
 
@@ -50,12 +100,16 @@ public class WorkQueueMgr {
   @GuardedBy("this")
   private WorkQueue _queueIncompleteWork;
 
+  @GuardedBy("this")
+  private final Map<WorkType, QueueWaitStats> _queueWaitStats;
+
   WorkQueueMgr(BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
     this(Main.getSettings().getQueueType(), logger, snapshotMetadataManager);
   }
 
   WorkQueueMgr(Type wqType, BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
     _blockingWork = new HashSet<>();
+    _queueWaitStats = new EnumMap<>(WorkType.class);
     _logger = logger;
     _snapshotMetadataManager = snapshotMetadataManager;
     switch (wqType) {
@@ -281,6 +335,15 @@ public class WorkQueueMgr {
     }
   }
 
+  /**
+   * Returns a snapshot of the time that work of the given type waited in the incomplete queue
+   * before it was assigned, over all work assigned so far.
+   */
+  public synchronized @Nonnull QueueWaitStats getQueueWaitStats(WorkType workType) {
+    QueueWaitStats stats = _queueWaitStats.get(workType);
+    return stats == null ? new QueueWaitStats() : new QueueWaitStats(stats);
+  }
+
   public synchronized QueuedWork getMatchingWork(WorkItem workItem, QueueType qType) {
     switch (qType) {
       case COMPLETED:
@@ -323,9 +386,19 @@ public class WorkQueueMgr {
 
   @Nullable
   public synchronized QueuedWork getWorkForAssignment() {
+    return getWorkForAssignment(ImmutableSet.of());
+  }
+
+  /**
+   * Returns the first unassigned work whose type is not in {@code skippedWorkTypes}, and marks it
+   * as being assigned; or {@code null} if there is none.
+   */
+  @Nullable
+  public synchronized QueuedWork getWorkForAssignment(Set<WorkType> skippedWorkTypes) {
 
     for (QueuedWork work : _queueIncompleteWork) {
-      if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
+      if (work.getStatus() == WorkStatusCode.UNASSIGNED
+          && !skippedWorkTypes.contains(work.getDetails().getWorkType())) {
         work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
         return work;
       }
@@ -379,8 +452,19 @@ public class WorkQueueMgr {
       throws IOException {
     work.setAssignment(taskHandle);
 
-    // update testrig metadata
     WorkDetails wDetails = work.getDetails();
+    long waitMs = work.getDateAssigned().getTime() - work.getDateCreated().getTime();
+    QueueWaitStats waitStats =
+        _queueWaitStats.computeIfAbsent(wDetails.getWorkType(), t -> new QueueWaitStats());
+    waitStats.record(waitMs);
+    LOGGER.debug(
+        "Work {} assigned after waiting {} ms in queue; {} work so far: {}",
+        work.getId(),
+        waitMs,
+        wDetails.getWorkType(),
+        waitStats);
+
+    // update testrig metadata
     if (wDetails.getWorkType() == WorkType.PARSING) {
       _snapshotMetadataManager.updateInitializationStatus(
           wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.PARSING, null);
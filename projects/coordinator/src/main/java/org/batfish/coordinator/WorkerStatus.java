@@ -1,6 +1,8 @@
 package org.batfish.coordinator;
 
 import java.util.Date;
+import javax.annotation.Nullable;
+import org.batfish.common.WorkerAdmission;
 
 public class WorkerStatus {
 
@@ -12,14 +14,25 @@ public class WorkerStatus {
     UNREACHABLE
   }
 
+  private @Nullable WorkerAdmission _admission;
   private Date _lastUpdated;
   private StatusCode _statusCode;
 
   public WorkerStatus(StatusCode statusCode) {
+    this(statusCode, null);
+  }
+
+  public WorkerStatus(StatusCode statusCode, @Nullable WorkerAdmission admission) {
     _statusCode = statusCode;
+    _admission = admission;
     _lastUpdated = new Date();
   }
 
+  /** Heap admission state of the worker, if it reports one */
+  public @Nullable WorkerAdmission getAdmission() {
+    return _admission;
+  }
+
   public Date getLastUpdateTime() {
     return _lastUpdated;
   }
@@ -30,7 +43,9 @@ public class WorkerStatus {
 
   @Override
   public String toString() {
-    return String.format("%s (%s)", _statusCode, _lastUpdated);
+    return _admission == null
+        ? String.format("%s (%s)", _statusCode, _lastUpdated)
+        : String.format("%s (%s) %s", _statusCode, _lastUpdated, _admission);
   }
 
   public void updateStatus(StatusCode statusCode) {
@@ -1,6 +1,7 @@
 package org.batfish.coordinator;
 
 import static org.batfish.coordinator.BatfishWorkerServiceWorkExecutor.getRunArgs;
+import static org.batfish.coordinator.BatfishWorkerServiceWorkExecutor.getWorkerStatus;
 import static org.batfish.coordinator.BatfishWorkerServiceWorkExecutor.processLaunchResult;
 import static org.batfish.coordinator.SubmissionResult.Type.BUSY;
 import static org.batfish.coordinator.SubmissionResult.Type.ERROR;
@@ -14,6 +15,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Optional;
 import java.util.UUID;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -23,7 +25,9 @@ import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.LaunchResult;
 import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
+import org.batfish.common.WorkerAdmission;
 import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.coordinator.WorkerStatus.StatusCode;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.SnapshotId;
 import org.junit.Rule;
@@ -35,6 +39,24 @@ public final class BatfishWorkerServiceWorkExecutorTest {
 
   @Rule public ExpectedException _thrown = ExpectedException.none();
 
+  @Test
+  public void testGetWorkerStatus() {
+    assertThat(getWorkerStatus(null).getStatus(), equalTo(StatusCode.UNKNOWN));
+    {
+      WorkerAdmission admission =
+          new WorkerAdmission(1L, 4L, ImmutableMap.of("ANSWER", 2L), ImmutableMap.of("ANSWER", 1));
+      WorkerStatus status = getWorkerStatus(admission);
+      assertThat(status.getStatus(), equalTo(StatusCode.BUSY));
+      assertThat(status.getAdmission(), sameInstance(admission));
+    }
+    {
+      WorkerAdmission admission = new WorkerAdmission(1L, 4L, null, null);
+      WorkerStatus status = getWorkerStatus(admission);
+      assertThat(status.getStatus(), equalTo(StatusCode.IDLE));
+      assertThat(status.getAdmission(), sameInstance(admission));
+    }
+  }
+
   @Test
   public void testProcessLaunchResult() {
     String taskId = "foo";
@@ -43,6 +65,12 @@ public final class BatfishWorkerServiceWorkExecutorTest {
       SubmissionResult sr = processLaunchResult(lr, taskId, BATFISH_WORKER_SERVICE);
       assertThat(sr.getType(), equalTo(BUSY));
     }
+    {
+      LaunchResult lr = LaunchResult.busy("baz");
+      SubmissionResult sr = processLaunchResult(lr, taskId, BATFISH_WORKER_SERVICE);
+      assertThat(sr.getType(), equalTo(BUSY));
+      assertThat(sr.getBusyReason(), equalTo(Optional.of("baz")));
+    }
     {
       LaunchResult lr = LaunchResult.launched();
       SubmissionResult sr = processLaunchResult(lr, taskId, BATFISH_WORKER_SERVICE);
@@ -62,9 +62,12 @@ import org.apache.commons.io.IOUtils;
 import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.ColumnFilter;
 import org.batfish.common.ColumnSortOption;
 import org.batfish.common.Container;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.common.runtime.RuntimeData;
 import org.batfish.common.runtime.SnapshotRuntimeData;
@@ -574,6 +577,56 @@ public final class WorkMgrTest {
     }
   }
 
+  @Test
+  public void testAssignWorkPastRefusedWork() throws Exception {
+    String network = "network";
+    _manager.initNetwork(network, null);
+    createSnapshotWithMetadata(network, "snapshot1");
+    createSnapshotWithMetadata(network, "snapshot2");
+
+    // A worker that is too busy to parse, but can still answer questions.
+    List<WorkType> offered = new ArrayList<>();
+    WorkMgr manager =
+        new WorkMgr(
+            Main.getSettings(),
+            Main.getLogger(),
+            _idManager,
+            _storage,
+            (logger, settings) ->
+                work -> {
+                  WorkType workType = work.getDetails().getWorkType();
+                  offered.add(workType);
+                  return workType == WorkType.PARSING
+                      ? SubmissionResult.busy("parsing needs more heap")
+                      : SubmissionResult.success(() -> new Task(TaskStatus.InProgress));
+                });
+    QueuedWork parse1 = newQueuedWork(network, "snapshot1", WorkType.PARSING);
+    QueuedWork parse2 = newQueuedWork(network, "snapshot2", WorkType.PARSING);
+    QueuedWork answer = newQueuedWork(network, "snapshot1", WorkType.INDEPENDENT_ANSWERING);
+    manager.getWorkQueueMgr().queueUnassignedWork(parse1);
+    manager.getWorkQueueMgr().queueUnassignedWork(parse2);
+    manager.getWorkQueueMgr().queueUnassignedWork(answer);
+
+    manager.assignWork();
+
+    // The answer queued behind the refused parse is assigned, and the second parse is not offered.
+    assertThat(answer.getStatus(), equalTo(WorkStatusCode.ASSIGNED));
+    assertThat(parse1.getStatus(), equalTo(WorkStatusCode.UNASSIGNED));
+    assertThat(parse2.getStatus(), equalTo(WorkStatusCode.UNASSIGNED));
+    assertThat(offered, contains(WorkType.PARSING, WorkType.INDEPENDENT_ANSWERING));
+  }
+
+  private QueuedWork newQueuedWork(String network, String snapshot, WorkType workType) {
+    NetworkId networkId = _idManager.getNetworkId(network).get();
+    return new QueuedWork(
+        new WorkItem(network, snapshot),
+        WorkDetails.builder()
+            .setNetworkId(networkId)
+            .setSnapshotId(_idManager.getSnapshotId(snapshot, networkId).get())
+            .setWorkType(workType)
+            .build());
+  }
+
   @Test
   public void initNetworkWithContainerName() {
     String initResult = _manager.initNetwork("container", null);
@@ -2016,6 +2069,35 @@ public final class WorkMgrTest {
     _manager.processAnswerTable2(table, optionsProject);
   }
 
+  @Test
+  public void testProcessAnswerTable2SortedPage() {
+    String columnName = "val";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata(columnName, Schema.INTEGER, "foobar"))));
+    ImmutableList.of(3, 1, 2, 1, 3).forEach(val -> table.addRow(Row.of(columnName, val)));
+    AnswerRowsOptions optionsPage =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            2,
+            1,
+            ImmutableList.of(new ColumnSortOption(columnName, false)),
+            false);
+
+    TableView page = _manager.processAnswerTable2(table, optionsPage);
+
+    // Equal rows keep their order in the raw answer, as in a full stable sort.
+    assertThat(
+        page.getRows(),
+        equalTo(
+            ImmutableList.of(
+                new TableViewRow(3, Row.of(columnName, 1)),
+                new TableViewRow(2, Row.of(columnName, 2)))));
+    assertThat(page.getSummary().getNumResults(), equalTo(5));
+  }
+
   @Test
   public void testProcessAnswerTableUniqueRows() {
     String columnName = "val";
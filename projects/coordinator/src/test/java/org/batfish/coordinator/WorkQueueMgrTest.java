@@ -24,6 +24,7 @@ import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.coordinator.WorkDetails.WorkType;
 import org.batfish.coordinator.WorkQueueMgr.QueueType;
+import org.batfish.coordinator.WorkQueueMgr.QueueWaitStats;
 import org.batfish.coordinator.id.IdManager;
 import org.batfish.coordinator.queues.WorkQueue.Type;
 import org.batfish.datamodel.InitializationMetadata.ProcessingStatus;
@@ -1227,6 +1228,41 @@ public final class WorkQueueMgrTest {
     assertThat(_workQueueMgr.getLength(QueueType.INCOMPLETE), equalTo(1L));
   }
 
+  @Test
+  public void testGetQueueWaitStats() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    assertThat(_workQueueMgr.getQueueWaitStats(WorkType.UNKNOWN).getCount(), equalTo(0L));
+
+    WorkDetails.Builder builder =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get())
+            .setWorkType(WorkType.UNKNOWN);
+    _workQueueMgr.queueUnassignedWork(
+        new QueuedWork(new WorkItem(NETWORK, snapshot), builder.build()));
+    _workQueueMgr.queueUnassignedWork(
+        new QueuedWork(new WorkItem(NETWORK, snapshot), builder.build()));
+    QueuedWork work1 = doAction(new Action(ActionType.ASSIGN_SUCCESS, null));
+    QueuedWork work2 = doAction(new Action(ActionType.ASSIGN_SUCCESS, null));
+
+    long wait1 = work1.getDateAssigned().getTime() - work1.getDateCreated().getTime();
+    long wait2 = work2.getDateAssigned().getTime() - work2.getDateCreated().getTime();
+    QueueWaitStats stats = _workQueueMgr.getQueueWaitStats(WorkType.UNKNOWN);
+    assertThat(stats.getCount(), equalTo(2L));
+    assertThat(stats.getTotalMs(), equalTo(wait1 + wait2));
+    assertThat(stats.getMaxMs(), equalTo(Math.max(wait1, wait2)));
+    assertThat(
+        stats.toString(),
+        equalTo(
+            String.format(
+                "2 assigned, mean wait %d ms, max wait %d ms",
+                (wait1 + wait2) / 2, Math.max(wait1, wait2))));
+
+    // other work types are tracked separately
+    assertThat(_workQueueMgr.getQueueWaitStats(WorkType.PARSING).getCount(), equalTo(0L));
+  }
+
   @Test
   public void testGetWorkForChecking() throws Exception {
     String snapshot = "snapshot1";
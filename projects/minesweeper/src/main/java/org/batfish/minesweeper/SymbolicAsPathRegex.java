@@ -6,6 +6,7 @@ import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.routing_policy.as_path.AsPathRegexMatcher;
 
 @ParametersAreNonnullByDefault
 public class SymbolicAsPathRegex extends SymbolicRegex implements Comparable<SymbolicAsPathRegex> {
@@ -68,13 +69,17 @@ public class SymbolicAsPathRegex extends SymbolicRegex implements Comparable<Sym
      * matches AS paths that contain the AS number 40 anywhere. But to properly relate AS paths to
      * one another, for example to find their intersection, we need regexes that match completely.
      *
-     * <p>The simple approach below converts a possibly-partial regex into a complete one. It works
-     * because below we intersect the resulting automaton with AS_PATH_FSM, which notably includes
-     * the start-of-string and end-of-string characters. Note that the automaton library treats
-     * these as ordinary characters.
+     * <p>AsPathRegexMatcher translates the Java regex into a complete one over AS-path strings
+     * surrounded by start and end markers, which are the ^ and $ characters of AS_PATH_FSM. Regexes
+     * it cannot translate are made complete by surrounding them with ".*", which also works because
+     * the result is intersected with AS_PATH_FSM. Note that the automaton library treats ^ and $ as
+     * ordinary characters.
      */
-    String regex = ".*" + "(" + _regex + ")" + ".*";
-    return new RegExp(regex).toAutomaton().intersection(AS_PATH_FSM);
+    Automaton automaton = AsPathRegexMatcher.toAutomaton(_regex, '^', '$');
+    if (automaton == null) {
+      automaton = new RegExp(".*" + "(" + _regex + ")" + ".*").toAutomaton();
+    }
+    return automaton.intersection(AS_PATH_FSM);
   }
 
   @Override
@@ -354,7 +354,7 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
    * @param reference the reference snapshot
    * @return all results from analyzing those route policies
    */
-  private Stream<Row> comparePoliciesForNode(
+  private List<Row> comparePoliciesForNode(
       String node,
       Stream<RoutingPolicy> policies,
       Stream<RoutingPolicy> referencePolicies,
@@ -418,7 +418,8 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
                   currentPoliciesList.stream()
                       .flatMap(
                           currentPolicy ->
-                              comparePolicies(referencePolicy, currentPolicy, configAPs).stream()));
+                              comparePolicies(referencePolicy, currentPolicy, configAPs).stream()))
+          .collect(ImmutableList.toImmutableList());
     } else {
       // In this case we only compare policies with the same name.
       // Create a stream of policy tuples (referencePolicy, currentPolicy) for policies with the
@@ -444,7 +445,8 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
           .flatMap(
               policyTuple ->
                   comparePolicies(policyTuple.getFirst(), policyTuple.getSecond(), configAPs)
-                      .stream());
+                      .stream())
+          .collect(ImmutableList.toImmutableList());
     }
   }
 
@@ -472,14 +474,19 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
     SpecifierContext referenceContext = _batfish.specifierContext(reference);
     Set<String> currentNodes = _nodeSpecifier.resolve(currentContext);
     Set<String> referenceNodes = _nodeSpecifier.resolve(referenceContext);
-    // Only compare nodes that are in both snapshots.
-    Stream<String> nodes = currentNodes.stream().filter(referenceNodes::contains);
+    // Only compare nodes that are in both snapshots. Sorted to ensure consistent order.
+    // Materialized for efficient parallelism.
+    List<String> nodes =
+        currentNodes.stream()
+            .filter(referenceNodes::contains)
+            .sorted()
+            .collect(ImmutableList.toImmutableList());
 
-    // Using stream.sorted() to ensure consistent order.
+    // Each node is compared separately, with its own atomic predicates and a BDD factory per pair
+    // of policies, so nodes are compared in parallel.
     List<Row> rows =
-        nodes
-            .sorted()
-            .flatMap(
+        nodes.parallelStream()
+            .map(
                 node -> {
                   // If the referencePolicySpecifier is null then use the policies from
                   // policySpecifier and do a 1-1 comparison based on policy name equality.
@@ -503,6 +510,7 @@ public final class CompareRoutePoliciesAnswerer extends Answerer {
                         reference);
                   }
                 })
+            .flatMap(List::stream)
             .collect(ImmutableList.toImmutableList());
     TableAnswerElement answerElement =
         new TableAnswerElement(TestRoutePoliciesAnswerer.compareMetadata());
@@ -11,6 +11,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Range;
 import dk.brics.automaton.Automaton;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -19,7 +20,6 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.sf.javabdd.BDD;
@@ -45,6 +45,7 @@ import org.batfish.datamodel.answers.NextHopSelf;
 import org.batfish.datamodel.questions.BgpRoute;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.statement.Statement;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.minesweeper.AsPathRegexAtomicPredicates;
@@ -55,6 +56,7 @@ import org.batfish.minesweeper.SymbolicAsPathRegex;
 import org.batfish.minesweeper.SymbolicRegex;
 import org.batfish.minesweeper.bdd.BDDDomain;
 import org.batfish.minesweeper.bdd.BDDRoute;
+import org.batfish.minesweeper.bdd.BDDRoute.NextHopType;
 import org.batfish.minesweeper.bdd.ModelGeneration;
 import org.batfish.minesweeper.bdd.TransferBDD;
 import org.batfish.minesweeper.bdd.TransferReturn;
@@ -99,14 +101,23 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
           .setRemoteIp(Ip.parse("2.2.2.2"))
           .build();
 
-  /** Helper class that contains both a row and and Bgpv4Route for a result */
+  /**
+   * Helper class that contains both a row and and Bgpv4Route for a result, along with the
+   * environment and output next-hop type needed to simulate the route again. It keeps no BDDs, so
+   * that results do not keep the BDD factory of the analysis alive.
+   */
   private static class RowAndRoute {
     public final Bgpv4Route _route;
     public final Row _row;
+    public final Tuple<Predicate<String>, String> _env;
+    public final NextHopType _nextHopType;
 
-    public RowAndRoute(Bgpv4Route route, Row row) {
+    public RowAndRoute(
+        Bgpv4Route route, Row row, Tuple<Predicate<String>, String> env, NextHopType nextHopType) {
       this._route = route;
       this._row = row;
+      this._env = env;
+      this._nextHopType = nextHopType;
     }
   }
 
@@ -188,7 +199,8 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
       assert ModelGeneration.validateModel(
           fullModel, outputRoute, configAPs, _action, _direction, result);
 
-      return Optional.of(new RowAndRoute(inRoute, toRow(result)));
+      return Optional.of(
+          new RowAndRoute(inRoute, toRow(result), env, outputRoute.getNextHopType()));
     }
   }
 
@@ -208,6 +220,19 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
       Environment.Direction direction,
       Tuple<Predicate<String>, String> env,
       BDDRoute bddRoute) {
+    return simulatePolicy(policy, inRoute, direction, env, bddRoute.getNextHopType());
+  }
+
+  /**
+   * Produce the results of simulating the given route policy on the given input route, where the
+   * symbolic analysis found the output next hop to be of the given type.
+   */
+  private static Result<BgpRoute> simulatePolicy(
+      RoutingPolicy policy,
+      Bgpv4Route inRoute,
+      Environment.Direction direction,
+      Tuple<Predicate<String>, String> env,
+      NextHopType nextHopType) {
     Result<Bgpv4Route> simResult =
         TestRoutePoliciesAnswerer.simulatePolicy(
             policy,
@@ -216,7 +241,7 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
             direction,
             env.getFirst(),
             env.getSecond());
-    return toQuestionResult(simResult, bddRoute);
+    return toQuestionResult(simResult, nextHopType);
   }
 
   /**
@@ -231,14 +256,14 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
    * @return a version of the result suitable for output from this analysis
    */
   private static Result<BgpRoute> toQuestionResult(
-      Result<Bgpv4Route> result, BDDRoute outputRoute) {
+      Result<Bgpv4Route> result, NextHopType nextHopType) {
     Result<BgpRoute> qResult = TestRoutePoliciesAnswerer.toQuestionResult(result);
 
     if (result.getAction() == PERMIT) {
       // update the output route's next-hop if it was set to the local or remote IP;
       // rather than producing a concrete IP we use a special class that indicates that the
       // local (remote) IP is used
-      switch (outputRoute.getNextHopType()) {
+      switch (nextHopType) {
         case SELF:
           BgpRoute outRouteSelf =
               qResult.getOutputRoute().toBuilder().setNextHop(NextHopSelf.instance()).build();
@@ -463,9 +488,9 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
    *
    * @param policy the routing policy
    * @param configAPs an object providing the atomic predicates for the policy's owner configuration
-   * @return an optional result, if a behavior of interest was found
+   * @return the results, one per behavior of interest that was found
    */
-  private List<Row> searchPolicy(RoutingPolicy policy, ConfigAtomicPredicates configAPs) {
+  private List<RowAndRoute> searchPolicy(RoutingPolicy policy, ConfigAtomicPredicates configAPs) {
     List<TransferReturn> paths;
     TransferBDD tbdd;
     try {
@@ -494,7 +519,7 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
     BDD inConstraints =
         routeConstraintsToBDD(
             _inputConstraints, new BDDRoute(tbdd.getFactory(), configAPs), false, configAPs);
-    ImmutableList.Builder<Row> builder = ImmutableList.builder();
+    ImmutableList.Builder<RowAndRoute> builder = ImmutableList.builder();
     for (TransferReturn path : relevantPaths) {
       BDD pathAnnouncements = path.getSecond();
       BDDRoute outputRoute = path.getFirst();
@@ -516,7 +541,7 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
       Optional<RowAndRoute> result =
           constraintsToResult(intersection, policy, outConfigAPs, outputRoute);
       if (result.isPresent()) {
-        builder.add(result.get()._row);
+        builder.add(result.get());
         if (_pathOption == PathOption.SINGLE) {
           // return the first result we find
           break;
@@ -534,11 +559,14 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
   /**
    * Search all of the route policies of a particular node for behaviors of interest.
    *
+   * <p>Policies of the node that have the same statements behave the same way, so only the first of
+   * them is analyzed, and the routes found for it are simulated on the others.
+   *
    * @param node the node
    * @param policies all route policies in that node
    * @return all results from analyzing those route policies
    */
-  private Stream<Row> searchPoliciesForNode(
+  private List<Row> searchPoliciesForNode(
       String node, Set<RoutingPolicy> policies, NetworkSnapshot snapshot) {
     ConfigAtomicPredicates configAPs =
         new ConfigAtomicPredicates(
@@ -551,17 +579,38 @@ public final class SearchRoutePoliciesAnswerer extends Answerer {
             _asPathRegexes,
             policies);
 
-    return policies.stream().flatMap(policy -> searchPolicy(policy, configAPs).stream());
+    Map<List<Statement>, List<RowAndRoute>> resultsByStatements = new HashMap<>();
+    ImmutableList.Builder<Row> rows = ImmutableList.builder();
+    for (RoutingPolicy policy : policies) {
+      List<RowAndRoute> results = resultsByStatements.get(policy.getStatements());
+      if (results == null) {
+        results = searchPolicy(policy, configAPs);
+        resultsByStatements.put(policy.getStatements(), results);
+        results.forEach(result -> rows.add(result._row));
+      } else {
+        for (RowAndRoute result : results) {
+          rows.add(
+              toRow(
+                  simulatePolicy(
+                      policy, result._route, _direction, result._env, result._nextHopType)));
+        }
+      }
+    }
+    return rows.build();
   }
 
   @Override
   public AnswerElement answer(NetworkSnapshot snapshot) {
     SpecifierContext context = _batfish.specifierContext(snapshot);
+    // Each node is analyzed separately, with its own atomic predicates and a BDD factory per
+    // policy, so nodes are analyzed in parallel. Materialized for efficient parallelism.
+    List<String> nodes = ImmutableList.copyOf(_nodeSpecifier.resolve(context));
     List<Row> rows =
-        _nodeSpecifier.resolve(context).stream()
-            .flatMap(
+        nodes.parallelStream()
+            .map(
                 node ->
                     searchPoliciesForNode(node, _policySpecifier.resolve(node, context), snapshot))
+            .flatMap(List::stream)
             .collect(ImmutableList.toImmutableList());
 
     TableAnswerElement answerElement = new TableAnswerElement(TestRoutePoliciesAnswerer.metadata());
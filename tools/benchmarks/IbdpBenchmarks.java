@@ -0,0 +1,363 @@
+package tools.benchmarks;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.batfish.datamodel.ResolutionRestriction.alwaysTrue;
+import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Table.Cell;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.topology.IpOwners;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FibImpl;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.ForwardingAnalysisImpl;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.bgp.Ipv4UnicastAddressFamily;
+import org.batfish.datamodel.ospf.OspfArea;
+import org.batfish.datamodel.ospf.OspfInterfaceSettings;
+import org.batfish.datamodel.ospf.OspfNetworkType;
+import org.batfish.datamodel.ospf.OspfProcess;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.batfish.dataplane.rib.Rib;
+import org.batfish.main.Batfish;
+import org.batfish.main.BatfishTestUtils;
+import org.batfish.specifier.Location;
+import org.batfish.specifier.LocationInfo;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of the incremental data plane engine on synthetic leaf-spine fabrics.
+ *
+ * <p>{@link #computeDataPlane()} times the whole fixed point; the {@link Fabric} parameter selects
+ * whether that is dominated by IGP convergence ({@link Fabric#OSPF_AREAS}), BGP iterations ({@link
+ * Fabric#EBGP_CLOS}), or both ({@link Fabric#IBGP_FULL_MESH}). {@link #computeFibs()} and {@link
+ * #computeForwardingAnalysis()} time the phases that run after the fixed point, on its output.
+ *
+ * <p>To get machine-readable results, pass JMH's {@code -rf json -rff <file>} options, e.g.:
+ *
+ * <pre>
+ *   bazel run //tools/benchmarks:ibdpBenchmarks -- -p spines=4 -p leaves=64 -rf json -rff ibdp.json
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IbdpBenchmarks {
+
+  /** The routing design of the synthetic fabric. */
+  public enum Fabric {
+    /** eBGP between leaves and spines, with a private AS per leaf and one AS for all spines. */
+    EBGP_CLOS,
+    /** OSPF underlay in area 0, and a full mesh of iBGP sessions between leaf loopbacks. */
+    IBGP_FULL_MESH,
+    /** OSPF only, with each leaf and its uplinks in their own area and spines as ABRs. */
+    OSPF_AREAS,
+  }
+
+  private static final long SPINE_AS = 65000L;
+  private static final long FIRST_LEAF_AS = 65001L;
+  private static final long OSPF_BACKBONE_AREA = 0L;
+  private static final String OSPF_PROCESS_ID = "1";
+  private static final String ACCEPT_ALL = "ACCEPT_ALL";
+  private static final String REDISTRIBUTE_CONNECTED = "REDISTRIBUTE_CONNECTED";
+
+  @Param({"EBGP_CLOS", "IBGP_FULL_MESH", "OSPF_AREAS"})
+  public Fabric fabric;
+
+  @Param({"2", "4"})
+  public int spines;
+
+  @Param({"16", "64"})
+  public int leaves;
+
+  private TemporaryFolder _folder;
+  private Batfish _batfish;
+  private NetworkSnapshot _snapshot;
+  private Map<String, Configuration> _configs;
+  private List<Rib> _mainRibs;
+  private Map<String, Map<String, Fib>> _fibs;
+  private Topology _layer3Topology;
+  private IpOwners _ipOwners;
+  private Map<Location, LocationInfo> _locationInfo;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    _folder = new TemporaryFolder();
+    _folder.create();
+    _batfish = BatfishTestUtils.getBatfish(buildFabric(fabric, spines, leaves), _folder);
+    _snapshot = _batfish.getSnapshot();
+    _configs = _batfish.loadConfigurations(_snapshot);
+
+    // Inputs of the post-fixed-point phases
+    ComputeDataPlaneResult result = _batfish.getDataPlanePlugin().computeDataPlane(_snapshot);
+    DataPlane dataPlane = result._dataPlane;
+    _mainRibs = new ArrayList<>();
+    for (Cell<String, String, FinalMainRib> cell : dataPlane.getRibs().cellSet()) {
+      Rib rib = new Rib();
+      String vrf = cell.getColumnKey();
+      cell.getValue().getRoutes().forEach(r -> rib.mergeRoute(new AnnotatedRoute<>(r, vrf)));
+      _mainRibs.add(rib);
+    }
+    _fibs = dataPlane.getFibs();
+    _layer3Topology = result._topologies.getLayer3Topology();
+    _ipOwners = _batfish.getTopologyProvider().getInitialIpOwners(_snapshot);
+    _locationInfo = computeLocationInfo(_ipOwners, _configs);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    _folder.delete();
+  }
+
+  @Benchmark
+  public DataPlane computeDataPlane() {
+    return _batfish.getDataPlanePlugin().computeDataPlane(_snapshot)._dataPlane;
+  }
+
+  @Benchmark
+  public long computeFibs() {
+    return _mainRibs.stream()
+        .mapToLong(rib -> new FibImpl(rib, alwaysTrue()).allEntries().size())
+        .sum();
+  }
+
+  @Benchmark
+  public ForwardingAnalysis computeForwardingAnalysis() {
+    return new ForwardingAnalysisImpl(_configs, _fibs, _layer3Topology, _locationInfo, _ipOwners);
+  }
+
+  /*
+   * Addressing:
+   * - Loopback of spine s: 1.0.0.0 + s, of leaf l: 2.0.0.0 + l
+   * - Link between leaf l and spine s: 10.0.0.0 + 2 * (l * spines + s) /31, spine side first
+   * - Host subnet of leaf l: 100.0.0.0 + 256 * l /24
+   */
+
+  private static ConcreteInterfaceAddress spineLoopback(int s) {
+    return ConcreteInterfaceAddress.create(Ip.create(Ip.parse("1.0.0.0").asLong() + s), 32);
+  }
+
+  private static ConcreteInterfaceAddress leafLoopback(int l) {
+    return ConcreteInterfaceAddress.create(Ip.create(Ip.parse("2.0.0.0").asLong() + l), 32);
+  }
+
+  private static ConcreteInterfaceAddress link(int spines, int l, int s, boolean spineSide) {
+    long start = Ip.parse("10.0.0.0").asLong() + 2L * (l * spines + s);
+    return ConcreteInterfaceAddress.create(Ip.create(start + (spineSide ? 0 : 1)), 31);
+  }
+
+  private static ConcreteInterfaceAddress hostSubnet(int l) {
+    return ConcreteInterfaceAddress.create(
+        Ip.create(Ip.parse("100.0.0.1").asLong() + 256L * l), 24);
+  }
+
+  private static SortedMap<String, Configuration> buildFabric(
+      Fabric fabric, int spines, int leaves) {
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    for (int s = 0; s < spines; s++) {
+      Configuration c = newNode("spine" + s);
+      Vrf vrf = c.getVrfs().get(DEFAULT_VRF_NAME);
+      List<Interface> links = new ArrayList<>();
+      for (int l = 0; l < leaves; l++) {
+        links.add(newInterface(c, vrf, "leaf" + l, link(spines, l, s, true)));
+      }
+      Interface loopback = newInterface(c, vrf, "loopback0", spineLoopback(s));
+      Ip routerId = loopback.getConcreteAddress().getIp();
+      switch (fabric) {
+        case EBGP_CLOS:
+          BgpProcess bgp = newBgpProcess(c, vrf, routerId);
+          for (int l = 0; l < leaves; l++) {
+            addBgpPeer(
+                bgp,
+                link(spines, l, s, true).getIp(),
+                link(spines, l, s, false).getIp(),
+                SPINE_AS,
+                FIRST_LEAF_AS + l);
+          }
+          break;
+        case IBGP_FULL_MESH:
+          addOspfArea(
+              newOspfProcess(vrf, routerId),
+              OSPF_BACKBONE_AREA,
+              links,
+              ImmutableList.of(loopback));
+          break;
+        case OSPF_AREAS:
+          OspfProcess ospf = newOspfProcess(vrf, routerId);
+          addOspfArea(ospf, OSPF_BACKBONE_AREA, ImmutableList.of(), ImmutableList.of(loopback));
+          for (int l = 0; l < leaves; l++) {
+            addOspfArea(ospf, l + 1, ImmutableList.of(links.get(l)), ImmutableList.of());
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported fabric: " + fabric);
+      }
+      configs.put(c.getHostname(), c);
+    }
+    for (int l = 0; l < leaves; l++) {
+      Configuration c = newNode("leaf" + l);
+      Vrf vrf = c.getVrfs().get(DEFAULT_VRF_NAME);
+      List<Interface> links = new ArrayList<>();
+      for (int s = 0; s < spines; s++) {
+        links.add(newInterface(c, vrf, "spine" + s, link(spines, l, s, false)));
+      }
+      Interface loopback = newInterface(c, vrf, "loopback0", leafLoopback(l));
+      Interface hosts = newInterface(c, vrf, "hosts", hostSubnet(l));
+      Ip routerId = loopback.getConcreteAddress().getIp();
+      switch (fabric) {
+        case EBGP_CLOS:
+          BgpProcess bgp = newBgpProcess(c, vrf, routerId);
+          for (int s = 0; s < spines; s++) {
+            addBgpPeer(
+                bgp,
+                link(spines, l, s, false).getIp(),
+                link(spines, l, s, true).getIp(),
+                FIRST_LEAF_AS + l,
+                SPINE_AS);
+          }
+          break;
+        case IBGP_FULL_MESH:
+          addOspfArea(
+              newOspfProcess(vrf, routerId),
+              OSPF_BACKBONE_AREA,
+              links,
+              ImmutableList.of(loopback));
+          BgpProcess ibgp = newBgpProcess(c, vrf, routerId);
+          for (int peer = 0; peer < leaves; peer++) {
+            if (peer != l) {
+              addBgpPeer(ibgp, routerId, leafLoopback(peer).getIp(), SPINE_AS, SPINE_AS);
+            }
+          }
+          break;
+        case OSPF_AREAS:
+          addOspfArea(
+              newOspfProcess(vrf, routerId), l + 1, links, ImmutableList.of(loopback, hosts));
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported fabric: " + fabric);
+      }
+      configs.put(c.getHostname(), c);
+    }
+    return configs.build();
+  }
+
+  private static Configuration newNode(String hostname) {
+    Configuration c =
+        Configuration.builder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    Vrf.builder().setOwner(c).setName(DEFAULT_VRF_NAME).build();
+    RoutingPolicy.builder()
+        .setOwner(c)
+        .setName(ACCEPT_ALL)
+        .addStatement(Statements.ExitAccept.toStaticStatement())
+        .build();
+    RoutingPolicy.builder()
+        .setOwner(c)
+        .setName(REDISTRIBUTE_CONNECTED)
+        .addStatement(
+            new If(
+                new MatchProtocol(RoutingProtocol.CONNECTED),
+                ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+        .build();
+    return c;
+  }
+
+  private static Interface newInterface(
+      Configuration c, Vrf vrf, String name, ConcreteInterfaceAddress address) {
+    return Interface.builder().setOwner(c).setVrf(vrf).setName(name).setAddress(address).build();
+  }
+
+  private static BgpProcess newBgpProcess(Configuration c, Vrf vrf, Ip routerId) {
+    BgpProcess bgp = BgpProcess.testBgpProcess(routerId);
+    bgp.setMultipathEbgp(true);
+    bgp.setMultipathIbgp(true);
+    bgp.setRedistributionPolicy(REDISTRIBUTE_CONNECTED);
+    c.setExportBgpFromBgpRib(true);
+    vrf.setBgpProcess(bgp);
+    return bgp;
+  }
+
+  private static void addBgpPeer(
+      BgpProcess bgp, Ip localIp, Ip peerIp, long localAs, long remoteAs) {
+    BgpActivePeerConfig.builder()
+        .setBgpProcess(bgp)
+        .setLocalIp(localIp)
+        .setPeerAddress(peerIp)
+        .setLocalAs(localAs)
+        .setRemoteAs(remoteAs)
+        .setIpv4UnicastAddressFamily(
+            Ipv4UnicastAddressFamily.builder().setExportPolicy(ACCEPT_ALL).build())
+        .build();
+  }
+
+  private static OspfProcess newOspfProcess(Vrf vrf, Ip routerId) {
+    return OspfProcess.builder()
+        .setVrf(vrf)
+        .setProcessId(OSPF_PROCESS_ID)
+        .setRouterId(routerId)
+        .setReferenceBandwidth(1e8)
+        .build();
+  }
+
+  /** Adds an area to the process with the given active and passive interfaces. */
+  private static void addOspfArea(
+      OspfProcess ospf, long area, List<Interface> active, List<Interface> passive) {
+    OspfArea.Builder areaBuilder = OspfArea.builder().setNumber(area).setOspfProcess(ospf);
+    for (Interface iface : active) {
+      iface.setOspfSettings(ospfSettings(area, false));
+      areaBuilder.addInterface(iface.getName());
+    }
+    for (Interface iface : passive) {
+      iface.setOspfSettings(ospfSettings(area, true));
+      areaBuilder.addInterface(iface.getName());
+    }
+    areaBuilder.build();
+  }
+
+  private static OspfInterfaceSettings ospfSettings(long area, boolean passive) {
+    return OspfInterfaceSettings.defaultSettingsBuilder()
+        .setProcess(OSPF_PROCESS_ID)
+        .setAreaName(area)
+        .setCost(1)
+        .setNetworkType(OspfNetworkType.POINT_TO_POINT)
+        .setPassive(passive)
+        .build();
+  }
+}